@@ -17,7 +17,9 @@
 #       CUSTOM SMT Based Kafka MySQL Source Connector
 #
 #       - Filters: Only publishes if cardNumber AND tkcardNumber are populated
-#       - Key:     Plain string "AZ1" (not JSON, not Struct)
+#       - Key:     Plain string "AZ1" (not JSON, not Struct), set by FilterAndExtractKey key.value in the same pass
+#       - Fields:  Optionally only SOURCE_VALUE_FIELDS are published
+#       - Or, with PARTITION_KEY_FIELD=tkcardNumber: key is the card, AZ in header "az", spread over the partitions
 #
 #       The idea is 2 of these can be deployed, one per MySQL source, each inbound stream labelled by either AZ1 or AZ2 as original source.
 #
@@ -47,19 +49,81 @@ SCHEMA_HISTORY_TOPIC="${SCHEMA_HISTORY_TOPIC:-schema-history-jnl-acq}"
 # Filter Configuration
 FILTER_FIELDS="${FILTER_FIELDS:-cardNumber,tkcardNumber}"
 FILTER_MODE="${FILTER_MODE:-all}"
+# Optional predicate, e.g. "operationType IN (PUR, REF)"
+FILTER_CONDITION="${FILTER_CONDITION:-}"
+# Optional projection, value columns published to Kafka, e.g. "acqJnlSeqNumber,cardNumber,tkcardNumber,__deleted"
+# Empty publishes all columns
+SOURCE_VALUE_FIELDS="${SOURCE_VALUE_FIELDS:-}"
+
+# Partitioning, with PARTITION_KEY_FIELD set (e.g. tkcardNumber) the Kafka key is that field, the AZ (CONSTANT_KEY)
+# goes in the AZ_HEADER header and the partition is hash(key) % TOPIC_PARTITIONS, so one AZ spreads over the topic
+# and the sinks can run more than one task. Empty = constant key CONSTANT_KEY, one partition per AZ (default)
+PARTITION_KEY_FIELD="${PARTITION_KEY_FIELD:-}"
+AZ_HEADER="${AZ_HEADER:-az}"
+# Partition count of TARGET_TOPIC, 0 = leave it to the producer (hashes the same key the same way)
+TOPIC_PARTITIONS="${TOPIC_PARTITIONS:-0}"
+
+# Copy the MySQL commit time and binlog position into the headers source_ts_ms / source_pos (AddSourceHeaders),
+# the sink's MeasureLag (jnl_acq_redis_sink-SMT.sh MEASURE_LAG=true) reports the commit to Redis lag from them
+SOURCE_HEADERS="${SOURCE_HEADERS:-false}"
+
+# PRINT_CONFIG=true prints only the connector JSON and exits without touching Connect, e.g. for the offline replay:
+# PRINT_CONFIG=true ./jnl_acq_mysql_source-SMT.sh > connector.json (see kafka-custom-smt ChainReplay)
+PRINT_CONFIG="${PRINT_CONFIG:-false}"
+if [ "$PRINT_CONFIG" = "true" ]; then
+    exec 3>&1 1>/dev/null
+fi
 
 echo "=================================================="
 echo "CONNECTOR WITH CUSTOM SMT"
 echo "=================================================="
 echo "Filter: Only messages with ${FILTER_FIELDS} populated"
-echo "Key:    Plain string \"${CONSTANT_KEY}\""
+if [ -z "$PARTITION_KEY_FIELD" ]; then
+    echo "Key:    Plain string \"${CONSTANT_KEY}\""
+else
+    echo "Key:    ${PARTITION_KEY_FIELD}, header ${AZ_HEADER}=${CONSTANT_KEY}"
+fi
+echo "Fields: ${SOURCE_VALUE_FIELDS:-all}"
 echo "Topic:  ${TARGET_TOPIC}"
+echo "Source headers: ${SOURCE_HEADERS}"
 echo ""
 
 # Delete old connector
 echo "Deleting old connector (if exists)..."
-curl -s -X DELETE ${KAFKA_CONNECT_URL}/connectors/${CONNECTOR_NAME} > /dev/null 2>&1
-sleep 3
+if [ "$PRINT_CONFIG" != "true" ]; then
+    curl -s -X DELETE ${KAFKA_CONNECT_URL}/connectors/${CONNECTOR_NAME} > /dev/null 2>&1
+    sleep 3
+fi
+
+# Build optional filter condition config
+FILTER_CONDITION_CONFIG=""
+if [ ! -z "$FILTER_CONDITION" ]; then
+    FILTER_CONDITION_CONFIG="\"transforms.filterAndKey.filter.condition\": \"${FILTER_CONDITION}\","
+fi
+
+# Build optional projection config
+SOURCE_VALUE_FIELDS_CONFIG=""
+if [ ! -z "$SOURCE_VALUE_FIELDS" ]; then
+    SOURCE_VALUE_FIELDS_CONFIG="\"transforms.filterAndKey.include\": \"${SOURCE_VALUE_FIELDS}\","
+fi
+
+# Build key config, constant AZ key or card key + AZ header
+if [ -z "$PARTITION_KEY_FIELD" ]; then
+    KEY_CONFIG="\"transforms.filterAndKey.key.value\": \"${CONSTANT_KEY}\","
+else
+    KEY_CONFIG="\"transforms.filterAndKey.key.value.field\": \"${PARTITION_KEY_FIELD}\",
+      \"transforms.filterAndKey.header.name\": \"${AZ_HEADER}\",
+      \"transforms.filterAndKey.header.value\": \"${CONSTANT_KEY}\",
+      \"transforms.filterAndKey.partition.count\": \"${TOPIC_PARTITIONS}\","
+fi
+
+# Build optional source headers step, reads the Debezium envelope so it goes before unwrap
+SOURCE_HEADERS_TRANSFORM=""
+SOURCE_HEADERS_CONFIG=""
+if [ "$SOURCE_HEADERS" = "true" ]; then
+    SOURCE_HEADERS_TRANSFORM="sourceHeaders,"
+    SOURCE_HEADERS_CONFIG="\"transforms.sourceHeaders.type\": \"com.token.kafka.connect.transforms.AddSourceHeaders\","
+fi
 
 # Create connector with custom SMT
 CONNECTOR_CONFIG=$(cat <<EOF
@@ -83,29 +147,30 @@ CONNECTOR_CONFIG=$(cat <<EOF
       "key.converter": "org.apache.kafka.connect.storage.StringConverter",
       "value.converter": "org.apache.kafka.connect.json.JsonConverter",
       "value.converter.schemas.enable": "false",
-      "transforms": "route,unwrap,addKeyField,extractKey,filterAndKey,removeKeyField",
+      "transforms": "route,${SOURCE_HEADERS_TRANSFORM}unwrap,filterAndKey",
       "transforms.route.type": "io.debezium.transforms.ByLogicalTableRouter",
       "transforms.route.topic.regex": "${MYSQL_HOST_NAME}.${MYSQL_DATABASE}.${TABLE_NAME}",
       "transforms.route.topic.replacement": "${TARGET_TOPIC}",
+      ${SOURCE_HEADERS_CONFIG}
       "transforms.unwrap.type": "io.debezium.transforms.ExtractNewRecordState",
       "transforms.unwrap.drop.tombstones": "false",
       "transforms.unwrap.delete.handling.mode": "rewrite",
-      "transforms.addKeyField.type": "org.apache.kafka.connect.transforms.InsertField\$Value",
-      "transforms.addKeyField.static.field": "key",
-      "transforms.addKeyField.static.value": "${CONSTANT_KEY}",
-      "transforms.extractKey.type": "org.apache.kafka.connect.transforms.ValueToKey",
-      "transforms.extractKey.fields": "key",
+      ${FILTER_CONDITION_CONFIG}
+      ${SOURCE_VALUE_FIELDS_CONFIG}
       "transforms.filterAndKey.type": "com.token.kafka.connect.transforms.FilterAndExtractKey",
-      "transforms.filterAndKey.key.field": "key",
+      ${KEY_CONFIG}
       "transforms.filterAndKey.filter.fields": "${FILTER_FIELDS}",
-      "transforms.filterAndKey.filter.mode": "${FILTER_MODE}",
-      "transforms.removeKeyField.type": "org.apache.kafka.connect.transforms.ReplaceField\$Value",
-      "transforms.removeKeyField.exclude": "key"
+      "transforms.filterAndKey.filter.mode": "${FILTER_MODE}"
     }
   }
 EOF
 )
 
+if [ "$PRINT_CONFIG" = "true" ]; then
+    echo "$CONNECTOR_CONFIG" >&3
+    exit 0
+fi
+
 echo "Creating connector..."
 RESPONSE=$(echo "$CONNECTOR_CONFIG" | curl -s -w "\nHTTP_STATUS:%{http_code}" -X POST ${KAFKA_CONNECT_URL}/connectors \
   -H "Content-Type: application/json" \
@@ -30,6 +30,9 @@
 #       The idea is to deploy 2 of these, one per required REDIS datastore, i.e. all MySQL records originating from AZ1, with key=AZ1 being send to the AZ1 REDIS KV Datastore.
 #       and likewise for MySQL sourced records from AZ2 going to the AZ2 Redis KV Datastore.
 #
+#       Deleted MySQL rows (Debezium __deleted=true) reach formatRedisKey with __deleted kept, which turns them into
+#       a null value for the formatted key, the sink deletes that key (RedisSinkConnector: UNLINK).
+#
 #       The REDIS datastores are configured with a (maxmemory 256mb) size to manage data retension based on space utilised,
 #       Note REDIS keeps data based on LRU policy, NOT FIFO, to manage space used see <Project root>/redis/purge.sh
 #
@@ -39,6 +42,7 @@
 #           "tcard:${key}"        -> "tkcard:4111111111111111"
 #           "az1:tkcard:${key}"   -> "az1:tkcard:4111111111111111"
 #           "${key}:v1"           -> "4111111111111111:v1"
+#           "${header.az}:tkcard:${key}" -> "AZ1:tkcard:4111111111111111" (with AZ_HEADER=az)
 #
 #///////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -51,6 +55,11 @@ CONNECTOR_NAME="${CONNECTOR_NAME:-redis-sink-jnl-acq-az1}"
 # Kafka Configuration
 SOURCE_TOPIC="${SOURCE_TOPIC:-jnl_acq}"
 KAFKA_KEY_FILTER="${KAFKA_KEY_FILTER:-AZ1}"
+# Set to "az" when the source keys by card and tags the AZ in a header (jnl_acq_mysql_source-SMT.sh PARTITION_KEY_FIELD),
+# KAFKA_KEY_FILTER is then matched against that header. Empty = match the Kafka key
+AZ_HEADER="${AZ_HEADER:-}"
+# More than 1 only helps when the AZ is spread over partitions (AZ_HEADER)
+TASKS_MAX="${TASKS_MAX:-1}"
 
 # Redis Configuration
 REDIS_HOST="${REDIS_HOST:-redis}"
@@ -65,25 +74,60 @@ REDIS_KEY_FIELD="${REDIS_KEY_FIELD:-tkcardNumber}"
 REDIS_VALUE_FIELDS="${REDIS_VALUE_FIELDS:-acqJnlSeqNumber,cardNumber}"
 
 REDIS_KEY_PATTERN="${REDIS_KEY_PATTERN:-tkcard:\${key}}"
+
+# "binary" stores byte[] keys, a namespace tag byte (REDIS_KEY_TAG, 0..63, in place of the pattern's prefix) plus
+# the card token packed as BCD or int64 (REDIS_KEY_BINARY_FORMAT), 9 bytes instead of e.g. 27 for az1:tkcard:<card>.
+# REDIS_KEY_PATTERN is not used then. Readers look keys up with RedisKeyCodec. Default "string"
+REDIS_KEY_ENCODING="${REDIS_KEY_ENCODING:-string}"
+REDIS_KEY_TAG="${REDIS_KEY_TAG:-1}"
+REDIS_KEY_BINARY_FORMAT="${REDIS_KEY_BINARY_FORMAT:-bcd}"
+
+# Parse only the fields the chain uses (ProjectingJsonConverter) instead of the whole JNL_ACQ row (JsonConverter)
+PROJECT_JSON="${PROJECT_JSON:-false}"
+
+# Skip writes whose projected value did not change (SuppressUnchanged), keys remembered. 0 = off (default)
+SUPPRESS_CACHE_SIZE="${SUPPRESS_CACHE_SIZE:-0}"
+
+# Report the MySQL commit to Redis lag per AZ over JMX (MeasureLag), needs SOURCE_HEADERS=true on the sources
+MEASURE_LAG="${MEASURE_LAG:-false}"
+# Also write the lag (ms) into the Redis value under this field, e.g. "lagMs". Empty = value unchanged
+LAG_FIELD="${LAG_FIELD:-}"
+
+# PRINT_CONFIG=true prints only the connector JSON and exits without touching Connect, e.g. for the offline replay:
+# PRINT_CONFIG=true ./jnl_acq_redis_sink-SMT.sh > connector.json (see kafka-custom-smt ChainReplay)
+PRINT_CONFIG="${PRINT_CONFIG:-false}"
+if [ "$PRINT_CONFIG" = "true" ]; then
+    exec 3>&1 1>/dev/null
+fi
 #export REDIS_KEY_PATTERN="az1:tkcard:\${key}"
 
 echo "=================================================="
 echo "REDIS SINK CONNECTOR - ${KAFKA_KEY_FILTER}"
 echo "=================================================="
 echo "Source Topic: ${SOURCE_TOPIC}"
-echo "Filter: Only messages with Kafka key = \"${KAFKA_KEY_FILTER}\""
+echo "Filter: Only messages with ${AZ_HEADER:-Kafka key} = \"${KAFKA_KEY_FILTER}\""
+echo "Tasks:  ${TASKS_MAX}"
 echo ""
 echo "Redis Structure:"
 echo "  Key Field:    ${REDIS_KEY_FIELD}"
 echo "  Key Pattern:  ${REDIS_KEY_PATTERN}"
+echo "  Key Encoding: ${REDIS_KEY_ENCODING}"
 echo "  Value Fields: ${REDIS_VALUE_FIELDS}"
 echo "  Redis Server: ${REDIS_HOST}:${REDIS_PORT} (DB: ${REDIS_DATABASE})"
+echo "  Suppress unchanged: ${SUPPRESS_CACHE_SIZE} keys"
+echo "  Projecting converter: ${PROJECT_JSON}"
+echo "  Measure lag: ${MEASURE_LAG}"
 echo ""
 
 # Delete old connector
 echo "Deleting old connector (if exists)..."
-curl -s -X DELETE ${KAFKA_CONNECT_URL}/connectors/${CONNECTOR_NAME} > /dev/null 2>&1
-sleep 2
+if [ "$PRINT_CONFIG" != "true" ]; then
+    curl -s -X DELETE ${KAFKA_CONNECT_URL}/connectors/${CONNECTOR_NAME} > /dev/null 2>&1
+    sleep 2
+fi
+
+# Sink connector, com.token.kafka.connect.redis.RedisSinkConnector (pipelined, from the SMT jar) takes the same redis.* settings
+REDIS_CONNECTOR_CLASS=${REDIS_CONNECTOR_CLASS:-com.github.jcustenborder.kafka.connect.redis.RedisSinkConnector}
 
 # Build Redis password config
 REDIS_PASSWORD_CONFIG=""
@@ -91,29 +135,68 @@ if [ ! -z "$REDIS_PASSWORD" ]; then
     REDIS_PASSWORD_CONFIG="\"redis.password\": \"${REDIS_PASSWORD}\","
 fi
 
+# Build optional suppression step, after the projection, before the JSON serialisation
+SUPPRESS_TRANSFORM=""
+SUPPRESS_CONFIG=""
+if [ "$SUPPRESS_CACHE_SIZE" -gt 0 ]; then
+    SUPPRESS_TRANSFORM="suppressUnchanged,"
+    SUPPRESS_CONFIG="\"transforms.suppressUnchanged.type\": \"com.token.kafka.connect.transforms.SuppressUnchanged\",
+        \"transforms.suppressUnchanged.cache.size\": \"${SUPPRESS_CACHE_SIZE}\",
+        \"transforms.suppressUnchanged.ignore.fields\": \"createdAt\","
+fi
+
+# Build optional lag measurement step, last before the JSON serialisation
+LAG_TRANSFORM=""
+LAG_CONFIG=""
+if [ "$MEASURE_LAG" = "true" ]; then
+    LAG_TRANSFORM="measureLag,"
+    LAG_CONFIG="\"transforms.measureLag.type\": \"com.token.kafka.connect.transforms.MeasureLag\",
+        \"transforms.measureLag.az\": \"${KAFKA_KEY_FILTER}\",
+        \"transforms.measureLag.az.header\": \"${AZ_HEADER}\",
+        \"transforms.measureLag.lag.field\": \"${LAG_FIELD}\",
+        \"transforms.measureLag.metrics.name\": \"${CONNECTOR_NAME}\","
+fi
+
+# Build the key encoding, binary keys carry the tag instead of the pattern's prefix
+KEY_ENCODING_CONFIG=""
+if [ "$REDIS_KEY_ENCODING" = "binary" ]; then
+    REDIS_KEY_PATTERN='${key}'
+    KEY_ENCODING_CONFIG="\"transforms.formatRedisKey.key.encoding\": \"binary\",
+        \"transforms.formatRedisKey.key.binary.tag\": \"${REDIS_KEY_TAG}\",
+        \"transforms.formatRedisKey.key.binary.format\": \"${REDIS_KEY_BINARY_FORMAT}\","
+fi
+
+# Build the value converter, the projecting one reads only the fields selectFields keeps
+VALUE_CONVERTER_CONFIG="\"value.converter\": \"org.apache.kafka.connect.json.JsonConverter\",
+        \"value.converter.schemas.enable\": \"false\","
+if [ "$PROJECT_JSON" = "true" ]; then
+    VALUE_CONVERTER_CONFIG="\"value.converter\": \"com.token.kafka.connect.converters.ProjectingJsonConverter\",
+        \"value.converter.fields\": \"${REDIS_VALUE_FIELDS},${REDIS_KEY_FIELD},__deleted\","
+fi
+
 # Create connector
 CONNECTOR_CONFIG=$(cat <<EOF
     {
     "name": "${CONNECTOR_NAME}",
     "config": {
-        "connector.class": "com.github.jcustenborder.kafka.connect.redis.RedisSinkConnector",
-        "tasks.max": "1",
+        "connector.class": "${REDIS_CONNECTOR_CLASS}",
+        "tasks.max": "${TASKS_MAX}",
         "topics": "${SOURCE_TOPIC}",
         "redis.hosts": "${REDIS_HOST}:${REDIS_PORT}",
         "redis.database": "${REDIS_DATABASE}",
         ${REDIS_PASSWORD_CONFIG}
         "key.converter": "org.apache.kafka.connect.storage.StringConverter",
-        "value.converter": "org.apache.kafka.connect.json.JsonConverter",
-        "value.converter.schemas.enable": "false",
-        "transforms": "filterKey,addTimestamp,selectFields,extractRedisKey,flattenKey,formatRedisKey,removeTkCardNumber,valueToJsonString",
+        ${VALUE_CONVERTER_CONFIG}
+        "transforms": "filterKey,addTimestamp,selectFields,extractRedisKey,flattenKey,formatRedisKey,removeTkCardNumber,${SUPPRESS_TRANSFORM}${LAG_TRANSFORM}valueToJsonString",
         "transforms.filterKey.type": "com.token.kafka.connect.transforms.FilterByKafkaKey",
         "transforms.filterKey.key.value": "${KAFKA_KEY_FILTER}",
+        "transforms.filterKey.header.name": "${AZ_HEADER}",
         "transforms.addTimestamp.type": "com.token.kafka.connect.transforms.AddTimestamp",
         "transforms.addTimestamp.timestamp.field": "createdAt",
         "transforms.addTimestamp.timestamp.format": "iso8601",
         "transforms.addTimestamp.timestamp.timezone": "Africa/Johannesburg",
         "transforms.selectFields.type": "org.apache.kafka.connect.transforms.ReplaceField\$Value",
-        "transforms.selectFields.include": "${REDIS_VALUE_FIELDS},${REDIS_KEY_FIELD},createdAt",
+        "transforms.selectFields.include": "${REDIS_VALUE_FIELDS},${REDIS_KEY_FIELD},createdAt,__deleted",
         "transforms.extractRedisKey.type": "org.apache.kafka.connect.transforms.ValueToKey",
         "transforms.extractRedisKey.fields": "${REDIS_KEY_FIELD}",
         "transforms.flattenKey.type": "org.apache.kafka.connect.transforms.ExtractField\$Key",
@@ -121,14 +204,22 @@ CONNECTOR_CONFIG=$(cat <<EOF
         "transforms.formatRedisKey.type": "com.token.kafka.connect.transforms.RedisKeyFormatter",
         "transforms.formatRedisKey.key.pattern": "${REDIS_KEY_PATTERN}",
         "transforms.formatRedisKey.key.pattern.null.handling": "pass",
+        ${KEY_ENCODING_CONFIG}
         "transforms.removeTkCardNumber.type": "org.apache.kafka.connect.transforms.ReplaceField\$Value",
-        "transforms.removeTkCardNumber.exclude": "${REDIS_KEY_FIELD}",
+        "transforms.removeTkCardNumber.exclude": "${REDIS_KEY_FIELD},__deleted",
+        ${SUPPRESS_CONFIG}
+        ${LAG_CONFIG}
         "transforms.valueToJsonString.type": "com.token.kafka.connect.transforms.ValueToJsonString"
         }
     }
 EOF
 )
 
+if [ "$PRINT_CONFIG" = "true" ]; then
+    echo "$CONNECTOR_CONFIG" >&3
+    exit 0
+fi
+
 echo "Creating connector..."
 RESPONSE=$(echo "$CONNECTOR_CONFIG" | curl -s -w "\nHTTP_STATUS:%{http_code}" -X POST ${KAFKA_CONNECT_URL}/connectors \
   -H "Content-Type: application/json" \
@@ -173,6 +264,14 @@ for i in {1..6}; do
         EXAMPLE_CARD="4111111111111111"
         EXAMPLE_KEY=$(echo "${REDIS_KEY_PATTERN}" | sed "s/\${key}/${EXAMPLE_CARD}/g")
         
+        if [ "$REDIS_KEY_ENCODING" = "binary" ]; then
+            echo "Binary keys (tag ${REDIS_KEY_TAG}, ${REDIS_KEY_BINARY_FORMAT}), print the key of a card for redis-cli with:"
+            echo "  java -cp \"target/kafka-connect-token-smt-1.0.0.jar:target/connect-libs/*\" \\"
+            echo "      com.token.kafka.connect.transforms.RedisKeyCodec encode ${REDIS_KEY_TAG} ${EXAMPLE_CARD} ${REDIS_KEY_BINARY_FORMAT}"
+            echo "  (from creSMT/kafka-custom-smt after mvn package, target/connect-libs holds the Kafka Connect libs)"
+            echo ""
+        fi
+
         echo "Example Redis entry:"
         echo "  redis> GET \"${EXAMPLE_KEY}\""
         echo "  {\"acqJnlSeqNumber\":12345,\"cardNumber\":\"10% off\",\"createdAt\":\"2026-02-14T10:30:45.123Z\"}"
@@ -0,0 +1,132 @@
+#!/bin/bash
+
+# //////////////////////////////////////////////////////////////////////////////////////////////////////
+#
+#       Project         :   Kafka Connect Source/Sink Connector SMT Function
+#
+#       File            :   jnl_acq_redis_sink-routed.sh
+#
+#       Description     :   Kafka Connect Source/Sink Connector SMT Function
+#
+#       Created     	  :   Feb 2026
+#
+#       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+#
+#       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+#
+#       One Redis sink connector for all AZs, replaces deploy-az1-with-pattern.sh + deploy-az2-with-pattern.sh.
+#
+#       jnl_acq is read (and deserialised / transformed) once instead of once per AZ. PrepareRedisRecord keeps
+#       the Kafka key (AZ1 / AZ2) in an "az" header, RedisSinkConnector sends every record to the Redis of its
+#       AZ, each over its own pipelined connection, so a slow AZ does not hold up the other.
+#
+#       When the source already tags the AZ in the "az" header (jnl_acq_mysql_source-SMT.sh PARTITION_KEY_FIELD)
+#       that header is kept as is, the records are spread over the topic partitions and TASKS_MAX can be raised.
+#
+#       REDIS_WRITE_MODE=conditional only writes a record when its version is not older than the one last written
+#       to the card, so a replay after a restart can not put an older value back. The version is the Kafka offset
+#       (REDIS_VERSION_FIELD empty), every update of a card is on one partition as the Kafka key is the AZ or the
+#       card. REDIS_VERSION_FIELD=source_ts_ms (source SOURCE_HEADERS=true) versions by the MySQL commit time
+#       instead, updates committed in the same millisecond have the same version. Not acqJnlSeqNumber: the primary
+#       key is the same for every update of a row, it does not order them.
+#
+#       REDIS_ROUTES: <AZ>=<host>:<port>[/<database>],...
+#           "AZ1=redis:6379/0,AZ2=redis:6379/1"             -> one Redis, one database per AZ (devlab)
+#           "AZ1=redis-az1:6379,AZ2=redis-az2:6379"          -> one Redis per AZ
+#
+#///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+
+set -e
+
+KAFKA_CONNECT_URL="${KAFKA_CONNECT_URL:-http://localhost:8083}"
+CONNECTOR_NAME="${CONNECTOR_NAME:-redis-sink-jnl-acq-routed}"
+
+# Kafka Configuration
+SOURCE_TOPIC="${SOURCE_TOPIC:-jnl_acq}"
+# More than 1 only helps when the source spreads each AZ over the partitions
+TASKS_MAX="${TASKS_MAX:-1}"
+
+# Redis Configuration
+REDIS_ROUTES="${REDIS_ROUTES:-AZ1=redis:6379/0,AZ2=redis:6379/1}"
+REDIS_PASSWORD="${REDIS_PASSWORD:-}"
+REDIS_WRITE_MODE="${REDIS_WRITE_MODE:-set}"
+# Empty = the Kafka offset is the version
+REDIS_VERSION_FIELD="${REDIS_VERSION_FIELD:-}"
+
+# Field Selection
+REDIS_KEY_FIELD="${REDIS_KEY_FIELD:-tkcardNumber}"
+REDIS_VALUE_FIELDS="${REDIS_VALUE_FIELDS:-acqJnlSeqNumber,cardNumber}"
+REDIS_KEY_PATTERN="${REDIS_KEY_PATTERN:-tkcard:\${key}}"
+
+echo "=================================================="
+echo "REDIS SINK CONNECTOR - ROUTED BY AZ"
+echo "=================================================="
+echo "Source Topic: ${SOURCE_TOPIC}"
+echo "Routes:       ${REDIS_ROUTES}"
+echo "Tasks:        ${TASKS_MAX}"
+echo "Key Pattern:  ${REDIS_KEY_PATTERN}"
+echo "Value Fields: ${REDIS_VALUE_FIELDS}"
+echo "Write Mode:   ${REDIS_WRITE_MODE} (version: ${REDIS_VERSION_FIELD:-kafka offset})"
+echo ""
+
+echo "Deleting old connector (if exists)..."
+curl -s -X DELETE ${KAFKA_CONNECT_URL}/connectors/${CONNECTOR_NAME} > /dev/null 2>&1
+sleep 2
+
+REDIS_PASSWORD_CONFIG=""
+if [ ! -z "$REDIS_PASSWORD" ]; then
+    REDIS_PASSWORD_CONFIG="\"redis.password\": \"${REDIS_PASSWORD}\","
+fi
+
+CONNECTOR_CONFIG=$(cat <<EOF
+    {
+    "name": "${CONNECTOR_NAME}",
+    "config": {
+        "connector.class": "com.token.kafka.connect.redis.RedisSinkConnector",
+        "tasks.max": "${TASKS_MAX}",
+        "topics": "${SOURCE_TOPIC}",
+        "redis.routes": "${REDIS_ROUTES}",
+        "redis.route.header": "az",
+        "redis.write.mode": "${REDIS_WRITE_MODE}",
+        "redis.version.field": "${REDIS_VERSION_FIELD}",
+        ${REDIS_PASSWORD_CONFIG}
+        "key.converter": "org.apache.kafka.connect.storage.StringConverter",
+        "value.converter": "org.apache.kafka.connect.json.JsonConverter",
+        "value.converter.schemas.enable": "false",
+        "transforms": "prepareRedis",
+        "transforms.prepareRedis.type": "com.token.kafka.connect.transforms.PrepareRedisRecord",
+        "transforms.prepareRedis.key.header": "az",
+        "transforms.prepareRedis.include": "${REDIS_VALUE_FIELDS}",
+        "transforms.prepareRedis.key.field": "${REDIS_KEY_FIELD}",
+        "transforms.prepareRedis.key.pattern": "${REDIS_KEY_PATTERN}",
+        "transforms.prepareRedis.version.header": "${REDIS_VERSION_FIELD}",
+        "transforms.prepareRedis.timestamp.field": "createdAt",
+        "transforms.prepareRedis.timestamp.format": "iso8601",
+        "transforms.prepareRedis.timestamp.timezone": "Africa/Johannesburg"
+        }
+    }
+EOF
+)
+
+echo "Creating connector..."
+RESPONSE=$(echo "$CONNECTOR_CONFIG" | curl -s -w "\nHTTP_STATUS:%{http_code}" -X POST ${KAFKA_CONNECT_URL}/connectors \
+  -H "Content-Type: application/json" \
+  -d @-)
+
+HTTP_STATUS=$(echo "$RESPONSE" | grep "HTTP_STATUS:" | cut -d':' -f2)
+RESPONSE_BODY=$(echo "$RESPONSE" | sed '/HTTP_STATUS:/d')
+
+if [ "$HTTP_STATUS" != "201" ] && [ "$HTTP_STATUS" != "200" ]; then
+    echo "❌ Failed (HTTP $HTTP_STATUS)"
+    echo "$RESPONSE_BODY" | jq '.' 2>/dev/null || echo "$RESPONSE_BODY"
+    exit 1
+fi
+
+echo "✅ Connector created"
+echo ""
+echo "Remove the per AZ connectors, they would write every record a second time:"
+echo "  curl -X DELETE ${KAFKA_CONNECT_URL}/connectors/redis-sink-jnl-acq-az1"
+echo "  curl -X DELETE ${KAFKA_CONNECT_URL}/connectors/redis-sink-jnl-acq-az2"
+echo ""
+echo "Status: curl ${KAFKA_CONNECT_URL}/connectors/${CONNECTOR_NAME}/status | jq"
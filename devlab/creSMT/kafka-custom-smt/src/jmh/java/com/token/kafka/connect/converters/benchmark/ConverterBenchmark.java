@@ -0,0 +1,94 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ConverterBenchmark.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Deserialisation of the JNL_ACQ JSON the Redis sink reads, per record:
+*
+*           - fullParse:  ObjectMapper into a Map, the work JsonConverter (schemas.enable=false) does at the
+*                         least (it builds a JsonNode tree first, then the Map)
+*           - projectAll: ProjectingJsonConverter without fields, every column converted
+*           - project:    ProjectingJsonConverter with the fields jnl_acq_redis_sink-SMT.sh uses
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.converters.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.token.kafka.connect.converters.ProjectingJsonConverter;
+import com.token.kafka.connect.transforms.JsonWriter;
+import com.token.kafka.connect.transforms.benchmark.JnlAcqRecords;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ConverterBenchmark {
+
+    private static final String FIELDS = "acqJnlSeqNumber,cardNumber,tkcardNumber,__deleted";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ProjectingJsonConverter projectAll;
+    private ProjectingJsonConverter project;
+    private byte[][] values;
+    private int next;
+
+    @Setup
+    public void setup() {
+        SinkRecord[] records = JnlAcqRecords.sinkRecords();
+        values = new byte[records.length][];
+        for (int i = 0; i < records.length; i++) {
+            values[i] = JsonWriter.toJsonBytes(records[i].value());
+        }
+
+        projectAll = new ProjectingJsonConverter();
+        projectAll.configure(Map.of(), false);
+        project = new ProjectingJsonConverter();
+        project.configure(Map.of(ProjectingJsonConverter.FIELDS_CONFIG, FIELDS), false);
+    }
+
+    @Benchmark
+    public Object fullParse() throws IOException {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return objectMapper.readValue(values[next], Map.class);
+    }
+
+    @Benchmark
+    public Object projectAll() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return projectAll.toConnectData(JnlAcqRecords.TOPIC, values[next]);
+    }
+
+    @Benchmark
+    public Object project() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return project.toConnectData(JnlAcqRecords.TOPIC, values[next]);
+    }
+}
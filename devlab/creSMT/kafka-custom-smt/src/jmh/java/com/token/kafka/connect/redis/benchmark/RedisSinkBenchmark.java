@@ -0,0 +1,124 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisSinkBenchmark.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Records/second through RedisSinkTask.put() + flush() against EmbeddedRedis, for the records the
+*       fused sink chain (PrepareRedisRecord) produces. batchSize=1 is one round trip per record, the way a
+*       non-pipelined sink writes. expiryIndex adds the ZADD per record that feeds RedisPurge.
+*
+*       writeMode=conditional sends one EVALSHA per record (versioned by offset). The same records are put
+*       every invocation, so after the first one all are rejected as stale: this measures the version check,
+*       the price paid on every record for replay protection.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis.benchmark;
+
+import com.token.kafka.connect.redis.EmbeddedRedis;
+import com.token.kafka.connect.redis.RedisSinkConfig;
+import com.token.kafka.connect.redis.RedisSinkTask;
+import com.token.kafka.connect.transforms.PrepareRedisRecord;
+import com.token.kafka.connect.transforms.benchmark.JnlAcqRecords;
+import com.token.kafka.connect.transforms.benchmark.TransformChain;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RedisSinkBenchmark {
+
+    @Param({"1", "100", "500"})
+    public int batchSize;
+
+    @Param({"", "az1:expiry"})
+    public String expiryIndex;
+
+    @Param({"set", "conditional"})
+    public String writeMode;
+
+    private EmbeddedRedis redis;
+    private RedisSinkTask task;
+    private List<SinkRecord> records;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        redis = new EmbeddedRedis();
+
+        Map<String, Object> prepare = new HashMap<>();
+        prepare.put("key.value", "AZ1");
+        prepare.put("include", "acqJnlSeqNumber,cardNumber");
+        prepare.put("key.field", "tkcardNumber");
+        prepare.put("key.pattern", "az1:tkcard:${key}");
+        TransformChain<SinkRecord> chain = new TransformChain<SinkRecord>().add(new PrepareRedisRecord<>(), prepare);
+
+        records = new ArrayList<>(JnlAcqRecords.COUNT);
+        for (SinkRecord record : JnlAcqRecords.sinkRecords()) {
+            SinkRecord prepared = chain.apply(record);
+            if (prepared != null) {
+                records.add(prepared);
+            }
+        }
+        // Fixed batch of COUNT records per invocation
+        while (records.size() < JnlAcqRecords.COUNT) {
+            records.add(records.get(records.size() % 64));
+        }
+
+        Map<String, String> props = new HashMap<>();
+        props.put(RedisSinkConfig.HOSTS_CONFIG, redis.hostPort());
+        props.put(RedisSinkConfig.BATCH_SIZE_CONFIG, Integer.toString(batchSize));
+        props.put(RedisSinkConfig.FLUSH_INTERVAL_CONFIG, "0");
+        props.put(RedisSinkConfig.EXPIRY_INDEX_CONFIG, expiryIndex);
+        props.put(RedisSinkConfig.WRITE_MODE_CONFIG, writeMode);
+        task = new RedisSinkTask();
+        task.start(props);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        task.stop();
+        redis.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JnlAcqRecords.COUNT)
+    public void putAndFlush() {
+        task.put(records);
+        task.flush(Collections.emptyMap());
+    }
+}
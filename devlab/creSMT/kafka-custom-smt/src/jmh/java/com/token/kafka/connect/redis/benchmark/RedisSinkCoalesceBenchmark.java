@@ -0,0 +1,124 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisSinkCoalesceBenchmark.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Records/second through RedisSinkTask.put() + flush() for a burst of updates: every card is updated
+*       updatesPerKey times (interleaved with the other cards) within one batch. The prepared values are
+*       JSON strings, so the sequence travels in an acqJnlSeqNumber header, the way an upstream
+*       InsertHeader would carry it. coalesce=true writes only the newest update per key
+*       (redis.coalesce.order.field=acqJnlSeqNumber).
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis.benchmark;
+
+import com.token.kafka.connect.redis.EmbeddedRedis;
+import com.token.kafka.connect.redis.RedisSinkConfig;
+import com.token.kafka.connect.redis.RedisSinkTask;
+import com.token.kafka.connect.transforms.PrepareRedisRecord;
+import com.token.kafka.connect.transforms.benchmark.JnlAcqRecords;
+import com.token.kafka.connect.transforms.benchmark.TransformChain;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RedisSinkCoalesceBenchmark {
+
+    @Param({"false", "true"})
+    public boolean coalesce;
+
+    @Param({"1", "4"})
+    public int updatesPerKey;
+
+    private EmbeddedRedis redis;
+    private RedisSinkTask task;
+    private List<SinkRecord> records;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        redis = new EmbeddedRedis();
+
+        Map<String, Object> prepare = new HashMap<>();
+        prepare.put("key.value", "AZ1");
+        prepare.put("include", "acqJnlSeqNumber,cardNumber");
+        prepare.put("key.field", "tkcardNumber");
+        prepare.put("key.pattern", "az1:tkcard:${key}");
+        TransformChain<SinkRecord> chain = new TransformChain<SinkRecord>().add(new PrepareRedisRecord<>(), prepare);
+
+        List<SinkRecord> cards = new ArrayList<>();
+        for (SinkRecord record : JnlAcqRecords.sinkRecords()) {
+            SinkRecord prepared = chain.apply(record);
+            if (prepared != null && cards.size() < JnlAcqRecords.COUNT / updatesPerKey) {
+                cards.add(prepared);
+            }
+        }
+
+        // COUNT records per invocation, each round updates every card once
+        records = new ArrayList<>(JnlAcqRecords.COUNT);
+        for (long sequence = 0; records.size() < JnlAcqRecords.COUNT; sequence++) {
+            SinkRecord card = cards.get((int) (sequence % cards.size()));
+            SinkRecord update = card.newRecord(card.topic(), card.kafkaPartition(), card.keySchema(), card.key(),
+                                               card.valueSchema(), card.value(), card.timestamp());
+            update.headers().addLong("acqJnlSeqNumber", sequence);
+            records.add(update);
+        }
+
+        Map<String, String> props = new HashMap<>();
+        props.put(RedisSinkConfig.HOSTS_CONFIG, redis.hostPort());
+        props.put(RedisSinkConfig.FLUSH_INTERVAL_CONFIG, "0");
+        props.put(RedisSinkConfig.COALESCE_CONFIG, Boolean.toString(coalesce));
+        props.put(RedisSinkConfig.COALESCE_ORDER_CONFIG, "acqJnlSeqNumber");
+        task = new RedisSinkTask();
+        task.start(props);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        task.stop();
+        redis.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(JnlAcqRecords.COUNT)
+    public void putAndFlush() {
+        task.put(records);
+        task.flush(Collections.emptyMap());
+    }
+}
@@ -0,0 +1,488 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ChainReplay.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Offline replay of JNL_ACQ change events through a connector's transform chain, no Kafka, Connect or
+*       docker-compose stack needed. For sizing Connect workers and checking chain changes on a laptop.
+*
+*       Usage:
+*
+*           ChainReplay <connector.json> <events> [--threads n] [--passes n] [--warmup n] [--topic name]
+*           ChainReplay --generate <count> <events> [--seed n]
+*
+*       connector.json: the connector config as posted to Connect ({"name": .., "config": {..}} or the config
+*       map alone), e.g. PRINT_CONFIG=true ./jnl_acq_redis_sink-SMT.sh > sink.json. The chain is built from it
+*       as in ConnectorChain, one chain per thread as per Connect task.
+*
+*       events: one record per line, "<key><TAB><value JSON>" or just the value JSON, the format of
+*       kcat -C -t jnl_acq -f '%k\t%s\n' (captured traffic) or --generate (synthetic rows, fixed seed).
+*
+*           - Sink configs (with "topics"): key / value go through the config's key.converter / value.converter
+*             as in the sink task. A converter not on the classpath (JsonConverter) is replaced by
+*             StringConverter for keys and ProjectingJsonConverter without fields (the same schemaless Map)
+*             for values
+*           - Source configs: the value becomes a schemaless Map, as the rows look after the Debezium unwrap
+*             (the Debezium steps are skipped unless their jars are added to the classpath, any other
+*             transform not on the classpath fails the replay)
+*
+*       The file is read in memory-mapped chunks split at line ends, the chunks are shared out over the
+*       threads (default: tasks.max). --warmup passes over the file are run first and not reported.
+*
+*       Reports records/s, the dropped ratio with the step that dropped, per-record latency (conversion plus
+*       chain) p50 / p99 / p99.9 / max, allocation per record and GC collections / time over the measured
+*       passes.
+*
+*       Run with: mvn -Pbenchmark test-compile exec:exec@replay -Dreplay.args="<connector.json> <events> ..."
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.replay;
+
+import com.token.kafka.connect.converters.ProjectingJsonConverter;
+import com.token.kafka.connect.transforms.ConnectorChain;
+import com.token.kafka.connect.transforms.JsonWriter;
+import com.token.kafka.connect.transforms.benchmark.JnlAcqRecords;
+
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.storage.Converter;
+import org.apache.kafka.connect.storage.StringConverter;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public final class ChainReplay {
+
+    private static final long MAX_CHUNK = 64L * 1024 * 1024;
+    private static final long MIN_CHUNK = 1024 * 1024;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+        (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private final Map<String, String> config;
+    private final boolean sink;
+    private final String topic;
+    private final List<Worker<?>> workers = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Worker<?>> local = ThreadLocal.withInitial(this::newWorker);
+    private final Set<String> warnings = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    private ChainReplay(Map<String, String> config, String topic) {
+        this.config = config;
+        this.sink   = config.containsKey("topics") || config.containsKey("topics.regex");
+        String topics = config.get("topics");
+        this.topic  = topic != null ? topic
+                      : topics != null && !ConnectorChain.list(topics).isEmpty() ? ConnectorChain.list(topics).get(0)
+                      : JnlAcqRecords.TOPIC;
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> positional = new ArrayList<>();
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].startsWith("--")) {
+                String option = args[i].substring(2);
+                options.put(option, option.equals("generate") ? "true" : value(args, ++i, option));
+            } else {
+                positional.add(args[i]);
+            }
+        }
+
+        if (options.containsKey("generate")) {
+            if (positional.size() != 2) {
+                usage();
+            }
+            generate(Long.parseLong(positional.get(0)), Paths.get(positional.get(1)),
+                     Long.parseLong(options.getOrDefault("seed", "42")));
+            return;
+        }
+        if (positional.size() != 2) {
+            usage();
+        }
+
+        Map<String, String> config = ConnectorChain.readConfig(new File(positional.get(0)));
+        int threads = Integer.parseInt(options.getOrDefault("threads", config.getOrDefault("tasks.max", "1")));
+        int passes  = Integer.parseInt(options.getOrDefault("passes", "1"));
+        int warmup  = Integer.parseInt(options.getOrDefault("warmup", "1"));
+
+        ChainReplay replay = new ChainReplay(config, options.get("topic"));
+        replay.run(positional.get(0), Paths.get(positional.get(1)), Math.max(1, threads), Math.max(1, passes), Math.max(0, warmup));
+    }
+
+    private static String value(String[] args, int i, String option) {
+        if (i >= args.length) {
+            System.err.println("--" + option + " needs a value");
+            usage();
+        }
+        return args[i];
+    }
+
+    private static void usage() {
+        System.err.println("Usage: ChainReplay <connector.json> <events> [--threads n] [--passes n] [--warmup n] [--topic name]");
+        System.err.println("       ChainReplay --generate <count> <events> [--seed n]");
+        System.exit(2);
+    }
+
+    private void run(String configName, Path events, int threads, int passes, int warmup) throws Exception {
+        List<long[]> chunks = chunks(events, threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "chain-replay");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try (FileChannel channel = FileChannel.open(events, StandardOpenOption.READ)) {
+            for (int pass = 0; pass < warmup; pass++) {
+                pass(executor, channel, chunks);
+            }
+            synchronized (workers) {
+                workers.forEach(Worker::reset);
+            }
+
+            long gcCount = 0;
+            long gcTime  = 0;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount -= Math.max(0, gc.getCollectionCount());
+                gcTime  -= Math.max(0, gc.getCollectionTime());
+            }
+            long start = System.nanoTime();
+            for (int pass = 0; pass < passes; pass++) {
+                pass(executor, channel, chunks);
+            }
+            long wallNanos = System.nanoTime() - start;
+            for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+                gcCount += Math.max(0, gc.getCollectionCount());
+                gcTime  += Math.max(0, gc.getCollectionTime());
+            }
+
+            report(configName, events, threads, passes, warmup, wallNanos, gcCount, gcTime);
+        } finally {
+            executor.shutdownNow();
+            synchronized (workers) {
+                workers.forEach(Worker::close);
+            }
+        }
+    }
+
+    private void pass(ExecutorService executor, FileChannel channel, List<long[]> chunks)
+            throws InterruptedException, ExecutionException {
+        List<Future<?>> futures = new ArrayList<>();
+        for (long[] chunk : chunks) {
+            futures.add(executor.submit(() -> {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, chunk[0], chunk[1] - chunk[0]);
+                local.get().replay(buffer);
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+    }
+
+    /**
+     * [start, end) file ranges ending at a line end, about 8 per thread and at most MAX_CHUNK long
+     */
+    private static List<long[]> chunks(Path events, int threads) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(events, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long target = Math.min(MAX_CHUNK, Math.max(MIN_CHUNK, size / (threads * 8L)));
+            ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+            long start = 0;
+            while (start < size) {
+                long end = Math.min(size, start + target);
+                // Extend to just past the next newline
+                while (end < size) {
+                    probe.clear();
+                    int read = channel.read(probe, end);
+                    int newline = -1;
+                    for (int i = 0; i < read; i++) {
+                        if (probe.get(i) == '\n') {
+                            newline = i;
+                            break;
+                        }
+                    }
+                    if (newline >= 0) {
+                        end += newline + 1;
+                        break;
+                    }
+                    end += Math.max(read, 0);
+                }
+                chunks.add(new long[] {start, Math.min(end, size)});
+                start = end;
+            }
+        }
+        return chunks;
+    }
+
+    private Worker<?> newWorker() {
+        Worker<?> worker = sink ? new SinkWorker() : new SourceWorker();
+        for (Map.Entry<String, String> skipped : worker.chain.skipped().entrySet()) {
+            warnings.add("Transform " + skipped.getKey() + " (" + skipped.getValue() + ") is not on the classpath, left out");
+        }
+        workers.add(worker);
+        return worker;
+    }
+
+    private Converter converter(String name, boolean isKey) {
+        String className = config.get(name);
+        Object instance = className != null ? ConnectorChain.instantiate(className) : null;
+        Converter converter;
+        Map<String, String> settings = ConnectorChain.settings(config, name + ".");
+        if (instance instanceof Converter) {
+            converter = (Converter) instance;
+        } else {
+            if (className != null) {
+                warnings.add(name + " " + className + " is not on the classpath, "
+                             + (isKey ? "StringConverter" : "ProjectingJsonConverter (all fields)") + " used instead");
+            }
+            converter = isKey ? new StringConverter() : new ProjectingJsonConverter();
+            settings.clear();
+        }
+        converter.configure(settings, isKey);
+        return converter;
+    }
+
+    private void report(String configName, Path events, int threads, int passes, int warmup,
+                        long wallNanos, long gcCount, long gcTime) {
+        LatencyHistogram latency = new LatencyHistogram();
+        long records = 0;
+        long passed = 0;
+        long errors = 0;
+        long allocated = 0;
+        String firstError = null;
+        List<String> steps = null;
+        long[] dropped = null;
+
+        synchronized (workers) {
+            for (Worker<?> worker : workers) {
+                latency.merge(worker.latency);
+                records   += worker.records;
+                passed    += worker.passed;
+                errors    += worker.errors;
+                allocated += worker.allocated;
+                if (firstError == null) {
+                    firstError = worker.firstError;
+                }
+                if (steps == null) {
+                    steps   = worker.chain.names();
+                    dropped = new long[steps.size()];
+                }
+                for (int i = 0; i < dropped.length; i++) {
+                    dropped[i] += worker.chain.dropped()[i];
+                }
+            }
+        }
+
+        double seconds = wallNanos / 1e9;
+        System.out.printf(Locale.ROOT, "Chain replay: %s (%s, %d transforms), %s%n", configName, sink ? "sink" : "source",
+                          steps != null ? steps.size() : 0, events);
+        System.out.printf(Locale.ROOT, "  Threads %d, %d measured pass(es) after %d warmup%n", threads, passes, warmup);
+        synchronized (warnings) {
+            for (String warning : warnings) {
+                System.out.println("  WARNING: " + warning);
+            }
+        }
+        System.out.printf(Locale.ROOT, "  Records:    %,d in %.2f s = %,.0f records/s%n", records, seconds, records / seconds);
+        System.out.printf(Locale.ROOT, "  Passed:     %,d, dropped %.2f %%%n", passed,
+                          records > 0 ? 100.0 * (records - passed - errors) / records : 0.0);
+        for (int i = 0; steps != null && i < steps.size(); i++) {
+            if (dropped[i] > 0) {
+                System.out.printf(Locale.ROOT, "              %-24s dropped %,d%n", steps.get(i), dropped[i]);
+            }
+        }
+        System.out.printf(Locale.ROOT, "  Errors:     %,d%s%n", errors, firstError != null ? ", first: " + firstError : "");
+        System.out.printf(Locale.ROOT, "  Latency:    p50 %s  p99 %s  p99.9 %s  max %s (conversion + chain, per record)%n",
+                          micros(latency.quantile(0.50)), micros(latency.quantile(0.99)),
+                          micros(latency.quantile(0.999)), micros(latency.max()));
+        System.out.printf(Locale.ROOT, "  Allocation: %,.0f B/record, %,.0f MB/s%n",
+                          records > 0 ? (double) allocated / records : 0.0, allocated / seconds / (1024 * 1024));
+        System.out.printf(Locale.ROOT, "  GC:         %d collections, %d ms (%.1f %% of wall time)%n",
+                          gcCount, gcTime, 100.0 * gcTime / (wallNanos / 1e6));
+    }
+
+    private static String micros(long nanos) {
+        return String.format(Locale.ROOT, "%.2f us", nanos / 1000.0);
+    }
+
+    /**
+     * Synthetic sink side events, "<AZ1|AZ2><TAB><row JSON>" per line
+     */
+    private static void generate(long count, Path events, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(events.toFile()), 1 << 20)) {
+            for (long i = 0; i < count; i++) {
+                out.write((i % 2 == 0 ? "AZ1\t" : "AZ2\t").getBytes(StandardCharsets.US_ASCII));
+                out.write(JsonWriter.toJsonBytes(JnlAcqRecords.jsonRow(random, 4691850412L + i)));
+                out.write('\n');
+            }
+        }
+        System.out.printf(Locale.ROOT, "Wrote %,d events to %s (%,d bytes)%n", count, events, events.toFile().length());
+    }
+
+    /**
+     * One thread's chain and statistics
+     */
+    private abstract class Worker<R extends ConnectRecord<R>> {
+
+        final ConnectorChain<R> chain = new ConnectorChain<>(config, sink ? Collections.<String>emptySet()
+                                                                          : ConnectorChain.DEBEZIUM_STEPS);
+        final LatencyHistogram latency = new LatencyHistogram();
+        long records;
+        long passed;
+        long errors;
+        long allocated;
+        long offset;
+        String firstError;
+
+        abstract R record(byte[] key, byte[] value, long offset);
+
+        void replay(MappedByteBuffer buffer) {
+            long threadId = Thread.currentThread().getId();
+            long allocatedBefore = THREADS.getThreadAllocatedBytes(threadId);
+
+            int limit = buffer.limit();
+            int lineStart = 0;
+            for (int i = 0; i <= limit; i++) {
+                if (i < limit && buffer.get(i) != '\n') {
+                    continue;
+                }
+                int lineEnd = i > lineStart && buffer.get(i - 1) == '\r' ? i - 1 : i;
+                if (lineEnd > lineStart) {
+                    replayLine(buffer, lineStart, lineEnd);
+                }
+                lineStart = i + 1;
+            }
+
+            allocated += THREADS.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        }
+
+        private void replayLine(MappedByteBuffer buffer, int start, int end) {
+            // Key up to a tab ahead of the JSON value, as kcat -f '%k\t%s\n' writes it
+            int tab = -1;
+            for (int i = start; i < end; i++) {
+                byte c = buffer.get(i);
+                if (c == '\t') {
+                    tab = i;
+                    break;
+                }
+                if (c == '{' || c == '[' || c == '"') {
+                    break;
+                }
+            }
+            byte[] key = null;
+            if (tab >= 0) {
+                key = bytes(buffer, start, tab);
+                start = tab + 1;
+            }
+            byte[] value = bytes(buffer, start, end);
+
+            long begin = System.nanoTime();
+            try {
+                R result = chain.apply(record(key, value, offset++));
+                if (result != null) {
+                    passed++;
+                }
+            } catch (RuntimeException e) {
+                errors++;
+                if (firstError == null) {
+                    firstError = e.toString();
+                }
+            }
+            latency.record(System.nanoTime() - begin);
+            records++;
+        }
+
+        private byte[] bytes(MappedByteBuffer buffer, int from, int to) {
+            byte[] bytes = new byte[to - from];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = buffer.get(from + i);
+            }
+            return bytes;
+        }
+
+        void reset() {
+            latency.reset();
+            records   = 0;
+            passed    = 0;
+            errors    = 0;
+            allocated = 0;
+            long[] dropped = chain.dropped();
+            for (int i = 0; i < dropped.length; i++) {
+                dropped[i] = 0;
+            }
+        }
+
+        void close() {
+            chain.close();
+        }
+    }
+
+    private final class SinkWorker extends Worker<SinkRecord> {
+
+        private final Converter keyConverter   = converter("key.converter", true);
+        private final Converter valueConverter = converter("value.converter", false);
+
+        @Override
+        SinkRecord record(byte[] key, byte[] value, long offset) {
+            SchemaAndValue keyData   = keyConverter.toConnectData(topic, key);
+            SchemaAndValue valueData = valueConverter.toConnectData(topic, value);
+            return new SinkRecord(topic, 0, keyData.schema(), keyData.value(), valueData.schema(), valueData.value(),
+                                  offset, System.currentTimeMillis(), TimestampType.CREATE_TIME);
+        }
+    }
+
+    private final class SourceWorker extends Worker<SourceRecord> {
+
+        private final ProjectingJsonConverter valueConverter = new ProjectingJsonConverter();
+
+        SourceWorker() {
+            valueConverter.configure(Collections.emptyMap(), false);
+        }
+
+        @Override
+        SourceRecord record(byte[] key, byte[] value, long offset) {
+            return new SourceRecord(Collections.emptyMap(), Collections.emptyMap(), topic, null,
+                                    null, key != null ? new String(key, StandardCharsets.UTF_8) : null,
+                                    null, valueConverter.toConnectData(topic, value).value(),
+                                    System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   LatencyHistogram.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Nanosecond latency histogram for ChainReplay, log-linear: exact below 64 ns, above that 32 buckets per
+*       power of two (about 3% resolution). A fixed long[] of ~1900 counters, recording is an index
+*       computation and an increment. One per worker thread, merged for the report.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.replay;
+
+import java.util.Arrays;
+
+final class LatencyHistogram {
+
+    private static final int LINEAR   = 64;
+    private static final int SUB_BITS = 5;
+    private static final int SUB      = 1 << SUB_BITS;
+
+    private final long[] counts = new long[LINEAR + (63 - 6) * SUB];
+    private long total;
+    private long max;
+
+    void record(long nanos) {
+        long value = Math.max(0, nanos);
+        counts[index(value)]++;
+        total++;
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    void reset() {
+        Arrays.fill(counts, 0L);
+        total = 0;
+        max = 0;
+    }
+
+    long total() {
+        return total;
+    }
+
+    long max() {
+        return max;
+    }
+
+    /**
+     * Latency at quantile q (0..1), the middle of its bucket
+     */
+    long quantile(double q) {
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(max, (lowerBound(i) + lowerBound(i + 1)) / 2);
+            }
+        }
+        return max;
+    }
+
+    private static int index(long value) {
+        if (value < LINEAR) {
+            return (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        return LINEAR + (exponent - 6) * SUB + (int) ((value >>> (exponent - SUB_BITS)) & (SUB - 1));
+    }
+
+    private static long lowerBound(int index) {
+        if (index <= LINEAR) {
+            return index;
+        }
+        int exponent = (index - LINEAR) / SUB + 6;
+        return (SUB + (long) ((index - LINEAR) % SUB)) << (exponent - SUB_BITS);
+    }
+}
@@ -0,0 +1,150 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   BenchmarkGate.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Release gate, compares a JMH JSON result file against a baseline result file.
+*
+*       Usage: java -Djmh.baseline=<baseline.json> [-Djmh.tolerance=0.10] BenchmarkGate <result.json>
+*
+*       Results are compared per benchmark and @Param combination, "<benchmark> {batch=100, index=true}",
+*       the params sorted by name. Fails (exit code 1) when a combination present in both files
+*           - lost more than tolerance (default 0.10) of its baseline throughput, or
+*           - allocates more than tolerance more bytes per op (gc.alloc.rate.norm, with -prof gc)
+*
+*       An empty jmh.baseline only prints the results, so the gate can stay wired into the build.
+*       To refresh the baseline copy target/jmh-result.json over it from a run on the reference machine.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+
+public final class BenchmarkGate {
+
+    // Allocation noise floor, a few bytes per op is not a regression
+    private static final double ALLOCATION_SLACK_BYTES = 16.0;
+
+    private BenchmarkGate() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java -Djmh.baseline=<baseline.json> [-Djmh.tolerance=0.10] BenchmarkGate <result.json>");
+            System.exit(2);
+        }
+
+        Map<String, Result> results = read(new File(args[0]));
+        String baselinePath = System.getProperty("jmh.baseline", "").trim();
+        double tolerance = Double.parseDouble(System.getProperty("jmh.tolerance", "0.10"));
+
+        if (baselinePath.isEmpty()) {
+            System.out.println("No baseline configured (-Djmh.baseline=...), results only:");
+            for (Map.Entry<String, Result> entry : results.entrySet()) {
+                System.out.printf("  %-80s %14.0f ops/s %10.1f B/op%n",
+                    entry.getKey(), entry.getValue().score, entry.getValue().allocated);
+            }
+            return;
+        }
+
+        Map<String, Result> baseline = read(new File(baselinePath));
+        int failures = 0;
+
+        for (Map.Entry<String, Result> entry : results.entrySet()) {
+            Result current  = entry.getValue();
+            Result previous = baseline.get(entry.getKey());
+            if (previous == null) {
+                System.out.printf("  NEW   %-80s %14.0f ops/s%n", entry.getKey(), current.score);
+                continue;
+            }
+
+            double change = (current.score - previous.score) / previous.score;
+            boolean slower = change < -tolerance;
+            boolean heavier = !Double.isNaN(current.allocated) && !Double.isNaN(previous.allocated)
+                && current.allocated > previous.allocated * (1 + tolerance) + ALLOCATION_SLACK_BYTES;
+
+            System.out.printf("  %-5s %-80s %14.0f ops/s (%+6.1f%%) %10.1f B/op (baseline %.1f)%n",
+                slower || heavier ? "FAIL" : "OK", entry.getKey(), current.score, change * 100,
+                current.allocated, previous.allocated);
+
+            if (slower || heavier) {
+                failures++;
+            }
+        }
+
+        if (failures > 0) {
+            System.err.println(failures + " benchmark(s) regressed by more than " + (tolerance * 100) + "% against " + baselinePath);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Result> read(File file) throws IOException {
+        Map<String, Result> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            double allocated = Double.NaN;
+            JsonNode secondary = run.path("secondaryMetrics");
+            Iterator<String> names = secondary.fieldNames();
+            while (names.hasNext()) {
+                String name = names.next();
+                // JMH 1.37 names it "gc.alloc.rate.norm", older versions prefix it with a middle dot
+                if (name.endsWith("gc.alloc.rate.norm")) {
+                    allocated = secondary.get(name).path("score").asDouble();
+                }
+            }
+            results.put(key(run),
+                new Result(run.path("primaryMetric").path("score").asDouble(), allocated));
+        }
+        return results;
+    }
+
+    /**
+     * The benchmark name, plus its @Param values sorted by name when it has any
+     */
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText();
+        JsonNode params = run.path("params");
+        if (params.size() == 0) {
+            return benchmark;
+        }
+        Map<String, String> sorted = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            sorted.put(field.getKey(), field.getValue().asText());
+        }
+        StringJoiner key = new StringJoiner(", ", benchmark + " {", "}");
+        for (Map.Entry<String, String> param : sorted.entrySet()) {
+            key.add(param.getKey() + "=" + param.getValue());
+        }
+        return key.toString();
+    }
+
+    private static final class Result {
+        final double score;
+        final double allocated;
+
+        Result(double score, double allocated) {
+            this.score     = score;
+            this.allocated = allocated;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   BinRanges.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       BIN range fixture for BinRangeEnricher: COUNT contiguous 8 digit ranges covering every card number
+*       (so every JnlAcqRecords card matches), with scheme, issuer and country columns, written as CSV and
+*       compiled with BinRangeIndex to temporary files.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import com.token.kafka.connect.transforms.BinRangeIndex;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+public final class BinRanges {
+
+    public static final int COUNT = 100_000;
+
+    private static final String[] SCHEMES   = {"VISA", "MASTERCARD", "AMEX", "UNIONPAY"};
+    private static final String[] COUNTRIES = {"ZA", "NA", "BW", "GB", "US", "DE"};
+
+    private BinRanges() {
+    }
+
+    /**
+     * Write the CSV form
+     */
+    public static Path csv() throws IOException {
+        Path csv = Files.createTempFile("bin_ranges", ".csv");
+        csv.toFile().deleteOnExit();
+        int width = 100_000_000 / COUNT;
+        try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+            writer.write("low,high,scheme,issuer,country\n");
+            for (int i = 0; i < COUNT; i++) {
+                writer.write(String.format("%08d,%08d,%s,\"Issuer %d, Ltd\",%s%n", i * width, i * width + width - 1,
+                                           SCHEMES[i % SCHEMES.length], i % 2000, COUNTRIES[i % COUNTRIES.length]));
+            }
+        }
+        return csv;
+    }
+
+    /**
+     * Write the compiled, memory-mappable form
+     */
+    public static Path compiled() throws IOException {
+        Path compiled = Files.createTempFile("bin_ranges", ".bin");
+        compiled.toFile().deleteOnExit();
+        BinRangeIndex index = BinRangeIndex.load(csv());
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(compiled))) {
+            index.write(out);
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,146 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ChainBenchmark.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Throughput of the complete transform chains from devlab/creConnect:
+*
+*           - sourceChain:    jnl_acq_mysql_source-SMT.sh after the Debezium route/unwrap steps
+*                             (addKeyField, extractKey, filterAndKey, removeKeyField)
+*           - sourceChainFused: the same output produced by FilterAndExtractKey key.value in one step
+*           - sinkChain:      jnl_acq_redis_sink-SMT.sh, the 8 step chain
+*           - sinkChainFused: the same output produced by PrepareRedisRecord in one step
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import com.token.kafka.connect.transforms.AddTimestamp;
+import com.token.kafka.connect.transforms.FilterAndExtractKey;
+import com.token.kafka.connect.transforms.FilterByKafkaKey;
+import com.token.kafka.connect.transforms.PrepareRedisRecord;
+import com.token.kafka.connect.transforms.RedisKeyFormatter;
+import com.token.kafka.connect.transforms.ValueToJsonString;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.transforms.ExtractField;
+import org.apache.kafka.connect.transforms.InsertField;
+import org.apache.kafka.connect.transforms.ReplaceField;
+import org.apache.kafka.connect.transforms.ValueToKey;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ChainBenchmark {
+
+    private static final String KEY_FIELD    = "tkcardNumber";
+    private static final String VALUE_FIELDS = "acqJnlSeqNumber,cardNumber";
+    private static final String KEY_PATTERN  = "az1:tkcard:${key}";
+
+    private SourceRecord[] sourceRecords;
+    private SinkRecord[] sinkRecords;
+    private int next;
+
+    private TransformChain<SourceRecord> sourceChain;
+    private TransformChain<SourceRecord> sourceChainFused;
+    private TransformChain<SinkRecord> sinkChain;
+    private TransformChain<SinkRecord> sinkChainFused;
+
+    @Setup
+    public void setup() {
+        sourceRecords = JnlAcqRecords.sourceRecords();
+        sinkRecords   = JnlAcqRecords.sinkRecords();
+
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("key.field", "key");
+        filter.put("filter.fields", "cardNumber,tkcardNumber");
+        filter.put("filter.mode", "all");
+
+        sourceChain = new TransformChain<SourceRecord>()
+            .add(new InsertField.Value<>(), Map.of("static.field", "key", "static.value", "AZ1"))
+            .add(new ValueToKey<>(), Map.of("fields", "key"))
+            .add(new FilterAndExtractKey<>(), filter)
+            .add(new ReplaceField.Value<>(), Map.of("exclude", "key"));
+
+        Map<String, Object> filterFused = new HashMap<>(filter);
+        filterFused.put("key.value", "AZ1");
+
+        sourceChainFused = new TransformChain<SourceRecord>()
+            .add(new FilterAndExtractKey<>(), filterFused);
+
+        Map<String, Object> timestamp = new HashMap<>();
+        timestamp.put("timestamp.field", "createdAt");
+        timestamp.put("timestamp.format", "iso8601");
+        timestamp.put("timestamp.timezone", "Africa/Johannesburg");
+
+        sinkChain = new TransformChain<SinkRecord>()
+            .add(new FilterByKafkaKey<>(), Map.of("key.value", "AZ1"))
+            .add(new AddTimestamp<>(), timestamp)
+            .add(new ReplaceField.Value<>(), Map.of("include", VALUE_FIELDS + "," + KEY_FIELD + ",createdAt"))
+            .add(new ValueToKey<>(), Map.of("fields", KEY_FIELD))
+            .add(new ExtractField.Key<>(), Map.of("field", KEY_FIELD))
+            .add(new RedisKeyFormatter<>(), Map.of("key.pattern", KEY_PATTERN, "key.pattern.null.handling", "pass"))
+            .add(new ReplaceField.Value<>(), Map.of("exclude", KEY_FIELD))
+            .add(new ValueToJsonString<>(), Map.of());
+
+        Map<String, Object> prepare = new HashMap<>(timestamp);
+        prepare.put("key.value", "AZ1");
+        prepare.put("include", VALUE_FIELDS);
+        prepare.put("key.field", KEY_FIELD);
+        prepare.put("key.pattern", KEY_PATTERN);
+
+        sinkChainFused = new TransformChain<SinkRecord>()
+            .add(new PrepareRedisRecord<>(), prepare);
+    }
+
+    @Benchmark
+    public Object sourceChain() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return sourceChain.apply(sourceRecords[next]);
+    }
+
+    @Benchmark
+    public Object sourceChainFused() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return sourceChainFused.apply(sourceRecords[next]);
+    }
+
+    @Benchmark
+    public Object sinkChain() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return sinkChain.apply(sinkRecords[next]);
+    }
+
+    @Benchmark
+    public Object sinkChainFused() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return sinkChainFused.apply(sinkRecords[next]);
+    }
+}
@@ -0,0 +1,214 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   JnlAcqRecords.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Benchmark fixtures, JNL_ACQ rows with the full column set of devlab/sql/mysql/mysql-init.sql.
+*
+*           - Source side: the Struct Debezium produces after ExtractNewRecordState (decimals as the
+*             Connect Decimal logical type, __deleted added by delete.handling.mode=rewrite)
+*           - Sink side:   the Map the JsonConverter (schemas.enable=false) hands the sink, keyed "AZ1"/"AZ2"
+*
+*       Values are generated from a fixed seed so every run sees the same data. About 1 in 20 rows has an
+*       empty tkcardNumber, which the source filter drops.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+public final class JnlAcqRecords {
+
+    public static final String TOPIC = "jnl_acq";
+
+    // Distinct records per fixture, enough to defeat branch prediction on a single shape
+    public static final int COUNT = 1024;
+
+    public static final Schema VALUE_SCHEMA = SchemaBuilder.struct()
+        .name("mysql01.tokenise.JNL_ACQ.Value")
+        .field("acqJnlSeqNumber",       Schema.INT64_SCHEMA)
+        .field("accountId1",            Schema.OPTIONAL_STRING_SCHEMA)
+        .field("accountId2",            Schema.OPTIONAL_STRING_SCHEMA)
+        .field("acquirerCountryCode",   decimal(3))
+        .field("acquirerId",            Schema.STRING_SCHEMA)
+        .field("acquiringInstId",       Schema.OPTIONAL_STRING_SCHEMA)
+        .field("additionalDataPrivate", Schema.OPTIONAL_STRING_SCHEMA)
+        .field("additionalRespData",    Schema.OPTIONAL_STRING_SCHEMA)
+        .field("amtCredits",            Schema.OPTIONAL_STRING_SCHEMA)
+        .field("amtDebits",             Schema.OPTIONAL_STRING_SCHEMA)
+        .field("bankId",                Schema.STRING_SCHEMA)
+        .field("banknetRefNumber",      Schema.OPTIONAL_STRING_SCHEMA)
+        .field("businessDate",          Schema.OPTIONAL_STRING_SCHEMA)
+        .field("captureDate",           Schema.OPTIONAL_STRING_SCHEMA)
+        .field("cardNumber",            Schema.STRING_SCHEMA)
+        .field("tkcardNumber",          Schema.STRING_SCHEMA)
+        .field("cardTypeId",            Schema.OPTIONAL_STRING_SCHEMA)
+        .field("currencyCode",          decimal(3))
+        .field("discountAmt",           decimal(12))
+        .field("endDateTime",           Schema.INT64_SCHEMA)
+        .field("expirationDate",        Schema.OPTIONAL_STRING_SCHEMA)
+        .field("issuerApplicationData", Schema.OPTIONAL_STRING_SCHEMA)
+        .field("issuingIIC",            Schema.OPTIONAL_STRING_SCHEMA)
+        .field("processingCode",        Schema.OPTIONAL_STRING_SCHEMA)
+        .field("retrievRefNumber",      Schema.OPTIONAL_STRING_SCHEMA)
+        .field("MTI",                   decimal(4))
+        .field("memberPrivateData",     Schema.OPTIONAL_STRING_SCHEMA)
+        .field("networkData",           Schema.OPTIONAL_STRING_SCHEMA)
+        .field("networkDataTraceID",    Schema.OPTIONAL_STRING_SCHEMA)
+        .field("originTransLocalDate",  Schema.OPTIONAL_STRING_SCHEMA)
+        .field("originTransLocalTime",  Schema.OPTIONAL_STRING_SCHEMA)
+        .field("requestedAmt",          decimal(12))
+        .field("terminalId",            Schema.OPTIONAL_STRING_SCHEMA)
+        .field("transDateTime",         Schema.OPTIONAL_STRING_SCHEMA)
+        .field("transLocalDate",        Schema.STRING_SCHEMA)
+        .field("transLocalTime",        Schema.STRING_SCHEMA)
+        .field("__deleted",             Schema.OPTIONAL_STRING_SCHEMA)
+        .build();
+
+    private JnlAcqRecords() {
+    }
+
+    /**
+     * Debezium source records, as seen by the source connector's transform chain after unwrap
+     */
+    public static SourceRecord[] sourceRecords() {
+        Random random = new Random(42);
+        SourceRecord[] records = new SourceRecord[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            Struct value = row(random, 4691850412L + i);
+            records[i] = new SourceRecord(
+                Collections.singletonMap("server", "mysql01"),
+                Collections.singletonMap("pos", (long) i),
+                TOPIC, null,
+                null, null,
+                VALUE_SCHEMA, value
+            );
+        }
+        return records;
+    }
+
+    /**
+     * Schemaless sink records, as the Redis sink's transform chain receives them
+     */
+    public static SinkRecord[] sinkRecords() {
+        Random random = new Random(42);
+        SinkRecord[] records = new SinkRecord[COUNT];
+        for (int i = 0; i < COUNT; i++) {
+            Struct row = row(random, 4691850412L + i);
+            String key = i % 2 == 0 ? "AZ1" : "AZ2";
+            records[i] = new SinkRecord(TOPIC, i % 3, null, key, null, toMap(row), i, 1767225600000L + i, null);
+        }
+        return records;
+    }
+
+    /**
+     * One row in the schemaless JSON form the sink reads, e.g. to generate ChainReplay input
+     */
+    public static Map<String, Object> jsonRow(Random random, long sequence) {
+        return toMap(row(random, sequence));
+    }
+
+    private static Struct row(Random random, long sequence) {
+        String cardNumber = digits(random, 16);
+        String tkcardNumber = random.nextInt(20) == 0 ? "" : digits(random, 16);
+
+        return new Struct(VALUE_SCHEMA)
+            .put("acqJnlSeqNumber",       sequence)
+            .put("accountId1",            digits(random, 12))
+            .put("accountId2",            random.nextBoolean() ? digits(random, 12) : null)
+            .put("acquirerCountryCode",   new BigDecimal(710))
+            .put("acquirerId",            "ACQ" + digits(random, 6))
+            .put("acquiringInstId",       digits(random, 11))
+            .put("additionalDataPrivate", text(random, random.nextInt(120)))
+            .put("additionalRespData",    random.nextBoolean() ? text(random, 24) : null)
+            .put("amtCredits",            digits(random, 16))
+            .put("amtDebits",             digits(random, 16))
+            .put("bankId",                digits(random, 11))
+            .put("banknetRefNumber",      text(random, 9))
+            .put("businessDate",          "20260201")
+            .put("captureDate",           "0201")
+            .put("cardNumber",            cardNumber)
+            .put("tkcardNumber",          tkcardNumber)
+            .put("cardTypeId",            "VISA")
+            .put("currencyCode",          new BigDecimal(710))
+            .put("discountAmt",           new BigDecimal(random.nextInt(100000)))
+            .put("endDateTime",           1767225600000L + random.nextInt(86400000))
+            .put("expirationDate",        "2812")
+            .put("issuerApplicationData", text(random, 64))
+            .put("issuingIIC",            digits(random, 14))
+            .put("processingCode",        "000000")
+            .put("retrievRefNumber",      digits(random, 12))
+            .put("MTI",                   new BigDecimal(random.nextBoolean() ? 200 : 100))
+            .put("memberPrivateData",     text(random, random.nextInt(300)))
+            .put("networkData",           text(random, 49))
+            .put("networkDataTraceID",    text(random, 15))
+            .put("originTransLocalDate",  "0201")
+            .put("originTransLocalTime",  digits(random, 6))
+            .put("requestedAmt",          new BigDecimal(random.nextInt(10000000)))
+            .put("terminalId",            "TERM" + digits(random, 8))
+            .put("transDateTime",         "2026-02-01T10:15:30Z")
+            .put("transLocalDate",        "0201")
+            .put("transLocalTime",        digits(random, 6))
+            .put("__deleted",             "false");
+    }
+
+    /**
+     * The schemaless JSON form of a row, decimals become plain numbers
+     */
+    private static Map<String, Object> toMap(Struct row) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Field field : VALUE_SCHEMA.fields()) {
+            Object value = row.get(field);
+            if (value instanceof BigDecimal) {
+                value = ((BigDecimal) value).longValue();
+            }
+            map.put(field.name(), value);
+        }
+        return map;
+    }
+
+    private static Schema decimal(int precision) {
+        return Decimal.builder(0)
+            .parameter("connect.decimal.precision", String.valueOf(precision))
+            .optional()
+            .build();
+    }
+
+    private static String digits(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('0' + random.nextInt(10));
+        }
+        return new String(chars);
+    }
+
+    private static String text(Random random, int length) {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) ('A' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,280 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   SmtBenchmark.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Throughput of each custom SMT on its own, configured as in the devlab connector scripts.
+*
+*       Struct benchmarks use the source side fixtures, Map benchmarks the sink side ones, see JnlAcqRecords.
+*       Run with -prof gc (the benchmark profile default) to get gc.alloc.rate.norm, bytes allocated per op.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import com.token.kafka.connect.transforms.AddSourceHeaders;
+import com.token.kafka.connect.transforms.AddTimestamp;
+import com.token.kafka.connect.transforms.BinRangeEnricher;
+import com.token.kafka.connect.transforms.FilterAndExtractKey;
+import com.token.kafka.connect.transforms.FilterByKafkaKey;
+import com.token.kafka.connect.transforms.MeasureLag;
+import com.token.kafka.connect.transforms.PrepareRedisRecord;
+import com.token.kafka.connect.transforms.RedisKeyFormatter;
+import com.token.kafka.connect.transforms.RedisValueEncoder;
+import com.token.kafka.connect.transforms.SuppressUnchanged;
+import com.token.kafka.connect.transforms.ValueToJsonString;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.ConnectHeaders;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SmtBenchmark {
+
+    private SourceRecord[] sourceRecords;
+    private SinkRecord[] sinkRecords;
+    private SourceRecord[] envelopeRecords;
+    private SinkRecord[] headerRecords;
+    private SinkRecord[] cardRecords;
+    private int next;
+
+    private TransformChain<SourceRecord> addTimestampStruct;
+    private TransformChain<SinkRecord> addTimestampMap;
+    private TransformChain<SourceRecord> filterAndExtractKey;
+    private TransformChain<SinkRecord> filterByKafkaKey;
+    private TransformChain<SinkRecord> redisKeyFormatter;
+    private TransformChain<SinkRecord> redisKeyFormatterBinary;
+    private TransformChain<SourceRecord> valueToJsonStringStruct;
+    private TransformChain<SinkRecord> valueToJsonStringMap;
+    private TransformChain<SinkRecord> prepareRedisRecord;
+    private TransformChain<SourceRecord> redisValueEncoderStruct;
+    private TransformChain<SinkRecord> redisValueEncoderMap;
+    private TransformChain<SourceRecord> binRangeEnricherStruct;
+    private TransformChain<SinkRecord> binRangeEnricherMap;
+    private TransformChain<SinkRecord> suppressUnchangedMap;
+    private TransformChain<SourceRecord> addSourceHeadersStruct;
+    private TransformChain<SinkRecord> measureLagMap;
+
+    @Setup
+    public void setup() throws IOException {
+        sourceRecords = JnlAcqRecords.sourceRecords();
+        sinkRecords   = JnlAcqRecords.sinkRecords();
+
+        Map<String, Object> timestamp = new HashMap<>();
+        timestamp.put("timestamp.field", "createdAt");
+        timestamp.put("timestamp.format", "iso8601");
+        timestamp.put("timestamp.timezone", "Africa/Johannesburg");
+        addTimestampStruct = new TransformChain<SourceRecord>().add(new AddTimestamp<>(), timestamp);
+        addTimestampMap    = new TransformChain<SinkRecord>().add(new AddTimestamp<>(), timestamp);
+
+        Map<String, Object> filter = new HashMap<>();
+        filter.put("key.field", "acquirerId");
+        filter.put("filter.fields", "cardNumber,tkcardNumber");
+        filter.put("filter.mode", "all");
+        filterAndExtractKey = new TransformChain<SourceRecord>().add(new FilterAndExtractKey<>(), filter);
+
+        filterByKafkaKey = new TransformChain<SinkRecord>().add(new FilterByKafkaKey<>(), Map.of("key.value", "AZ1"));
+
+        redisKeyFormatter = new TransformChain<SinkRecord>().add(new RedisKeyFormatter<>(), Map.of("key.pattern", "az1:tkcard:${key}"));
+        // Keyed by the card token, as after extractRedisKey / flattenKey
+        cardRecords = new SinkRecord[sinkRecords.length];
+        for (int i = 0; i < sinkRecords.length; i++) {
+            SinkRecord row = sinkRecords[i];
+            cardRecords[i] = row.newRecord(row.topic(), row.kafkaPartition(), null, ((Map<?, ?>) row.value()).get("tkcardNumber"),
+                                           row.valueSchema(), row.value(), row.timestamp());
+        }
+        redisKeyFormatterBinary = new TransformChain<SinkRecord>().add(new RedisKeyFormatter<>(), Map.of("key.encoding", "binary", "key.binary.tag", "1"));
+
+        valueToJsonStringStruct = new TransformChain<SourceRecord>().add(new ValueToJsonString<>(), Map.of());
+        valueToJsonStringMap    = new TransformChain<SinkRecord>().add(new ValueToJsonString<>(), Map.of());
+
+        Map<String, Object> prepare = new HashMap<>(timestamp);
+        prepare.put("key.value", "AZ1");
+        prepare.put("include", "acqJnlSeqNumber,cardNumber");
+        prepare.put("key.field", "tkcardNumber");
+        prepare.put("key.pattern", "az1:tkcard:${key}");
+        prepareRedisRecord = new TransformChain<SinkRecord>().add(new PrepareRedisRecord<>(), prepare);
+
+        redisValueEncoderStruct = new TransformChain<SourceRecord>().add(new RedisValueEncoder<>(), Map.of("value.encoding", "binary"));
+        redisValueEncoderMap    = new TransformChain<SinkRecord>().add(new RedisValueEncoder<>(), Map.of("value.encoding", "msgpack"));
+
+        Map<String, Object> bin = new HashMap<>();
+        bin.put("bin.file", BinRanges.compiled().toString());
+        bin.put("card.field", "cardNumber");
+        binRangeEnricherStruct = new TransformChain<SourceRecord>().add(new BinRangeEnricher<>(), bin);
+        binRangeEnricherMap    = new TransformChain<SinkRecord>().add(new BinRangeEnricher<>(), bin);
+
+        // Two keys (AZ1/AZ2) whose value changes on every record: the full digest and cache update on each call
+        suppressUnchangedMap = new TransformChain<SinkRecord>().add(new SuppressUnchanged<>(), Map.of());
+
+        // Debezium envelopes around the source rows, and sink rows carrying the headers AddSourceHeaders sets
+        envelopeRecords = envelopes(sourceRecords);
+        headerRecords   = withSourceHeaders(sinkRecords);
+        addSourceHeadersStruct = new TransformChain<SourceRecord>().add(new AddSourceHeaders<>(), Map.of());
+        measureLagMap = new TransformChain<SinkRecord>().add(new MeasureLag<>(), Map.of("az", "AZ1", "lag.field", "lagMs"));
+    }
+
+    private static SourceRecord[] envelopes(SourceRecord[] rows) {
+        Schema source = SchemaBuilder.struct().name("io.debezium.connector.mysql.Source")
+            .field("ts_ms", Schema.INT64_SCHEMA)
+            .field("file", Schema.STRING_SCHEMA)
+            .field("pos", Schema.INT64_SCHEMA)
+            .build();
+        Schema envelope = SchemaBuilder.struct().name("mysql.tokenise.JNL_ACQ.Envelope")
+            .field("before", JnlAcqRecords.VALUE_SCHEMA)
+            .field("after", JnlAcqRecords.VALUE_SCHEMA)
+            .field("source", source)
+            .field("op", Schema.STRING_SCHEMA)
+            .build();
+
+        SourceRecord[] records = new SourceRecord[rows.length];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < rows.length; i++) {
+            Struct value = new Struct(envelope)
+                .put("after", rows[i].value())
+                .put("source", new Struct(source).put("ts_ms", now + i).put("file", "mysql-bin.000003").put("pos", 4L + i * 512L))
+                .put("op", "u");
+            records[i] = new SourceRecord(null, null, rows[i].topic(), null, rows[i].keySchema(), rows[i].key(),
+                                          envelope, value, rows[i].timestamp());
+        }
+        return records;
+    }
+
+    private static SinkRecord[] withSourceHeaders(SinkRecord[] rows) {
+        SinkRecord[] records = new SinkRecord[rows.length];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < rows.length; i++) {
+            ConnectHeaders headers = new ConnectHeaders();
+            headers.addLong(AddSourceHeaders.DEFAULT_TS_HEADER, now + i);
+            headers.addString(AddSourceHeaders.DEFAULT_POSITION_HEADER, "mysql-bin.000003:" + (4L + i * 512L));
+            records[i] = rows[i].newRecord(rows[i].topic(), rows[i].kafkaPartition(), rows[i].keySchema(), rows[i].key(),
+                                           rows[i].valueSchema(), rows[i].value(), rows[i].timestamp(), headers);
+        }
+        return records;
+    }
+
+    private SourceRecord nextSource() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return sourceRecords[next];
+    }
+
+    private SinkRecord nextSink() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return sinkRecords[next];
+    }
+
+    @Benchmark
+    public Object addTimestampStruct() {
+        return addTimestampStruct.apply(nextSource());
+    }
+
+    @Benchmark
+    public Object addTimestampMap() {
+        return addTimestampMap.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object filterAndExtractKey() {
+        return filterAndExtractKey.apply(nextSource());
+    }
+
+    @Benchmark
+    public Object filterByKafkaKey() {
+        return filterByKafkaKey.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object redisKeyFormatter() {
+        return redisKeyFormatter.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object redisKeyFormatterBinary() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return redisKeyFormatterBinary.apply(cardRecords[next]);
+    }
+
+    @Benchmark
+    public Object valueToJsonStringStruct() {
+        return valueToJsonStringStruct.apply(nextSource());
+    }
+
+    @Benchmark
+    public Object valueToJsonStringMap() {
+        return valueToJsonStringMap.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object prepareRedisRecord() {
+        return prepareRedisRecord.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object redisValueEncoderStruct() {
+        return redisValueEncoderStruct.apply(nextSource());
+    }
+
+    @Benchmark
+    public Object redisValueEncoderMap() {
+        return redisValueEncoderMap.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object binRangeEnricherStruct() {
+        return binRangeEnricherStruct.apply(nextSource());
+    }
+
+    @Benchmark
+    public Object binRangeEnricherMap() {
+        return binRangeEnricherMap.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object suppressUnchangedMap() {
+        return suppressUnchangedMap.apply(nextSink());
+    }
+
+    @Benchmark
+    public Object addSourceHeadersStruct() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return addSourceHeadersStruct.apply(envelopeRecords[next]);
+    }
+
+    @Benchmark
+    public Object measureLagMap() {
+        next = (next + 1) & (JnlAcqRecords.COUNT - 1);
+        return measureLagMap.apply(headerRecords[next]);
+    }
+}
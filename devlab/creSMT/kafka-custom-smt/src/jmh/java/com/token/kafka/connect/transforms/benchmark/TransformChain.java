@@ -0,0 +1,51 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   TransformChain.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       A "transforms" list applied the way the Connect worker does, in order, stopping at the first
+*       transform that drops the record.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.transforms.Transformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class TransformChain<R extends ConnectRecord<R>> {
+
+    private final List<Transformation<R>> transforms = new ArrayList<>();
+
+    /**
+     * Configure a transform and append it to the chain
+     */
+    public TransformChain<R> add(Transformation<R> transform, Map<String, ?> config) {
+        transform.configure(config);
+        transforms.add(transform);
+        return this;
+    }
+
+    public R apply(R record) {
+        for (Transformation<R> transform : transforms) {
+            record = transform.apply(record);
+            if (record == null) {
+                return null;
+            }
+        }
+        return record;
+    }
+}
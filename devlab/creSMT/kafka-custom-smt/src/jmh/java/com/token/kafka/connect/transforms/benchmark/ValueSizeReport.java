@@ -0,0 +1,230 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ValueSizeReport.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Value size per encoding for the JnlAcqRecords sample rows, and an estimate of the Redis memory per
+*       key (dict entry, key, value object, jemalloc size classes) and keys per maxmemory (256 MB):
+*
+*           mvn -Pbenchmark test-compile exec:exec@size-report
+*
+*       Rows: the sink projection (acqJnlSeqNumber, cardNumber, createdAt, key az1:tkcard:<16 digits>) with
+*       createdAt as ISO8601 and as epoch ms, and the full JNL_ACQ row for reference. Then the key encodings of
+*       RedisKeyFormatter (string pattern, binary BCD / int64) with the binary epoch projection as value.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms.benchmark;
+
+import com.token.kafka.connect.transforms.AddTimestamp;
+import com.token.kafka.connect.transforms.RedisKeyFormatter;
+import com.token.kafka.connect.transforms.RedisValueEncoder;
+import com.token.kafka.connect.transforms.ValueToJsonString;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.apache.kafka.connect.transforms.ReplaceField;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+public final class ValueSizeReport {
+
+    private static final String ALIASES     = "acqJnlSeqNumber:s,cardNumber:c,createdAt:t";
+    private static final int    KEY_LENGTH  = "az1:tkcard:".length() + 16;
+    private static final long   MAXMEMORY   = 256L * 1024 * 1024;
+
+    public static void main(String[] args) {
+        System.out.printf("%-34s %10s %14s %16s %8s%n", "encoding", "value B", "est. B / key", "keys / 256 MB", "vs json");
+
+        report("projection, createdAt iso8601", "iso8601", "acqJnlSeqNumber:int64,cardNumber:string,createdAt:string");
+        report("projection, createdAt epoch", "epoch", "acqJnlSeqNumber:int64,cardNumber:string,createdAt:timestamp");
+
+        System.out.println();
+        System.out.println("full JNL_ACQ row (Struct)");
+        SourceRecord[] rows = JnlAcqRecords.sourceRecords();
+        long json = print("  json", rows, new TransformChain<SourceRecord>().add(new ValueToJsonString<>(), Map.of()), 0);
+        print("  msgpack", rows, encoder(RedisValueEncoder.ENCODING_MSGPACK, ""), json);
+        print("  binary (schema layout)", rows, encoder(RedisValueEncoder.ENCODING_BINARY, ""), json);
+
+        System.out.println();
+        System.out.println("key encoding, projection as binary (createdAt epoch)");
+        Map<String, Object> binary = new HashMap<>();
+        binary.put(RedisValueEncoder.ENCODING_CONFIG, RedisValueEncoder.ENCODING_BINARY);
+        binary.put(RedisValueEncoder.LAYOUT_CONFIG, "acqJnlSeqNumber:int64,cardNumber:string,createdAt:timestamp");
+        SinkRecord[] values = project("epoch");
+        TransformChain<SinkRecord> encode = new TransformChain<SinkRecord>().add(new RedisValueEncoder<>(), binary);
+        for (int i = 0; i < values.length; i++) {
+            values[i] = encode.apply(values[i]);
+        }
+        long string = printKeys("  string az1:tkcard:${key}", values, Map.of("key.pattern", "az1:tkcard:${key}"), 0);
+        printKeys("  binary bcd", values, Map.of("key.encoding", "binary", "key.binary.tag", "1"), string);
+        printKeys("  binary int64", values, Map.of("key.encoding", "binary", "key.binary.tag", "1", "key.binary.format", "int64"), string);
+    }
+
+    /**
+     * Sink rows keyed by their tkcardNumber, projected to acqJnlSeqNumber, cardNumber, createdAt
+     */
+    private static SinkRecord[] project(String timestampFormat) {
+        Map<String, Object> timestamp = new HashMap<>();
+        timestamp.put("timestamp.field", "createdAt");
+        timestamp.put("timestamp.format", timestampFormat);
+        timestamp.put("timestamp.timezone", "Africa/Johannesburg");
+
+        SinkRecord[] projected = new SinkRecord[JnlAcqRecords.COUNT];
+        TransformChain<SinkRecord> project = new TransformChain<SinkRecord>()
+            .add(new AddTimestamp<>(), timestamp)
+            .add(new ReplaceField.Value<>(), Map.of("include", "acqJnlSeqNumber,cardNumber,createdAt"));
+        SinkRecord[] rows = JnlAcqRecords.sinkRecords();
+        for (int i = 0; i < rows.length; i++) {
+            SinkRecord row = project.apply(rows[i]);
+            Object card = ((Map<?, ?>) rows[i].value()).get("tkcardNumber");
+            projected[i] = row.newRecord(row.topic(), row.kafkaPartition(), null, card, row.valueSchema(), row.value(), row.timestamp());
+        }
+        return projected;
+    }
+
+    /**
+     * Print average key length and estimated per key size for a RedisKeyFormatter config
+     */
+    private static long printKeys(String name, SinkRecord[] records, Map<String, Object> config, long baseline) {
+        TransformChain<SinkRecord> format = new TransformChain<SinkRecord>().add(new RedisKeyFormatter<>(), config);
+        long keyLength = 0;
+        long perKey = 0;
+        for (SinkRecord record : records) {
+            Object key = format.apply(record).key();
+            int length = key instanceof byte[] ? ((byte[]) key).length : ((String) key).getBytes(StandardCharsets.UTF_8).length;
+            keyLength += length;
+            perKey    += perKey(record.value(), length);
+        }
+        long averageKey = perKey / records.length;
+        String ratio = baseline == 0 ? "1.00x" : String.format("%.2fx", (double) baseline / averageKey);
+        System.out.printf("%-34s %10s %14d %16d %8s%n", name, "key " + keyLength / records.length, averageKey, MAXMEMORY / averageKey, ratio);
+        return averageKey;
+    }
+
+    private static void report(String title, String timestampFormat, String layout) {
+        SinkRecord[] projected = project(timestampFormat);
+
+        System.out.println(title);
+        long json = print("  json (ValueToJsonString)", projected,
+                          new TransformChain<SinkRecord>().add(new ValueToJsonString<>(), Map.of()), 0);
+        print("  msgpack", projected, encoder(RedisValueEncoder.ENCODING_MSGPACK, ""), json);
+        print("  msgpack + aliases", projected, encoder(RedisValueEncoder.ENCODING_MSGPACK, ALIASES), json);
+
+        Map<String, Object> binary = new HashMap<>();
+        binary.put(RedisValueEncoder.ENCODING_CONFIG, RedisValueEncoder.ENCODING_BINARY);
+        binary.put(RedisValueEncoder.LAYOUT_CONFIG, layout);
+        print("  binary", projected, new TransformChain<SinkRecord>().add(new RedisValueEncoder<>(), binary), json);
+
+        print("  hash + aliases (listpack)", projected, encoder(RedisValueEncoder.ENCODING_HASH, ALIASES), json);
+    }
+
+    private static <R extends ConnectRecord<R>> TransformChain<R> encoder(String encoding, String aliases) {
+        Map<String, Object> config = new HashMap<>();
+        config.put(RedisValueEncoder.ENCODING_CONFIG, encoding);
+        config.put(RedisValueEncoder.ALIASES_CONFIG, aliases);
+        return new TransformChain<R>().add(new RedisValueEncoder<>(), config);
+    }
+
+    /**
+     * Print average value and estimated per key size, returns the average per key estimate
+     */
+    private static <R extends ConnectRecord<R>> long print(String name, R[] records, TransformChain<R> chain, long baseline) {
+        long valueBytes = 0;
+        long keyBytes = 0;
+        for (R record : records) {
+            Object value = chain.apply(record).value();
+            valueBytes += valueSize(value);
+            keyBytes   += perKey(value, KEY_LENGTH);
+        }
+        long averageValue = valueBytes / records.length;
+        long averageKey   = keyBytes / records.length;
+        String ratio = baseline == 0 ? "1.00x" : String.format("%.2fx", (double) baseline / averageKey);
+        System.out.printf("%-34s %10d %14d %16d %8s%n", name, averageValue, averageKey, MAXMEMORY / averageKey, ratio);
+        return averageKey;
+    }
+
+    private static long valueSize(Object value) {
+        if (value instanceof String) {
+            return ((String) value).getBytes(StandardCharsets.UTF_8).length;
+        }
+        if (value instanceof byte[]) {
+            return ((byte[]) value).length;
+        }
+        return listpackSize((Map<?, ?>) value);
+    }
+
+    /**
+     * Redis 7 memory for one key: main dict bucket + dictEntry + key sds + value object
+     */
+    private static long perKey(Object value, int keyLength) {
+        long bytes = 8 + jemalloc(24) + jemalloc(3 + keyLength + 1);
+        if (value instanceof Map) {
+            // robj + listpack
+            return bytes + jemalloc(16) + jemalloc(listpackSize((Map<?, ?>) value));
+        }
+        long length = valueSize(value);
+        if (length <= 44) {
+            // embstr: robj and sds in one allocation
+            return bytes + jemalloc(16 + 3 + length + 1);
+        }
+        return bytes + jemalloc(16) + jemalloc((length < 256 ? 3 : 5) + length + 1);
+    }
+
+    private static long listpackSize(Map<?, ?> hash) {
+        long bytes = 6 + 1;
+        for (Map.Entry<?, ?> entry : hash.entrySet()) {
+            bytes += listpackEntry(String.valueOf(entry.getKey()));
+            Object value = entry.getValue();
+            bytes += listpackEntry(value instanceof byte[]
+                                   ? new String((byte[]) value, StandardCharsets.ISO_8859_1)
+                                   : String.valueOf(value));
+        }
+        return bytes;
+    }
+
+    private static long listpackEntry(String text) {
+        // Integers are stored in 1 to 9 bytes, strings with a 1/2/5 byte header, plus the back length
+        try {
+            if (!text.isEmpty() && text.length() <= 20 && (text.charAt(0) != '0' || text.length() == 1)) {
+                long value = Long.parseLong(text);
+                int encoded = value >= 0 && value <= 127 ? 1
+                            : value >= -4096 && value < 4096 ? 2
+                            : value == (short) value ? 3
+                            : value >= -(1 << 23) && value < (1 << 23) ? 4
+                            : value == (int) value ? 5 : 9;
+                return encoded + 1;
+            }
+        } catch (NumberFormatException e) {
+            // Stored as a string
+        }
+        int length = text.getBytes(StandardCharsets.UTF_8).length;
+        int header = length < 64 ? 1 : length < 4096 ? 2 : 5;
+        int encoded = header + length;
+        return encoded + (encoded < 128 ? 1 : encoded < 16384 ? 2 : 3);
+    }
+
+    /**
+     * Allocation size rounded up to the jemalloc size class (Redis builds jemalloc with an 8 byte quantum)
+     */
+    private static long jemalloc(long size) {
+        if (size <= 64) {
+            return (size + 7) / 8 * 8;
+        }
+        long group = Long.highestOneBit(size - 1);
+        long step = Math.max(16, group / 4);
+        return (size + step - 1) / step * step;
+    }
+}
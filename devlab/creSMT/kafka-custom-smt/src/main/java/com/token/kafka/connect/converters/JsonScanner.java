@@ -0,0 +1,361 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   JsonScanner.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Byte level scan of a JSON object for ProjectingJsonConverter.
+*
+*       Field names are compared as raw UTF-8 bytes against the pre-encoded wanted names, values of other
+*       fields are skipped by finding where they end (matching quotes and brackets) without tokenising or
+*       decoding them. Wanted values are decoded directly when simple (ASCII strings without escapes, longs,
+*       true / false / null), anything else (escapes, non-ASCII, fractions, objects, arrays) is handed to
+*       Jackson for just that value's bytes.
+*
+*       Not a validating parser: input is checked only as far as it is read.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.converters;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.kafka.connect.errors.DataException;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class JsonScanner {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private final byte[] json;
+    private final int end;
+    private int pos;
+
+    // Set by scanString(): whether the last string held a backslash escape or a non-ASCII byte
+    private boolean escaped;
+    private boolean ascii;
+
+    private JsonScanner(byte[] json) {
+        this.json = json;
+        this.end  = json.length;
+    }
+
+    /**
+     * The whole value, Jackson all the way, as JsonConverter converts schemaless JSON
+     */
+    static Object parse(byte[] json, int offset, int length) {
+        try (JsonParser parser = JSON_FACTORY.createParser(json, offset, length)) {
+            JsonToken token = parser.nextToken();
+            return token == null ? null : read(parser, token);
+        } catch (IOException e) {
+            throw new DataException("Invalid JSON: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The fields named in names (UTF-8 bytes, as in fieldNames) of a JSON object, first occurrence wins. Null
+     * when json is not an object, the caller then converts it whole
+     */
+    static Map<String, Object> project(byte[] json, byte[][] names, String[] fieldNames, int capacity) {
+        JsonScanner scanner = new JsonScanner(json);
+        scanner.skipWhitespace();
+        if (scanner.pos >= scanner.end || json[scanner.pos] != '{') {
+            return null;
+        }
+        scanner.pos++;
+        return scanner.projectObject(names, fieldNames, capacity);
+    }
+
+    private Map<String, Object> projectObject(byte[][] names, String[] fieldNames, int capacity) {
+        Map<String, Object> map = new HashMap<>(capacity);
+        if (peek() == '}') {
+            return map;
+        }
+
+        while (true) {
+            expect('"');
+            int nameStart = pos;
+            scanString();
+            int field = escaped ? matchEscaped(nameStart, pos - 1, fieldNames) : match(nameStart, pos - 1, names);
+            expect(':');
+
+            if (field >= 0 && !map.containsKey(fieldNames[field])) {
+                map.put(fieldNames[field], readValue());
+                if (map.size() == names.length) {
+                    return map;
+                }
+            } else {
+                skipValue();
+            }
+
+            byte next = peek();
+            pos++;
+            if (next == '}') {
+                return map;
+            }
+            if (next != ',') {
+                throw error("',' or '}'");
+            }
+        }
+    }
+
+    /**
+     * Index of the name between from and to (exclusive) in names, -1 when not wanted
+     */
+    private int match(int from, int to, byte[][] names) {
+        int length = to - from;
+        for (int i = 0; i < names.length; i++) {
+            byte[] name = names[i];
+            if (name.length == length && Arrays.equals(json, from, to, name, 0, length)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int matchEscaped(int from, int to, String[] fieldNames) {
+        Object name = parse(json, from - 1, to - from + 2);
+        for (int i = 0; i < fieldNames.length; i++) {
+            if (fieldNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private Object readValue() {
+        byte c = peek();
+        int start = pos;
+        switch (c) {
+            case '"': {
+                pos++;
+                scanString();
+                if (escaped) {
+                    return parse(json, start, pos - start);
+                }
+                return new String(json, start + 1, pos - start - 2,
+                                  ascii ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+            }
+            case 't':
+                literal("true");
+                return Boolean.TRUE;
+            case 'f':
+                literal("false");
+                return Boolean.FALSE;
+            case 'n':
+                literal("null");
+                return null;
+            case '{':
+            case '[':
+                skipValue();
+                return parse(json, start, pos - start);
+            default:
+                return readNumber();
+        }
+    }
+
+    private Object readNumber() {
+        int start = pos;
+        boolean integral = true;
+        while (pos < end) {
+            byte c = json[pos];
+            if (c >= '0' && c <= '9' || c == '-') {
+                pos++;
+            } else if (c == '.' || c == 'e' || c == 'E' || c == '+') {
+                integral = false;
+                pos++;
+            } else {
+                break;
+            }
+        }
+        int length = pos - start;
+        if (length == 0) {
+            throw error("a JSON value");
+        }
+
+        boolean negative = json[start] == '-';
+        int digits = negative ? length - 1 : length;
+        if (integral && digits > 0 && digits <= 18) {
+            long value = 0;
+            for (int i = negative ? start + 1 : start; i < pos; i++) {
+                byte c = json[i];
+                if (c < '0' || c > '9') {
+                    throw error("a JSON number");
+                }
+                value = value * 10 + (c - '0');
+            }
+            return negative ? -value : value;
+        }
+
+        String text = new String(json, start, length, StandardCharsets.ISO_8859_1);
+        try {
+            // As JsonConverter: integers are Long (wrapping when too large), anything else a Double
+            if (integral) {
+                return new BigInteger(text).longValue();
+            }
+            return Double.parseDouble(text);
+        } catch (NumberFormatException e) {
+            throw error("a JSON number");
+        }
+    }
+
+    private void literal(String literal) {
+        int length = literal.length();
+        if (pos + length > end) {
+            throw error(literal);
+        }
+        for (int i = 0; i < length; i++) {
+            if (json[pos + i] != literal.charAt(i)) {
+                throw error(literal);
+            }
+        }
+        pos += length;
+    }
+
+    /**
+     * Move past the value starting at pos, without decoding it
+     */
+    private void skipValue() {
+        byte c = peek();
+        if (c == '"') {
+            pos++;
+            scanString();
+            return;
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            do {
+                if (pos >= end) {
+                    throw error("end of object / array");
+                }
+                c = json[pos++];
+                if (c == '"') {
+                    scanString();
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    depth--;
+                }
+            } while (depth > 0);
+            return;
+        }
+        // Number or literal, ends at a separator
+        while (pos < end) {
+            c = json[pos];
+            if (c == ',' || c == '}' || c == ']' || c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                break;
+            }
+            pos++;
+        }
+    }
+
+    /**
+     * From just after an opening quote to just after the closing one
+     */
+    private void scanString() {
+        escaped = false;
+        ascii   = true;
+        while (pos < end) {
+            byte c = json[pos++];
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                escaped = true;
+                pos++;
+            } else if (c < 0) {
+                ascii = false;
+            }
+        }
+        throw error("closing quote");
+    }
+
+    private void skipWhitespace() {
+        while (pos < end) {
+            byte c = json[pos];
+            if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                return;
+            }
+            pos++;
+        }
+    }
+
+    private byte peek() {
+        skipWhitespace();
+        if (pos >= end) {
+            throw error("more JSON");
+        }
+        return json[pos];
+    }
+
+    private void expect(char expected) {
+        if (peek() != expected) {
+            throw error("'" + expected + "'");
+        }
+        pos++;
+    }
+
+    private DataException error(String expected) {
+        return new DataException("Invalid JSON, expected " + expected + " at offset " + pos);
+    }
+
+    /**
+     * The value starting at token, objects and arrays converted whole
+     */
+    private static Object read(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+                return parser.getNumberType() == JsonParser.NumberType.BIG_INTEGER
+                       ? parser.getBigIntegerValue().longValue()
+                       : parser.getLongValue();
+            case VALUE_NUMBER_FLOAT:
+                return parser.getDoubleValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_NULL:
+                return null;
+            case START_OBJECT: {
+                Map<String, Object> map = new HashMap<>();
+                String name;
+                while ((name = parser.nextFieldName()) != null) {
+                    map.put(name, read(parser, parser.nextToken()));
+                }
+                return map;
+            }
+            case START_ARRAY: {
+                List<Object> list = new ArrayList<>();
+                JsonToken element;
+                while ((element = parser.nextToken()) != JsonToken.END_ARRAY) {
+                    if (element == null) {
+                        throw new DataException("Unexpected end of JSON array");
+                    }
+                    list.add(read(parser, element));
+                }
+                return list;
+            }
+            default:
+                throw new DataException("Unexpected JSON token " + token);
+        }
+    }
+}
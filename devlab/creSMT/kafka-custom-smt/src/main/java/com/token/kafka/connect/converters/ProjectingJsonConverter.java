@@ -0,0 +1,118 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ProjectingJsonConverter.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Sink side replacement for JsonConverter (schemas.enable=false) that only materialises the fields the
+*       transform chain uses.
+*
+*       JsonConverter parses every column of the wide JNL_ACQ row into a tree and then a HashMap, after which
+*       selectFields / PrepareRedisRecord throw nearly all of it away. This converter scans the bytes
+*       (JsonScanner) and builds a small HashMap of the configured top-level fields only: field names are
+*       matched as bytes, unwanted values are skipped without being tokenised or decoded, nested objects and
+*       arrays included, and scanning stops as soon as every configured field has been seen.
+*
+*       Values are converted as JsonConverter does schemaless: integers -> Long, other numbers -> Double,
+*       objects -> Map, arrays -> List. Without fields configured the whole object is converted.
+*
+*       Because parsing stops early, malformed JSON after the last wanted field goes unnoticed, and of a
+*       field repeated in one object the first occurrence wins (JsonConverter keeps the last). Writing
+*       (fromConnectData) produces schemaless JSON via JsonWriter.
+*
+*       Configuration (value.converter.<name>):
+*
+*           - fields:   Top-level fields to keep, everything the SMTs read: the key field, the value fields,
+*                       __deleted, and any timestamp / filter fields (e.g. "tkcardNumber,acqJnlSeqNumber,
+*                       cardNumber,__deleted"). Empty = all fields
+*
+*       Usage, in place of JsonConverter in jnl_acq_redis_sink-SMT.sh (PROJECT_JSON=true):
+*
+*           "value.converter": "com.token.kafka.connect.converters.ProjectingJsonConverter",
+*           "value.converter.fields": "acqJnlSeqNumber,cardNumber,tkcardNumber,__deleted"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.converters;
+
+import com.token.kafka.connect.transforms.JsonWriter;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.storage.Converter;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+public class ProjectingJsonConverter implements Converter {
+
+    public static final String FIELDS_CONFIG = "fields";
+
+    private static final ConfigDef CONFIG_DEF = new ConfigDef()
+        .define(FIELDS_CONFIG,
+                ConfigDef.Type.LIST,
+                "",
+                ConfigDef.Importance.HIGH,
+                "Top-level JSON fields to convert, all others are skipped unparsed. Include every field the transform "
+                + "chain reads (key field, value fields, __deleted ...). Empty converts all fields");
+
+    // Wanted fields, as Strings and as the UTF-8 bytes they are matched against
+    private String[] fieldNames;
+    private byte[][] names;
+    private int capacity;
+
+    @Override
+    public void configure(Map<String, ?> configs, boolean isKey) {
+        SimpleConfig config = new SimpleConfig(CONFIG_DEF, configs);
+        Set<String> fields = new LinkedHashSet<>();
+        for (String field : config.getList(FIELDS_CONFIG)) {
+            if (!field.isEmpty()) {
+                fields.add(field);
+            }
+        }
+        fieldNames = fields.toArray(new String[0]);
+        names = new byte[fieldNames.length][];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = fieldNames[i].getBytes(StandardCharsets.UTF_8);
+        }
+        // HashMap sized so the projected fields never trigger a resize
+        capacity = (int) (fieldNames.length / 0.75f) + 1;
+    }
+
+    @Override
+    public ConfigDef config() {
+        return CONFIG_DEF;
+    }
+
+    @Override
+    public byte[] fromConnectData(String topic, Schema schema, Object value) {
+        return value == null ? null : JsonWriter.toJsonBytes(value);
+    }
+
+    @Override
+    public SchemaAndValue toConnectData(String topic, byte[] value) {
+        if (value == null || value.length == 0) {
+            return SchemaAndValue.NULL;
+        }
+        try {
+            Object converted = names.length > 0 ? JsonScanner.project(value, names, fieldNames, capacity) : null;
+            // Not an object, or no fields configured
+            return new SchemaAndValue(null, converted != null ? converted : JsonScanner.parse(value, 0, value.length));
+        } catch (DataException e) {
+            throw new DataException("Converting byte[] to Kafka Connect data failed due to serialization error of topic "
+                                    + topic + ": " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ConditionalWrite.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Lua script behind redis.write.mode=conditional: a write (or delete) is applied only when its version
+*       (the Kafka offset, or redis.version.field) is not older than the last one applied to the key, so a
+*       replayed or reordered record can not overwrite a newer value. An equal version is applied, only an exact
+*       replay of the same record has the offset of the last write. Check and write happen atomically in Redis,
+*       one EVALSHA per record, pipelined like the plain SETs.
+*
+*       The version applied last is kept in a companion key (<key><redis.version.key.suffix>) that expires
+*       redis.version.ttl.seconds after the last write, deletes included, so a replay within that window can
+*       not bring a deleted key back either.
+*
+*           KEYS[1]  the key            ARGV[1]  version, decimal digits without leading zeros ("" = unversioned)
+*           KEYS[2]  its version key    ARGV[2]  SET, UNLINK or DEL
+*           KEYS[3]  expiry index       ARGV[3]  value ("" for deletes)
+*                    (optional)         ARGV[4]  ttl seconds of the key, 0 = none
+*                                       ARGV[5]  ttl seconds of the version key
+*                                       ARGV[6]  expiry index score
+*
+*       Versions are compared as numbers of any length: the longer is newer, same length compares by digits.
+*       Returns 1 when applied, 0 when the version is older than the stored one.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+public final class ConditionalWrite {
+
+    public static final String SCRIPT =
+          "local version = ARGV[1]\n"
+        + "if version ~= '' then\n"
+        + "  local current = redis.call('GET', KEYS[2])\n"
+        + "  if current and (#current > #version or (#current == #version and current > version)) then\n"
+        + "    return 0\n"
+        + "  end\n"
+        + "end\n"
+        + "if ARGV[2] == 'SET' then\n"
+        + "  if ARGV[4] ~= '0' then\n"
+        + "    redis.call('SET', KEYS[1], ARGV[3], 'EX', ARGV[4])\n"
+        + "  else\n"
+        + "    redis.call('SET', KEYS[1], ARGV[3])\n"
+        + "  end\n"
+        + "  if KEYS[3] then\n"
+        + "    redis.call('ZADD', KEYS[3], ARGV[6], KEYS[1])\n"
+        + "  end\n"
+        + "else\n"
+        + "  redis.call(ARGV[2], KEYS[1])\n"
+        + "  if KEYS[3] then\n"
+        + "    redis.call('ZREM', KEYS[3], KEYS[1])\n"
+        + "  end\n"
+        + "end\n"
+        + "if version ~= '' then\n"
+        + "  redis.call('SET', KEYS[2], version, 'EX', ARGV[5])\n"
+        + "end\n"
+        + "return 1\n";
+
+    /**
+     * SHA1 of SCRIPT as SCRIPT LOAD returns it, the EVALSHA handle
+     */
+    public static final String SHA = sha1(SCRIPT);
+
+    private ConditionalWrite() {
+    }
+
+    /**
+     * A version value as ARGV[1] wants it, decimal digits without leading zeros: "" for null, null when it is not a
+     * non-negative integer. Shared by RedisWriter and RedisBootstrap so both store the same form in the version key
+     */
+    public static String normalize(Object version) {
+        if (version == null) {
+            return "";
+        }
+        if (version instanceof Long || version instanceof Integer || version instanceof Short || version instanceof Byte) {
+            long number = ((Number) version).longValue();
+            return number >= 0 ? Long.toString(number) : null;
+        }
+        if (version instanceof Number || version instanceof String) {
+            try {
+                BigInteger number = new BigDecimal(version.toString().trim()).toBigIntegerExact();
+                return number.signum() >= 0 ? number.toString() : null;
+            } catch (ArithmeticException | NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * True when version a is newer than version b, both decimal digits without leading zeros
+     */
+    public static boolean isNewer(String a, String b) {
+        return a.length() != b.length() ? a.length() > b.length() : a.compareTo(b) > 0;
+    }
+
+    /**
+     * Lower case hex SHA1 of a script, as Redis names it
+     */
+    public static String sha1(String script) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(script.getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   KeyCoalescer.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Last-write-wins over a batch of sink records: finds the records whose Redis key is written again by
+*       a newer record in the same batch, so only the newest version per key is sent.
+*
+*       Newest is the record with the highest order field (e.g. acqJnlSeqNumber, read from a Map/Struct
+*       value or a header of that name), or without an order field (or when a record lacks it) the later
+*       record in the batch, which for one partition is the higher offset.
+*
+*       Records with a null key are never coalesced. A null value (a delete) takes part when the writer applies
+*       deletes, so an update followed by a delete of the same key only costs the delete, otherwise it is
+*       skipped here as it is by the writer.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class KeyCoalescer {
+
+    private final String orderField;
+    private final boolean deletes;
+
+    // Reused across batches, the task is single threaded
+    private final Map<Object, Integer> newest = new HashMap<>();
+    private final BitSet superseded = new BitSet();
+
+    KeyCoalescer(String orderField, boolean deletes) {
+        this.orderField = orderField == null || orderField.isEmpty() ? null : orderField;
+        this.deletes    = deletes;
+    }
+
+    /**
+     * Indexes (into records) of the records replaced by a newer record for the same key
+     */
+    BitSet superseded(List<SinkRecord> records) {
+        newest.clear();
+        superseded.clear();
+
+        for (int i = 0; i < records.size(); i++) {
+            SinkRecord record = records.get(i);
+            if (record.key() == null || (record.value() == null && !deletes)) {
+                continue;
+            }
+
+            Object key = identity(record.key());
+            Integer previous = newest.get(key);
+            if (previous == null) {
+                newest.put(key, i);
+            } else if (isNewer(record, records.get(previous))) {
+                superseded.set(previous);
+                newest.put(key, i);
+            } else {
+                superseded.set(i);
+            }
+        }
+
+        newest.clear();
+        return superseded;
+    }
+
+    /**
+     * A later record wins unless both carry an order value and the earlier one is higher
+     */
+    private boolean isNewer(SinkRecord later, SinkRecord earlier) {
+        if (orderField == null) {
+            return true;
+        }
+        BigDecimal laterOrder = order(later);
+        BigDecimal earlierOrder = laterOrder != null ? order(earlier) : null;
+        return laterOrder == null || earlierOrder == null || laterOrder.compareTo(earlierOrder) >= 0;
+    }
+
+    private BigDecimal order(SinkRecord record) {
+        return toDecimal(fieldOrHeader(record, orderField));
+    }
+
+    /**
+     * The value of field in a Map/Struct value, else of the last header of that name, null when neither
+     */
+    static Object fieldOrHeader(SinkRecord record, String name) {
+        Object value = record.value();
+        Object found = null;
+        if (value instanceof Map) {
+            found = ((Map<?, ?>) value).get(name);
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            Field field = struct.schema().field(name);
+            found = field != null ? struct.get(field) : null;
+        }
+        if (found == null) {
+            Header header = record.headers().lastWithName(name);
+            found = header != null ? header.value() : null;
+        }
+        return found;
+    }
+
+    private static BigDecimal toDecimal(Object order) {
+        if (order instanceof BigDecimal) {
+            return (BigDecimal) order;
+        }
+        if (order instanceof Long || order instanceof Integer || order instanceof Short || order instanceof Byte) {
+            return BigDecimal.valueOf(((Number) order).longValue());
+        }
+        if (order instanceof Number) {
+            return new BigDecimal(order.toString());
+        }
+        if (order instanceof String) {
+            try {
+                return new BigDecimal((String) order);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Object identity(Object key) {
+        // byte[] has identity equals, compare by content
+        return key instanceof byte[] ? ByteBuffer.wrap((byte[]) key) : key;
+    }
+}
@@ -0,0 +1,868 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisBootstrap.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Bulk load of a new Redis from a MySQL export of JNL_ACQ, instead of a Debezium snapshot through Kafka
+*       and the sink one record at a time. Writes a Redis protocol (RESP) file for redis-cli --pipe:
+*
+*           java -cp "kafka-connect-token-smt-1.0.0.jar:target/connect-libs/*" com.token.kafka.connect.redis.RedisBootstrap \
+*                <sink.json> <export.tsv|csv> <out.resp|-> [options]
+*           redis-cli -h redis-az1 --pipe < out.resp
+*
+*       The Kafka Connect libs are provided, not in the jar: target/connect-libs (mvn package) or
+*       /usr/share/java/kafka in the Connect image.
+*
+*       Every row goes through the connectors' own transform chains (ConnectorChain), so projection,
+*       AddTimestamp, the key pattern / encoding and ValueToJsonString come out exactly as streamed:
+*
+*           - --source <source.json>: the source chain first (FilterAndExtractKey filters, sets the key and the
+*             AZ header). The Debezium route / unwrap steps are not on the classpath and left out, the rows
+*             already are the unwrapped row. Any other transform not on the classpath, of either chain, fails
+*             the run before anything is written
+*           - --key <value>: without a source config, the Kafka key every row gets (e.g. AZ1)
+*           - then the sink chain of <sink.json>, and the commands RedisWriter would send for its redis.*
+*             settings: SET [EX redis.ttl.seconds] or HSET + EXPIRE (redis.value.type=hash), ZADD to
+*             redis.expiry.index, and with redis.write.mode=conditional and redis.version.field the version
+*             key. A SELECT of redis.database leads the file when it is not 0
+*
+*       The export is tab separated as mysql -B / SELECT .. INTO OUTFILE write it (\t \n \\ \0 escapes, NULL or
+*       \N for null), or comma separated with "quoted" fields for a .csv file (--format overrides). The first
+*       line holds the column names unless --columns lists them. Values are strings, --numeric columns
+*       (integer types) longs. Each row also gets __deleted=false, as ExtractNewRecordState
+*       delete.handling.mode=rewrite adds it. The source chain sees the row as a Struct, as Debezium hands it
+*       over, the sink chain as the schemaless Map the JsonConverter (schemas.enable=false) reads back.
+*
+*       Rows are converted in parallel on a fork-join pool: the file is memory-mapped in chunks split at line
+*       ends, each chunk forks into halves down to LEAF bytes, and the RESP of the chunks is written in file
+*       order, a bounded window of chunks ahead. File order matters, a card's later rows overwrite its
+*       earlier ones as in the snapshot, so export ORDER BY the primary key.
+*
+*       --position <binlog file>:<pos> (and --gtid, --snapshot-ms) are recorded in <out>.position (or
+*       --position-file) with the row and key counts: where the export was taken, so streaming resumes from
+*       there. Redis writes are last-write-wins per key, replaying from a position somewhat before the export
+*       is harmless. Row errors fail the run unless the sink config has "errors.tolerance": "all".
+*
+*       Reports go to stderr, "-" writes the RESP to stdout: RedisBootstrap .. - | redis-cli --pipe
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import com.token.kafka.connect.transforms.ConnectorChain;
+import com.token.kafka.connect.transforms.JsonWriter;
+import org.apache.kafka.common.record.TimestampType;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+public final class RedisBootstrap {
+
+    private static final long CHUNK = 16L * 1024 * 1024;
+    private static final int LEAF   = 256 * 1024;
+
+    private static final String DELETED_FIELD = "__deleted";
+
+    private final Map<String, String> sinkConfig;
+    private final Map<String, String> sourceConfig;
+    private final String key;
+    private final String topic;
+    private final boolean csv;
+    private final long timestamp;
+    private final boolean tolerateErrors;
+
+    private List<String> columns;
+    private boolean[] numeric;
+    private Schema rowSchema;
+
+    // RedisWriter settings of the sink config
+    private final int database;
+    private final long ttlSeconds;
+    private final String expiryIndex;
+    private final boolean hashValues;
+    private final String versionField;
+    private final byte[] versionSuffix;
+    private final long versionTtlSeconds;
+
+    private final List<Worker> workers = Collections.synchronizedList(new ArrayList<>());
+    private final ThreadLocal<Worker> local = ThreadLocal.withInitial(this::newWorker);
+    private final Set<String> warnings = Collections.synchronizedSet(new LinkedHashSet<>());
+
+    private RedisBootstrap(Map<String, String> sinkConfig, Map<String, String> sourceConfig, String key, boolean csv, long timestamp) {
+        this.sinkConfig     = sinkConfig;
+        this.sourceConfig   = sourceConfig;
+        this.key            = key;
+        this.csv            = csv;
+        this.timestamp      = timestamp;
+        this.tolerateErrors = "all".equals(sinkConfig.get("errors.tolerance"));
+        List<String> topics = ConnectorChain.list(sinkConfig.get("topics"));
+        this.topic          = topics.isEmpty() ? "jnl_acq" : topics.get(0);
+
+        RedisSinkConfig config = new RedisSinkConfig(sinkConfig);
+        database          = config.getInt(RedisSinkConfig.DATABASE_CONFIG);
+        ttlSeconds        = config.getLong(RedisSinkConfig.TTL_CONFIG);
+        String index      = config.getString(RedisSinkConfig.EXPIRY_INDEX_CONFIG);
+        expiryIndex       = index == null || index.isEmpty() ? null : index;
+        hashValues        = RedisSinkConfig.VALUE_TYPE_HASH.equals(config.getString(RedisSinkConfig.VALUE_TYPE_CONFIG));
+        String version    = config.getString(RedisSinkConfig.VERSION_FIELD_CONFIG);
+        versionField      = RedisSinkConfig.WRITE_MODE_CONDITIONAL.equals(config.getString(RedisSinkConfig.WRITE_MODE_CONFIG))
+                            && version != null && !version.isEmpty() ? version : null;
+        versionSuffix     = config.getString(RedisSinkConfig.VERSION_SUFFIX_CONFIG).getBytes(StandardCharsets.UTF_8);
+        versionTtlSeconds = config.getLong(RedisSinkConfig.VERSION_TTL_CONFIG);
+
+        // Both chains once up front: a transform class that is not on the classpath fails here
+        if (sourceConfig != null) {
+            ConnectorChain<SourceRecord> source = new ConnectorChain<>(sourceConfig, ConnectorChain.DEBEZIUM_STEPS);
+            for (Map.Entry<String, String> skipped : source.skipped().entrySet()) {
+                warnings.add("Source transform " + skipped.getKey() + " (" + skipped.getValue() + ") is not on the classpath, left out");
+            }
+            source.close();
+        }
+        new ConnectorChain<SinkRecord>(sinkConfig).close();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Conversion
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Convert the export to RESP on out, returns the totals
+     */
+    private Totals run(Path export, OutputStream out, List<String> givenColumns, Set<String> numericColumns, int threads)
+            throws IOException {
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        Totals totals = new Totals();
+        try (FileChannel channel = FileChannel.open(export, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long dataStart = 0;
+            if (givenColumns != null) {
+                columns = givenColumns;
+            } else {
+                long headerEnd = lineEnd(channel, 0, size);
+                MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, headerEnd);
+                int end = (int) headerEnd;
+                if (end > 0 && header.get(end - 1) == '\n') {
+                    end--;
+                }
+                columns = Arrays.asList(split(header, 0, trimEnd(header, 0, end)));
+                dataStart = headerEnd;
+            }
+            numeric = new boolean[columns.size()];
+            for (int i = 0; i < numeric.length; i++) {
+                numeric[i] = numericColumns.contains(columns.get(i));
+            }
+            for (String column : numericColumns) {
+                if (!columns.contains(column)) {
+                    warnings.add("Numeric column " + column + " is not in the export");
+                }
+            }
+            if (sourceConfig != null) {
+                SchemaBuilder builder = SchemaBuilder.struct().name(topic + ".Value").optional();
+                for (int i = 0; i < numeric.length; i++) {
+                    builder.field(columns.get(i), numeric[i] ? Schema.OPTIONAL_INT64_SCHEMA : Schema.OPTIONAL_STRING_SCHEMA);
+                }
+                if (!columns.contains(DELETED_FIELD)) {
+                    builder.field(DELETED_FIELD, Schema.OPTIONAL_STRING_SCHEMA);
+                }
+                rowSchema = builder.build();
+            }
+
+            if (database != 0) {
+                RespBuffer select = new RespBuffer(32);
+                select.command(2).arg("SELECT").arg(Integer.toString(database));
+                out.write(select.data, 0, select.size);
+                totals.bytes += select.size;
+            }
+
+            // Chunks in file order, a window of 2 per thread converting ahead of the writer
+            ArrayDeque<ForkJoinTask<List<byte[]>>> window = new ArrayDeque<>();
+            long start = dataStart;
+            while (start < size) {
+                long end = lineEnd(channel, Math.min(size, start + CHUNK), size);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+                window.add(pool.submit(new Convert(buffer, 0, buffer.limit(), start)));
+                while (window.size() >= 2 * threads) {
+                    totals.bytes += write(out, window.poll().join());
+                }
+                start = end;
+            }
+            while (!window.isEmpty()) {
+                totals.bytes += write(out, window.poll().join());
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        synchronized (workers) {
+            for (Worker worker : workers) {
+                totals.add(worker);
+            }
+        }
+        return totals;
+    }
+
+    private static long write(OutputStream out, List<byte[]> segments) throws IOException {
+        long bytes = 0;
+        for (byte[] segment : segments) {
+            out.write(segment);
+            bytes += segment.length;
+        }
+        return bytes;
+    }
+
+    /**
+     * Offset just past the first line end at or after from, size when there is none
+     */
+    private static long lineEnd(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer probe = ByteBuffer.allocate(64 * 1024);
+        long at = from;
+        while (at < size) {
+            probe.clear();
+            int read = channel.read(probe, at);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (probe.get(i) == '\n') {
+                    return at + i + 1;
+                }
+            }
+            at += read;
+        }
+        return size;
+    }
+
+    /**
+     * RESP of the rows in [start, end) of a chunk, split in halves while larger than LEAF
+     */
+    private final class Convert extends RecursiveTask<List<byte[]>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final MappedByteBuffer buffer;
+        private final int start;
+        private final int end;
+        private final long position;
+
+        Convert(MappedByteBuffer buffer, int start, int end, long position) {
+            this.buffer   = buffer;
+            this.start    = start;
+            this.end      = end;
+            this.position = position;
+        }
+
+        @Override
+        protected List<byte[]> compute() {
+            if (end - start > LEAF) {
+                int middle = start + (end - start) / 2;
+                while (middle < end && buffer.get(middle - 1) != '\n') {
+                    middle++;
+                }
+                if (middle < end) {
+                    Convert first = new Convert(buffer, start, middle, position);
+                    first.fork();
+                    List<byte[]> second = new Convert(buffer, middle, end, position).compute();
+                    List<byte[]> result = first.join();
+                    result.addAll(second);
+                    return result;
+                }
+            }
+            RespBuffer out = new RespBuffer(end - start + 1024);
+            local.get().convert(buffer, start, end, position, out);
+            List<byte[]> result = new ArrayList<>();
+            result.add(Arrays.copyOf(out.data, out.size));
+            return result;
+        }
+    }
+
+    private Worker newWorker() {
+        Worker worker = new Worker();
+        workers.add(worker);
+        return worker;
+    }
+
+    /**
+     * One fork-join thread's chains and counts
+     */
+    private final class Worker {
+
+        final ConnectorChain<SourceRecord> source = sourceConfig != null
+                                                    ? new ConnectorChain<>(sourceConfig, ConnectorChain.DEBEZIUM_STEPS) : null;
+        final ConnectorChain<SinkRecord> sink = new ConnectorChain<>(sinkConfig);
+
+        long rows;
+        long keys;
+        long nullKeys;
+        long nullValues;
+        long errors;
+        String firstError;
+
+        void convert(MappedByteBuffer buffer, int start, int end, long position, RespBuffer out) {
+            int lineStart = start;
+            for (int i = start; i <= end; i++) {
+                if (i < end && buffer.get(i) != '\n') {
+                    continue;
+                }
+                int lineEnd = trimEnd(buffer, lineStart, i);
+                if (lineEnd > lineStart) {
+                    long offset = position + lineStart;
+                    rows++;
+                    try {
+                        row(split(buffer, lineStart, lineEnd), offset, out);
+                    } catch (RuntimeException e) {
+                        errors++;
+                        String message = "Row at byte " + offset + ": " + e.getMessage();
+                        if (!tolerateErrors) {
+                            throw new ConnectException(message, e);
+                        }
+                        if (firstError == null) {
+                            firstError = message;
+                        }
+                    }
+                }
+                lineStart = i + 1;
+            }
+        }
+
+        private void row(String[] fields, long offset, RespBuffer out) {
+            if (fields.length != columns.size()) {
+                throw new DataException("Row has " + fields.length + " fields, expected " + columns.size());
+            }
+            SinkRecord record;
+            if (source != null) {
+                Struct row = new Struct(rowSchema);
+                List<Field> rowFields = rowSchema.fields();
+                for (int i = 0; i < fields.length; i++) {
+                    row.put(rowFields.get(i), numeric[i] ? number(columns.get(i), fields[i]) : fields[i]);
+                }
+                if (rowFields.size() > fields.length) {
+                    row.put(rowFields.get(fields.length), "false");
+                }
+                SourceRecord sourceRecord = source.apply(new SourceRecord(Collections.emptyMap(), Collections.emptyMap(),
+                                                                          topic, null, null, key, rowSchema, row, timestamp));
+                if (sourceRecord == null) {
+                    return;
+                }
+                Object value = sourceRecord.value() instanceof Struct ? toMap((Struct) sourceRecord.value()) : sourceRecord.value();
+                record = new SinkRecord(topic, 0, null, sourceRecord.key(), null, value,
+                                        offset, timestamp, TimestampType.CREATE_TIME, sourceRecord.headers());
+            } else {
+                Map<String, Object> value = new LinkedHashMap<>(columns.size() * 2);
+                for (int i = 0; i < fields.length; i++) {
+                    value.put(columns.get(i), numeric[i] ? number(columns.get(i), fields[i]) : fields[i]);
+                }
+                value.putIfAbsent(DELETED_FIELD, "false");
+                record = new SinkRecord(topic, 0, null, key, null, value, offset, timestamp, TimestampType.CREATE_TIME);
+            }
+
+            record = sink.apply(record);
+            if (record == null) {
+                return;
+            }
+            encode(record, out);
+        }
+
+        /**
+         * The commands RedisWriter sends for a record, less deletes: a new Redis has nothing to delete
+         */
+        private void encode(SinkRecord record, RespBuffer out) {
+            Object recordKey = record.key();
+            Object value     = record.value();
+            if (recordKey == null) {
+                nullKeys++;
+                return;
+            }
+            if (value == null) {
+                nullValues++;
+                return;
+            }
+
+            // Normalised as RedisWriter sends it, checked before anything of the row is written
+            String version = null;
+            if (versionField != null) {
+                Object field = KeyCoalescer.fieldOrHeader(record, versionField);
+                version = ConditionalWrite.normalize(field);
+                if (version == null) {
+                    throw new DataException("Version " + versionField + " must be a non-negative integer, got '" + field + "'");
+                }
+            }
+            keys++;
+
+            if (hashValues && (value instanceof Map || value instanceof Struct)) {
+                if (!hash(out, recordKey, value)) {
+                    keys--;
+                    nullValues++;
+                    return;
+                }
+            } else {
+                out.command(ttlSeconds > 0 ? 5 : 3).arg("SET").arg(recordKey).arg(value);
+                if (ttlSeconds > 0) {
+                    out.arg("EX").arg(Long.toString(ttlSeconds));
+                }
+            }
+
+            if (expiryIndex != null) {
+                out.command(4).arg("ZADD").arg(expiryIndex).arg(Long.toString(timestamp)).arg(recordKey);
+            }
+
+            if (version != null && !version.isEmpty()) {
+                byte[] base = recordKey instanceof byte[] ? (byte[]) recordKey : recordKey.toString().getBytes(StandardCharsets.UTF_8);
+                byte[] versionKey = Arrays.copyOf(base, base.length + versionSuffix.length);
+                System.arraycopy(versionSuffix, 0, versionKey, base.length, versionSuffix.length);
+                out.command(5).arg("SET").arg(versionKey).arg(version)
+                   .arg("EX").arg(Long.toString(versionTtlSeconds));
+            }
+        }
+
+        /**
+         * HSET of the value's fields, false when it has none (HSET needs one, RedisWriter skips it too). No
+         * UNLINK first as RedisWriter sends, the Redis is new
+         */
+        private boolean hash(RespBuffer out, Object recordKey, Object value) {
+            if (value instanceof Struct) {
+                Struct struct = (Struct) value;
+                List<Field> fields = struct.schema().fields();
+                if (fields.isEmpty()) {
+                    return false;
+                }
+                out.command(2 + 2 * fields.size()).arg("HSET").arg(recordKey);
+                for (Field field : fields) {
+                    Object fieldValue = struct.get(field);
+                    out.arg(field.name()).arg(fieldValue != null ? fieldValue : "");
+                }
+            } else {
+                Map<?, ?> map = (Map<?, ?>) value;
+                if (map.isEmpty()) {
+                    return false;
+                }
+                out.command(2 + 2 * map.size()).arg("HSET").arg(recordKey);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    out.arg(String.valueOf(entry.getKey())).arg(entry.getValue() != null ? entry.getValue() : "");
+                }
+            }
+            if (ttlSeconds > 0) {
+                out.command(3).arg("EXPIRE").arg(recordKey).arg(Long.toString(ttlSeconds));
+            }
+            return true;
+        }
+    }
+
+    /**
+     * A numeric column as Debezium has an integer column, a Long
+     */
+    private static Long number(String column, String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            throw new DataException("Column " + column + " is not an integer: '" + text + "'");
+        }
+    }
+
+    /**
+     * A Struct as the JsonConverter without schemas reads it back from Kafka
+     */
+    private static Map<String, Object> toMap(Struct struct) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        for (Field field : struct.schema().fields()) {
+            Object value = struct.get(field);
+            map.put(field.name(), value instanceof Struct ? toMap((Struct) value) : value);
+        }
+        return map;
+    }
+
+    private static int trimEnd(ByteBuffer buffer, int start, int end) {
+        return end > start && buffer.get(end - 1) == '\r' ? end - 1 : end;
+    }
+
+    /**
+     * The fields of one line, null for NULL / \N
+     */
+    private String[] split(ByteBuffer buffer, int start, int end) {
+        return csv ? splitCsv(buffer, start, end) : splitTsv(buffer, start, end);
+    }
+
+    private static String[] splitTsv(ByteBuffer buffer, int start, int end) {
+        List<String> fields = new ArrayList<>();
+        byte[] field = new byte[Math.max(16, end - start)];
+        int length = 0;
+        boolean escaped = false;
+        for (int i = start; i <= end; i++) {
+            byte c = i < end ? buffer.get(i) : (byte) '\t';
+            if (c == '\t') {
+                fields.add(field(field, length, escaped));
+                length  = 0;
+                escaped = false;
+            } else if (c == '\\' && i + 1 < end) {
+                byte next = buffer.get(++i);
+                escaped = true;
+                switch (next) {
+                    case 't': field[length++] = '\t'; break;
+                    case 'n': field[length++] = '\n'; break;
+                    case 'r': field[length++] = '\r'; break;
+                    case '0': field[length++] = 0; break;
+                    case 'Z': field[length++] = 26; break;
+                    case 'N':
+                        if (length == 0 && (i + 1 == end || buffer.get(i + 1) == '\t')) {
+                            // \N, MySQL's null
+                            fields.add(null);
+                            i++;
+                            continue;
+                        }
+                        field[length++] = next;
+                        break;
+                    default:  field[length++] = next;
+                }
+            } else {
+                field[length++] = c;
+            }
+        }
+        return fields.toArray(new String[0]);
+    }
+
+    private static String[] splitCsv(ByteBuffer buffer, int start, int end) {
+        List<String> fields = new ArrayList<>();
+        byte[] field = new byte[Math.max(16, end - start)];
+        int i = start;
+        while (true) {
+            int length = 0;
+            boolean quoted = i < end && buffer.get(i) == '"';
+            if (quoted) {
+                i++;
+                while (true) {
+                    if (i >= end) {
+                        throw new DataException("Unterminated quoted field, line breaks inside CSV fields are not supported");
+                    }
+                    byte c = buffer.get(i++);
+                    if (c == '"') {
+                        if (i < end && buffer.get(i) == '"') {
+                            field[length++] = '"';
+                            i++;
+                            continue;
+                        }
+                        break;
+                    }
+                    field[length++] = c;
+                }
+                fields.add(new String(field, 0, length, StandardCharsets.UTF_8));
+            } else {
+                while (i < end && buffer.get(i) != ',') {
+                    field[length++] = buffer.get(i++);
+                }
+                fields.add(field(field, length, false));
+            }
+            if (i >= end) {
+                return fields.toArray(new String[0]);
+            }
+            if (buffer.get(i) != ',') {
+                throw new DataException("Expected ',' after a quoted field at " + (i - start));
+            }
+            i++;
+        }
+    }
+
+    /**
+     * A field's text, an unescaped NULL (mysql -B) or \N is null
+     */
+    private static String field(byte[] field, int length, boolean escaped) {
+        if (!escaped && length == 4 && field[0] == 'N' && field[1] == 'U' && field[2] == 'L' && field[3] == 'L') {
+            return null;
+        }
+        if (!escaped && length == 2 && field[0] == '\\' && field[1] == 'N') {
+            return null;
+        }
+        return new String(field, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * RESP commands in a growing byte array
+     */
+    static final class RespBuffer {
+
+        byte[] data;
+        int size;
+
+        RespBuffer(int capacity) {
+            data = new byte[Math.max(64, capacity)];
+        }
+
+        RespBuffer command(int argc) {
+            put((byte) '*');
+            number(argc);
+            return this;
+        }
+
+        /**
+         * An argument as RedisWriter writes it: text as UTF-8, numbers / booleans as text, byte[] as is,
+         * anything else as JSON
+         */
+        RespBuffer arg(Object value) {
+            if (value instanceof byte[]) {
+                return arg((byte[]) value);
+            }
+            if (value instanceof String) {
+                return arg(((String) value).getBytes(StandardCharsets.UTF_8));
+            }
+            if (value instanceof Number || value instanceof Boolean) {
+                return arg(value.toString().getBytes(StandardCharsets.US_ASCII));
+            }
+            return arg(JsonWriter.toJsonBytes(value));
+        }
+
+        RespBuffer arg(byte[] value) {
+            put((byte) '$');
+            number(value.length);
+            ensure(value.length + 2);
+            System.arraycopy(value, 0, data, size, value.length);
+            size += value.length;
+            data[size++] = '\r';
+            data[size++] = '\n';
+            return this;
+        }
+
+        private void number(int value) {
+            byte[] text = Integer.toString(value).getBytes(StandardCharsets.US_ASCII);
+            ensure(text.length + 2);
+            System.arraycopy(text, 0, data, size, text.length);
+            size += text.length;
+            data[size++] = '\r';
+            data[size++] = '\n';
+        }
+
+        private void put(byte b) {
+            ensure(1);
+            data[size++] = b;
+        }
+
+        private void ensure(int bytes) {
+            if (size + bytes > data.length) {
+                data = Arrays.copyOf(data, Math.max(size + bytes, data.length * 2));
+            }
+        }
+    }
+
+    private static final class Totals {
+        long rows;
+        long keys;
+        long nullKeys;
+        long nullValues;
+        long errors;
+        long bytes;
+        String firstError;
+        List<String> steps = new ArrayList<>();
+        long[] dropped = new long[0];
+
+        void add(Worker worker) {
+            rows       += worker.rows;
+            keys       += worker.keys;
+            nullKeys   += worker.nullKeys;
+            nullValues += worker.nullValues;
+            errors     += worker.errors;
+            if (firstError == null) {
+                firstError = worker.firstError;
+            }
+            List<String> names = new ArrayList<>();
+            List<Long> counts = new ArrayList<>();
+            if (worker.source != null) {
+                for (int i = 0; i < worker.source.names().size(); i++) {
+                    names.add("source " + worker.source.names().get(i));
+                    counts.add(worker.source.dropped()[i]);
+                }
+            }
+            for (int i = 0; i < worker.sink.names().size(); i++) {
+                names.add("sink " + worker.sink.names().get(i));
+                counts.add(worker.sink.dropped()[i]);
+            }
+            if (steps.isEmpty()) {
+                steps   = names;
+                dropped = new long[names.size()];
+            }
+            for (int i = 0; i < dropped.length; i++) {
+                dropped[i] += counts.get(i);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Command line
+    // ---------------------------------------------------------------------------------------------
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        options.put("source",        "");
+        options.put("key",           "");
+        options.put("columns",       "");
+        options.put("numeric",       "");
+        options.put("format",        "");
+        options.put("threads",       Integer.toString(Runtime.getRuntime().availableProcessors()));
+        options.put("position",      "");
+        options.put("gtid",          "");
+        options.put("snapshot-ms",   "");
+        options.put("position-file", "");
+
+        List<String> positional = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.startsWith("--") && options.containsKey(arg.substring(2)) && i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else if (arg.startsWith("--")) {
+                usage("Unknown option " + arg);
+            } else {
+                positional.add(arg);
+            }
+        }
+        if (positional.size() != 3) {
+            usage("Expected <sink.json> <export> <out.resp|->");
+        }
+
+        PrintStream report = System.err;
+        try {
+            Path export = Paths.get(positional.get(1));
+            String outName = positional.get(2);
+            String format = options.get("format").isEmpty()
+                            ? (export.toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? "csv" : "tsv")
+                            : options.get("format");
+            if (!format.equals("csv") && !format.equals("tsv")) {
+                usage("--format must be tsv or csv");
+            }
+            Map<String, String> sink = ConnectorChain.readConfig(new File(positional.get(0)));
+            Map<String, String> source = options.get("source").isEmpty() ? null
+                                         : ConnectorChain.readConfig(new File(options.get("source")));
+            String key = options.get("key").isEmpty() ? null : options.get("key");
+            if (source == null && key == null) {
+                report.println("WARNING: neither --source nor --key given, records have no Kafka key");
+            }
+            long snapshotMs = options.get("snapshot-ms").isEmpty() ? -1 : Long.parseLong(options.get("snapshot-ms"));
+            List<String> columns = options.get("columns").isEmpty() ? null : ConnectorChain.list(options.get("columns"));
+            Set<String> numeric = new HashSet<>(ConnectorChain.list(options.get("numeric")));
+            int threads = Math.max(1, Integer.parseInt(options.get("threads")));
+
+            RedisBootstrap bootstrap = new RedisBootstrap(sink, source, key, format.equals("csv"),
+                                                          snapshotMs > 0 ? snapshotMs : System.currentTimeMillis());
+
+            long start = System.nanoTime();
+            Totals totals;
+            boolean stdout = outName.equals("-");
+            try (OutputStream out = new BufferedOutputStream(stdout ? System.out : new FileOutputStream(outName), 1 << 20)) {
+                totals = bootstrap.run(export, out, columns, numeric, threads);
+            }
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            report.printf(Locale.ROOT, "Redis bootstrap: %s -> %s (%s, %d threads)%n", export, stdout ? "stdout" : outName, format, threads);
+            report.printf(Locale.ROOT, "  Columns:  %d%s, %d numeric%n", bootstrap.columns.size(),
+                          columns == null ? " from the header line" : "", numeric.size());
+            synchronized (bootstrap.warnings) {
+                for (String warning : bootstrap.warnings) {
+                    report.println("  WARNING: " + warning);
+                }
+            }
+            report.printf(Locale.ROOT, "  Rows:     %,d in %.2f s = %,.0f rows/s%n", totals.rows, seconds, totals.rows / seconds);
+            report.printf(Locale.ROOT, "  Keys:     %,d written%n", totals.keys);
+            for (int i = 0; i < totals.steps.size(); i++) {
+                if (totals.dropped[i] > 0) {
+                    report.printf(Locale.ROOT, "            %-28s dropped %,d%n", totals.steps.get(i), totals.dropped[i]);
+                }
+            }
+            if (totals.nullKeys + totals.nullValues > 0) {
+                report.printf(Locale.ROOT, "  Skipped:  %,d without a key, %,d without a value%n", totals.nullKeys, totals.nullValues);
+            }
+            if (totals.errors > 0) {
+                report.printf(Locale.ROOT, "  Errors:   %,d, first: %s%n", totals.errors, totals.firstError);
+            }
+            report.printf(Locale.ROOT, "  Output:   %,d bytes, %.1f MB/s%n", totals.bytes, totals.bytes / seconds / (1024 * 1024));
+
+            String position = options.get("position");
+            String positionFile = !options.get("position-file").isEmpty() ? options.get("position-file")
+                                  : stdout ? null : outName + ".position";
+            if (positionFile != null) {
+                writePosition(Paths.get(positionFile), export, bootstrap.topic, position, options.get("gtid"), snapshotMs, totals);
+                report.printf(Locale.ROOT, "  Position: %s%s, in %s%n", position.isEmpty() ? "not given" : position,
+                              options.get("gtid").isEmpty() ? "" : " (GTID " + options.get("gtid") + ")", positionFile);
+            } else if (!position.isEmpty()) {
+                report.printf(Locale.ROOT, "  Position: %s%n", position);
+            }
+        } catch (IOException | RuntimeException e) {
+            // ForkJoinTask.join() rethrows a copy wrapping the original, message = original.toString()
+            Throwable cause = e;
+            while (cause.getCause() != null && cause.getCause().toString().equals(cause.getMessage())) {
+                cause = cause.getCause();
+            }
+            report.println("Bootstrap failed: " + cause.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * key=value lines: where the export was taken and what came out of it
+     */
+    private static void writePosition(Path file, Path export, String topic, String position, String gtid,
+                                      long snapshotMs, Totals totals) throws IOException {
+        int colon = position.lastIndexOf(':');
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("# Redis bootstrap from " + export + " for topic " + topic + "\n");
+            out.write("binlog.file=" + (colon > 0 ? position.substring(0, colon) : position) + "\n");
+            out.write("binlog.position=" + (colon > 0 ? position.substring(colon + 1) : "") + "\n");
+            out.write("gtid.set=" + gtid + "\n");
+            out.write("snapshot.ms=" + (snapshotMs > 0 ? Long.toString(snapshotMs) : "") + "\n");
+            out.write("rows=" + totals.rows + "\n");
+            out.write("keys=" + totals.keys + "\n");
+            out.write("errors=" + totals.errors + "\n");
+        }
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: RedisBootstrap <sink.json> <export.tsv|csv> <out.resp|-> [--source <source.json> | --key AZ1]");
+        System.err.println("         [--columns c1,c2,..] [--numeric c1,c2,..] [--format tsv|csv] [--threads n]");
+        System.err.println("         [--position <binlog file>:<pos>] [--gtid <set>] [--snapshot-ms <epoch ms>] [--position-file <path>]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,499 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisPurge.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Removes keys older than --hours from Redis without blocking it, replaces redis/purge.sh (KEYS plus
+*       one GET and one jq per key).
+*
+*       Index mode (--index, keys written by RedisSinkConnector with redis.expiry.index):
+*           ZRANGEBYSCORE <index> -inf <cutoff> LIMIT 0 <batch>, then one INDEX_SCRIPT for that batch that
+*           UNLINKs + ZREMs each key whose ZSCORE is still at or below the cutoff, until nothing older than
+*           the cutoff is left. Costs O(expired keys).
+*
+*       Scan mode (--pattern, keys written without an index):
+*           SCAN <cursor> MATCH <pattern> COUNT <batch>, pipelined GET of each page (HGET <field> for
+*           redis.value.type=hash keys), the createdAt field is read from the JSON value (ISO8601 in
+*           --timezone, or epoch ms) and expired keys are removed a page at a time by one SCAN_SCRIPT, which
+*           UNLINKs each key only while it still holds the value read. With --index as well, surviving keys
+*           are added to the index (ZADD), so later runs can use index mode. Keys of other types (the index
+*           itself) are skipped, keys whose value has no readable createdAt (msgpack / binary values) are
+*           kept, both are counted and reported.
+*
+*       The check and the delete happen in one script, atomically in Redis: a key the sink rewrote between
+*       the read and the delete (a new ZADD score, a new value) is kept with its new index entry.
+*
+*       Every removed key takes its conditional write version key (<key><--version-suffix>, redis.version.key.suffix)
+*       along in the same UNLINK, a version key left behind would block a later write of the key with a lower
+*       version. Scan mode skips the version keys the pattern matches, they have no createdAt of their own.
+*
+*       UNLINK frees values off the Redis main thread, --pause-ms sleeps between batches to leave room for
+*       the sink. --dry-run only counts.
+*
+*       Usage:
+*           java -cp kafka-connect-token-smt-1.0.0.jar com.token.kafka.connect.redis.RedisPurge \
+*               --host 127.0.0.1 --port 6379 --db 0 --index az1:expiry --hours 24
+*
+*       Options default to the purge.sh environment variables: REDIS_HOST, REDIS_PORT, DB_INDEX,
+*       REDIS_PASSWORD, KEY_PATTERN, HOURS_OLD, plus EXPIRY_INDEX and VERSION_SUFFIX (default ":ver", empty
+*       for none).
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class RedisPurge {
+
+    /**
+     * KEYS[1] the index, then each key, followed by its version key when ARGV[2] is 2. ARGV[1] the cutoff.
+     * Returns the number of keys removed
+     */
+    static final String INDEX_SCRIPT =
+          "local cutoff = tonumber(ARGV[1])\n"
+        + "local step = tonumber(ARGV[2])\n"
+        + "local removed = 0\n"
+        + "for i = 2, #KEYS, step do\n"
+        + "  local score = redis.call('ZSCORE', KEYS[1], KEYS[i])\n"
+        + "  if score and tonumber(score) <= cutoff then\n"
+        + "    if step == 2 then\n"
+        + "      redis.call('UNLINK', KEYS[i], KEYS[i + 1])\n"
+        + "    else\n"
+        + "      redis.call('UNLINK', KEYS[i])\n"
+        + "    end\n"
+        + "    redis.call('ZREM', KEYS[1], KEYS[i])\n"
+        + "    removed = removed + 1\n"
+        + "  end\n"
+        + "end\n"
+        + "return removed\n";
+
+    /**
+     * KEYS each key, followed by its version key when ARGV[1] is 2. ARGV[2] the hash field, then per key
+     * "s" (string) or "h" (hash) and the value read. Returns the number of keys removed
+     */
+    static final String SCAN_SCRIPT =
+          "local step = tonumber(ARGV[1])\n"
+        + "local removed = 0\n"
+        + "local a = 3\n"
+        + "for i = 1, #KEYS, step do\n"
+        + "  local current\n"
+        + "  if ARGV[a] == 'h' then\n"
+        + "    current = redis.pcall('HGET', KEYS[i], ARGV[2])\n"
+        + "  else\n"
+        + "    current = redis.pcall('GET', KEYS[i])\n"
+        + "  end\n"
+        + "  if current == ARGV[a + 1] then\n"
+        + "    if step == 2 then\n"
+        + "      redis.call('UNLINK', KEYS[i], KEYS[i + 1])\n"
+        + "    else\n"
+        + "      redis.call('UNLINK', KEYS[i])\n"
+        + "    end\n"
+        + "    removed = removed + 1\n"
+        + "  end\n"
+        + "  a = a + 2\n"
+        + "end\n"
+        + "return removed\n";
+
+    private final RespConnection connection;
+    private final int batchSize;
+    private final long pauseMs;
+    private final boolean dryRun;
+    private final byte[] versionSuffix;
+
+    private long examined;
+    private long removed;
+    private long otherTypes;
+    private long noTimestamp;
+
+    /**
+     * versionSuffix names the version key removed with each key, null or empty for none
+     */
+    public RedisPurge(RespConnection connection, int batchSize, long pauseMs, boolean dryRun, String versionSuffix) {
+        this.connection    = connection;
+        this.batchSize     = batchSize;
+        this.pauseMs       = pauseMs;
+        this.dryRun        = dryRun;
+        this.versionSuffix = versionSuffix == null || versionSuffix.isEmpty()
+                             ? null : versionSuffix.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Keys looked at (scan mode) or found expired (index mode) */
+    public long examined() {
+        return examined;
+    }
+
+    /** Keys removed, or that would be removed with --dry-run */
+    public long removed() {
+        return removed;
+    }
+
+    /** Scan mode: keys skipped because they are neither a string nor a hash */
+    public long otherTypes() {
+        return otherTypes;
+    }
+
+    /** Scan mode: keys kept because no createdAt could be read from their value */
+    public long noTimestamp() {
+        return noTimestamp;
+    }
+
+    /**
+     * Remove every key indexed with a score (epoch ms) at or below cutoff
+     */
+    public long purgeIndex(String index, long cutoff) throws IOException {
+        if (dryRun) {
+            long count = (Long) check(connection.call("ZCOUNT", index, "-inf", cutoff));
+            examined += count;
+            removed  += count;
+            return count;
+        }
+
+        long start = removed;
+        while (true) {
+            Object[] keys = (Object[]) check(connection.call("ZRANGEBYSCORE", index, "-inf", cutoff, "LIMIT", 0, batchSize));
+            if (keys == null || keys.length == 0) {
+                return removed - start;
+            }
+            examined += keys.length;
+
+            int step = versionSuffix != null ? 2 : 1;
+            connection.command(6 + step * keys.length).arg("EVAL").arg(INDEX_SCRIPT).arg(1 + step * keys.length)
+                      .arg(index);
+            for (Object key : keys) {
+                keyArgs((byte[]) key);
+            }
+            connection.arg(cutoff).arg(step);
+            removed += (Long) check(connection.sync().get(0));
+            pause();
+        }
+    }
+
+    /**
+     * SCAN keys matching pattern, remove those whose JSON field (epoch ms or ISO8601 in zone) is at or
+     * below cutoff, hashes by the field itself. Keys without the field are kept, keys of other types and
+     * index are skipped. When index is not null, kept keys are added to it
+     */
+    public long purgeScan(String pattern, String field, ZoneId zone, long cutoff, String index) throws IOException {
+        byte[] fieldToken = ("\"" + field + "\":").getBytes(StandardCharsets.UTF_8);
+        byte[] indexKey = index != null ? index.getBytes(StandardCharsets.UTF_8) : null;
+        long start = removed;
+        String cursor = "0";
+        List<byte[]> candidates = new ArrayList<>(batchSize);
+        List<byte[]> expired = new ArrayList<>(batchSize);
+        List<byte[]> expiredValues = new ArrayList<>(batchSize);
+        List<Boolean> expiredHash = new ArrayList<>(batchSize);
+        do {
+            Object[] page = (Object[]) check(connection.call("SCAN", cursor, "MATCH", pattern, "COUNT", batchSize));
+            cursor = new String((byte[]) page[0], StandardCharsets.US_ASCII);
+            Object[] keys = (Object[]) page[1];
+            if (keys.length == 0) {
+                continue;
+            }
+            examined += keys.length;
+
+            candidates.clear();
+            for (Object key : keys) {
+                if (!isVersionKey((byte[]) key) && !Arrays.equals((byte[]) key, indexKey)) {
+                    candidates.add((byte[]) key);
+                    connection.command(2).arg("GET").arg((byte[]) key);
+                }
+            }
+            List<Object> values = connection.sync();
+
+            // WRONGTYPE: hashes (redis.value.type=hash) are read by the field, anything else is skipped
+            int hashes = 0;
+            for (int i = 0; i < candidates.size(); i++) {
+                if (isWrongType(values.get(i))) {
+                    connection.command(3).arg("HGET").arg(candidates.get(i)).arg(field);
+                    hashes++;
+                } else {
+                    check(values.get(i));
+                }
+            }
+            List<Object> hashValues = hashes > 0 ? connection.sync() : null;
+
+            expired.clear();
+            expiredValues.clear();
+            expiredHash.clear();
+            int indexed = 0;
+            for (int i = 0, h = 0; i < candidates.size(); i++) {
+                Object value = values.get(i);
+                boolean hash = isWrongType(value);
+                if (hash) {
+                    value = hashValues.get(h++);
+                    if (isWrongType(value)) {
+                        otherTypes++;
+                        continue;
+                    }
+                    check(value);
+                }
+                long time = !(value instanceof byte[]) ? Long.MIN_VALUE
+                            : hash ? timeOfValue((byte[]) value, 0, zone) : timeOf((byte[]) value, fieldToken, zone);
+                if (time == Long.MIN_VALUE) {
+                    // null: the key expired since the SCAN, or a hash without the field
+                    if (value != null || hash) {
+                        noTimestamp++;
+                    }
+                    continue;
+                }
+                if (time <= cutoff) {
+                    expired.add(candidates.get(i));
+                    expiredValues.add((byte[]) value);
+                    expiredHash.add(hash);
+                } else if (index != null && !dryRun) {
+                    connection.command(4).arg("ZADD").arg(index).arg(time).arg(candidates.get(i));
+                    indexed++;
+                }
+            }
+
+            long removedHere = expired.size();
+            boolean delete = !expired.isEmpty() && !dryRun;
+            if (delete) {
+                int step = versionSuffix != null ? 2 : 1;
+                connection.command(5 + (step + 2) * expired.size()).arg("EVAL").arg(SCAN_SCRIPT)
+                          .arg(step * expired.size());
+                for (byte[] key : expired) {
+                    keyArgs(key);
+                }
+                connection.arg(step).arg(field);
+                for (int i = 0; i < expired.size(); i++) {
+                    connection.arg(expiredHash.get(i) ? "h" : "s").arg(expiredValues.get(i));
+                }
+            }
+            if (connection.pending() > 0) {
+                List<Object> replies = connection.sync();
+                for (Object reply : replies) {
+                    check(reply);
+                }
+                if (delete) {
+                    removedHere = (Long) replies.get(replies.size() - 1);
+                }
+            }
+
+            removed += removedHere;
+            if (!expired.isEmpty() || indexed > 0) {
+                pause();
+            }
+        } while (!cursor.equals("0"));
+        return removed - start;
+    }
+
+    /**
+     * The key, plus its version key when there is a suffix, as script KEYS
+     */
+    private void keyArgs(byte[] key) throws IOException {
+        connection.arg(key);
+        if (versionSuffix != null) {
+            byte[] versionKey = Arrays.copyOf(key, key.length + versionSuffix.length);
+            System.arraycopy(versionSuffix, 0, versionKey, key.length, versionSuffix.length);
+            connection.arg(versionKey);
+        }
+    }
+
+    private static boolean isWrongType(Object reply) {
+        return reply instanceof RespConnection.ErrorReply && ((RespConnection.ErrorReply) reply).startsWith("WRONGTYPE");
+    }
+
+    private boolean isVersionKey(byte[] key) {
+        if (versionSuffix == null || key.length < versionSuffix.length) {
+            return false;
+        }
+        for (int i = 0, at = key.length - versionSuffix.length; i < versionSuffix.length; i++) {
+            if (key[at + i] != versionSuffix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Epoch ms of the field in a JSON value, Long.MIN_VALUE when absent or unreadable
+     */
+    static long timeOf(byte[] json, byte[] fieldToken, ZoneId zone) {
+        int at = indexOf(json, fieldToken);
+        if (at < 0) {
+            return Long.MIN_VALUE;
+        }
+        int i = at + fieldToken.length;
+        while (i < json.length && json[i] == ' ') {
+            i++;
+        }
+        return i < json.length && json[i] == '"' ? timeOfValue(json, i + 1, zone) : timeOfValue(json, i, zone);
+    }
+
+    /**
+     * Epoch ms of a timestamp at from: yyyy-MM-ddTHH:mm:ss[.SSS][Z], local time in zone (AddTimestamp
+     * iso8601 output), or epoch ms digits. Long.MIN_VALUE when unreadable
+     */
+    static long timeOfValue(byte[] data, int from, ZoneId zone) {
+        if (from >= data.length) {
+            return Long.MIN_VALUE;
+        }
+        if (from + 10 < data.length && data[from + 4] == '-' && data[from + 10] == 'T') {
+            if (from + 19 > data.length) {
+                return Long.MIN_VALUE;
+            }
+            try {
+                String text = new String(data, from, 19, StandardCharsets.US_ASCII);
+                return LocalDateTime.parse(text).atZone(zone).toInstant().toEpochMilli();
+            } catch (DateTimeException e) {
+                return Long.MIN_VALUE;
+            }
+        }
+
+        long value = 0;
+        int digits = 0;
+        for (int i = from; i < data.length && data[i] >= '0' && data[i] <= '9'; i++) {
+            value = value * 10 + (data[i] - '0');
+            digits++;
+        }
+        return digits > 0 ? value : Long.MIN_VALUE;
+    }
+
+    private static int indexOf(byte[] data, byte[] token) {
+        outer:
+        for (int i = 0; i <= data.length - token.length; i++) {
+            for (int j = 0; j < token.length; j++) {
+                if (data[i + j] != token[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static Object check(Object reply) throws IOException {
+        if (reply instanceof RespConnection.ErrorReply) {
+            throw new IOException("Redis error: " + reply);
+        }
+        return reply;
+    }
+
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Command line
+    // ---------------------------------------------------------------------------------------------
+
+    public static void main(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        options.put("host",     env("REDIS_HOST", "127.0.0.1"));
+        options.put("port",     env("REDIS_PORT", "6379"));
+        options.put("db",       env("DB_INDEX", "0"));
+        options.put("password", env("REDIS_PASSWORD", ""));
+        options.put("index",    env("EXPIRY_INDEX", ""));
+        options.put("pattern",  env("KEY_PATTERN", ""));
+        options.put("hours",    env("HOURS_OLD", "24"));
+        options.put("field",    "createdAt");
+        options.put("version-suffix", env("VERSION_SUFFIX", ":ver"));
+        options.put("timezone", ZoneId.systemDefault().getId());
+        options.put("batch",    "500");
+        options.put("pause-ms", "0");
+        options.put("timeout-ms", "10000");
+
+        boolean dryRun = false;
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (arg.equals("--dry-run")) {
+                dryRun = true;
+            } else if (arg.startsWith("--") && options.containsKey(arg.substring(2)) && i + 1 < args.length) {
+                options.put(arg.substring(2), args[++i]);
+            } else {
+                usage("Unknown option " + arg);
+            }
+        }
+
+        String index   = options.get("index").isEmpty() ? null : options.get("index");
+        String pattern = options.get("pattern").isEmpty() ? null : options.get("pattern");
+        if (index == null && pattern == null) {
+            usage("Either --index or --pattern is required");
+        }
+
+        try {
+            long hours  = Long.parseLong(options.get("hours"));
+            long cutoff = System.currentTimeMillis() - hours * 3_600_000L;
+            ZoneId zone = ZoneId.of(options.get("timezone"));
+
+            long start = System.currentTimeMillis();
+            System.out.println("--- Execution Started: " + new java.util.Date(start) + " ---");
+            System.out.println("Target:    " + options.get("host") + ":" + options.get("port") + " (DB " + options.get("db") + ")");
+            System.out.println((pattern != null ? "Pattern:   '" + pattern + "'" : "Index:     '" + index + "'")
+                               + " | Threshold: " + hours + " hours" + (dryRun ? " | dry run" : ""));
+
+            try (RespConnection connection = new RespConnection(options.get("host"),
+                                                                Integer.parseInt(options.get("port")),
+                                                                options.get("password"),
+                                                                Integer.parseInt(options.get("db")),
+                                                                Integer.parseInt(options.get("timeout-ms")))) {
+                connection.connect();
+                RedisPurge purge = new RedisPurge(connection,
+                                                  Integer.parseInt(options.get("batch")),
+                                                  Long.parseLong(options.get("pause-ms")),
+                                                  dryRun,
+                                                  options.get("version-suffix"));
+                if (pattern != null) {
+                    purge.purgeScan(pattern, options.get("field"), zone, cutoff, index);
+                } else {
+                    purge.purgeIndex(index, cutoff);
+                }
+
+                System.out.println("----------------------------");
+                System.out.println("Keys examined:  " + purge.examined());
+                System.out.println((dryRun ? "Keys to delete: " : "Keys deleted:   ") + purge.removed());
+                if (purge.noTimestamp() > 0) {
+                    System.out.println("Keys kept:      " + purge.noTimestamp() + " without a readable " + options.get("field"));
+                }
+                if (purge.otherTypes() > 0) {
+                    System.out.println("Keys skipped:   " + purge.otherTypes() + " neither string nor hash");
+                }
+                System.out.println("Total run time: " + (System.currentTimeMillis() - start) + " ms");
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Purge failed: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static String env(String name, String defaultValue) {
+        String value = System.getenv(name);
+        return value != null ? value : defaultValue;
+    }
+
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: RedisPurge (--index <zset> | --pattern <glob> [--index <zset>]) [--hours 24]");
+        System.err.println("         [--host 127.0.0.1] [--port 6379] [--db 0] [--password <pw>] [--field createdAt]");
+        System.err.println("         [--timezone <zone>] [--batch 500] [--pause-ms 0] [--timeout-ms 10000] [--version-suffix :ver]");
+        System.err.println("         [--dry-run]");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,326 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisSinkConfig.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Configuration of RedisSinkConnector. redis.hosts, redis.database and redis.password use the same
+*       names as the jcustenborder RedisSinkConnector, so an existing connector config can switch over by
+*       changing connector.class only.
+*
+*       Expiry: redis.ttl.seconds has Redis expire keys itself. redis.expiry.index instead keeps a sorted set
+*       of key -> epoch ms next to the keys, which RedisPurge walks with ZRANGEBYSCORE to remove keys older
+*       than a cutoff chosen at purge time.
+*
+*       Deletes: a null value deletes the key (redis.delete.command, UNLINK by default) and removes it from
+*       redis.expiry.index, so deleted rows stop taking memory instead of waiting for LRU eviction.
+*
+*       Conditional writes: redis.write.mode=conditional applies a record only when its version (redis.version.field,
+*       or the Kafka offset) is not older than the last one applied to the key, see ConditionalWrite, so a replay
+*       after a restart or rebalance can not put an older value back.
+*
+*       Routing: redis.routes maps a route name to its own Redis (AZ1=redis-az1:6379,AZ2=redis-az2:6379/1),
+*       each record goes to the route named by its redis.route.header header, so one connector reading the
+*       topic once feeds every AZ. Without redis.routes all records go to redis.hosts.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.apache.kafka.common.config.AbstractConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.config.types.Password;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RedisSinkConfig extends AbstractConfig {
+
+    public static final String HOSTS_CONFIG             = "redis.hosts";
+    public static final String DATABASE_CONFIG          = "redis.database";
+    public static final String PASSWORD_CONFIG          = "redis.password";
+    public static final String TIMEOUT_CONFIG           = "redis.timeout.ms";
+    public static final String BATCH_SIZE_CONFIG        = "redis.batch.size";
+    public static final String FLUSH_INTERVAL_CONFIG    = "redis.flush.interval.ms";
+    public static final String TTL_CONFIG               = "redis.ttl.seconds";
+    public static final String RETRY_BACKOFF_CONFIG     = "redis.retry.backoff.ms";
+    public static final String EXPIRY_INDEX_CONFIG      = "redis.expiry.index";
+    public static final String EXPIRY_SCORE_CONFIG      = "redis.expiry.index.score";
+    public static final String VALUE_TYPE_CONFIG        = "redis.value.type";
+    public static final String COALESCE_CONFIG          = "redis.coalesce";
+    public static final String COALESCE_ORDER_CONFIG    = "redis.coalesce.order.field";
+    public static final String ROUTES_CONFIG            = "redis.routes";
+    public static final String ROUTE_HEADER_CONFIG      = "redis.route.header";
+    public static final String ROUTE_DEFAULT_CONFIG     = "redis.route.default";
+    public static final String MAX_BACKLOG_CONFIG       = "redis.max.backlog";
+    public static final String DELETE_COMMAND_CONFIG    = "redis.delete.command";
+    public static final String WRITE_MODE_CONFIG        = "redis.write.mode";
+    public static final String VERSION_FIELD_CONFIG     = "redis.version.field";
+    public static final String VERSION_SUFFIX_CONFIG    = "redis.version.key.suffix";
+    public static final String VERSION_TTL_CONFIG       = "redis.version.ttl.seconds";
+
+    public static final String VALUE_TYPE_STRING        = "string";
+    public static final String VALUE_TYPE_HASH          = "hash";
+
+    public static final String DELETE_UNLINK            = "unlink";
+    public static final String DELETE_DEL               = "del";
+    public static final String DELETE_NONE              = "none";
+
+    public static final String WRITE_MODE_SET           = "set";
+    public static final String WRITE_MODE_CONDITIONAL   = "conditional";
+
+    public static final String SCORE_WRITE_TIME         = "write.time";
+    public static final String SCORE_RECORD_TIMESTAMP   = "record.timestamp";
+
+    public static final ConfigDef CONFIG_DEF = new ConfigDef()
+        .define(HOSTS_CONFIG,
+                ConfigDef.Type.LIST,
+                "localhost:6379",
+                ConfigDef.Importance.HIGH,
+                "Redis host:port to write to")
+        .define(DATABASE_CONFIG,
+                ConfigDef.Type.INT,
+                0,
+                ConfigDef.Range.atLeast(0),
+                ConfigDef.Importance.MEDIUM,
+                "Redis database index (SELECT)")
+        .define(PASSWORD_CONFIG,
+                ConfigDef.Type.PASSWORD,
+                null,
+                ConfigDef.Importance.MEDIUM,
+                "Redis password (AUTH), empty for none")
+        .define(TIMEOUT_CONFIG,
+                ConfigDef.Type.INT,
+                10000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.LOW,
+                "Connect and reply timeout in milliseconds")
+        .define(BATCH_SIZE_CONFIG,
+                ConfigDef.Type.INT,
+                500,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.MEDIUM,
+                "Commands sent per pipeline round trip, records are buffered across put() calls until this many are pending")
+        .define(FLUSH_INTERVAL_CONFIG,
+                ConfigDef.Type.LONG,
+                100L,
+                ConfigDef.Range.atLeast(0),
+                ConfigDef.Importance.MEDIUM,
+                "Write pending records after at most this many milliseconds even when the batch is not full, 0 writes every put()")
+        .define(TTL_CONFIG,
+                ConfigDef.Type.LONG,
+                0L,
+                ConfigDef.Range.atLeast(0),
+                ConfigDef.Importance.MEDIUM,
+                "Expire keys this many seconds after they are written (SET ... EX), 0 for no expiry")
+        .define(RETRY_BACKOFF_CONFIG,
+                ConfigDef.Type.LONG,
+                1000L,
+                ConfigDef.Range.atLeast(0),
+                ConfigDef.Importance.LOW,
+                "Backoff before Connect retries a batch after Redis was unreachable")
+        .define(EXPIRY_INDEX_CONFIG,
+                ConfigDef.Type.STRING,
+                "",
+                ConfigDef.Importance.MEDIUM,
+                "Sorted set that indexes every written key by time (ZADD in the same pipeline), for RedisPurge. Empty for none")
+        .define(EXPIRY_SCORE_CONFIG,
+                ConfigDef.Type.STRING,
+                SCORE_WRITE_TIME,
+                ConfigDef.ValidString.in(SCORE_WRITE_TIME, SCORE_RECORD_TIMESTAMP),
+                ConfigDef.Importance.LOW,
+                "Index score in epoch ms: write.time (when the sink writes, i.e. createdAt) or record.timestamp "
+                + "(Kafka record timestamp, write time when absent)")
+        .define(VALUE_TYPE_CONFIG,
+                ConfigDef.Type.STRING,
+                VALUE_TYPE_STRING,
+                ConfigDef.ValidString.in(VALUE_TYPE_STRING, VALUE_TYPE_HASH),
+                ConfigDef.Importance.MEDIUM,
+                "How Map/Struct values are stored: 'string' (SET of the JSON) or 'hash' (HSET of the fields, "
+                + "see RedisValueEncoder value.encoding=hash). String and byte[] values are always SET")
+        .define(DELETE_COMMAND_CONFIG,
+                ConfigDef.Type.STRING,
+                DELETE_UNLINK,
+                ConfigDef.ValidString.in(DELETE_UNLINK, DELETE_DEL, DELETE_NONE),
+                ConfigDef.Importance.MEDIUM,
+                "How records with a null value (tombstones, Debezium deletes turned into null by the sink SMTs) are "
+                + "applied: 'unlink' (delete, memory freed in the background), 'del' or 'none' (skipped)")
+        .define(WRITE_MODE_CONFIG,
+                ConfigDef.Type.STRING,
+                WRITE_MODE_SET,
+                ConfigDef.ValidString.in(WRITE_MODE_SET, WRITE_MODE_CONDITIONAL),
+                ConfigDef.Importance.MEDIUM,
+                "'set' writes every record, 'conditional' only records whose version is not older than the last one "
+                + "written to the key (EVALSHA of a Lua script, string values only)")
+        .define(VERSION_FIELD_CONFIG,
+                ConfigDef.Type.STRING,
+                "",
+                ConfigDef.Importance.MEDIUM,
+                "Value field or header holding a record's version for redis.write.mode=conditional (e.g. source_ts_ms, "
+                + "see AddSourceHeaders, or a value field through PrepareRedisRecord version.header), a non-negative "
+                + "integer that grows with every change of the key. Empty for the Kafka offset, which only orders the "
+                + "records of one partition")
+        .define(VERSION_SUFFIX_CONFIG,
+                ConfigDef.Type.STRING,
+                ":ver",
+                new ConfigDef.NonEmptyString(),
+                ConfigDef.Importance.LOW,
+                "Appended to a key to name the key holding its version for redis.write.mode=conditional")
+        .define(VERSION_TTL_CONFIG,
+                ConfigDef.Type.LONG,
+                604800L,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.LOW,
+                "Seconds a version key is kept after the last write or delete of its key, the longest replay that is "
+                + "still recognised as stale")
+        .define(COALESCE_CONFIG,
+                ConfigDef.Type.BOOLEAN,
+                false,
+                ConfigDef.Importance.MEDIUM,
+                "Last write wins: of several pending records for the same key only the newest is written")
+        .define(COALESCE_ORDER_CONFIG,
+                ConfigDef.Type.STRING,
+                "",
+                ConfigDef.Importance.LOW,
+                "Value field or header that orders updates of one key (e.g. acqJnlSeqNumber), the highest wins. "
+                + "Empty (or absent on a record) for batch order, i.e. offset order within a partition")
+        .define(ROUTES_CONFIG,
+                ConfigDef.Type.LIST,
+                "",
+                ConfigDef.Importance.HIGH,
+                "Route name to Redis, name=host:port[/database] (e.g. AZ1=redis-az1:6379,AZ2=redis-az2:6379/1). "
+                + "Empty writes everything to redis.hosts")
+        .define(ROUTE_HEADER_CONFIG,
+                ConfigDef.Type.STRING,
+                "az",
+                ConfigDef.Importance.MEDIUM,
+                "Record header naming the route, e.g. set from the Kafka key by PrepareRedisRecord key.header")
+        .define(ROUTE_DEFAULT_CONFIG,
+                ConfigDef.Type.STRING,
+                "",
+                ConfigDef.Importance.LOW,
+                "Route for records without a known route header. Empty skips them with a warning")
+        .define(MAX_BACKLOG_CONFIG,
+                ConfigDef.Type.INT,
+                10000,
+                ConfigDef.Range.atLeast(1),
+                ConfigDef.Importance.LOW,
+                "Records buffered per Redis before the partitions feeding it are paused, resumed at half");
+
+    private final String host;
+    private final int port;
+    private final Map<String, Endpoint> routes = new LinkedHashMap<>();
+
+    public RedisSinkConfig(Map<?, ?> props) {
+        super(CONFIG_DEF, props);
+
+        List<String> hosts = getList(HOSTS_CONFIG);
+        if (hosts.isEmpty()) {
+            throw new ConfigException(HOSTS_CONFIG, hosts, "At least one host:port is required");
+        }
+        String hostPort = hosts.get(0).trim();
+        host = host(HOSTS_CONFIG, hostPort);
+        port = port(HOSTS_CONFIG, hostPort);
+
+        for (String route : getList(ROUTES_CONFIG)) {
+            int equals = route.indexOf('=');
+            if (equals <= 0) {
+                throw new ConfigException(ROUTES_CONFIG, route, "Expected name=host:port[/database]");
+            }
+            String name = route.substring(0, equals).trim();
+            String endpoint = route.substring(equals + 1).trim();
+            int slash = endpoint.indexOf('/');
+            int database = getInt(DATABASE_CONFIG);
+            if (slash >= 0) {
+                try {
+                    database = Integer.parseInt(endpoint.substring(slash + 1));
+                } catch (NumberFormatException e) {
+                    throw new ConfigException(ROUTES_CONFIG, route, "Expected name=host:port[/database]");
+                }
+                endpoint = endpoint.substring(0, slash);
+            }
+            if (routes.put(name, new Endpoint(host(ROUTES_CONFIG, endpoint), port(ROUTES_CONFIG, endpoint), database)) != null) {
+                throw new ConfigException(ROUTES_CONFIG, route, "Route " + name + " is defined twice");
+            }
+        }
+        if (WRITE_MODE_CONDITIONAL.equals(getString(WRITE_MODE_CONFIG))
+                && VALUE_TYPE_HASH.equals(getString(VALUE_TYPE_CONFIG))) {
+            throw new ConfigException(WRITE_MODE_CONFIG, WRITE_MODE_CONDITIONAL,
+                                      "Not supported with " + VALUE_TYPE_CONFIG + "=" + VALUE_TYPE_HASH);
+        }
+
+        String defaultRoute = getString(ROUTE_DEFAULT_CONFIG);
+        if (!defaultRoute.isEmpty() && !routes.containsKey(defaultRoute)) {
+            throw new ConfigException(ROUTE_DEFAULT_CONFIG, defaultRoute, "Not a route of " + ROUTES_CONFIG);
+        }
+    }
+
+    private static String host(String name, String hostPort) {
+        int colon = hostPort.lastIndexOf(':');
+        return colon < 0 ? hostPort : hostPort.substring(0, colon);
+    }
+
+    private static int port(String name, String hostPort) {
+        int colon = hostPort.lastIndexOf(':');
+        try {
+            return colon < 0 ? 6379 : Integer.parseInt(hostPort.substring(colon + 1));
+        } catch (NumberFormatException e) {
+            throw new ConfigException(name, hostPort, "Expected host:port");
+        }
+    }
+
+    public String host() {
+        return host;
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public String password() {
+        Password password = getPassword(PASSWORD_CONFIG);
+        return password != null ? password.value() : null;
+    }
+
+    /**
+     * A new, not yet connected, connection to the configured Redis
+     */
+    public RespConnection newConnection() {
+        return new RespConnection(host, port, password(), getInt(DATABASE_CONFIG), getInt(TIMEOUT_CONFIG));
+    }
+
+    /**
+     * New, not yet connected, connections per route name from redis.routes, empty when not routing
+     */
+    public Map<String, RespConnection> newRouteConnections() {
+        Map<String, RespConnection> connections = new LinkedHashMap<>();
+        for (Map.Entry<String, Endpoint> route : routes.entrySet()) {
+            Endpoint endpoint = route.getValue();
+            connections.put(route.getKey(), new RespConnection(endpoint.host, endpoint.port, password(),
+                                                               endpoint.database, getInt(TIMEOUT_CONFIG)));
+        }
+        return connections;
+    }
+
+    private static final class Endpoint {
+        final String host;
+        final int port;
+        final int database;
+
+        Endpoint(String host, int port, int database) {
+            this.host     = host;
+            this.port     = port;
+            this.database = database;
+        }
+    }
+}
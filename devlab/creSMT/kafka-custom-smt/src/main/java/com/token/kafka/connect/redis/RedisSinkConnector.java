@@ -0,0 +1,86 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisSinkConnector.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Redis sink connector shipped with the SMTs, writes each record as SET key value [EX ttl] through a
+*       pipelined connection, redis.batch.size commands per round trip.
+*
+*       Keys and values are expected to be prepared by the SMT chain (e.g. PrepareRedisRecord): String or
+*       byte[] are written as is, Map/Struct values as JSON (or as a HASH with redis.value.type=hash). Records
+*       with a null key are skipped, a null value (tombstone, deleted row) removes the key with
+*       redis.delete.command (UNLINK by default, or DEL), "none" skips it.
+*
+*       Usage:
+*
+*           "connector.class":          "com.token.kafka.connect.redis.RedisSinkConnector",
+*           "redis.hosts":              "redis:6379",
+*           "redis.database":           "0",
+*           "redis.batch.size":         "500",
+*           "redis.flush.interval.ms":  "100",
+*           "redis.ttl.seconds":        "0"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.connector.Task;
+import org.apache.kafka.connect.sink.SinkConnector;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class RedisSinkConnector extends SinkConnector {
+
+    public static final String VERSION = "1.0.0";
+
+    private Map<String, String> props;
+
+    @Override
+    public void start(Map<String, String> props) {
+        // Validate up front so a bad config fails the connector, not every task
+        new RedisSinkConfig(props);
+        this.props = new HashMap<>(props);
+    }
+
+    @Override
+    public Class<? extends Task> taskClass() {
+        return RedisSinkTask.class;
+    }
+
+    @Override
+    public List<Map<String, String>> taskConfigs(int maxTasks) {
+        List<Map<String, String>> configs = new ArrayList<>(maxTasks);
+        for (int i = 0; i < maxTasks; i++) {
+            configs.add(props);
+        }
+        return configs;
+    }
+
+    @Override
+    public void stop() {
+        // Nothing to release, the tasks own the connections
+    }
+
+    @Override
+    public ConfigDef config() {
+        return RedisSinkConfig.CONFIG_DEF;
+    }
+
+    @Override
+    public String version() {
+        return VERSION;
+    }
+}
@@ -0,0 +1,245 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisSinkTask.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Buffers records across put() calls and writes them as pipelined SET commands, redis.batch.size per
+*       round trip, on a RedisWriter per Redis. Pending records are submitted once a batch is full, once
+*       redis.flush.interval.ms has passed since the last submit, and always before offsets are committed.
+*
+*       Routing: with redis.routes each record goes to the writer named by its redis.route.header header
+*       (e.g. az=AZ1), so one connector reads jnl_acq once and feeds the Redis of every AZ. Each writer has
+*       its own connection and thread, a slow or unreachable Redis does not hold up the others.
+*
+*       Offsets: preCommit() waits up to redis.timeout.ms for the writers that are reachable and only commits
+*       what has been written, per partition up to the first record still pending. When Redis is unreachable
+*       its writer retries every redis.retry.backoff.ms, and once more than redis.max.backlog records wait
+*       for it the partitions feeding it are paused until half of them are written. A partition feeding two
+*       writers stays paused until neither holds a pause on it. SET is idempotent, so records redelivered after
+*       a restart may be written again. Unwritten records of revoked partitions are dropped in close().
+*
+*       The writers only isolate the AZs from each other when partitions are AZ-keyed (Kafka key = AZ): a
+*       partition carrying records for several AZs is paused for the slowest of them.
+*
+*       With redis.expiry.index set every SET is followed by ZADD <index> <epoch ms> <key> in the same
+*       pipeline, so RedisPurge can find expired keys in O(expired) instead of scanning the keyspace.
+*
+*       With redis.value.type=hash, Map/Struct values are written as HSET key field value ... (followed by
+*       EXPIRE when redis.ttl.seconds is set), e.g. the output of RedisValueEncoder value.encoding=hash.
+*
+*       With redis.coalesce=true only the newest pending record per key is written (KeyCoalescer), a burst of
+*       updates to one card within the flush interval costs one SET instead of one per update.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class RedisSinkTask extends SinkTask {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisSinkTask.class);
+
+    private RedisSinkConfig config;
+
+    private long flushIntervalMs;
+    private int timeoutMs;
+    private int maxBacklog;
+    private String routeHeader;
+
+    // Route name -> writer, empty without redis.routes
+    private final Map<String, RedisWriter> routes = new HashMap<>();
+    // redis.hosts without routes, else redis.route.default (may be null)
+    private RedisWriter defaultWriter;
+    private final List<RedisWriter> writers = new ArrayList<>();
+    // Paused partition -> the writers holding a pause on it, resumed once none does
+    private final Map<TopicPartition, Set<RedisWriter>> pausedBy = new HashMap<>();
+
+    @Override
+    public String version() {
+        return RedisSinkConnector.VERSION;
+    }
+
+    @Override
+    public void start(Map<String, String> props) {
+        config          = new RedisSinkConfig(props);
+        flushIntervalMs = config.getLong(RedisSinkConfig.FLUSH_INTERVAL_CONFIG);
+        timeoutMs       = config.getInt(RedisSinkConfig.TIMEOUT_CONFIG);
+        maxBacklog      = config.getInt(RedisSinkConfig.MAX_BACKLOG_CONFIG);
+        routeHeader     = config.getString(RedisSinkConfig.ROUTE_HEADER_CONFIG);
+
+        Map<String, RespConnection> connections = config.newRouteConnections();
+        if (connections.isEmpty()) {
+            defaultWriter = new RedisWriter("default", config, config.newConnection());
+            writers.add(defaultWriter);
+        } else {
+            for (Map.Entry<String, RespConnection> route : connections.entrySet()) {
+                RedisWriter writer = new RedisWriter(route.getKey(), config, route.getValue());
+                routes.put(route.getKey(), writer);
+                writers.add(writer);
+            }
+            String defaultRoute = config.getString(RedisSinkConfig.ROUTE_DEFAULT_CONFIG);
+            defaultWriter = defaultRoute.isEmpty() ? null : routes.get(defaultRoute);
+        }
+
+        log.info("Redis sink task writing to {} (batch size {}, flush interval {} ms, ttl {} s, expiry index {}, coalesce {}{})",
+                 writers, config.getInt(RedisSinkConfig.BATCH_SIZE_CONFIG), flushIntervalMs,
+                 config.getLong(RedisSinkConfig.TTL_CONFIG), config.getString(RedisSinkConfig.EXPIRY_INDEX_CONFIG),
+                 config.getBoolean(RedisSinkConfig.COALESCE_CONFIG),
+                 routes.isEmpty() ? "" : ", routed by header " + routeHeader);
+    }
+
+    @Override
+    public void put(Collection<SinkRecord> records) {
+        for (RedisWriter writer : writers) {
+            writer.checkFailure();
+        }
+
+        for (SinkRecord record : records) {
+            RedisWriter writer = route(record);
+            if (writer == null) {
+                log.warn("Skipping record without a known {} header: topic={}, partition={}, offset={}",
+                         routeHeader, record.topic(), record.kafkaPartition(), record.kafkaOffset());
+                continue;
+            }
+            writer.add(record);
+        }
+
+        long now = System.currentTimeMillis();
+        for (RedisWriter writer : writers) {
+            if (writer.due(now, flushIntervalMs)) {
+                writer.submit();
+            }
+            backpressure(writer);
+        }
+    }
+
+    private RedisWriter route(SinkRecord record) {
+        if (routes.isEmpty()) {
+            return defaultWriter;
+        }
+        Header header = record.headers().lastWithName(routeHeader);
+        Object route = header != null ? header.value() : null;
+        RedisWriter writer = route != null ? routes.get(route.toString()) : null;
+        return writer != null ? writer : defaultWriter;
+    }
+
+    /**
+     * Pause the partitions feeding a writer that fell redis.max.backlog records behind, resume at half. Writers
+     * share partitions when they are not AZ-keyed, a partition is only resumed once no writer holds it paused
+     */
+    private void backpressure(RedisWriter writer) {
+        int backlog = writer.backlog();
+        if (!writer.paused() && backlog >= maxBacklog && !writer.partitions().isEmpty()) {
+            log.warn("Redis {} is {} records behind, pausing {}", writer, backlog, writer.partitions());
+            for (TopicPartition partition : writer.partitions()) {
+                pausedBy.computeIfAbsent(partition, p -> new HashSet<>()).add(writer);
+            }
+            context.pause(writer.partitions().toArray(new TopicPartition[0]));
+            writer.paused(true);
+        } else if (writer.paused() && backlog <= maxBacklog / 2) {
+            List<TopicPartition> resumed = new ArrayList<>();
+            for (Iterator<Map.Entry<TopicPartition, Set<RedisWriter>>> it = pausedBy.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<TopicPartition, Set<RedisWriter>> paused = it.next();
+                if (paused.getValue().remove(writer) && paused.getValue().isEmpty()) {
+                    resumed.add(paused.getKey());
+                    it.remove();
+                }
+            }
+            log.info("Redis {} caught up, resuming {}", writer, resumed);
+            if (!resumed.isEmpty()) {
+                context.resume(resumed.toArray(new TopicPartition[0]));
+            }
+            writer.paused(false);
+        }
+    }
+
+    @Override
+    public Map<TopicPartition, OffsetAndMetadata> preCommit(Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
+        // Submit everything and give reachable writers redis.timeout.ms to write it
+        long deadline = System.currentTimeMillis() + timeoutMs;
+        for (RedisWriter writer : writers) {
+            writer.submit();
+        }
+        for (RedisWriter writer : writers) {
+            while (!writer.retrying() && writer.backlog() > 0 && System.currentTimeMillis() < deadline) {
+                writer.awaitIdle(deadline);
+                writer.submit();
+            }
+            writer.checkFailure();
+        }
+
+        Map<TopicPartition, Long> firstUnwritten = new HashMap<>();
+        for (RedisWriter writer : writers) {
+            writer.unwritten(firstUnwritten);
+        }
+        if (firstUnwritten.isEmpty()) {
+            return currentOffsets;
+        }
+
+        Map<TopicPartition, OffsetAndMetadata> committable = new HashMap<>(currentOffsets);
+        for (Map.Entry<TopicPartition, Long> unwritten : firstUnwritten.entrySet()) {
+            if (committable.containsKey(unwritten.getKey())) {
+                committable.put(unwritten.getKey(), new OffsetAndMetadata(unwritten.getValue()));
+            }
+        }
+        log.debug("Committing written offsets only, first unwritten {}", firstUnwritten);
+        return committable;
+    }
+
+    @Override
+    public void flush(Map<TopicPartition, OffsetAndMetadata> currentOffsets) {
+        preCommit(currentOffsets);
+    }
+
+    @Override
+    public void open(Collection<TopicPartition> partitions) {
+        for (RedisWriter writer : writers) {
+            writer.assign(partitions);
+        }
+    }
+
+    @Override
+    public void close(Collection<TopicPartition> partitions) {
+        // Revoked partitions can no longer be paused or resumed, and their unwritten records were not committed:
+        // the new owner gets them redelivered, written here late they could overwrite its newer values
+        for (RedisWriter writer : writers) {
+            writer.revoke(partitions);
+        }
+        pausedBy.keySet().removeAll(partitions);
+    }
+
+    @Override
+    public void stop() {
+        for (RedisWriter writer : writers) {
+            writer.close(timeoutMs);
+        }
+        writers.clear();
+        routes.clear();
+        pausedBy.clear();
+    }
+}
@@ -0,0 +1,541 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisWriter.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Pipelined writer for one Redis (one route of RedisSinkTask), with its own connection and thread, so a
+*       slow or unreachable Redis only holds up its own records.
+*
+*       The task thread add()s records and submit()s them, the writer thread writes each submitted batch as
+*       pipelined commands, redis.batch.size per round trip. While a batch is being written new records
+*       collect in the buffer and go out as the next batch.
+*
+*       A null value (tombstone, or a Debezium delete the sink SMTs turned into one) is written as UNLINK / DEL
+*       of the key per redis.delete.command. With redis.value.type=hash a value replaces the key's whole hash,
+*       UNLINK / DEL then HSET in the same pipeline, so a field the new value lacks does not linger. A value
+*       without fields is skipped, HSET needs at least one.
+*
+*       With redis.write.mode=conditional every record is one EVALSHA of ConditionalWrite instead, applied only
+*       when its version is not older than the key's. The script is loaded on every (re)connect, a NOSCRIPT reply
+*       (Redis restarted or SCRIPT FLUSH) is handled as a lost connection: reconnect, reload and write the rest
+*       of the batch again, which the version check makes harmless.
+*
+*       Records of partitions revoked from the task are dropped, buffered or not yet written from the batch in
+*       flight: they are not committed and go to the partition's new owner, writing them late could put an old
+*       value back over the new owner's writes.
+*
+*       When Redis is unreachable the writer drops the connection and retries the rest of the batch every
+*       redis.retry.backoff.ms until it succeeds or the task stops. Error replies (OOM, WRONGTYPE ...) will
+*       not go away by retrying, they fail the task on its next put().
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import com.token.kafka.connect.transforms.JsonWriter;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+final class RedisWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(RedisWriter.class);
+
+    private final String name;
+    private final RespConnection connection;
+    private final int batchSize;
+    private final long ttlSeconds;
+    private final long retryBackoffMs;
+    private final String expiryIndex;
+    private final boolean scoreRecordTimestamp;
+    private final boolean hashValues;
+    private final String deleteCommand;
+    private final KeyCoalescer coalescer;
+    private final boolean conditional;
+    private final String versionField;
+    private final byte[] versionSuffix;
+    private final long versionTtlSeconds;
+    private final ExecutorService executor;
+
+    // Guarded by this: records not yet submitted, the batch being written and how far the writer got
+    private List<SinkRecord> buffer = new ArrayList<>();
+    private List<SinkRecord> batch = Collections.emptyList();
+    private volatile int written;
+    private Future<?> inFlight;
+
+    private volatile boolean retrying;
+    private volatile boolean closed;
+    private volatile ConnectException failure;
+
+    // Writer thread only
+    private long writeTime;
+    private boolean scriptLoaded;
+
+    // Task thread only
+    private final Set<TopicPartition> partitions = new HashSet<>();
+    // Partitions revoked from the task and not assigned again, read by the writer thread
+    private final Set<TopicPartition> revoked = ConcurrentHashMap.newKeySet();
+    private boolean paused;
+    private long lastSubmit = System.currentTimeMillis();
+
+    RedisWriter(String name, RedisSinkConfig config, RespConnection connection) {
+        this.name       = name;
+        this.connection = connection;
+        batchSize       = config.getInt(RedisSinkConfig.BATCH_SIZE_CONFIG);
+        ttlSeconds      = config.getLong(RedisSinkConfig.TTL_CONFIG);
+        retryBackoffMs  = config.getLong(RedisSinkConfig.RETRY_BACKOFF_CONFIG);
+        String index    = config.getString(RedisSinkConfig.EXPIRY_INDEX_CONFIG);
+        expiryIndex     = index == null || index.isEmpty() ? null : index;
+        scoreRecordTimestamp = RedisSinkConfig.SCORE_RECORD_TIMESTAMP.equals(
+            config.getString(RedisSinkConfig.EXPIRY_SCORE_CONFIG));
+        hashValues      = RedisSinkConfig.VALUE_TYPE_HASH.equals(config.getString(RedisSinkConfig.VALUE_TYPE_CONFIG));
+        String delete   = config.getString(RedisSinkConfig.DELETE_COMMAND_CONFIG);
+        deleteCommand   = RedisSinkConfig.DELETE_NONE.equals(delete) ? null : delete.toUpperCase(Locale.ROOT);
+        coalescer       = config.getBoolean(RedisSinkConfig.COALESCE_CONFIG)
+                          ? new KeyCoalescer(config.getString(RedisSinkConfig.COALESCE_ORDER_CONFIG), deleteCommand != null)
+                          : null;
+        conditional     = RedisSinkConfig.WRITE_MODE_CONDITIONAL.equals(config.getString(RedisSinkConfig.WRITE_MODE_CONFIG));
+        String version  = config.getString(RedisSinkConfig.VERSION_FIELD_CONFIG);
+        versionField    = version == null || version.isEmpty() ? null : version;
+        versionSuffix   = config.getString(RedisSinkConfig.VERSION_SUFFIX_CONFIG).getBytes(StandardCharsets.UTF_8);
+        versionTtlSeconds = config.getLong(RedisSinkConfig.VERSION_TTL_CONFIG);
+        executor        = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "redis-writer-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Buffer a record, call from the task thread
+     */
+    void add(SinkRecord record) {
+        partitions.add(new TopicPartition(record.topic(), record.kafkaPartition()));
+        synchronized (this) {
+            buffer.add(record);
+        }
+    }
+
+    /**
+     * Records not yet written, buffered or in the batch being written
+     */
+    synchronized int backlog() {
+        return buffer.size() + batch.size() - written;
+    }
+
+    /**
+     * Whether the buffer should be submitted: a full batch, or redis.flush.interval.ms since the last submit
+     */
+    synchronized boolean due(long now, long flushIntervalMs) {
+        return !buffer.isEmpty() && (buffer.size() >= batchSize || now - lastSubmit >= flushIntervalMs);
+    }
+
+    /**
+     * Hand the buffered records to the writer thread, unless it is still busy with the previous batch
+     */
+    synchronized void submit() {
+        lastSubmit = System.currentTimeMillis();
+        if (buffer.isEmpty() || (inFlight != null && !inFlight.isDone()) || closed || failure != null) {
+            return;
+        }
+        List<SinkRecord> records = buffer;
+        buffer  = new ArrayList<>();
+        batch   = records;
+        written = 0;
+        inFlight = executor.submit(() -> write(records));
+    }
+
+    /**
+     * Wait until the batch in flight is written, false when the deadline passed first
+     */
+    boolean awaitIdle(long deadline) {
+        Future<?> future;
+        synchronized (this) {
+            future = inFlight;
+        }
+        if (future == null) {
+            return true;
+        }
+        try {
+            future.get(Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        } catch (ExecutionException e) {
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * True while Redis is unreachable and the writer is backing off
+     */
+    boolean retrying() {
+        return retrying;
+    }
+
+    /**
+     * Throw the error that stopped this writer, if any
+     */
+    void checkFailure() {
+        ConnectException error = failure;
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    /**
+     * Lower each partition's entry in firstUnwritten to the offset of its first record not yet written
+     */
+    synchronized void unwritten(Map<TopicPartition, Long> firstUnwritten) {
+        List<SinkRecord> remaining = batch.subList(Math.min(written, batch.size()), batch.size());
+        for (List<SinkRecord> records : List.of(remaining, buffer)) {
+            for (SinkRecord record : records) {
+                firstUnwritten.merge(new TopicPartition(record.topic(), record.kafkaPartition()),
+                                     record.kafkaOffset(), Math::min);
+            }
+        }
+    }
+
+    /**
+     * Drop the records of revoked partitions: the buffered ones now, those of the batch in flight as the
+     * writer thread reaches them
+     */
+    void revoke(Collection<TopicPartition> revokedPartitions) {
+        partitions.removeAll(revokedPartitions);
+        revoked.addAll(revokedPartitions);
+        synchronized (this) {
+            buffer.removeIf(this::isRevoked);
+        }
+    }
+
+    /**
+     * Partitions assigned to the task (again), their records are written
+     */
+    void assign(Collection<TopicPartition> assigned) {
+        revoked.removeAll(assigned);
+    }
+
+    private boolean isRevoked(SinkRecord record) {
+        return !revoked.isEmpty() && revoked.contains(new TopicPartition(record.topic(), record.kafkaPartition()));
+    }
+
+    Set<TopicPartition> partitions() {
+        return partitions;
+    }
+
+    boolean paused() {
+        return paused;
+    }
+
+    void paused(boolean paused) {
+        this.paused = paused;
+    }
+
+    void close(long timeoutMs) {
+        closed = true;
+        executor.shutdownNow();
+        try {
+            executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        connection.close();
+        synchronized (this) {
+            buffer.clear();
+        }
+    }
+
+    private void write(List<SinkRecord> records) {
+        BitSet superseded = coalescer != null ? coalescer.superseded(records) : null;
+        if (superseded != null && !superseded.isEmpty()) {
+            log.debug("Coalesced {} of {} records for {}", superseded.cardinality(), records.size(), name);
+        }
+        writeTime = System.currentTimeMillis();
+
+        try {
+            while (!closed) {
+                try {
+                    if (!connection.isConnected()) {
+                        scriptLoaded = false;
+                    }
+                    connection.connect();
+                    if (conditional && !scriptLoaded) {
+                        loadScript();
+                    }
+                    long stale = 0;
+                    while (written < records.size()) {
+                        // Up to batchSize written records per round trip, superseded ones are passed over
+                        int i = written;
+                        for (int count = 0; i < records.size() && count < batchSize; i++) {
+                            if ((superseded == null || !superseded.get(i)) && !isRevoked(records.get(i))) {
+                                encode(records.get(i));
+                                count++;
+                            }
+                        }
+                        if (connection.pending() > 0) {
+                            stale += checkReplies(connection.sync());
+                        }
+                        written = i;
+                    }
+                    if (stale > 0) {
+                        log.debug("Skipped {} stale records for {}", stale, name);
+                    }
+                    if (retrying) {
+                        log.info("Redis {} ({}) reachable again", name, connection);
+                        retrying = false;
+                    }
+                    return;
+                } catch (IOException e) {
+                    connection.close();
+                    if (closed) {
+                        return;
+                    }
+                    retrying = true;
+                    log.warn("Redis {} ({}) unavailable, retrying {} records in {} ms: {}",
+                             name, connection, records.size() - written, retryBackoffMs, e.getMessage());
+                    Thread.sleep(retryBackoffMs);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ConnectException e) {
+            failure = e;
+        } catch (RuntimeException e) {
+            failure = new ConnectException("Redis " + name + " (" + connection + ") write failed", e);
+        } finally {
+            synchronized (this) {
+                if (batch == records && written >= records.size()) {
+                    batch   = Collections.emptyList();
+                    written = 0;
+                }
+            }
+        }
+    }
+
+    private void encode(SinkRecord record) throws IOException {
+        Object key   = record.key();
+        Object value = record.value();
+
+        if (key == null) {
+            log.warn("Skipping record with null key: topic={}, partition={}, offset={}",
+                     record.topic(), record.kafkaPartition(), record.kafkaOffset());
+            return;
+        }
+        if (value == null && deleteCommand == null) {
+            log.debug("Skipping record with null value: key={}", key);
+            return;
+        }
+        if (conditional) {
+            writeConditional(record, key, value);
+            return;
+        }
+        if (value == null) {
+            // Tombstone / deleted row, drop the key and its expiry index entry
+            connection.command(2).arg(deleteCommand);
+            writeArg(key);
+            if (expiryIndex != null) {
+                connection.command(3).arg("ZREM").arg(expiryIndex);
+                writeArg(key);
+            }
+            return;
+        }
+
+        if (hashValues && (value instanceof Map || value instanceof Struct)) {
+            if (!writeHash(key, value)) {
+                return;
+            }
+        } else {
+            connection.command(ttlSeconds > 0 ? 5 : 3).arg("SET");
+            writeArg(key);
+            writeArg(value);
+            if (ttlSeconds > 0) {
+                connection.arg("EX").arg(ttlSeconds);
+            }
+        }
+
+        if (expiryIndex != null) {
+            Long timestamp = record.timestamp();
+            long score = scoreRecordTimestamp && timestamp != null ? timestamp : writeTime;
+            connection.command(4).arg("ZADD").arg(expiryIndex).arg(score);
+            writeArg(key);
+        }
+    }
+
+    /**
+     * EVALSHA of ConditionalWrite for one record, see there for KEYS / ARGV
+     */
+    private void writeConditional(SinkRecord record, Object key, Object value) throws IOException {
+        int keys = expiryIndex != null ? 3 : 2;
+        connection.command(3 + keys + 6).arg("EVALSHA").arg(ConditionalWrite.SHA).arg(keys);
+        writeArg(key);
+        connection.arg(versionKey(key));
+        if (expiryIndex != null) {
+            connection.arg(expiryIndex);
+        }
+
+        connection.arg(version(record));
+        if (value == null) {
+            connection.arg(deleteCommand).arg("");
+        } else {
+            connection.arg("SET");
+            writeArg(value);
+        }
+        connection.arg(ttlSeconds).arg(versionTtlSeconds);
+        Long timestamp = record.timestamp();
+        connection.arg(scoreRecordTimestamp && timestamp != null ? timestamp : writeTime);
+    }
+
+    private byte[] versionKey(Object key) {
+        byte[] base = key instanceof byte[] ? (byte[]) key : key.toString().getBytes(StandardCharsets.UTF_8);
+        byte[] versionKey = Arrays.copyOf(base, base.length + versionSuffix.length);
+        System.arraycopy(versionSuffix, 0, versionKey, base.length, versionSuffix.length);
+        return versionKey;
+    }
+
+    /**
+     * The record's version as decimal digits without leading zeros, "" when it has none (written unconditionally)
+     */
+    private String version(SinkRecord record) {
+        Object version = versionField == null ? record.kafkaOffset() : KeyCoalescer.fieldOrHeader(record, versionField);
+        String normalized = ConditionalWrite.normalize(version);
+        if (normalized != null) {
+            return normalized;
+        }
+        throw new DataException("Version " + versionField + " must be a non-negative integer, got '" + version
+                                + "' for key " + record.key());
+    }
+
+    private void loadScript() throws IOException {
+        Object reply = connection.call("SCRIPT", "LOAD", ConditionalWrite.SCRIPT);
+        if (reply instanceof RespConnection.ErrorReply) {
+            throw new ConnectException("Redis " + name + " (" + connection + ") refused the conditional write script: " + reply);
+        }
+        String sha = reply instanceof byte[] ? new String((byte[]) reply, StandardCharsets.US_ASCII) : String.valueOf(reply);
+        if (!ConditionalWrite.SHA.equals(sha)) {
+            throw new ConnectException("Redis " + name + " (" + connection + ") loaded the conditional write script as "
+                                       + sha + ", expected " + ConditionalWrite.SHA);
+        }
+        scriptLoaded = true;
+    }
+
+    /**
+     * The value as the key's whole hash: UNLINK / DEL then HSET, so fields the value no longer has do not linger.
+     * False when the value has no fields, HSET needs at least one and the record is skipped
+     */
+    private boolean writeHash(Object key, Object value) throws IOException {
+        int size = value instanceof Struct ? ((Struct) value).schema().fields().size() : ((Map<?, ?>) value).size();
+        if (size == 0) {
+            log.debug("Skipping empty hash value: key={}", key);
+            return false;
+        }
+        connection.command(2).arg(deleteCommand != null ? deleteCommand : "UNLINK");
+        writeArg(key);
+
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            connection.command(2 + 2 * size).arg("HSET");
+            writeArg(key);
+            for (Field field : struct.schema().fields()) {
+                connection.arg(field.name());
+                Object fieldValue = struct.get(field);
+                writeArg(fieldValue != null ? fieldValue : "");
+            }
+        } else {
+            Map<?, ?> map = (Map<?, ?>) value;
+            connection.command(2 + 2 * size).arg("HSET");
+            writeArg(key);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                connection.arg(String.valueOf(entry.getKey()));
+                writeArg(entry.getValue() != null ? entry.getValue() : "");
+            }
+        }
+
+        if (ttlSeconds > 0) {
+            connection.command(3).arg("EXPIRE");
+            writeArg(key);
+            connection.arg(ttlSeconds);
+        }
+        return true;
+    }
+
+    private void writeArg(Object value) throws IOException {
+        if (value instanceof String) {
+            connection.arg((String) value);
+        } else if (value instanceof byte[]) {
+            connection.arg((byte[]) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            connection.arg(value.toString().getBytes(StandardCharsets.US_ASCII));
+        } else {
+            // Map / Struct / List, written as JSON
+            connection.arg(JsonWriter.toJsonBytes(value));
+        }
+    }
+
+    /**
+     * Fail on error replies, returns the number of conditional writes skipped as stale
+     */
+    private long checkReplies(List<Object> replies) throws IOException {
+        long stale = 0;
+        for (Object reply : replies) {
+            if (reply instanceof RespConnection.ErrorReply) {
+                RespConnection.ErrorReply error = (RespConnection.ErrorReply) reply;
+                if (conditional && error.startsWith("NOSCRIPT")) {
+                    // Script cache emptied, reconnect and reload
+                    throw new IOException(error.message());
+                }
+                // Not a connectivity problem (OOM, WRONGTYPE, READONLY ...), retrying will not help
+                throw new ConnectException("Redis " + name + " (" + connection + ") rejected write: " + reply);
+            }
+            if (conditional && reply instanceof Long && (Long) reply == 0) {
+                stale++;
+            }
+        }
+        return stale;
+    }
+
+    @Override
+    public String toString() {
+        return name + " (" + connection + ")";
+    }
+}
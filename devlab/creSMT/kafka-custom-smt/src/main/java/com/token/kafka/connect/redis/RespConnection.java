@@ -0,0 +1,493 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RespConnection.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Minimal pipelining Redis client, RESP2 written and read directly over a non-blocking SocketChannel.
+*
+*       Commands are encoded into a reusable output buffer and only sent when it fills or on sync(), which
+*       then reads all outstanding replies in order. A batch of N commands therefore costs one round trip
+*       instead of N:
+*
+*           connection.command(5).arg("SET").arg(key).arg(value).arg("EX").arg(3600);
+*           connection.command(3).arg("SET").arg(key2).arg(value2);
+*           List<Object> replies = connection.sync();
+*
+*       Replies: simple string -> String ("OK" is a shared constant), error -> ErrorReply, integer -> Long,
+*       bulk string -> byte[] (or null), array -> Object[] (or null).
+*
+*       Not thread-safe, one connection per sink task / tool thread.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+public final class RespConnection implements Closeable {
+
+    public static final String OK = "OK";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String host;
+    private final int port;
+    private final String password;
+    private final int database;
+    private final int timeoutMs;
+
+    private SocketChannel channel;
+    private Selector selector;
+    private SelectionKey selectionKey;
+
+    // Output: commands are encoded here and written out when full or on sync()
+    private final byte[] out = new byte[BUFFER_SIZE];
+    private final ByteBuffer outBuffer = ByteBuffer.wrap(out);
+    private int outPosition;
+
+    // Input: replies are parsed straight out of this buffer
+    private final byte[] in = new byte[BUFFER_SIZE];
+    private final ByteBuffer inBuffer = ByteBuffer.wrap(in);
+    private int inPosition;
+    private int inLimit;
+
+    private final byte[] digits = new byte[20];
+    private int pending;
+
+    public RespConnection(String host, int port, String password, int database, int timeoutMs) {
+        this.host      = host;
+        this.port      = port;
+        this.password  = password;
+        this.database  = database;
+        this.timeoutMs = timeoutMs;
+    }
+
+    public boolean isConnected() {
+        return channel != null && channel.isOpen();
+    }
+
+    /**
+     * Connect, then AUTH and SELECT as configured. No-op when already connected
+     */
+    public void connect() throws IOException {
+        if (isConnected()) {
+            return;
+        }
+
+        outPosition = 0;
+        inPosition  = 0;
+        inLimit     = 0;
+        pending     = 0;
+
+        channel = SocketChannel.open();
+        try {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.setOption(StandardSocketOptions.SO_KEEPALIVE, true);
+            selector     = Selector.open();
+            selectionKey = channel.register(selector, 0);
+
+            if (!channel.connect(new InetSocketAddress(host, port))) {
+                await(SelectionKey.OP_CONNECT);
+                channel.finishConnect();
+            }
+
+            if (password != null && !password.isEmpty()) {
+                command(2).arg("AUTH").arg(password);
+                expectOk("AUTH");
+            }
+            if (database != 0) {
+                command(2).arg("SELECT").arg(database);
+                expectOk("SELECT " + database);
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void expectOk(String what) throws IOException {
+        Object reply = sync().get(0);
+        if (reply instanceof ErrorReply) {
+            throw new IOException(what + " failed on " + host + ":" + port + ": " + reply);
+        }
+    }
+
+    /**
+     * Number of commands encoded since the last sync()
+     */
+    public int pending() {
+        return pending;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Encoding
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Start a command of argc arguments (the command name counts as one)
+     */
+    public RespConnection command(int argc) throws IOException {
+        ensure(1 + 20 + 2);
+        out[outPosition++] = '*';
+        putNumber(argc);
+        pending++;
+        return this;
+    }
+
+    public RespConnection arg(byte[] value) throws IOException {
+        return arg(value, 0, value.length);
+    }
+
+    public RespConnection arg(byte[] value, int offset, int length) throws IOException {
+        ensure(1 + 20 + 2);
+        out[outPosition++] = '$';
+        putNumber(length);
+
+        if (length > out.length) {
+            // Larger than the whole buffer, send what we have and write the value directly
+            drain();
+            writeFully(ByteBuffer.wrap(value, offset, length));
+        } else {
+            ensure(length);
+            System.arraycopy(value, offset, out, outPosition, length);
+            outPosition += length;
+        }
+
+        ensure(2);
+        out[outPosition++] = '\r';
+        out[outPosition++] = '\n';
+        return this;
+    }
+
+    public RespConnection arg(String value) throws IOException {
+        int length = value.length();
+        if (length + 2 > out.length) {
+            return arg(value.getBytes(StandardCharsets.UTF_8));
+        }
+        for (int i = 0; i < length; i++) {
+            if (value.charAt(i) >= 0x80) {
+                return arg(value.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        // ASCII, one byte per char, no intermediate byte[]
+        ensure(1 + 20 + 2);
+        out[outPosition++] = '$';
+        putNumber(length);
+        ensure(length + 2);
+        for (int i = 0; i < length; i++) {
+            out[outPosition++] = (byte) value.charAt(i);
+        }
+        out[outPosition++] = '\r';
+        out[outPosition++] = '\n';
+        return this;
+    }
+
+    public RespConnection arg(long value) throws IOException {
+        int start = digits.length;
+        boolean negative = value < 0;
+        long remaining = value;
+        do {
+            int digit = (int) (remaining % 10);
+            digits[--start] = (byte) ('0' + (negative ? -digit : digit));
+            remaining /= 10;
+        } while (remaining != 0);
+
+        int length = digits.length - start + (negative ? 1 : 0);
+        ensure(1 + 20 + 2 + length + 2);
+        out[outPosition++] = '$';
+        putNumber(length);
+        if (negative) {
+            out[outPosition++] = '-';
+        }
+        System.arraycopy(digits, start, out, outPosition, digits.length - start);
+        outPosition += digits.length - start;
+        out[outPosition++] = '\r';
+        out[outPosition++] = '\n';
+        return this;
+    }
+
+    private void putNumber(long value) {
+        if (value >= 0 && value < 10) {
+            out[outPosition++] = (byte) ('0' + value);
+        } else {
+            byte[] text = Long.toString(value).getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(text, 0, out, outPosition, text.length);
+            outPosition += text.length;
+        }
+        out[outPosition++] = '\r';
+        out[outPosition++] = '\n';
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (outPosition + bytes > out.length) {
+            drain();
+        }
+    }
+
+    /**
+     * Send everything encoded so far, replies stay unread until sync()
+     */
+    private void drain() throws IOException {
+        if (outPosition == 0) {
+            return;
+        }
+        outBuffer.clear().limit(outPosition);
+        writeFully(outBuffer);
+        outPosition = 0;
+    }
+
+    private void writeFully(ByteBuffer buffer) throws IOException {
+        requireConnected();
+        while (buffer.hasRemaining()) {
+            if (channel.write(buffer) == 0) {
+                await(SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Replies
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * Send the pipeline and read one reply per command, in order
+     */
+    public List<Object> sync() throws IOException {
+        drain();
+        List<Object> replies = new ArrayList<>(pending);
+        int count = pending;
+        pending = 0;
+        for (int i = 0; i < count; i++) {
+            replies.add(readReply());
+        }
+        return replies;
+    }
+
+    /**
+     * Send a single command and wait for its reply, for tools and handshakes (not for the hot path)
+     */
+    public Object call(Object... args) throws IOException {
+        if (pending != 0) {
+            throw new IllegalStateException(pending + " pipelined commands not synced");
+        }
+        command(args.length);
+        for (Object arg : args) {
+            if (arg instanceof byte[]) {
+                arg((byte[]) arg);
+            } else if (arg instanceof Number) {
+                arg(((Number) arg).longValue());
+            } else {
+                arg(String.valueOf(arg));
+            }
+        }
+        return sync().get(0);
+    }
+
+    private Object readReply() throws IOException {
+        byte type = readByte();
+        switch (type) {
+            case '+':
+                return readSimpleString();
+            case '-':
+                return new ErrorReply(readLine());
+            case ':':
+                return readLineNumber();
+            case '$': {
+                int length = (int) readLineNumber();
+                if (length < 0) {
+                    return null;
+                }
+                byte[] value = new byte[length];
+                readFully(value);
+                readByte();   // \r
+                readByte();   // \n
+                return value;
+            }
+            case '*': {
+                int count = (int) readLineNumber();
+                if (count < 0) {
+                    return null;
+                }
+                Object[] values = new Object[count];
+                for (int i = 0; i < count; i++) {
+                    values[i] = readReply();
+                }
+                return values;
+            }
+            default:
+                close();
+                throw new IOException("Unexpected RESP type byte '" + (char) type + "' from " + host + ":" + port);
+        }
+    }
+
+    private String readSimpleString() throws IOException {
+        // "+OK\r\n" is by far the most common reply, don't allocate for it
+        if (inLimit - inPosition >= 4 && in[inPosition] == 'O' && in[inPosition + 1] == 'K' && in[inPosition + 2] == '\r') {
+            inPosition += 4;
+            return OK;
+        }
+        return readLine();
+    }
+
+    private String readLine() throws IOException {
+        StringBuilder line = new StringBuilder();
+        while (true) {
+            byte b = readByte();
+            if (b == '\r') {
+                readByte();
+                return line.toString();
+            }
+            line.append((char) (b & 0xFF));
+        }
+    }
+
+    private long readLineNumber() throws IOException {
+        long value = 0;
+        boolean negative = false;
+        while (true) {
+            byte b = readByte();
+            if (b == '-') {
+                negative = true;
+            } else if (b == '\r') {
+                readByte();
+                return negative ? -value : value;
+            } else {
+                value = value * 10 + (b - '0');
+            }
+        }
+    }
+
+    private byte readByte() throws IOException {
+        if (inPosition == inLimit) {
+            fill(1);
+        }
+        return in[inPosition++];
+    }
+
+    private void readFully(byte[] target) throws IOException {
+        int copied = 0;
+        while (copied < target.length) {
+            if (inPosition == inLimit) {
+                fill(1);
+            }
+            int chunk = Math.min(target.length - copied, inLimit - inPosition);
+            System.arraycopy(in, inPosition, target, copied, chunk);
+            inPosition += chunk;
+            copied += chunk;
+        }
+    }
+
+    /**
+     * Block until at least `bytes` unread bytes are buffered (bytes <= buffer size)
+     */
+    private void fill(int bytes) throws IOException {
+        if (inLimit - inPosition >= bytes) {
+            return;
+        }
+        if (inPosition > 0) {
+            System.arraycopy(in, inPosition, in, 0, inLimit - inPosition);
+            inLimit -= inPosition;
+            inPosition = 0;
+        }
+        requireConnected();
+        while (inLimit < bytes) {
+            inBuffer.clear().position(inLimit);
+            int read = channel.read(inBuffer);
+            if (read < 0) {
+                close();
+                throw new EOFException("Connection to " + host + ":" + port + " closed by server");
+            }
+            if (read == 0) {
+                await(SelectionKey.OP_READ);
+            }
+            inLimit += read;
+        }
+    }
+
+    private void await(int operation) throws IOException {
+        selectionKey.interestOps(operation);
+        int ready = selector.select(timeoutMs);
+        selector.selectedKeys().clear();
+        selectionKey.interestOps(0);
+        if (ready == 0) {
+            close();
+            throw new SocketTimeoutException("Redis " + host + ":" + port + " did not respond within " + timeoutMs + " ms");
+        }
+    }
+
+    private void requireConnected() throws IOException {
+        if (!isConnected()) {
+            throw new IOException("Not connected to " + host + ":" + port);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            // Closing anyway
+        } finally {
+            selector = null;
+            channel  = null;
+            pending  = 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return host + ":" + port + "/" + database;
+    }
+
+    /**
+     * A RESP error reply ("-ERR ...", "-OOM ...", "-NOSCRIPT ...")
+     */
+    public static final class ErrorReply {
+        private final String message;
+
+        ErrorReply(String message) {
+            this.message = message;
+        }
+
+        public String message() {
+            return message;
+        }
+
+        public boolean startsWith(String prefix) {
+            return message.startsWith(prefix);
+        }
+
+        @Override
+        public String toString() {
+            return message;
+        }
+    }
+}
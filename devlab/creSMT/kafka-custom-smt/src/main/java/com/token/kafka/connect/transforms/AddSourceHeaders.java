@@ -0,0 +1,215 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   AddSourceHeaders.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Custom SMT that:
+*
+*       Source Engine:
+*
+*       Copies the MySQL commit time (Debezium source.ts_ms) and binlog position (source.file:source.pos) of a
+*       change event into record headers. Headers travel through Kafka untouched and survive the unwrap and
+*       the sink side projections, MeasureLag on the sink compares them with the time the record reaches
+*       Redis: the commit to sink lag.
+*
+*       Read from the Debezium envelope (value.source.ts_ms / .file / .pos), so the step goes before unwrap.
+*       After unwrap it works only when ExtractNewRecordState adds the fields ("add.fields":
+*       "source.ts_ms,source.file,source.pos" gives __source_ts_ms / __source_file / __source_pos). Struct
+*       and Map values; the fields are resolved once per schema. Records without a commit time (tombstones,
+*       other envelopes) pass unchanged.
+*
+*       Configuration:
+*
+*           - ts.header:       Header for source.ts_ms, epoch milliseconds as a long (default: "source_ts_ms")
+*           - position.header: Header for the binlog position "<file>:<pos>", e.g. "mysql-bin.000003:4711".
+*                              Empty = none (default: "source_pos")
+*           - metrics.enabled: Publish a JMX MBean with record counts and latencies, see TransformMetrics (default: false)
+*
+*       Usage, ahead of unwrap in jnl_acq_mysql_source-SMT.sh (SOURCE_HEADERS=true):
+*
+*           "transforms": "route,sourceHeaders,unwrap,filterAndKey",
+*           "transforms.sourceHeaders.type": "com.token.kafka.connect.transforms.AddSourceHeaders"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class AddSourceHeaders<R extends ConnectRecord<R>> implements Transformation<R> {
+
+    public static final String DEFAULT_TS_HEADER       = "source_ts_ms";
+    public static final String DEFAULT_POSITION_HEADER = "source_pos";
+
+    private static final String TS_HEADER_CONFIG       = "ts.header";
+    private static final String POSITION_HEADER_CONFIG = "position.header";
+
+    // Envelope and the fields ExtractNewRecordState add.fields flattens it to
+    private static final String SOURCE_FIELD = "source";
+    private static final String[] ENVELOPE   = {"ts_ms", "file", "pos"};
+    private static final String[] FLATTENED  = {"__source_ts_ms", "__source_file", "__source_pos"};
+
+    private static final SourcePlan NO_SOURCE = new SourcePlan(null, null, null, null);
+
+    private String tsHeader;
+    private String positionHeader;
+
+    // Where the source fields are, per schema
+    private SchemaCache<SourcePlan> planCache;
+
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+
+        tsHeader       = config.getString(TS_HEADER_CONFIG);
+        positionHeader = emptyToNull(config.getString(POSITION_HEADER_CONFIG));
+        planCache      = new SchemaCache<>();
+        metrics.watch(planCache);
+    }
+
+    @Override
+    public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+
+    private R transform(R record) {
+        Object value = record.value();
+        Object ts;
+        Object file = null;
+        Object pos  = null;
+
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            SourcePlan plan = planCache.computeIfAbsent(struct.schema(), AddSourceHeaders::plan);
+            if (plan.ts == null) {
+                return record;
+            }
+            if (plan.source != null) {
+                struct = (Struct) struct.get(plan.source);
+                if (struct == null) {
+                    return record;
+                }
+            }
+            ts = struct.get(plan.ts);
+            if (plan.file != null && plan.pos != null) {
+                file = struct.get(plan.file);
+                pos  = struct.get(plan.pos);
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            String[] names = FLATTENED;
+            if (map.get(SOURCE_FIELD) instanceof Map) {
+                map   = (Map<?, ?>) map.get(SOURCE_FIELD);
+                names = ENVELOPE;
+            }
+            ts   = map.get(names[0]);
+            file = map.get(names[1]);
+            pos  = map.get(names[2]);
+        } else {
+            return record;
+        }
+
+        if (!(ts instanceof Number)) {
+            return record;
+        }
+
+        Headers headers = record.headers().duplicate();
+        headers.addLong(tsHeader, ((Number) ts).longValue());
+        if (positionHeader != null && file != null && pos != null) {
+            headers.addString(positionHeader, file + ":" + pos);
+        }
+
+        return record.newRecord(
+            record.topic(),
+            record.kafkaPartition(),
+            record.keySchema(),
+            record.key(),
+            record.valueSchema(),
+            value,
+            record.timestamp(),
+            headers
+        );
+    }
+
+    /**
+     * The Debezium envelope's source struct, else the flattened __source_* fields
+     */
+    private static SourcePlan plan(Schema schema) {
+        Field source = schema.field(SOURCE_FIELD);
+        if (source != null && source.schema().type() == Schema.Type.STRUCT) {
+            Schema sourceSchema = source.schema();
+            return new SourcePlan(source, sourceSchema.field(ENVELOPE[0]), sourceSchema.field(ENVELOPE[1]), sourceSchema.field(ENVELOPE[2]));
+        }
+        Field ts = schema.field(FLATTENED[0]);
+        return ts == null ? NO_SOURCE : new SourcePlan(null, ts, schema.field(FLATTENED[1]), schema.field(FLATTENED[2]));
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    @Override
+    public ConfigDef config() {
+        return TransformMetrics.define(new ConfigDef()
+            .define(TS_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    DEFAULT_TS_HEADER,
+                    new ConfigDef.NonEmptyString(),
+                    ConfigDef.Importance.MEDIUM,
+                    "Header to put the MySQL commit time (Debezium source.ts_ms, epoch milliseconds) in")
+            .define(POSITION_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    DEFAULT_POSITION_HEADER,
+                    ConfigDef.Importance.LOW,
+                    "Header to put the binlog position '<file>:<pos>' in. Empty = none"));
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+        if (planCache != null) {
+            planCache.clear();
+        }
+    }
+
+    /**
+     * The source struct field (null when flattened) and the commit time / file / position fields in it
+     */
+    private static final class SourcePlan {
+        final Field source;
+        final Field ts;
+        final Field file;
+        final Field pos;
+
+        SourcePlan(Field source, Field ts, Field file, Field pos) {
+            this.source = source;
+            this.ts     = ts;
+            this.file   = file;
+            this.pos    = pos;
+        }
+    }
+}
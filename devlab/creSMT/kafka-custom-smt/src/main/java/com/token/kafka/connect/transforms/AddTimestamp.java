@@ -18,12 +18,22 @@
 *           - timestamp.field: Name of the field to add (default: "createdAt")
 *           - timestamp.format: Format of timestamp - "epoch" (milliseconds) or "iso8601" (default: "iso8601")
 *           - timestamp.timezone: Timezone for ISO8601 format (default: "UTC")
+*           - timestamp.source: Time to record - "wallclock" (processing time), "record" (Kafka record timestamp)
+*                               or "source" (Debezium source.ts_ms, row commit time) (default: "wallclock")
+*           - timestamp.source.field: Value fields holding the Debezium commit time for "source", tried in order,
+*                               dotted names read nested fields (default: "__source_ts_ms,source.ts_ms")
+*           - schema.cache.size: Number of derived Struct schemas to cache (default: 16)
+*           - metrics.enabled: Publish a JMX MBean with record counts and latencies, see TransformMetrics (default: false)
+*
+*       Struct values: the derived schema (input fields + timestamp field) and a field copy plan are built once
+*       per input schema instance and cached, schemaCacheHits()/schemaCacheMisses() expose the cache counters.
 * 
 *       Usage:
 *           "transforms": "addTimestamp",
 *           "transforms.addTimestamp.type": "com.token.kafka.connect.transforms.AddTimestamp",
 *           "transforms.addTimestamp.timestamp.field": "createdAt",
-*           "transforms.addTimestamp.timestamp.format": "iso8601"
+*           "transforms.addTimestamp.timestamp.format": "iso8601",
+*           "transforms.addTimestamp.timestamp.source": "wallclock"
 *
 *///////////////////////////////////////////////////////////////////////////////////////////////////////
 
@@ -31,48 +41,68 @@ package com.token.kafka.connect.transforms;
 
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
 import org.apache.kafka.connect.data.Schema;
 import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
 import org.apache.kafka.connect.transforms.Transformation;
 import org.apache.kafka.connect.transforms.util.SimpleConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.TimeZone;
+import java.util.function.UnaryOperator;
 
 public class AddTimestamp<R extends ConnectRecord<R>> implements Transformation<R> {
     
+    private static final Logger log = LoggerFactory.getLogger(AddTimestamp.class);
+    
     private static final String TIMESTAMP_FIELD_CONFIG    = "timestamp.field";
     private static final String TIMESTAMP_FORMAT_CONFIG   = "timestamp.format";
     private static final String TIMESTAMP_TIMEZONE_CONFIG = "timestamp.timezone";
+    private static final String TIMESTAMP_SOURCE_CONFIG   = "timestamp.source";
+    private static final String SOURCE_FIELD_CONFIG       = "timestamp.source.field";
+    private static final String SCHEMA_CACHE_SIZE_CONFIG  = "schema.cache.size";
     
     private String timestampField;
-    private String timestampFormat;
-    private SimpleDateFormat dateFormat;
+    private TimestampFormatter timestampFormatter;
+    private TimestampSource timestampSource;
+    private SchemaCache<StructPlan> schemaCache;
+    
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
     
     @Override
     public void configure(Map<String, ?> configs) {
         SimpleConfig config = new SimpleConfig(config(), configs);
-        timestampField  = config.getString(TIMESTAMP_FIELD_CONFIG);
-        timestampFormat = config.getString(TIMESTAMP_FORMAT_CONFIG);
-        String timezone = config.getString(TIMESTAMP_TIMEZONE_CONFIG);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+        timestampField     = config.getString(TIMESTAMP_FIELD_CONFIG);
+        timestampFormatter = new TimestampFormatter(
+            config.getString(TIMESTAMP_FORMAT_CONFIG),
+            config.getString(TIMESTAMP_TIMEZONE_CONFIG)
+        );
+        timestampSource    = new TimestampSource(
+            config.getString(TIMESTAMP_SOURCE_CONFIG),
+            config.getList(SOURCE_FIELD_CONFIG)
+        );
         
-        if ("iso8601".equalsIgnoreCase(timestampFormat)) {
-            dateFormat = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-            dateFormat.setTimeZone(TimeZone.getTimeZone(timezone));
-        }
+        schemaCache = new SchemaCache<>(config.getInt(SCHEMA_CACHE_SIZE_CONFIG));
+        metrics.watch(schemaCache);
     }
     
     @Override
     public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+    
+    private R transform(R record) {
         if (record.value() == null) {
             return record;
         }
         
-        Object timestampValue = generateTimestamp();
+        Object timestampValue = timestampFormatter.format(timestampSource.resolve(record));
         Object updatedValue;
         Schema updatedSchema = null;
         
@@ -85,35 +115,27 @@ public class AddTimestamp<R extends ConnectRecord<R>> implements Transformation<
             updatedValue = valueMap;
             
         } else if (record.value() instanceof Struct) {
-            // Struct value - add timestamp field
+            // Struct value - add timestamp field, schema and copy plan come from the cache
             Struct originalStruct = (Struct) record.value();
             Schema originalSchema = originalStruct.schema();
             
-            // Build new schema with timestamp field
-            SchemaBuilder builder = SchemaBuilder.struct();
-            if (originalSchema.name() != null) {
-                builder.name(originalSchema.name());
+            StructPlan plan = schemaCache.get(originalSchema);
+            if (plan == null) {
+                plan = buildPlan(originalSchema);
+                schemaCache.put(originalSchema, plan);
+                log.info("Derived schema for {} (schema cache hits={}, misses={})",
+                    originalSchema.name(), schemaCache.hits(), schemaCache.misses());
             }
+            updatedSchema = plan.schema;
             
-            // Copy existing fields
-            for (org.apache.kafka.connect.data.Field field : originalSchema.fields()) {
-                builder.field(field.name(), field.schema());
-            }
-            
-            // Add timestamp field
-            if ("epoch".equalsIgnoreCase(timestampFormat)) {
-                builder.field(timestampField, Schema.INT64_SCHEMA);
-            } else {
-                builder.field(timestampField, Schema.STRING_SCHEMA);
-            }
-            updatedSchema = builder.build();
-            
-            // Copy values to new struct
+            // Copy values to new struct by position, no field name lookups
             Struct updatedStruct = new Struct(updatedSchema);
-            for (org.apache.kafka.connect.data.Field field : originalSchema.fields()) {
-                updatedStruct.put(field.name(), originalStruct.get(field));
+            Field[] sourceFields = plan.sourceFields;
+            Field[] targetFields = plan.targetFields;
+            for (int i = 0; i < sourceFields.length; i++) {
+                updatedStruct.put(targetFields[i], originalStruct.get(sourceFields[i]));
             }
-            updatedStruct.put(timestampField, timestampValue);
+            updatedStruct.put(plan.timestampField, timestampValue);
             updatedValue = updatedStruct;
             
         } else {
@@ -133,20 +155,50 @@ public class AddTimestamp<R extends ConnectRecord<R>> implements Transformation<
         );
     }
     
-    private Object generateTimestamp() {
-        long currentTimeMillis = System.currentTimeMillis();
+    /**
+     * Build the derived schema (input fields + timestamp field) and the field copy plan for an input schema
+     */
+    private StructPlan buildPlan(Schema originalSchema) {
+        SchemaBuilder builder = SchemaBuilder.struct();
+        if (originalSchema.name() != null) {
+            builder.name(originalSchema.name());
+        }
         
-        if ("epoch".equalsIgnoreCase(timestampFormat)) {
-            return currentTimeMillis;
-        } else {
-            // ISO8601 format
-            return dateFormat.format(new Date(currentTimeMillis));
+        // Copy existing fields
+        for (Field field : originalSchema.fields()) {
+            builder.field(field.name(), field.schema());
         }
+        
+        // Add timestamp field
+        builder.field(timestampField, timestampFormatter.schema());
+        Schema updatedSchema = builder.build();
+        
+        Field[] sourceFields = originalSchema.fields().toArray(new Field[0]);
+        Field[] targetFields = new Field[sourceFields.length];
+        for (int i = 0; i < sourceFields.length; i++) {
+            targetFields[i] = updatedSchema.fields().get(i);
+        }
+        
+        return new StructPlan(updatedSchema, sourceFields, targetFields, updatedSchema.field(timestampField));
+    }
+    
+    /**
+     * Number of Struct records whose derived schema came from the cache
+     */
+    public long schemaCacheHits() {
+        return schemaCache == null ? 0 : schemaCache.hits();
+    }
+    
+    /**
+     * Number of Struct records that required a derived schema to be built (first record and every schema change)
+     */
+    public long schemaCacheMisses() {
+        return schemaCache == null ? 0 : schemaCache.misses();
     }
     
     @Override
     public ConfigDef config() {
-        return new ConfigDef()
+        return TransformMetrics.define(new ConfigDef()
             .define(TIMESTAMP_FIELD_CONFIG, 
                     ConfigDef.Type.STRING, 
                     "createdAt", 
@@ -161,11 +213,48 @@ public class AddTimestamp<R extends ConnectRecord<R>> implements Transformation<
                     ConfigDef.Type.STRING, 
                     "UTC", 
                     ConfigDef.Importance.LOW, 
-                    "Timezone for ISO8601 format (e.g., 'UTC', 'Africa/Johannesburg')");
+                    "Timezone for ISO8601 format (e.g., 'UTC', 'Africa/Johannesburg')")
+            .define(TIMESTAMP_SOURCE_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    TimestampSource.SOURCE_WALLCLOCK, 
+                    ConfigDef.ValidString.in(TimestampSource.SOURCE_WALLCLOCK, TimestampSource.SOURCE_RECORD, TimestampSource.SOURCE_DEBEZIUM), 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Time to record: 'wallclock' (processing time), 'record' (Kafka record timestamp) or 'source' (Debezium source.ts_ms commit time)")
+            .define(SOURCE_FIELD_CONFIG, 
+                    ConfigDef.Type.LIST, 
+                    TimestampSource.DEFAULT_SOURCE_FIELDS, 
+                    ConfigDef.Importance.LOW, 
+                    "Value fields holding the Debezium commit time (epoch ms) for timestamp.source=source, tried in order, dotted names read nested fields")
+            .define(SCHEMA_CACHE_SIZE_CONFIG, 
+                    ConfigDef.Type.INT, 
+                    SchemaCache.DEFAULT_CAPACITY, 
+                    ConfigDef.Range.atLeast(1), 
+                    ConfigDef.Importance.LOW, 
+                    "Number of derived Struct schemas to cache, one per distinct input schema"));
     }
     
     @Override
     public void close() {
-        // No resources to close
+        metrics.close();
+        if (schemaCache != null) {
+            schemaCache.clear();
+        }
+    }
+    
+    /**
+     * Derived schema plus the positional field copy plan for one input schema
+     */
+    private static final class StructPlan {
+        final Schema schema;
+        final Field[] sourceFields;
+        final Field[] targetFields;
+        final Field timestampField;
+        
+        StructPlan(Schema schema, Field[] sourceFields, Field[] targetFields, Field timestampField) {
+            this.schema         = schema;
+            this.sourceFields   = sourceFields;
+            this.targetFields   = targetFields;
+            this.timestampField = timestampField;
+        }
     }
 }
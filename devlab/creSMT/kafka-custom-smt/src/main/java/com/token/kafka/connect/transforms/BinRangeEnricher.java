@@ -0,0 +1,426 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   BinRangeEnricher.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Custom SMT that adds the card's BIN range attributes (scheme, issuer, country, ...) to the value, so
+*       they are written to Redis with the record and consumers need no lookup of their own.
+*
+*       The range table is a local file, CSV or compiled and memory-mapped, see BinRangeIndex. The lookup is a
+*       binary search over primitive bounds on the card number's leading digits and allocates nothing, the
+*       attribute values are shared dictionary Strings.
+*
+*       Hot reload: every bin.reload.interval.ms the file's modified time, size and file key are checked and a
+*       changed file is loaded and swapped in. Replace the file atomically (write a new file, then mv it over
+*       the old one). A file that fails to load is logged and the previous table stays in use.
+*
+*       Configuration:
+*           - bin.file: CSV or compiled BIN range file (required)
+*           - card.field: Value field holding the card number (default: "cardNumber")
+*           - bin.fields: Range file columns to add, empty = all columns of the file (default: "")
+*           - field.prefix: Prefix for the added field names, e.g. "bin_" (default: "")
+*           - bin.reload.interval.ms: How often to check the file for changes, 0 = never (default: 30000)
+*           - schema.cache.size: Number of derived Struct schemas to cache (default: 16)
+*           - metrics.enabled: Publish a JMX MBean with record counts and latencies, see TransformMetrics (default: false)
+*
+*       Map values get the attributes of the matching range (empty attributes are left out), records without
+*       a card number or a matching range pass through unchanged. Struct values get optional string fields,
+*       null when there is no match, so every record of a schema keeps the same derived schema. An input field
+*       of the same name is overwritten when it is an optional string, any other type fails the record.
+*
+*       Put it before ValueToJsonString / RedisValueEncoder. With PrepareRedisRecord list the added fields in
+*       its include.
+*
+*       Usage:
+*           "transforms": "enrichBin",
+*           "transforms.enrichBin.type": "com.token.kafka.connect.transforms.BinRangeEnricher",
+*           "transforms.enrichBin.bin.file": "/etc/kafka-connect/bin_ranges.bin",
+*           "transforms.enrichBin.card.field": "cardNumber",
+*           "transforms.enrichBin.bin.fields": "scheme,issuer,country"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+public class BinRangeEnricher<R extends ConnectRecord<R>> implements Transformation<R> {
+
+    private static final Logger log = LoggerFactory.getLogger(BinRangeEnricher.class);
+
+    private static final String BIN_FILE_CONFIG          = "bin.file";
+    private static final String CARD_FIELD_CONFIG        = "card.field";
+    private static final String BIN_FIELDS_CONFIG        = "bin.fields";
+    private static final String FIELD_PREFIX_CONFIG      = "field.prefix";
+    private static final String RELOAD_INTERVAL_CONFIG   = "bin.reload.interval.ms";
+    private static final String SCHEMA_CACHE_SIZE_CONFIG = "schema.cache.size";
+
+    private static final Schema ATTRIBUTE_SCHEMA = Schema.OPTIONAL_STRING_SCHEMA;
+
+    private Path binFile;
+    private String cardField;
+    private List<String> binFields;
+    private String[] outputFields;
+    private long reloadIntervalMs;
+    private SchemaCache<StructPlan> schemaCache;
+
+    // Current table, replaced as a whole on reload
+    private Table table;
+    private long nextCheck;
+
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+        binFile          = Paths.get(config.getString(BIN_FILE_CONFIG));
+        cardField        = config.getString(CARD_FIELD_CONFIG);
+        binFields        = config.getList(BIN_FIELDS_CONFIG);
+        reloadIntervalMs = config.getLong(RELOAD_INTERVAL_CONFIG);
+
+        try {
+            table = load();
+        } catch (IOException | RuntimeException e) {
+            throw new ConfigException(BIN_FILE_CONFIG, binFile.toString(), "Cannot load BIN ranges: " + e.getMessage());
+        }
+        // Output fields are fixed for the life of the transform, a reloaded file may not drop them
+        List<String> columns = binFields.isEmpty() ? table.index.columns() : binFields;
+        String prefix = config.getString(FIELD_PREFIX_CONFIG);
+        outputFields = columns.stream().map(column -> prefix + column).toArray(String[]::new);
+        table = table.select(columns);
+        nextCheck = System.currentTimeMillis() + reloadIntervalMs;
+
+        schemaCache = new SchemaCache<>(config.getInt(SCHEMA_CACHE_SIZE_CONFIG));
+        metrics.watch(schemaCache);
+
+        log.info("Loaded {} BIN ranges from {}, adding {}", table.index.size(), binFile, String.join(",", outputFields));
+    }
+
+    @Override
+    public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+
+    private R transform(R record) {
+        if (record.value() == null) {
+            return record;
+        }
+        if (reloadIntervalMs > 0) {
+            long now = System.currentTimeMillis();
+            if (now >= nextCheck) {
+                nextCheck = now + reloadIntervalMs;
+                reload();
+            }
+        }
+
+        Table current = table;
+        Object updatedValue;
+        Schema updatedSchema = null;
+
+        if (record.value() instanceof Map) {
+            Map<?, ?> original = (Map<?, ?>) record.value();
+            int range = current.lookup(original.get(cardField));
+            if (range < 0) {
+                return record;
+            }
+            @SuppressWarnings("unchecked")
+            Map<String, Object> valueMap = new HashMap<>((Map<String, Object>) original);
+            for (int i = 0; i < outputFields.length; i++) {
+                String attribute = current.attribute(range, i);
+                if (attribute != null) {
+                    valueMap.put(outputFields[i], attribute);
+                }
+            }
+            updatedValue = valueMap;
+
+        } else if (record.value() instanceof Struct) {
+            Struct originalStruct = (Struct) record.value();
+            Schema originalSchema = originalStruct.schema();
+
+            StructPlan plan = schemaCache.get(originalSchema);
+            if (plan == null) {
+                plan = buildPlan(originalSchema);
+                schemaCache.put(originalSchema, plan);
+                log.info("Derived schema for {} (schema cache hits={}, misses={})",
+                    originalSchema.name(), schemaCache.hits(), schemaCache.misses());
+            }
+            updatedSchema = plan.schema;
+
+            Struct updatedStruct = new Struct(updatedSchema);
+            Field[] sourceFields = plan.sourceFields;
+            Field[] targetFields = plan.targetFields;
+            for (int i = 0; i < sourceFields.length; i++) {
+                updatedStruct.put(targetFields[i], originalStruct.get(sourceFields[i]));
+            }
+            int range = plan.cardField == null ? -1 : current.lookup(originalStruct.get(plan.cardField));
+            if (range >= 0) {
+                Field[] attributeFields = plan.attributeFields;
+                for (int i = 0; i < attributeFields.length; i++) {
+                    updatedStruct.put(attributeFields[i], current.attribute(range, i));
+                }
+            }
+            updatedValue = updatedStruct;
+
+        } else {
+            // Unsupported type - pass through unchanged
+            return record;
+        }
+
+        return record.newRecord(
+            record.topic(),
+            record.kafkaPartition(),
+            record.keySchema(),
+            record.key(),
+            updatedSchema,
+            updatedValue,
+            record.timestamp(),
+            record.headers()
+        );
+    }
+
+    /**
+     * Swap in the range file if it changed since it was last loaded
+     */
+    private void reload() {
+        try {
+            FileVersion version = FileVersion.of(binFile);
+            if (version.equals(table.version)) {
+                return;
+            }
+            Table loaded = load().select(table.columns);
+            table = loaded;
+            log.info("Reloaded {} BIN ranges from {}", loaded.index.size(), binFile);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Cannot reload BIN ranges from {}, keeping the {} loaded ranges: {}",
+                     binFile, table.index.size(), e.getMessage());
+        }
+    }
+
+    private Table load() throws IOException {
+        // Version first, a file swapped in while loading is picked up by the next check
+        FileVersion version = FileVersion.of(binFile);
+        return new Table(BinRangeIndex.load(binFile), version);
+    }
+
+    /**
+     * Build the derived schema (input fields + optional string attribute fields) and the field copy plan
+     */
+    private StructPlan buildPlan(Schema originalSchema) {
+        SchemaBuilder builder = SchemaBuilder.struct();
+        if (originalSchema.name() != null) {
+            builder.name(originalSchema.name());
+        }
+        for (Field field : originalSchema.fields()) {
+            builder.field(field.name(), field.schema());
+        }
+        for (String outputField : outputFields) {
+            Field existing = originalSchema.field(outputField);
+            if (existing == null) {
+                builder.field(outputField, ATTRIBUTE_SCHEMA);
+            } else if (existing.schema().type() != Schema.Type.STRING || !existing.schema().isOptional()) {
+                // The attribute is overwritten in place, which needs an optional string field
+                throw new DataException("Field " + outputField + " of " + originalSchema.name() + " is "
+                                        + existing.schema() + ", an added BIN attribute needs an optional string,"
+                                        + " set " + FIELD_PREFIX_CONFIG + " or " + BIN_FIELDS_CONFIG + " to avoid the clash");
+            }
+        }
+        Schema updatedSchema = builder.build();
+
+        Field[] sourceFields = originalSchema.fields().toArray(new Field[0]);
+        Field[] targetFields = new Field[sourceFields.length];
+        for (int i = 0; i < sourceFields.length; i++) {
+            targetFields[i] = updatedSchema.fields().get(i);
+        }
+        Field[] attributeFields = new Field[outputFields.length];
+        for (int i = 0; i < outputFields.length; i++) {
+            attributeFields[i] = updatedSchema.field(outputFields[i]);
+        }
+
+        return new StructPlan(updatedSchema, sourceFields, targetFields, originalSchema.field(cardField), attributeFields);
+    }
+
+    /**
+     * Number of ranges in the current table
+     */
+    public int rangeCount() {
+        return table == null ? 0 : table.index.size();
+    }
+
+    @Override
+    public ConfigDef config() {
+        return TransformMetrics.define(new ConfigDef()
+            .define(BIN_FILE_CONFIG,
+                    ConfigDef.Type.STRING,
+                    ConfigDef.NO_DEFAULT_VALUE,
+                    ConfigDef.Importance.HIGH,
+                    "BIN range file, CSV (low,high,<column>,...) or compiled with BinRangeIndex (memory-mapped)")
+            .define(CARD_FIELD_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "cardNumber",
+                    ConfigDef.Importance.MEDIUM,
+                    "Value field holding the card number, its leading digits are looked up")
+            .define(BIN_FIELDS_CONFIG,
+                    ConfigDef.Type.LIST,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Range file columns to add to the value. Empty = all columns of the file")
+            .define(FIELD_PREFIX_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "",
+                    ConfigDef.Importance.LOW,
+                    "Prefix for the added field names (e.g., 'bin_')")
+            .define(RELOAD_INTERVAL_CONFIG,
+                    ConfigDef.Type.LONG,
+                    30000L,
+                    ConfigDef.Range.atLeast(0),
+                    ConfigDef.Importance.LOW,
+                    "How often to check the BIN range file for changes and reload it, 0 = never")
+            .define(SCHEMA_CACHE_SIZE_CONFIG,
+                    ConfigDef.Type.INT,
+                    SchemaCache.DEFAULT_CAPACITY,
+                    ConfigDef.Range.atLeast(1),
+                    ConfigDef.Importance.LOW,
+                    "Number of derived Struct schemas to cache, one per distinct input schema"));
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+        if (schemaCache != null) {
+            schemaCache.clear();
+        }
+    }
+
+    /**
+     * A loaded range index, the file version it was loaded from and the index column of each output field
+     */
+    private static final class Table {
+        final BinRangeIndex index;
+        final FileVersion version;
+        final List<String> columns;
+        final int[] columnIndex;
+
+        Table(BinRangeIndex index, FileVersion version) {
+            this(index, version, index.columns());
+        }
+
+        private Table(BinRangeIndex index, FileVersion version, List<String> columns) {
+            this.index       = index;
+            this.version     = version;
+            this.columns     = columns;
+            this.columnIndex = new int[columns.size()];
+            List<String> available = index.columns();
+            for (int i = 0; i < columnIndex.length; i++) {
+                columnIndex[i] = available.indexOf(columns.get(i));
+                if (columnIndex[i] < 0) {
+                    throw new ConfigException(BIN_FIELDS_CONFIG, columns.get(i),
+                                              "Not a column of the BIN range file, columns are " + available);
+                }
+            }
+        }
+
+        Table select(List<String> columns) {
+            return new Table(index, version, columns);
+        }
+
+        int lookup(Object card) {
+            if (card instanceof CharSequence) {
+                return index.lookup((CharSequence) card);
+            }
+            if (card instanceof Long || card instanceof Integer) {
+                return index.lookupNumber(((Number) card).longValue());
+            }
+            return card instanceof Number ? index.lookup(card.toString()) : -1;
+        }
+
+        String attribute(int range, int field) {
+            return index.attribute(range, columnIndex[field]);
+        }
+    }
+
+    /**
+     * Modified time, size and file key (inode) of the range file, a rename over it changes the file key
+     */
+    private static final class FileVersion {
+        final long modified;
+        final long size;
+        final Object fileKey;
+
+        private FileVersion(BasicFileAttributes attributes) {
+            this.modified = attributes.lastModifiedTime().toMillis();
+            this.size     = attributes.size();
+            this.fileKey  = attributes.fileKey();
+        }
+
+        static FileVersion of(Path path) throws IOException {
+            return new FileVersion(Files.readAttributes(path, BasicFileAttributes.class));
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof FileVersion)) {
+                return false;
+            }
+            FileVersion version = (FileVersion) other;
+            return modified == version.modified && size == version.size && Objects.equals(fileKey, version.fileKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(modified, size, fileKey);
+        }
+    }
+
+    /**
+     * Derived schema plus the positional field copy plan for one input schema
+     */
+    private static final class StructPlan {
+        final Schema schema;
+        final Field[] sourceFields;
+        final Field[] targetFields;
+        final Field cardField;
+        final Field[] attributeFields;
+
+        StructPlan(Schema schema, Field[] sourceFields, Field[] targetFields, Field cardField, Field[] attributeFields) {
+            this.schema          = schema;
+            this.sourceFields    = sourceFields;
+            this.targetFields    = targetFields;
+            this.cardField       = cardField;
+            this.attributeFields = attributeFields;
+        }
+    }
+}
@@ -0,0 +1,401 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   BinRangeIndex.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Immutable BIN range table for BinRangeEnricher: sorted range bounds in primitive long buffers, one
+*       int attribute id per range and column, attribute values deduplicated into a String dictionary.
+*       lookup() is a binary search over the bounds and allocates nothing.
+*
+*       Range bounds are digit prefixes of up to 18 digits, the low bound padded with 0s and the high bound
+*       with 9s to 18 digits, so 6 and 8 digit BINs can be mixed. Ranges must not overlap.
+*
+*       Two file formats, told apart by the first 4 bytes:
+*
+*       - CSV, loaded into long[] / int[] on the heap. First line is the header low,high,<column>,...
+*         e.g. low,high,scheme,issuer,country. Blank lines and lines starting with # are skipped, values
+*         may be double quoted
+*       - Compiled ("BINR" magic), memory-mapped, for tables with millions of ranges. Only the dictionary is
+*         read onto the heap, the bounds are searched in place. Compile a CSV with (the provided Kafka
+*         Connect libs on the classpath, mvn package copies them to target/connect-libs):
+*
+*           java -cp "target/kafka-connect-token-smt-1.0.0.jar:target/connect-libs/*" \
+*                com.token.kafka.connect.transforms.BinRangeIndex <ranges.csv> <ranges.bin>
+*
+*       Compiled layout (big-endian): "BINR", int version, int column count, column names, int dictionary
+*       size, dictionary entries (names and entries as unsigned short length + UTF-8), int range count,
+*       zero padding to 8 bytes, long[count] low bounds, long[count] high bounds, int[count * columns]
+*       attribute ids (-1 for an empty value).
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.errors.DataException;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public final class BinRangeIndex {
+
+    public static final int DIGITS = 18;
+
+    private static final int MAGIC   = 0x42494E52; // "BINR"
+    private static final int VERSION = 1;
+
+    private final String[] columns;
+    private final String[] dictionary;
+    private final LongBuffer lows;
+    private final LongBuffer highs;
+    private final IntBuffer attributes;
+    private final int count;
+
+    private BinRangeIndex(String[] columns, String[] dictionary, LongBuffer lows, LongBuffer highs, IntBuffer attributes) {
+        this.columns    = columns;
+        this.dictionary = dictionary;
+        this.lows       = lows;
+        this.highs      = highs;
+        this.attributes = attributes;
+        this.count      = lows.limit();
+    }
+
+    /**
+     * Load a CSV or compiled range file
+     */
+    public static BinRangeIndex load(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            channel.read(magic, 0);
+            if (magic.position() == 4 && magic.getInt(0) == MAGIC) {
+                return map(channel);
+            }
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return parse(reader, path.toString());
+        }
+    }
+
+    public List<String> columns() {
+        return Arrays.asList(columns);
+    }
+
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Index of the range holding the card's leading digits, -1 for none. Reading stops at the first
+     * non-digit, so masked numbers (411111******1111) are looked up by their clear prefix
+     */
+    public int lookup(CharSequence cardNumber) {
+        long card = 0;
+        int digits = 0;
+        for (int i = 0; i < cardNumber.length() && digits < DIGITS; i++) {
+            char c = cardNumber.charAt(i);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            card = card * 10 + (c - '0');
+            digits++;
+        }
+        if (digits == 0) {
+            return -1;
+        }
+        for (; digits < DIGITS; digits++) {
+            card *= 10;
+        }
+        return lookup(card);
+    }
+
+    /**
+     * Index of the range holding a numeric card number, -1 for none. The number is scaled to its 18 digit
+     * prefix arithmetically, as lookup(CharSequence) does for its digits
+     */
+    public int lookupNumber(long cardNumber) {
+        if (cardNumber <= 0) {
+            return -1;
+        }
+        int digits = 1;
+        for (long rest = cardNumber / 10; rest > 0; rest /= 10) {
+            digits++;
+        }
+        long card = cardNumber;
+        for (; digits > DIGITS; digits--) {
+            card /= 10;
+        }
+        for (; digits < DIGITS; digits++) {
+            card *= 10;
+        }
+        return lookup(card);
+    }
+
+    /**
+     * Index of the range holding an 18 digit card prefix, -1 for none
+     */
+    public int lookup(long card) {
+        // Last range with low <= card
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (lows.get(middle) <= card) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return high >= 0 && card <= highs.get(high) ? high : -1;
+    }
+
+    /**
+     * Attribute of a range found by lookup(), null when empty
+     */
+    public String attribute(int range, int column) {
+        int id = attributes.get(range * columns.length + column);
+        return id < 0 ? null : dictionary[id];
+    }
+
+    /**
+     * Pad a digit prefix to DIGITS digits with the given digit, the bound of a range
+     */
+    static long bound(String prefix, int pad, String source) {
+        String digits = prefix.trim();
+        if (digits.isEmpty() || digits.length() > DIGITS || !digits.chars().allMatch(c -> c >= '0' && c <= '9')) {
+            throw new DataException("Invalid BIN range bound '" + prefix + "' in " + source
+                                    + ", expected 1 to " + DIGITS + " digits");
+        }
+        long value = Long.parseLong(digits);
+        for (int i = digits.length(); i < DIGITS; i++) {
+            value = value * 10 + pad;
+        }
+        return value;
+    }
+
+    private static BinRangeIndex parse(BufferedReader reader, String source) throws IOException {
+        String[] columns = null;
+        List<long[]> bounds = new ArrayList<>();
+        List<int[]> rows = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+
+        String line;
+        int number = 0;
+        while ((line = reader.readLine()) != null) {
+            number++;
+            if (line.trim().isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            List<String> values = split(line);
+            if (columns == null) {
+                if (values.size() < 3) {
+                    throw new DataException("BIN range header in " + source + " needs low,high and at least one column");
+                }
+                columns = values.subList(2, values.size()).stream().map(String::trim).toArray(String[]::new);
+                continue;
+            }
+
+            String where = source + " line " + number;
+            long low = bound(values.get(0), 0, where);
+            long high = bound(values.size() > 1 ? values.get(1) : "", 9, where);
+            if (high < low) {
+                throw new DataException("BIN range high bound below low bound in " + where);
+            }
+            int[] row = new int[columns.length];
+            for (int i = 0; i < columns.length; i++) {
+                String value = i + 2 < values.size() ? values.get(i + 2).trim() : "";
+                row[i] = value.isEmpty() ? -1 : ids.computeIfAbsent(value, v -> {
+                    dictionary.add(v);
+                    return dictionary.size() - 1;
+                });
+            }
+            bounds.add(new long[] {low, high});
+            rows.add(row);
+        }
+        if (columns == null) {
+            throw new DataException("BIN range file " + source + " is empty");
+        }
+
+        // Sort by low bound, carrying the rows along
+        Integer[] order = new Integer[bounds.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(bounds.get(a)[0], bounds.get(b)[0]));
+
+        long[] lows = new long[order.length];
+        long[] highs = new long[order.length];
+        int[] attributes = new int[order.length * columns.length];
+        for (int i = 0; i < order.length; i++) {
+            long[] range = bounds.get(order[i]);
+            lows[i] = range[0];
+            highs[i] = range[1];
+            if (i > 0 && lows[i] <= highs[i - 1]) {
+                throw new DataException("Overlapping BIN ranges in " + source + ": " + lows[i - 1] + "-" + highs[i - 1]
+                                        + " and " + lows[i] + "-" + highs[i]);
+            }
+            System.arraycopy(rows.get(order[i]), 0, attributes, i * columns.length, columns.length);
+        }
+
+        return new BinRangeIndex(columns, dictionary.toArray(new String[0]),
+                                 LongBuffer.wrap(lows), LongBuffer.wrap(highs), IntBuffer.wrap(attributes));
+    }
+
+    private static BinRangeIndex map(FileChannel channel) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        try {
+            buffer.getInt();
+            int version = buffer.getInt();
+            if (version != VERSION) {
+                throw new DataException("Unsupported BIN range file version " + version);
+            }
+            String[] columns = new String[buffer.getInt()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = readString(buffer);
+            }
+            String[] dictionary = new String[buffer.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                dictionary[i] = readString(buffer);
+            }
+            int count = buffer.getInt();
+            buffer.position((buffer.position() + 7) & ~7);
+
+            LongBuffer lows = slice(buffer, 8L * count).asLongBuffer();
+            LongBuffer highs = slice(buffer, 8L * count).asLongBuffer();
+            IntBuffer attributes = slice(buffer, 4L * count * columns.length).asIntBuffer();
+            return new BinRangeIndex(columns, dictionary, lows, highs, attributes);
+        } catch (RuntimeException e) {
+            if (e instanceof DataException) {
+                throw e;
+            }
+            throw new DataException("Corrupt BIN range file", e);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, long bytes) {
+        ByteBuffer slice = buffer.slice();
+        slice.limit(Math.toIntExact(bytes));
+        buffer.position(buffer.position() + (int) bytes);
+        return slice;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] utf8 = new byte[buffer.getShort() & 0xffff];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Write the compiled, memory-mappable form
+     */
+    public void write(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(columns.length);
+        for (String column : columns) {
+            writeString(out, column);
+        }
+        out.writeInt(dictionary.length);
+        for (String entry : dictionary) {
+            writeString(out, entry);
+        }
+        out.writeInt(count);
+        while ((out.size() & 7) != 0) {
+            out.writeByte(0);
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(lows.get(i));
+        }
+        for (int i = 0; i < count; i++) {
+            out.writeLong(highs.get(i));
+        }
+        for (int i = 0; i < count * columns.length; i++) {
+            out.writeInt(attributes.get(i));
+        }
+        out.flush();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length > 0xffff) {
+            throw new DataException("BIN range value longer than 65535 bytes");
+        }
+        out.writeShort(utf8.length);
+        out.write(utf8);
+    }
+
+    /**
+     * Split one CSV line, double quoted values may hold commas and "" for a quote
+     */
+    private static List<String> split(String line) {
+        List<String> values = new ArrayList<>();
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values;
+    }
+
+    /**
+     * Compile a CSV range file: BinRangeIndex <ranges.csv> <ranges.bin>. Write to a temporary name and
+     * rename over the live file, BinRangeEnricher picks the new file up on its next reload check
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BinRangeIndex <ranges.csv> <ranges.bin>");
+            System.exit(2);
+        }
+        BinRangeIndex index = load(Paths.get(args[0]));
+        try (OutputStream out = Files.newOutputStream(Paths.get(args[1]))) {
+            index.write(new BufferedOutputStream(out, 1 << 16));
+        }
+        System.out.println("Compiled " + index.size() + " ranges, columns " + index.columns() + ", "
+                           + index.dictionary.length + " distinct values");
+    }
+}
@@ -0,0 +1,228 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ConnectorChain.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       The transform chain of a connector config, built the way a Connect worker builds it for one task:
+*       "transforms" in order, each "transforms.<name>.type" configured with its "transforms.<name>." settings,
+*       gated by "transforms.<name>.predicate" / ".negate" over the "predicates.<alias>." definitions.
+*
+*       A transform whose class is not on the classpath fails the chain, unless its class is one of the
+*       optional ones given (DEBEZIUM_STEPS: the route / unwrap steps of the source chain, the rows already
+*       are the unwrapped row), those are left out and reported through skipped(). Counts per step how many
+*       records it dropped.
+*
+*       Not thread safe, like the transforms in it: one chain per thread. Used outside Connect by
+*       RedisBootstrap and ChainReplay (benchmark profile) to run rows through the same steps as the
+*       connectors.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.predicates.Predicate;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public final class ConnectorChain<R extends ConnectRecord<R>> implements AutoCloseable {
+
+    /**
+     * The Debezium source steps that may be missing: the rows fed in already are the routed, unwrapped row
+     */
+    public static final Set<String> DEBEZIUM_STEPS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "io.debezium.transforms.ByLogicalTableRouter",
+            "io.debezium.transforms.ExtractNewRecordState")));
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Transformation<R>> transforms = new ArrayList<>();
+    private final List<Predicate<R>> predicates = new ArrayList<>();
+    private final List<Boolean> negate = new ArrayList<>();
+    private final Map<String, String> skipped = new LinkedHashMap<>();
+    private final long[] dropped;
+
+    /**
+     * Every transform of config, a missing class fails
+     */
+    public ConnectorChain(Map<String, String> config) {
+        this(config, Collections.emptySet());
+    }
+
+    /**
+     * The transforms of config, those of the optional classes are left out when not on the classpath
+     */
+    @SuppressWarnings("unchecked")
+    public ConnectorChain(Map<String, String> config, Set<String> optional) {
+        Map<String, Predicate<R>> byAlias = new HashMap<>();
+        for (String name : list(config.get("transforms"))) {
+            String prefix = "transforms." + name + ".";
+            String type = config.get(prefix + "type");
+            if (type == null) {
+                throw new ConnectException("Transform " + name + " has no " + prefix + "type");
+            }
+            Object instance = instantiate(type);
+            if (instance == null) {
+                if (!optional.contains(type)) {
+                    throw new ConnectException("Transform " + name + " (" + type + ") is not on the classpath");
+                }
+                skipped.put(name, type);
+                continue;
+            }
+            Transformation<R> transform = (Transformation<R>) instance;
+            Map<String, String> settings = settings(config, prefix);
+            String alias = settings.remove("predicate");
+            String negated = settings.remove("negate");
+            settings.remove("type");
+            transform.configure(settings);
+
+            Predicate<R> predicate = null;
+            if (alias != null && !alias.isEmpty()) {
+                predicate = byAlias.get(alias);
+                if (predicate == null) {
+                    String predicatePrefix = "predicates." + alias + ".";
+                    String predicateType = config.get(predicatePrefix + "type");
+                    Object predicateInstance = predicateType != null ? instantiate(predicateType) : null;
+                    if (predicateInstance == null) {
+                        throw new ConnectException("Predicate " + alias + " of transform " + name + " is not defined or not on the classpath");
+                    }
+                    predicate = (Predicate<R>) predicateInstance;
+                    Map<String, String> predicateSettings = settings(config, predicatePrefix);
+                    predicateSettings.remove("type");
+                    predicate.configure(predicateSettings);
+                    byAlias.put(alias, predicate);
+                }
+            }
+
+            names.add(name);
+            transforms.add(transform);
+            predicates.add(predicate);
+            negate.add(Boolean.parseBoolean(negated));
+        }
+        dropped = new long[transforms.size()];
+    }
+
+    /**
+     * The record after the chain, null when a step dropped it
+     */
+    public R apply(R record) {
+        for (int i = 0; i < transforms.size(); i++) {
+            Predicate<R> predicate = predicates.get(i);
+            if (predicate != null && predicate.test(record) == negate.get(i)) {
+                continue;
+            }
+            record = transforms.get(i).apply(record);
+            if (record == null) {
+                dropped[i]++;
+                return null;
+            }
+        }
+        return record;
+    }
+
+    public List<String> names() {
+        return names;
+    }
+
+    public long[] dropped() {
+        return dropped;
+    }
+
+    /**
+     * Transform name -> class of the steps left out because the class is not on the classpath
+     */
+    public Map<String, String> skipped() {
+        return skipped;
+    }
+
+    @Override
+    public void close() {
+        for (Transformation<R> transform : transforms) {
+            transform.close();
+        }
+        for (Predicate<R> predicate : predicates) {
+            if (predicate != null) {
+                predicate.close();
+            }
+        }
+    }
+
+    /**
+     * The config map of a connector JSON as posted to Connect, {"name": .., "config": {..}} or the map alone
+     */
+    public static Map<String, String> readConfig(File file) throws IOException {
+        JsonNode root = new ObjectMapper().readTree(file);
+        JsonNode node = root.has("config") ? root.get("config") : root;
+        Map<String, String> config = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            config.put(field.getKey(), field.getValue().asText());
+        }
+        return config;
+    }
+
+    /**
+     * The items of a comma separated list, trimmed, empty ones left out
+     */
+    public static List<String> list(String value) {
+        List<String> items = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    items.add(item.trim());
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * The settings under prefix, with the prefix removed
+     */
+    public static Map<String, String> settings(Map<String, String> config, String prefix) {
+        Map<String, String> settings = new HashMap<>();
+        for (Map.Entry<String, String> entry : config.entrySet()) {
+            if (entry.getKey().startsWith(prefix)) {
+                settings.put(entry.getKey().substring(prefix.length()), entry.getValue());
+            }
+        }
+        return settings;
+    }
+
+    /**
+     * A new instance of className, null when the class is not on the classpath
+     */
+    public static Object instantiate(String className) {
+        try {
+            return Class.forName(className).getDeclaredConstructor().newInstance();
+        } catch (ClassNotFoundException | NoClassDefFoundError e) {
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new ConnectException("Can not instantiate " + className, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   DeleteMarker.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Recognises Debezium delete markers, shared by the sink SMTs that turn them into deletes.
+*
+*       With unwrap.delete.handling.mode=rewrite a deleted row arrives as its last state plus __deleted=true.
+*       The sink SMTs replace such a value with null (keeping the key they format), RedisSinkConnector writes a
+*       null value as UNLINK, so deleted tokens leave Redis instead of waiting for LRU eviction.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Struct;
+
+import java.util.Map;
+
+final class DeleteMarker {
+
+    static final String DELETE_FIELD_CONFIG = "delete.field";
+    static final String DEFAULT_FIELD       = "__deleted";
+
+    private DeleteMarker() {
+    }
+
+    /**
+     * Add delete.field to an SMT's ConfigDef
+     */
+    static ConfigDef define(ConfigDef configDef) {
+        return configDef
+            .define(DELETE_FIELD_CONFIG,
+                    ConfigDef.Type.STRING,
+                    DEFAULT_FIELD,
+                    ConfigDef.Importance.MEDIUM,
+                    "Value field marking a deleted row (Debezium delete.handling.mode=rewrite). Records where it is "
+                    + "true get a null value, which RedisSinkConnector applies as a delete. Empty = not checked");
+    }
+
+    /**
+     * The configured delete.field, or null when empty
+     */
+    static String field(String configured) {
+        return configured == null || configured.trim().isEmpty() ? null : configured.trim();
+    }
+
+    /**
+     * True when the Map/Struct value has field set to true (Boolean, or "true" as Debezium writes it)
+     */
+    static boolean isDeleted(Object value, String field) {
+        if (field == null) {
+            return false;
+        }
+        Object marker = null;
+        if (value instanceof Map) {
+            marker = ((Map<?, ?>) value).get(field);
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            Field markerField = struct.schema().field(field);
+            marker = markerField != null ? struct.get(markerField) : null;
+        }
+        return isTrue(marker);
+    }
+
+    /**
+     * True for a delete field value of true (Boolean, or "true" as Debezium writes it)
+     */
+    static boolean isTrue(Object marker) {
+        if (marker instanceof Boolean) {
+            return (Boolean) marker;
+        }
+        return marker instanceof String && "true".equalsIgnoreCase((String) marker);
+    }
+}
@@ -0,0 +1,158 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   DigestCache.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Bounded map of 64-bit key hash -> 64-bit payload digest for SuppressUnchanged.
+*
+*       Two parallel long[] tables with linear probing at most half full, no boxing and no per-entry objects:
+*       about 34 bytes per entry. Once full, the entry to make room for is chosen CLOCK style, a hand sweeps
+*       the table, clearing the referenced bit of entries seen since its last pass and evicting the first one
+*       that was not. Removal shifts the following entries back, so lookups never see tombstones.
+*
+*       Key hash 0 marks an empty slot, callers map a 0 hash to another value. Not thread safe, one instance
+*       per transform (task).
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import java.util.Arrays;
+
+final class DigestCache {
+
+    private final int maxEntries;
+    private final int mask;
+    private final long[] keys;
+    private final long[] digests;
+    private final boolean[] referenced;
+
+    private int size;
+    private int hand;
+    private long evictions;
+
+    DigestCache(int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Digest cache size must be at least 1, got: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        int slots = Integer.highestOneBit(Math.max(2, maxEntries) * 2 - 1) << 1;
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Digest cache size too large: " + maxEntries);
+        }
+        mask       = slots - 1;
+        keys       = new long[slots];
+        digests    = new long[slots];
+        referenced = new boolean[slots];
+    }
+
+    /**
+     * True when key is cached with this digest, otherwise remembers the digest for key and returns false
+     */
+    boolean unchanged(long key, long digest) {
+        int slot = (int) key & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                referenced[slot] = true;
+                if (digests[slot] == digest) {
+                    return true;
+                }
+                digests[slot] = digest;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        if (size >= maxEntries) {
+            evict();
+            // The eviction may have shifted entries into the free slot found above
+            slot = (int) key & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+        }
+        keys[slot]       = key;
+        digests[slot]    = digest;
+        referenced[slot] = false;
+        size++;
+        return false;
+    }
+
+    /**
+     * Forget key, e.g. after a delete
+     */
+    void remove(long key) {
+        int slot = (int) key & mask;
+        while (keys[slot] != 0) {
+            if (keys[slot] == key) {
+                removeAt(slot);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    long evictions() {
+        return evictions;
+    }
+
+    void clear() {
+        Arrays.fill(keys, 0L);
+        Arrays.fill(referenced, false);
+        size = 0;
+        hand = 0;
+    }
+
+    private void evict() {
+        while (true) {
+            int slot = hand;
+            hand = (hand + 1) & mask;
+            if (keys[slot] == 0) {
+                continue;
+            }
+            if (referenced[slot]) {
+                referenced[slot] = false;
+                continue;
+            }
+            removeAt(slot);
+            evictions++;
+            return;
+        }
+    }
+
+    private void removeAt(int free) {
+        int slot = free;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long key = keys[slot];
+            if (key == 0) {
+                break;
+            }
+            // Move the entry back unless its home slot lies cyclically in (free, slot]
+            int home = (int) key & mask;
+            boolean stays = free <= slot ? (free < home && home <= slot) : (free < home || home <= slot);
+            if (!stays) {
+                keys[free]       = key;
+                digests[free]    = digests[slot];
+                referenced[free] = referenced[slot];
+                free = slot;
+            }
+        }
+        keys[free]       = 0;
+        referenced[free] = false;
+        size--;
+    }
+}
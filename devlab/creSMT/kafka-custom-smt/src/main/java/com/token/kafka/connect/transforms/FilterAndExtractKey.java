@@ -19,149 +19,262 @@
 *       Source Engine:
 * 
 *       1. Filters records - only passes through if specified fields are non-null/non-empty
-*       2. Extracts plain string key from struct key
+*       2. Sets a plain string key: a literal (key.value), a value field (key.value.field), or extracted from
+*          the struct key (key.field)
+*       3. Optionally projects the value down to the include columns
+*       4. Optionally tags the record with a header (e.g. az=AZ1) and picks the partition from the key
+* 
+*       With key.value and include it replaces the InsertField$Value -> ValueToKey -> FilterAndExtractKey ->
+*       ReplaceField$Value chain: one pass and at most one Struct copy instead of four, and only the needed
+*       columns are published to Kafka.
 * 
 *       Configuration:
 *  
-*           - key.field:     Field name to extract from key struct (default: "key")
+*           - key.value:     Literal key for every record, e.g. "AZ1". Empty = not used (default)
+*           - key.value.field: Value field whose value becomes the key, used when key.value is empty. Empty = not used (default)
+*           - key.field:     Field name to extract from key struct, when neither of the above is set (default: "key")
+*           - include:       Comma-separated list of value fields to keep, empty = all (default). Filters see the
+*                            full value. With Debezium delete.handling.mode=rewrite keep __deleted
+*           - header.name:   Header to add to every record, e.g. "az". Empty = none (default)
+*           - header.value:  Value of header.name, e.g. "AZ1"
+*           - partition.count: Partitions of the target topic. When > 0 the partition is murmur2(key) % count, as
+*                            Kafka's default partitioner, set on the record. 0 = left to the producer (default)
 *           - filter.fields: Comma-separated list of VALUE fields that must be populated (e.g., "cardNumber,tkcardNumber")
 *           - filter.mode:   "all" (all fields must be present) or "any" (at least one field must be present) - default: "all"
+*           - filter.condition: Predicate expression the VALUE must match, see FilterCondition for the syntax, e.g.
+*                            "operationType IN (PUR, REF) AND acquirerId STARTSWITH 'TEST' AND MTI BETWEEN 100 AND 200"
+*                            Combined (AND) with filter.fields when both are set
+*           - metrics.enabled: Publish a JMX MBean, dropped = records failing the filter, see TransformMetrics (default: false)
+* 
+*       filter.fields/filter.mode and filter.condition are compiled once, then bound per Struct schema (cached by
+*       schema identity) to resolved fields, so a record only costs positional Struct lookups. The projected
+*       schema and the key.value.field are resolved and cached the same way.
 * 
 *       Usage in connector config:
 * 
 *           "transforms": "filterAndKey",
 *           "transforms.filterAndKey.type": "com.token.kafka.connect.transforms.FilterAndExtractKey",
-*           "transforms.filterAndKey.key.field": "key",
+*           "transforms.filterAndKey.key.value": "AZ1",
+*           "transforms.filterAndKey.include": "acqJnlSeqNumber,cardNumber,tkcardNumber,__deleted",
 *           "transforms.filterAndKey.filter.fields": "cardNumber,tkcardNumber",
-*           "transforms.filterAndKey.filter.mode": "all"
+*           "transforms.filterAndKey.filter.mode": "all",
+*           "transforms.filterAndKey.filter.condition": "operationType IN (PUR, REF)"
+* 
+*       The constant key puts all of an AZ on one partition, so one sink task per AZ. To spread an AZ over
+*       the topic, key by card and carry the AZ in a header (FilterByKafkaKey / PrepareRedisRecord header.name
+*       and RedisSinkConnector redis.route.header read it there). Per-card order is kept:
+* 
+*           "transforms.filterAndKey.key.value.field": "tkcardNumber",
+*           "transforms.filterAndKey.header.name": "az",
+*           "transforms.filterAndKey.header.value": "AZ1",
+*           "transforms.filterAndKey.partition.count": "12",
 * 
 *///////////////////////////////////////////////////////////////////////////////////////////////////////
 
 package com.token.kafka.connect.transforms;
 
 import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.common.utils.Utils;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
 import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Headers;
 import org.apache.kafka.connect.transforms.Transformation;
 import org.apache.kafka.connect.transforms.util.SimpleConfig;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 public class FilterAndExtractKey<R extends ConnectRecord<R>> implements Transformation<R> {
     
     private static final String KEY_FIELD_CONFIG     = "key.field";
     private static final String FILTER_FIELDS_CONFIG = "filter.fields";
     private static final String FILTER_MODE_CONFIG   = "filter.mode";
+    private static final String CONDITION_CONFIG     = "filter.condition";
+    private static final String KEY_VALUE_CONFIG     = "key.value";
+    private static final String KEY_VALUE_FIELD_CONFIG = "key.value.field";
+    private static final String INCLUDE_CONFIG       = "include";
+    private static final String HEADER_NAME_CONFIG   = "header.name";
+    private static final String HEADER_VALUE_CONFIG  = "header.value";
+    private static final String PARTITION_COUNT_CONFIG = "partition.count";
+    
+    private static final Field NO_FIELD = new Field("", -1, null);
     
     private String keyFieldName;
-    private List<String> filterFields;
-    private String filterMode;
+    private String keyValue;
+    private String keyValueField;
+    private List<String> includeFields;
+    private String headerName;
+    private String headerValue;
+    private int partitionCount;
+    private FilterCondition structFilter;     // filter.fields AND filter.condition
+    private FilterCondition mapFilter;        // filter.condition only, filter.fields never applied to non-Struct values
+    private SchemaCache<FilterCondition.Bound> filterCache;
+    private SchemaCache<Field> keyFieldCache;
+    private SchemaCache<ValuePlan> valuePlanCache;
+    
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
     
     @Override
     public void configure(Map<String, ?> configs) {
         SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
         
-        keyFieldName = config.getString(KEY_FIELD_CONFIG);
+        keyFieldName  = config.getString(KEY_FIELD_CONFIG);
+        keyValue      = emptyToNull(config.getString(KEY_VALUE_CONFIG));
+        keyValueField = emptyToNull(config.getString(KEY_VALUE_FIELD_CONFIG));
+        includeFields = new ArrayList<>();
+        for (String field : config.getList(INCLUDE_CONFIG)) {
+            if (!field.isEmpty()) {
+                includeFields.add(field);
+            }
+        }
+        headerName     = emptyToNull(config.getString(HEADER_NAME_CONFIG));
+        headerValue    = config.getString(HEADER_VALUE_CONFIG);
+        partitionCount = config.getInt(PARTITION_COUNT_CONFIG);
+        if (headerName != null && (headerValue == null || headerValue.isEmpty())) {
+            throw new ConfigException(HEADER_VALUE_CONFIG, headerValue, "Required when " + HEADER_NAME_CONFIG + " is set");
+        }
+        
+        List<FilterCondition> filters = new ArrayList<>();
         
         String fieldsStr = config.getString(FILTER_FIELDS_CONFIG);
         if (fieldsStr != null && !fieldsStr.trim().isEmpty()) {
-            filterFields = Arrays.asList(fieldsStr.split("\\s*,\\s*"));
+            List<String> filterFields = Arrays.asList(fieldsStr.trim().split("\\s*,\\s*"));
+            boolean allMode = "all".equalsIgnoreCase(config.getString(FILTER_MODE_CONFIG));
+            filters.add(FilterCondition.populated(filterFields, allMode));
+        }
+        
+        String conditionStr = config.getString(CONDITION_CONFIG);
+        if (conditionStr != null && !conditionStr.trim().isEmpty()) {
+            mapFilter = FilterCondition.parse(conditionStr);
+            filters.add(mapFilter);
         }
         
-        filterMode = config.getString(FILTER_MODE_CONFIG);
+        structFilter  = filters.isEmpty() ? null : FilterCondition.and(filters);
+        filterCache   = new SchemaCache<>();
+        metrics.watch(filterCache);
+        keyFieldCache = new SchemaCache<>();
+        metrics.watch(keyFieldCache);
+        valuePlanCache = new SchemaCache<>();
+        metrics.watch(valuePlanCache);
+    }
+    
+    private static String emptyToNull(String value) {
+        return value == null || value.trim().isEmpty() ? null : value;
     }
     
     @Override
     public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+    
+    private R transform(R record) {
         // Step 1: Filter based on value fields
-        if (filterFields != null && !filterFields.isEmpty()) {
+        if (structFilter != null) {
             if (!passesFilter(record.value())) {
                 // Record doesn't pass filter - drop it
                 return null;
             }
         }
         
-        // Step 2: Extract clean string key
-        Object newKey = extractKey(record.key());
+        // Step 2: Set the key and project the value, one Struct copy at most
+        Object value = record.value();
+        Schema valueSchema = record.valueSchema();
+        Object newKey;
+        
+        if (value instanceof Struct && (keyValueField != null || !includeFields.isEmpty())) {
+            Struct struct = (Struct) value;
+            ValuePlan plan = valuePlanCache.computeIfAbsent(struct.schema(), this::buildPlan);
+            newKey = keyValue != null ? keyValue : keyValueField != null ? toKey(plan.keyField == null ? null : struct.get(plan.keyField)) 
+                                                                           : extractKey(record.key());
+            if (plan.schema != null) {
+                Struct projected = new Struct(plan.schema);
+                Field[] sourceFields = plan.sourceFields;
+                Field[] targetFields = plan.targetFields;
+                for (int i = 0; i < sourceFields.length; i++) {
+                    projected.put(targetFields[i], struct.get(sourceFields[i]));
+                }
+                value = projected;
+                valueSchema = plan.schema;
+            }
+            
+        } else if (value instanceof Map && (keyValueField != null || !includeFields.isEmpty())) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            newKey = keyValue != null ? keyValue : keyValueField != null ? toKey(map.get(keyValueField)) 
+                                                                           : extractKey(record.key());
+            if (!includeFields.isEmpty()) {
+                Map<Object, Object> projected = new HashMap<>();
+                for (String field : includeFields) {
+                    if (map.containsKey(field)) {
+                        projected.put(field, map.get(field));
+                    }
+                }
+                value = projected;
+            }
+            
+        } else {
+            newKey = keyValue != null ? keyValue : extractKey(record.key());
+        }
+        
+        // Step 3: Tag and partition
+        Headers headers = record.headers();
+        if (headerName != null) {
+            headers = headers.duplicate().addString(headerName, headerValue);
+        }
+        Integer partition = record.kafkaPartition();
+        if (partitionCount > 0 && newKey != null) {
+            partition = partition(newKey.toString());
+        }
         
-        // Return new record with extracted key
+        // Return new record with the new key (and projected value)
         return record.newRecord(
             record.topic(),
-            record.kafkaPartition(),
+            partition,
             null, // No schema for string key
             newKey,
-            record.valueSchema(),
-            record.value(),
+            valueSchema,
+            value,
             record.timestamp(),
-            record.headers()
+            headers
         );
     }
     
     /**
-     * Check if the record value passes the filter criteria
+     * Same partition as the producer's default partitioner picks for a StringConverter key
      */
-    private boolean passesFilter(Object value) {
-        if (value == null) {
-            return false;
-        }
-        
-        if (!(value instanceof Struct)) {
-            // If not a struct, can't filter on fields
-            return true;
-        }
-        
-        Struct struct = (Struct) value;
-        boolean allMode = "all".equalsIgnoreCase(filterMode);
-        
-        int matchCount = 0;
-        for (String fieldName : filterFields) {
-            Field field = struct.schema().field(fieldName);
-            
-            if (field == null) {
-                // Field doesn't exist in schema
-                if (allMode) {
-                    return false; // In "all" mode, missing field = fail
-                }
-                continue;
-            }
-            
-            Object fieldValue = struct.get(field);
-            
-            if (isFieldPopulated(fieldValue)) {
-                matchCount++;
-                if (!allMode) {
-                    // In "any" mode, one match is enough
-                    return true;
-                }
-            } else if (allMode) {
-                // In "all" mode, one empty field = fail
-                return false;
-            }
-        }
-        
-        // In "all" mode: must have matched all fields
-        // In "any" mode: must have matched at least one (already returned true above if so)
-        return allMode ? (matchCount == filterFields.size()) : (matchCount > 0);
+    private int partition(String key) {
+        return Utils.toPositive(Utils.murmur2(key.getBytes(StandardCharsets.UTF_8))) % partitionCount;
     }
     
     /**
-     * Check if a field value is considered "populated"
+     * Check if the record value passes the filter criteria
      */
-    private boolean isFieldPopulated(Object value) {
+    private boolean passesFilter(Object value) {
         if (value == null) {
             return false;
         }
         
-        // Check for empty strings
-        if (value instanceof String) {
-            String str = (String) value;
-            return !str.trim().isEmpty();
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            return filterCache.computeIfAbsent(struct.schema(), structFilter::bind).test(struct);
         }
         
-        // All other non-null values are considered populated
+        if (value instanceof Map && mapFilter != null) {
+            return mapFilter.test((Map<?, ?>) value);
+        }
+        
+        // If not a struct, can't filter on fields
         return true;
     }
     
@@ -176,9 +289,9 @@ public class FilterAndExtractKey<R extends ConnectRecord<R>> implements Transfor
         // If key is a Struct, extract the specified field
         if (key instanceof Struct) {
             Struct structKey = (Struct) key;
-            Field field = structKey.schema().field(keyFieldName);
+            Field field = keyFieldCache.computeIfAbsent(structKey.schema(), this::resolveKeyField);
             
-            if (field != null) {
+            if (field != NO_FIELD) {
                 Object fieldValue = structKey.get(field);
                 return fieldValue != null ? fieldValue.toString() : null;
             }
@@ -188,14 +301,81 @@ public class FilterAndExtractKey<R extends ConnectRecord<R>> implements Transfor
         return key.toString();
     }
     
+    private Field resolveKeyField(Schema keySchema) {
+        Field field = keySchema.field(keyFieldName);
+        return field != null ? field : NO_FIELD;
+    }
+    
+    private static Object toKey(Object fieldValue) {
+        return fieldValue != null ? fieldValue.toString() : null;
+    }
+    
+    /**
+     * Resolve key.value.field and build the projected schema (include fields in order) for a value schema
+     */
+    private ValuePlan buildPlan(Schema valueSchema) {
+        Field keyField = keyValueField != null ? valueSchema.field(keyValueField) : null;
+        if (includeFields.isEmpty()) {
+            return new ValuePlan(keyField, null, null, null);
+        }
+        
+        SchemaBuilder builder = SchemaBuilder.struct();
+        if (valueSchema.name() != null) {
+            builder.name(valueSchema.name());
+        }
+        List<Field> sourceFields = new ArrayList<>();
+        for (String name : includeFields) {
+            Field field = valueSchema.field(name);
+            if (field != null) {
+                builder.field(field.name(), field.schema());
+                sourceFields.add(field);
+            }
+        }
+        Schema projectedSchema = builder.build();
+        return new ValuePlan(keyField, projectedSchema, sourceFields.toArray(new Field[0]), 
+                             projectedSchema.fields().toArray(new Field[0]));
+    }
+    
     @Override
     public ConfigDef config() {
-        return new ConfigDef()
+        return TransformMetrics.define(new ConfigDef()
             .define(KEY_FIELD_CONFIG, 
                     ConfigDef.Type.STRING, 
                     "key", 
                     ConfigDef.Importance.HIGH, 
                     "Field name to extract from struct key (e.g., 'key', '_key')")
+            .define(KEY_VALUE_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.HIGH, 
+                    "Literal key for every record (e.g., 'AZ1'), replaces InsertField + ValueToKey. Empty = not used")
+            .define(KEY_VALUE_FIELD_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Value field whose value becomes the key (e.g., 'acquirerId'), when key.value is empty. Empty = not used")
+            .define(INCLUDE_CONFIG, 
+                    ConfigDef.Type.LIST, 
+                    "", 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Comma-separated list of value fields to keep (e.g., 'acqJnlSeqNumber,cardNumber,tkcardNumber'). Empty keeps all fields")
+            .define(HEADER_NAME_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Header to add to every record (e.g., 'az'), so the AZ travels outside the key. Empty = none")
+            .define(HEADER_VALUE_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Value of header.name (e.g., 'AZ1')")
+            .define(PARTITION_COUNT_CONFIG, 
+                    ConfigDef.Type.INT, 
+                    0, 
+                    ConfigDef.Range.atLeast(0), 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Partitions of the target topic. When > 0 the record partition is murmur2(key) % partition.count, "
+                    + "as the default partitioner. 0 = left to the producer")
             .define(FILTER_FIELDS_CONFIG, 
                     ConfigDef.Type.STRING, 
                     null, 
@@ -205,11 +385,39 @@ public class FilterAndExtractKey<R extends ConnectRecord<R>> implements Transfor
                     ConfigDef.Type.STRING, 
                     "all", 
                     ConfigDef.Importance.LOW, 
-                    "Filter mode: 'all' (all fields must be populated) or 'any' (at least one field must be populated)");
+                    "Filter mode: 'all' (all fields must be populated) or 'any' (at least one field must be populated)")
+            .define(CONDITION_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Predicate the value must match: '=', '!=', 'IN (..)', 'STARTSWITH', 'BETWEEN .. AND ..', 'IS NOT NULL', 'IS NOT EMPTY' "
+                    + "combined with AND/OR and parentheses, e.g. \"operationType IN (PUR, REF) AND MTI BETWEEN 100 AND 200\""));
     }
     
     @Override
     public void close() {
-        // No resources to close
+        metrics.close();
+        if (filterCache != null) {
+            filterCache.clear();
+            keyFieldCache.clear();
+            valuePlanCache.clear();
+        }
+    }
+    
+    /**
+     * key.value.field and projection resolved for one value schema, schema is null without include
+     */
+    private static final class ValuePlan {
+        final Field keyField;
+        final Schema schema;
+        final Field[] sourceFields;
+        final Field[] targetFields;
+        
+        ValuePlan(Field keyField, Schema schema, Field[] sourceFields, Field[] targetFields) {
+            this.keyField     = keyField;
+            this.schema       = schema;
+            this.sourceFields = sourceFields;
+            this.targetFields = targetFields;
+        }
     }
 }
@@ -18,18 +18,27 @@
 * 
 *       Sink Engine:
 * 
-*       Custom SMT to filter records by Kafka message key.
-*       Only passes through records where the key matches the specified value.
+*       Custom SMT / Predicate to filter records by Kafka message key.
+*       Only passes through (matches) records where the key is one of the specified values.
+* 
+*       String and byte[] keys are compared without allocating, the values are encoded once at configure().
 * 
 *       Configuration:
 * 
-*       - key.value: The key value to match (e.g., "AZ1", "AZ2")
+*       - key.value: Comma-separated key values to match (e.g., "AZ1" or "AZ1,AZ2"). Empty = match everything
+*       - header.name: Match key.value against this header instead of the key (e.g., "az" when the source keys by
+*                      card and tags the AZ with FilterAndExtractKey header.name). Empty = the key (default)
+*       - metrics.enabled: Publish a JMX MBean, dropped = filter misses, see TransformMetrics (default: false)
 * 
-*       Usage:
+*       Usage as a Predicate, gating any transform (here the built-in Filter drops the other AZ's records):
 * 
-*           "predicates":                            "filterByKafkaKey",
-*           "predicates.filterByKafkaKey.type":      "com.token.kafka.connect.transforms.FilterByKafkaKey",
-*           "predicates.filterByKafkaKey.key.value": "AZ1"
+*           "predicates":                            "isAz1",
+*           "predicates.isAz1.type":                 "com.token.kafka.connect.transforms.FilterByKafkaKey",
+*           "predicates.isAz1.key.value":            "AZ1",
+*           "transforms":                            "dropOtherAz,...",
+*           "transforms.dropOtherAz.type":           "org.apache.kafka.connect.transforms.Filter",
+*           "transforms.dropOtherAz.predicate":      "isAz1",
+*           "transforms.dropOtherAz.negate":         "true"
 * 
 *       Or as a transform that returns null for filtered records:
 * 
@@ -43,57 +52,144 @@ package com.token.kafka.connect.transforms;
 
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.header.Header;
 import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.predicates.Predicate;
 import org.apache.kafka.connect.transforms.util.SimpleConfig;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.function.UnaryOperator;
+import java.util.Set;
 
-public class FilterByKafkaKey<R extends ConnectRecord<R>> implements Transformation<R> {
+public class FilterByKafkaKey<R extends ConnectRecord<R>> implements Transformation<R>, Predicate<R> {
+    
+    private static final String KEY_VALUE_CONFIG   = "key.value";
+    private static final String HEADER_NAME_CONFIG = "header.name";
     
-    private static final String KEY_VALUE_CONFIG = "key.value";
+    // Above this many values a HashSet lookup beats a linear equals() scan
+    private static final int LINEAR_SCAN_LIMIT = 8;
     
-    private String keyValue;
+    private String[] keyValues;
+    private byte[][] keyBytes;
+    private Set<String> keySet;
+    private String headerName;
+    
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+    private final java.util.function.Predicate<R> matcher = this::matchesKey;
     
     @Override
     public void configure(Map<String, ?> configs) {
         SimpleConfig config = new SimpleConfig(config(), configs);
-        keyValue = config.getString(KEY_VALUE_CONFIG);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+        List<String> values = config.getList(KEY_VALUE_CONFIG);
+        headerName = config.getString(HEADER_NAME_CONFIG);
+        if (headerName != null && headerName.isEmpty()) {
+            headerName = null;
+        }
+        
+        if (values == null || values.isEmpty()) {
+            // If no filter configured, pass everything through
+            keyValues = null;
+            keyBytes  = null;
+            keySet    = null;
+            return;
+        }
+        
+        keyValues = values.toArray(new String[0]);
+        keyBytes  = new byte[keyValues.length][];
+        for (int i = 0; i < keyValues.length; i++) {
+            keyBytes[i] = keyValues[i].getBytes(StandardCharsets.UTF_8);
+        }
+        keySet = keyValues.length > LINEAR_SCAN_LIMIT ? new HashSet<>(values) : null;
     }
     
     @Override
     public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+    
+    private R transform(R record) {
         if (record == null) {
             return null;
         }
         
-        Object key = record.key();
+        // If key matches, pass through; otherwise return null (drop record)
+        return matchesKey(record) ? record : null;
+    }
+    
+    @Override
+    public boolean test(R record) {
+        return metrics.test(record, matcher);
+    }
+    
+    private boolean matchesKey(R record) {
+        if (record == null) {
+            return false;
+        }
+        if (keyValues == null) {
+            return true;
+        }
+        if (headerName != null) {
+            Header header = record.headers().lastWithName(headerName);
+            return header != null && matches(header.value());
+        }
+        return matches(record.key());
+    }
+    
+    private boolean matches(Object key) {
+        if (key == null) {
+            return false;
+        }
         
-        // If no filter configured, pass everything through
-        if (keyValue == null || keyValue.trim().isEmpty()) {
-            return record;
+        if (key instanceof String) {
+            if (keySet != null) {
+                return keySet.contains(key);
+            }
+            for (String value : keyValues) {
+                if (value.equals(key)) {
+                    return true;
+                }
+            }
+            return false;
         }
         
-        // If key matches, pass through; otherwise return null (drop record)
-        if (key != null && keyValue.equals(key.toString())) {
-            return record;
+        if (key instanceof byte[]) {
+            byte[] bytes = (byte[]) key;
+            for (byte[] value : keyBytes) {
+                if (Arrays.equals(value, bytes)) {
+                    return true;
+                }
+            }
+            return false;
         }
         
-        // Key doesn't match - drop the record
-        return null;
+        // Other key types, compare on their string form
+        return matches(key.toString());
     }
     
     @Override
     public ConfigDef config() {
-        return new ConfigDef()
+        return TransformMetrics.define(new ConfigDef()
             .define(KEY_VALUE_CONFIG, 
-                    ConfigDef.Type.STRING, 
+                    ConfigDef.Type.LIST, 
                     null, 
                     ConfigDef.Importance.HIGH, 
-                    "Kafka message key value to match (e.g., 'AZ1', 'AZ2'). Only records with this key will pass through.");
+                    "Kafka message key value(s) to match (e.g., 'AZ1' or 'AZ1,AZ2'). Only records with one of these keys will pass through / match.")
+            .define(HEADER_NAME_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Header to match key.value against instead of the Kafka message key (e.g., 'az'). Empty = the key"));
     }
     
     @Override
     public void close() {
-        // No resources to close
+        metrics.close();
     }
 }
@@ -0,0 +1,526 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   FilterCondition.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Record filter predicates, compiled once from configuration and then bound to each Struct schema.
+*
+*       Syntax (keywords are case-insensitive, literals are numbers, bare words or 'quoted strings'):
+*
+*           field = value                   equals
+*           field != value                  not equals
+*           field IN (value, value, ...)    in set
+*           field STARTSWITH value          string prefix
+*           field BETWEEN low AND high      inclusive range, numeric when both bounds are numbers (a String
+*                                           value is read as a number, one that is not never matches), else
+*                                           lexical
+*           field IS NOT NULL               not null
+*           field IS NOT EMPTY              not null and, for strings, not blank
+*
+*           combined with AND / OR and grouped with ( ), AND binds tighter than OR.
+*
+*       Example:
+*
+*           cardNumber IS NOT EMPTY AND tkcardNumber IS NOT EMPTY AND (acquirerId STARTSWITH 'TEST' OR MTI IN (100, 200))
+*
+*       bind(schema) resolves every field name to its Field once, the bound form only does positional
+*       Struct.get() calls per record. A field missing from the schema is treated as null.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public abstract class FilterCondition {
+
+    /**
+     * A condition resolved against one Struct schema
+     */
+    public interface Bound {
+        boolean test(Struct struct);
+    }
+
+    /**
+     * Resolve field names against this schema
+     */
+    public abstract Bound bind(Schema schema);
+
+    /**
+     * Evaluate against a schemaless (Map) value
+     */
+    public abstract boolean test(Map<?, ?> value);
+
+    /**
+     * Parse the filter.condition syntax
+     */
+    public static FilterCondition parse(String expression) {
+        return new Parser(expression).parse();
+    }
+
+    /**
+     * The filter.fields / filter.mode configuration: every ("all") or at least one ("any") field IS NOT EMPTY
+     */
+    public static FilterCondition populated(List<String> fields, boolean all) {
+        List<FilterCondition> terms = new ArrayList<>();
+        for (String field : fields) {
+            terms.add(new Comparison(field, Operator.NOT_EMPTY, null));
+        }
+        return all ? and(terms) : or(terms);
+    }
+
+    public static FilterCondition and(List<FilterCondition> terms) {
+        return terms.size() == 1 ? terms.get(0) : new Junction(terms, true);
+    }
+
+    public static FilterCondition or(List<FilterCondition> terms) {
+        return terms.size() == 1 ? terms.get(0) : new Junction(terms, false);
+    }
+
+    /**
+     * True for a non-null value that, if it is a String, has a non-whitespace character (String.trim() semantics)
+     */
+    static boolean isPopulated(Object value) {
+        if (value == null) {
+            return false;
+        }
+        if (value instanceof String) {
+            String str = (String) value;
+            for (int i = 0; i < str.length(); i++) {
+                if (str.charAt(i) > ' ') {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // AND / OR
+    // ---------------------------------------------------------------------------------------------
+
+    private static final class Junction extends FilterCondition {
+        private final FilterCondition[] terms;
+        private final boolean and;
+
+        Junction(List<FilterCondition> terms, boolean and) {
+            this.terms = terms.toArray(new FilterCondition[0]);
+            this.and   = and;
+        }
+
+        @Override
+        public Bound bind(Schema schema) {
+            Bound[] bound = new Bound[terms.length];
+            for (int i = 0; i < terms.length; i++) {
+                bound[i] = terms[i].bind(schema);
+            }
+            if (and) {
+                return struct -> {
+                    for (Bound term : bound) {
+                        if (!term.test(struct)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                };
+            }
+            return struct -> {
+                for (Bound term : bound) {
+                    if (term.test(struct)) {
+                        return true;
+                    }
+                }
+                return false;
+            };
+        }
+
+        @Override
+        public boolean test(Map<?, ?> value) {
+            for (FilterCondition term : terms) {
+                if (term.test(value) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // field <operator> literal(s)
+    // ---------------------------------------------------------------------------------------------
+
+    private enum Operator { EQUALS, NOT_EQUALS, IN, STARTS_WITH, BETWEEN, NOT_NULL, NOT_EMPTY }
+
+    private static final class Comparison extends FilterCondition {
+        private final String fieldName;
+        private final Operator operator;
+        private final Literal[] literals;
+        private final Set<String> stringSet;
+
+        Comparison(String fieldName, Operator operator, List<Literal> literals) {
+            this.fieldName = fieldName;
+            this.operator  = operator;
+            this.literals  = literals == null ? new Literal[0] : literals.toArray(new Literal[0]);
+
+            if (operator == Operator.IN) {
+                stringSet = new HashSet<>();
+                for (Literal literal : this.literals) {
+                    stringSet.add(literal.text);
+                }
+            } else {
+                stringSet = null;
+            }
+        }
+
+        @Override
+        public Bound bind(Schema schema) {
+            Field field = schema.field(fieldName);
+            if (field == null) {
+                // Missing field evaluates as null
+                boolean result = matches(null);
+                return struct -> result;
+            }
+            return struct -> matches(struct.get(field));
+        }
+
+        @Override
+        public boolean test(Map<?, ?> value) {
+            return matches(value.get(fieldName));
+        }
+
+        private boolean matches(Object value) {
+            switch (operator) {
+                case NOT_NULL:
+                    return value != null;
+                case NOT_EMPTY:
+                    return isPopulated(value);
+                case EQUALS:
+                    return value != null && literals[0].matches(value);
+                case NOT_EQUALS:
+                    return value != null && !literals[0].matches(value);
+                case IN:
+                    if (value == null) {
+                        return false;
+                    }
+                    if (value instanceof String) {
+                        return stringSet.contains(value);
+                    }
+                    for (Literal literal : literals) {
+                        if (literal.matches(value)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case STARTS_WITH:
+                    return value instanceof String && ((String) value).startsWith(literals[0].text);
+                case BETWEEN:
+                    if (value instanceof String && literals[0].numeric && literals[1].numeric) {
+                        // "9" BETWEEN 10 AND 20 is false, lexically it would be true
+                        value = Literal.number((String) value);
+                    }
+                    return value != null && literals[0].compareTo(value) <= 0 && literals[1].compareTo(value) >= 0;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * A literal, with its numeric forms parsed up front so numeric comparisons do not allocate
+     */
+    private static final class Literal {
+        final String text;
+        final boolean numeric;
+        final boolean integral;
+        final long longValue;
+        final double doubleValue;
+        final BigDecimal decimalValue;
+
+        Literal(String text) {
+            this.text = text;
+
+            BigDecimal decimal = null;
+            try {
+                decimal = new BigDecimal(text);
+            } catch (NumberFormatException e) {
+                // Not a number, string comparisons only
+            }
+            this.numeric      = decimal != null;
+            this.decimalValue = decimal;
+            this.doubleValue  = decimal != null ? decimal.doubleValue() : Double.NaN;
+
+            boolean isLong = false;
+            long asLong = 0;
+            if (decimal != null) {
+                try {
+                    asLong = decimal.longValueExact();
+                    isLong = true;
+                } catch (ArithmeticException e) {
+                    // Fractional or out of long range
+                }
+            }
+            this.integral  = isLong;
+            this.longValue = asLong;
+        }
+
+        /**
+         * The number a String value holds, null when it is not one
+         */
+        static BigDecimal number(String value) {
+            try {
+                return new BigDecimal(value.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        boolean matches(Object value) {
+            if (value instanceof String) {
+                return text.equals(value);
+            }
+            if (value instanceof Number) {
+                return numeric && compareNumber((Number) value) == 0;
+            }
+            return text.equals(value.toString());
+        }
+
+        /**
+         * Compare this literal to the value: negative when the literal is smaller
+         */
+        int compareTo(Object value) {
+            if (value instanceof Number && numeric) {
+                return -compareNumber((Number) value);
+            }
+            if (value instanceof String) {
+                return text.compareTo((String) value);
+            }
+            return text.compareTo(value.toString());
+        }
+
+        /**
+         * Compare the value to this literal: negative when the value is smaller
+         */
+        private int compareNumber(Number value) {
+            if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+                long v = value.longValue();
+                if (integral) {
+                    return Long.compare(v, longValue);
+                }
+                return Double.compare(v, doubleValue);
+            }
+            if (value instanceof BigDecimal) {
+                return ((BigDecimal) value).compareTo(decimalValue);
+            }
+            if (value instanceof BigInteger) {
+                return new BigDecimal((BigInteger) value).compareTo(decimalValue);
+            }
+            return Double.compare(value.doubleValue(), doubleValue);
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Recursive descent parser
+    // ---------------------------------------------------------------------------------------------
+
+    private static final class Parser {
+        private final String expression;
+        private final List<String> tokens = new ArrayList<>();
+        private final List<Boolean> quoted = new ArrayList<>();
+        private int position;
+
+        Parser(String expression) {
+            this.expression = expression;
+            tokenize();
+        }
+
+        FilterCondition parse() {
+            if (tokens.isEmpty()) {
+                throw error("empty condition");
+            }
+            FilterCondition condition = parseOr();
+            if (position < tokens.size()) {
+                throw error("unexpected '" + tokens.get(position) + "'");
+            }
+            return condition;
+        }
+
+        private FilterCondition parseOr() {
+            List<FilterCondition> terms = new ArrayList<>();
+            terms.add(parseAnd());
+            while (acceptKeyword("OR")) {
+                terms.add(parseAnd());
+            }
+            return or(terms);
+        }
+
+        private FilterCondition parseAnd() {
+            List<FilterCondition> terms = new ArrayList<>();
+            terms.add(parseTerm());
+            while (acceptKeyword("AND")) {
+                terms.add(parseTerm());
+            }
+            return and(terms);
+        }
+
+        private FilterCondition parseTerm() {
+            if (accept("(")) {
+                FilterCondition inner = parseOr();
+                expect(")");
+                return inner;
+            }
+
+            String field = next("field name");
+
+            if (accept("=") || accept("==")) {
+                return new Comparison(field, Operator.EQUALS, Arrays.asList(literal()));
+            }
+            if (accept("!=") || accept("<>")) {
+                return new Comparison(field, Operator.NOT_EQUALS, Arrays.asList(literal()));
+            }
+            if (acceptKeyword("IN")) {
+                expect("(");
+                List<Literal> values = new ArrayList<>();
+                values.add(literal());
+                while (accept(",")) {
+                    values.add(literal());
+                }
+                expect(")");
+                return new Comparison(field, Operator.IN, values);
+            }
+            if (acceptKeyword("STARTSWITH")) {
+                return new Comparison(field, Operator.STARTS_WITH, Arrays.asList(literal()));
+            }
+            if (acceptKeyword("BETWEEN")) {
+                Literal low = literal();
+                if (!acceptKeyword("AND")) {
+                    throw error("expected AND in BETWEEN");
+                }
+                return new Comparison(field, Operator.BETWEEN, Arrays.asList(low, literal()));
+            }
+            if (acceptKeyword("IS")) {
+                if (!acceptKeyword("NOT")) {
+                    throw error("expected NOT after IS");
+                }
+                if (acceptKeyword("NULL")) {
+                    return new Comparison(field, Operator.NOT_NULL, null);
+                }
+                if (acceptKeyword("EMPTY")) {
+                    return new Comparison(field, Operator.NOT_EMPTY, null);
+                }
+                throw error("expected NULL or EMPTY after IS NOT");
+            }
+            throw error("expected an operator after '" + field + "'");
+        }
+
+        private Literal literal() {
+            return new Literal(next("value"));
+        }
+
+        private boolean accept(String symbol) {
+            if (position < tokens.size() && !quoted.get(position) && tokens.get(position).equals(symbol)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (position < tokens.size() && !quoted.get(position) && tokens.get(position).equalsIgnoreCase(keyword)) {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw error("expected '" + symbol + "'");
+            }
+        }
+
+        private String next(String what) {
+            if (position >= tokens.size()) {
+                throw error("expected " + what + " at end of condition");
+            }
+            return tokens.get(position++);
+        }
+
+        private void tokenize() {
+            int i = 0;
+            int size = expression.length();
+            while (i < size) {
+                char c = expression.charAt(i);
+                if (Character.isWhitespace(c)) {
+                    i++;
+                } else if (c == '\'') {
+                    StringBuilder text = new StringBuilder();
+                    i++;
+                    while (true) {
+                        if (i >= size) {
+                            throw error("unterminated quoted string");
+                        }
+                        char q = expression.charAt(i++);
+                        if (q == '\'') {
+                            if (i < size && expression.charAt(i) == '\'') {
+                                text.append('\'');
+                                i++;
+                            } else {
+                                break;
+                            }
+                        } else {
+                            text.append(q);
+                        }
+                    }
+                    add(text.toString(), true);
+                } else if (c == '(' || c == ')' || c == ',') {
+                    add(String.valueOf(c), false);
+                    i++;
+                } else if (c == '=' || c == '!' || c == '<' || c == '>') {
+                    int start = i++;
+                    while (i < size && "=<>".indexOf(expression.charAt(i)) >= 0) {
+                        i++;
+                    }
+                    add(expression.substring(start, i), false);
+                } else {
+                    int start = i;
+                    while (i < size && !Character.isWhitespace(expression.charAt(i))
+                            && "()',=!<>".indexOf(expression.charAt(i)) < 0) {
+                        i++;
+                    }
+                    add(expression.substring(start, i), false);
+                }
+            }
+        }
+
+        private void add(String token, boolean isQuoted) {
+            tokens.add(token);
+            quoted.add(isQuoted);
+        }
+
+        private ConfigException error(String message) {
+            return new ConfigException("filter.condition", expression, message);
+        }
+    }
+}
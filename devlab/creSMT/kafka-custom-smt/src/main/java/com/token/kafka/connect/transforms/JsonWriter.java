@@ -0,0 +1,427 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   JsonWriter.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Streaming JSON writer that encodes Connect values straight into a reusable UTF-8 byte buffer.
+*
+*       - Struct values are written by walking a per-schema field plan (field names pre-encoded), cached
+*         by schema identity, so no intermediate Map is built
+*       - Map, List, String, Number, Boolean values are written the same way Jackson would write them
+*       - Connect logical types: Decimal -> JSON number, Timestamp -> epoch ms, Date -> days since epoch,
+*         Time -> ms since midnight (as JsonConverter does), bytes -> base64 string
+*       - Anything else falls back to the ObjectMapper
+*
+*       One writer per thread is kept via local(), the buffer is reused across records so the only
+*       allocation per record is the resulting byte[] or String.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.errors.DataException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+
+public final class JsonWriter {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int  INITIAL_CAPACITY = 512;
+    private static final int  RETAIN_CAPACITY  = 64 * 1024;
+    private static final long MILLIS_PER_DAY   = 24L * 60 * 60 * 1000;
+
+    private static final byte[] NULL  = {'n', 'u', 'l', 'l'};
+    private static final byte[] TRUE  = {'t', 'r', 'u', 'e'};
+    private static final byte[] FALSE = {'f', 'a', 'l', 's', 'e'};
+    private static final byte[] HEX   = "0123456789ABCDEF".getBytes(StandardCharsets.US_ASCII);
+
+    private static final ThreadLocal<JsonWriter> LOCAL = ThreadLocal.withInitial(JsonWriter::new);
+
+    // Shared across threads, schemas are immutable and the cache is thread-safe
+    private static final SchemaCache<StructPlan> STRUCT_PLANS = new SchemaCache<>(64);
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+    private boolean needComma;
+
+    /**
+     * The calling thread's writer, reset and ready for use
+     */
+    public static JsonWriter local() {
+        JsonWriter writer = LOCAL.get();
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Serialise a Map/Struct/List/scalar value to UTF-8 JSON bytes
+     */
+    public static byte[] toJsonBytes(Object value) {
+        return local().writeValue(value, null).toByteArray();
+    }
+
+    /**
+     * Serialise a Map/Struct/List/scalar value to a JSON String
+     */
+    public static String toJsonString(Object value) {
+        return local().writeValue(value, null).toString();
+    }
+
+    /**
+     * Pre-encode an object field name as "name": for use with name(byte[])
+     */
+    public static byte[] encodeName(String name) {
+        JsonWriter writer = new JsonWriter();
+        writer.writeString(name);
+        writer.writeByte(':');
+        return writer.toByteArray();
+    }
+
+    public void reset() {
+        if (buffer.length > RETAIN_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        length    = 0;
+        needComma = false;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    public JsonWriter beginObject() {
+        separate();
+        writeByte('{');
+        needComma = false;
+        return this;
+    }
+
+    public JsonWriter endObject() {
+        writeByte('}');
+        needComma = true;
+        return this;
+    }
+
+    /**
+     * Write an object field name pre-encoded with encodeName()
+     */
+    public JsonWriter name(byte[] encodedName) {
+        separate();
+        writeBytes(encodedName, 0, encodedName.length);
+        needComma = false;
+        return this;
+    }
+
+    public JsonWriter name(String name) {
+        separate();
+        writeString(name);
+        writeByte(':');
+        needComma = false;
+        return this;
+    }
+
+    /**
+     * Write a value, the schema (may be null) is used to interpret Connect logical types
+     */
+    public JsonWriter writeValue(Object value, Schema schema) {
+        separate();
+        writeRaw(value, schema);
+        needComma = true;
+        return this;
+    }
+
+    private void writeRaw(Object value, Schema schema) {
+        if (value == null) {
+            writeBytes(NULL, 0, NULL.length);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Struct) {
+            writeStruct((Struct) value);
+        } else if (value instanceof Map) {
+            writeMap((Map<?, ?>) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            byte[] bool = (Boolean) value ? TRUE : FALSE;
+            writeBytes(bool, 0, bool.length);
+        } else if (value instanceof Double || value instanceof Float) {
+            writeFloating(((Number) value).doubleValue(), value.toString());
+        } else if (value instanceof BigDecimal || value instanceof BigInteger) {
+            writeAscii(value.toString());
+        } else if (value instanceof java.util.Date) {
+            writeDate((java.util.Date) value, schema);
+        } else if (value instanceof byte[]) {
+            writeBase64((byte[]) value);
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer bytes = ((ByteBuffer) value).duplicate();
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.get(copy);
+            writeBase64(copy);
+        } else if (value instanceof Collection) {
+            writeCollection((Collection<?>) value, schema);
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            writeString(value.toString());
+        } else {
+            writeFallback(value);
+        }
+    }
+
+    private void writeStruct(Struct struct) {
+        StructPlan plan = STRUCT_PLANS.computeIfAbsent(struct.schema(), StructPlan::new);
+
+        writeByte('{');
+        Field[] fields = plan.fields;
+        byte[][] names = plan.names;
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                writeByte(',');
+            }
+            writeBytes(names[i], 0, names[i].length);
+            writeRaw(struct.get(fields[i]), fields[i].schema());
+        }
+        writeByte('}');
+    }
+
+    private void writeMap(Map<?, ?> map) {
+        writeByte('{');
+        boolean first = true;
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+            if (!first) {
+                writeByte(',');
+            }
+            first = false;
+            writeString(String.valueOf(entry.getKey()));
+            writeByte(':');
+            writeRaw(entry.getValue(), null);
+        }
+        writeByte('}');
+    }
+
+    private void writeCollection(Collection<?> values, Schema schema) {
+        Schema elementSchema = schema != null && schema.type() == Schema.Type.ARRAY ? schema.valueSchema() : null;
+
+        writeByte('[');
+        boolean first = true;
+        if (values instanceof List && values instanceof RandomAccess) {
+            List<?> list = (List<?>) values;
+            for (int i = 0; i < list.size(); i++) {
+                if (i > 0) {
+                    writeByte(',');
+                }
+                writeRaw(list.get(i), elementSchema);
+            }
+        } else {
+            for (Object value : values) {
+                if (!first) {
+                    writeByte(',');
+                }
+                first = false;
+                writeRaw(value, elementSchema);
+            }
+        }
+        writeByte(']');
+    }
+
+    private void writeDate(java.util.Date date, Schema schema) {
+        String logicalName = schema != null ? schema.name() : null;
+        long millis = date.getTime();
+
+        if (Date.LOGICAL_NAME.equals(logicalName)) {
+            writeLong(Math.floorDiv(millis, MILLIS_PER_DAY));
+        } else if (Time.LOGICAL_NAME.equals(logicalName)) {
+            writeLong(Math.floorMod(millis, MILLIS_PER_DAY));
+        } else {
+            // Timestamp logical type, or a Date without schema
+            writeLong(millis);
+        }
+    }
+
+    private void writeFloating(double value, String text) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // Not valid JSON numbers, quoted as Jackson does by default
+            writeString(text);
+        } else {
+            writeAscii(text);
+        }
+    }
+
+    private void writeFallback(Object value) {
+        try {
+            byte[] json = OBJECT_MAPPER.writeValueAsBytes(value);
+            writeBytes(json, 0, json.length);
+        } catch (IOException e) {
+            throw new DataException("Failed to convert value of type " + value.getClass().getName() + " to JSON", e);
+        }
+    }
+
+    private void writeBase64(byte[] bytes) {
+        writeByte('"');
+        byte[] encoded = Base64.getEncoder().encode(bytes);
+        writeBytes(encoded, 0, encoded.length);
+        writeByte('"');
+    }
+
+    public void writeLong(long value) {
+        if (value == Long.MIN_VALUE) {
+            writeAscii(Long.toString(value));
+            return;
+        }
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int digits = 1;
+        for (long v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        int position = length + digits;
+        for (int i = position - 1; i >= length; i--) {
+            buffer[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length = position;
+    }
+
+    /**
+     * Write a quoted, escaped JSON string as UTF-8
+     */
+    public void writeString(String value) {
+        int size = value.length();
+        // Worst case: every char escaped as \\uXXXX (6 bytes), plus the quotes
+        ensureCapacity(size * 6 + 2);
+
+        byte[] out = buffer;
+        int position = length;
+        out[position++] = '"';
+
+        for (int i = 0; i < size; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                if (c >= 0x20 && c != '"' && c != '\\') {
+                    out[position++] = (byte) c;
+                } else {
+                    out[position++] = '\\';
+                    switch (c) {
+                        case '"':  out[position++] = '"';  break;
+                        case '\\': out[position++] = '\\'; break;
+                        case '\n': out[position++] = 'n';  break;
+                        case '\r': out[position++] = 'r';  break;
+                        case '\t': out[position++] = 't';  break;
+                        case '\b': out[position++] = 'b';  break;
+                        case '\f': out[position++] = 'f';  break;
+                        default:
+                            out[position++] = 'u';
+                            out[position++] = '0';
+                            out[position++] = '0';
+                            out[position++] = HEX[c >> 4];
+                            out[position++] = HEX[c & 0xF];
+                    }
+                }
+            } else if (c < 0x800) {
+                out[position++] = (byte) (0xC0 | (c >> 6));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < size && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                out[position++] = (byte) (0xF0 | (codePoint >> 18));
+                out[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+                out[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogate, not representable in UTF-8
+                out[position++] = '?';
+            } else {
+                out[position++] = (byte) (0xE0 | (c >> 12));
+                out[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                out[position++] = (byte) (0x80 | (c & 0x3F));
+            }
+        }
+
+        out[position++] = '"';
+        length = position;
+    }
+
+    private void writeAscii(String value) {
+        int size = value.length();
+        ensureCapacity(size);
+        for (int i = 0; i < size; i++) {
+            buffer[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void separate() {
+        if (needComma) {
+            writeByte(',');
+        }
+    }
+
+    private void writeByte(int b) {
+        ensureCapacity(1);
+        buffer[length++] = (byte) b;
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int count) {
+        ensureCapacity(count);
+        System.arraycopy(bytes, offset, buffer, length, count);
+        length += count;
+    }
+
+    private void ensureCapacity(int extra) {
+        int required = length + extra;
+        if (required > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(required, buffer.length * 2));
+        }
+    }
+
+    /**
+     * Fields and pre-encoded "name": bytes for one Struct schema
+     */
+    private static final class StructPlan {
+        final Field[] fields;
+        final byte[][] names;
+
+        StructPlan(Schema schema) {
+            List<Field> schemaFields = schema.fields();
+            fields = schemaFields.toArray(new Field[0]);
+            names  = new byte[fields.length][];
+            for (int i = 0; i < fields.length; i++) {
+                names[i] = encodeName(fields[i].name());
+            }
+        }
+    }
+}
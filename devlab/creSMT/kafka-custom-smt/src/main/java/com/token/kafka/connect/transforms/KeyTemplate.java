@@ -0,0 +1,281 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   KeyTemplate.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Redis key pattern, compiled once into literal and placeholder segments.
+*
+*       Placeholders:
+*           ${key}            the record key (or the key value handed to render())
+*           ${topic}          the record topic
+*           ${partition}      the record Kafka partition
+*           ${header.<name>}  the last header with that name
+*           ${value.<field>}  a top level field of the Map/Struct value
+*
+*       Redis Cluster hash tags: when a hash tag placeholder is configured (e.g. "key" or "value.acquirerId")
+*       that segment is wrapped in {...}, so only it is hashed and related keys land on the same slot:
+*
+*           "az1:card:${key}" with hash tag "key"  ->  "az1:card:{4111111111111111}"
+*
+*       render() returns null when a placeholder has no value, the caller then applies its null handling.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.header.Header;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public final class KeyTemplate {
+
+    public static final String KEY_PLACEHOLDER = "${key}";
+
+    private static final String HEADER_PREFIX = "header.";
+    private static final String VALUE_PREFIX  = "value.";
+
+    private static final Field NO_FIELD = new Field("", -1, null);
+
+    private enum Kind { LITERAL, KEY, TOPIC, PARTITION, HEADER, VALUE }
+
+    private final String pattern;
+    private final Segment[] segments;
+    private final boolean usesValue;
+    private final SchemaCache<Field[]> valueFields = new SchemaCache<>();
+
+    // Size of the previous key, used to pre-size the next buffer
+    private int lastLength;
+
+    private KeyTemplate(String pattern, List<Segment> segments) {
+        this.pattern  = pattern;
+        this.segments = segments.toArray(new Segment[0]);
+
+        int literals = 0;
+        boolean value = false;
+        for (Segment segment : this.segments) {
+            if (segment.kind == Kind.LITERAL) {
+                literals += segment.text.length();
+            }
+            value |= segment.kind == Kind.VALUE;
+        }
+        this.usesValue  = value;
+        this.lastLength = literals + 16;
+    }
+
+    /**
+     * Compile a key pattern, hashTag names the placeholder (without ${ }) to wrap in {}, or null for none
+     */
+    public static KeyTemplate compile(String pattern, String hashTag) {
+        List<Segment> segments = new ArrayList<>();
+        boolean tagged = false;
+        int placeholders = 0;
+
+        int position = 0;
+        while (position < pattern.length()) {
+            int start = pattern.indexOf("${", position);
+            if (start < 0) {
+                segments.add(Segment.literal(pattern.substring(position)));
+                break;
+            }
+            if (start > position) {
+                segments.add(Segment.literal(pattern.substring(position, start)));
+            }
+            int end = pattern.indexOf('}', start);
+            if (end < 0) {
+                throw new ConnectException("key.pattern has an unterminated placeholder at position " + start + ": " + pattern);
+            }
+
+            String name = pattern.substring(start + 2, end);
+            boolean tag = name.equals(hashTag);
+            tagged |= tag;
+
+            if (tag) {
+                segments.add(Segment.literal("{"));
+            }
+            segments.add(Segment.placeholder(name, pattern));
+            if (tag) {
+                segments.add(Segment.literal("}"));
+            }
+
+            placeholders++;
+            position = end + 1;
+        }
+
+        if (placeholders == 0) {
+            throw new ConnectException(
+                "key.pattern must contain at least one placeholder such as " + KEY_PLACEHOLDER + ". Got: " + pattern
+            );
+        }
+        if (hashTag != null && !hashTag.isEmpty() && !tagged) {
+            throw new ConnectException(
+                "key.pattern.hash.tag '" + hashTag + "' is not a placeholder in key.pattern: " + pattern
+            );
+        }
+
+        return new KeyTemplate(pattern, mergeLiterals(segments));
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * True when the pattern is exactly ${key}, rendering would return the key unchanged
+     */
+    public boolean isIdentity() {
+        return segments.length == 1 && segments[0].kind == Kind.KEY;
+    }
+
+    /**
+     * Render the key for a record using the record's own key for ${key}
+     */
+    public String render(ConnectRecord<?> record) {
+        return render(record, record.key());
+    }
+
+    /**
+     * Render the key for a record, using the given key for ${key}
+     */
+    public String render(ConnectRecord<?> record, Object key) {
+        Field[] fields = null;
+        if (usesValue && record.value() instanceof Struct) {
+            fields = valueFields.computeIfAbsent(((Struct) record.value()).schema(), this::resolveValueFields);
+        }
+
+        StringBuilder buffer = new StringBuilder(lastLength + 8);
+
+        for (int i = 0; i < segments.length; i++) {
+            Segment segment = segments[i];
+            Object part;
+
+            switch (segment.kind) {
+                case LITERAL:
+                    buffer.append(segment.text);
+                    continue;
+                case KEY:
+                    part = key;
+                    break;
+                case TOPIC:
+                    part = record.topic();
+                    break;
+                case PARTITION:
+                    part = record.kafkaPartition();
+                    break;
+                case HEADER:
+                    Header header = record.headers().lastWithName(segment.text);
+                    part = header != null ? header.value() : null;
+                    break;
+                case VALUE:
+                    part = valueField(record.value(), segment.text, fields, i);
+                    break;
+                default:
+                    part = null;
+            }
+
+            if (part == null) {
+                return null;
+            }
+            if (part instanceof String) {
+                buffer.append((String) part);
+            } else if (part instanceof byte[]) {
+                buffer.append(new String((byte[]) part, StandardCharsets.UTF_8));
+            } else {
+                buffer.append(part);
+            }
+        }
+
+        lastLength = buffer.length();
+        return buffer.toString();
+    }
+
+    private Object valueField(Object value, String name, Field[] fields, int segment) {
+        if (value instanceof Map) {
+            return ((Map<?, ?>) value).get(name);
+        }
+        if (value instanceof Struct && fields != null) {
+            Field field = fields[segment];
+            return field == NO_FIELD ? null : ((Struct) value).get(field);
+        }
+        return null;
+    }
+
+    /**
+     * Value placeholder fields resolved for one schema, indexed by segment position
+     */
+    private Field[] resolveValueFields(Schema schema) {
+        Field[] fields = new Field[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].kind == Kind.VALUE) {
+                Field field = schema.type() == Schema.Type.STRUCT ? schema.field(segments[i].text) : null;
+                fields[i] = field != null ? field : NO_FIELD;
+            }
+        }
+        return fields;
+    }
+
+    private static List<Segment> mergeLiterals(List<Segment> segments) {
+        List<Segment> merged = new ArrayList<>();
+        for (Segment segment : segments) {
+            int last = merged.size() - 1;
+            if (segment.kind == Kind.LITERAL && last >= 0 && merged.get(last).kind == Kind.LITERAL) {
+                merged.set(last, Segment.literal(merged.get(last).text + segment.text));
+            } else if (segment.kind != Kind.LITERAL || !segment.text.isEmpty()) {
+                merged.add(segment);
+            }
+        }
+        return merged;
+    }
+
+    private static final class Segment {
+        final Kind kind;
+        final String text;
+
+        private Segment(Kind kind, String text) {
+            this.kind = kind;
+            this.text = text;
+        }
+
+        static Segment literal(String text) {
+            return new Segment(Kind.LITERAL, text);
+        }
+
+        static Segment placeholder(String name, String pattern) {
+            if (name.equals("key")) {
+                return new Segment(Kind.KEY, name);
+            }
+            if (name.equals("topic")) {
+                return new Segment(Kind.TOPIC, name);
+            }
+            if (name.equals("partition")) {
+                return new Segment(Kind.PARTITION, name);
+            }
+            if (name.startsWith(HEADER_PREFIX) && name.length() > HEADER_PREFIX.length()) {
+                return new Segment(Kind.HEADER, name.substring(HEADER_PREFIX.length()));
+            }
+            if (name.startsWith(VALUE_PREFIX) && name.length() > VALUE_PREFIX.length()) {
+                return new Segment(Kind.VALUE, name.substring(VALUE_PREFIX.length()));
+            }
+            throw new ConnectException(
+                "key.pattern has an unknown placeholder ${" + name + "}, expected ${key}, ${topic}, ${partition}, "
+                + "${header.<name>} or ${value.<field>}. Got: " + pattern
+            );
+        }
+    }
+}
@@ -0,0 +1,258 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   LagMetrics.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Commit to sink lag of one AZ for MeasureLag, published as a JMX MBean:
+*
+*           com.token.kafka.connect.transforms:type=MeasureLag,name=<metrics.name>,az=<AZ>,instance=<n>
+*
+*       The lag histogram is log-linear in milliseconds: exact below 16 ms, above that 16 buckets per power
+*       of two (~6% wide), so the p99 of an SLO reads as e.g. 1.2 s rather than "between 1 and 2 s" as the
+*       power of two latency buckets of TransformMetrics would give. Recording is lock free (LongAdder,
+*       AtomicLongArray), only a record that moves the high watermark takes a lock, to keep its position.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+public class LagMetrics implements LagMetricsMBean {
+
+    private static final Logger log = LoggerFactory.getLogger(LagMetrics.class);
+
+    private static final int LINEAR   = 16;
+    private static final int SUB_BITS = 4;
+    private static final int SUB      = 1 << SUB_BITS;
+    private static final int BUCKETS  = LINEAR + (63 - SUB_BITS) * SUB;
+
+    private final ObjectName objectName;
+
+    private final LongAdder records        = new LongAdder();
+    private final LongAdder missing        = new LongAdder();
+    private final LongAdder totalMillis    = new LongAdder();
+    private final LongAccumulator maxLag   = new LongAccumulator(Long::max, 0L);
+    private final AtomicLongArray buckets  = new AtomicLongArray(BUCKETS);
+    private volatile long lastLag;
+
+    private volatile long highWatermark;
+    private volatile String highWatermarkPosition = "";
+
+    private LagMetrics(ObjectName objectName) {
+        this.objectName = objectName;
+    }
+
+    /**
+     * Metrics for one AZ of a MeasureLag instance, registered as an MBean. When registration fails the
+     * instance still counts, it is just not visible
+     */
+    static LagMetrics create(String name, String az, int instance) {
+        StringBuilder objectName = new StringBuilder(TransformMetrics.DOMAIN).append(":type=").append(MeasureLag.class.getSimpleName());
+        if (name != null && !name.isEmpty()) {
+            objectName.append(",name=").append(quote(name));
+        }
+        objectName.append(",az=").append(quote(az)).append(",instance=").append(instance);
+
+        try {
+            LagMetrics metrics = new LagMetrics(new ObjectName(objectName.toString()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metrics.objectName);
+            log.info("Registered lag MBean {}", metrics.objectName);
+            return metrics;
+        } catch (Exception e) {
+            log.warn("Could not register lag MBean {}, lag is measured but not published", objectName, e);
+            return new LagMetrics(null);
+        }
+    }
+
+    private static String quote(String value) {
+        return value.matches("[A-Za-z0-9_.-]+") ? value : ObjectName.quote(value);
+    }
+
+    /**
+     * A record committed at sourceTsMs reached the sink lagMillis later. True when it moved the high
+     * watermark, the caller then hands over its position
+     */
+    boolean record(long sourceTsMs, long lagMillis) {
+        long lag = Math.max(0, lagMillis);
+        records.increment();
+        totalMillis.add(lag);
+        maxLag.accumulate(lag);
+        buckets.incrementAndGet(bucket(lag));
+        lastLag = lag;
+        return sourceTsMs > highWatermark;
+    }
+
+    /**
+     * Move the high watermark to sourceTsMs, unless another record already moved it further
+     */
+    synchronized void advance(long sourceTsMs, String position) {
+        if (sourceTsMs > highWatermark) {
+            highWatermark         = sourceTsMs;
+            highWatermarkPosition = position != null ? position : "";
+        }
+    }
+
+    void missing() {
+        missing.increment();
+    }
+
+    /**
+     * Unregister the MBean
+     */
+    void close() {
+        if (objectName == null) {
+            return;
+        }
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.warn("Could not unregister lag MBean {}", objectName, e);
+        }
+    }
+
+    private static int bucket(long millis) {
+        if (millis < LINEAR) {
+            return (int) millis;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(millis);
+        return LINEAR + (exponent - SUB_BITS) * SUB + (int) ((millis >>> (exponent - SUB_BITS)) & (SUB - 1));
+    }
+
+    private static long lowerBound(int bucket) {
+        if (bucket <= LINEAR) {
+            return bucket;
+        }
+        int exponent = (bucket - LINEAR) / SUB + SUB_BITS;
+        return (SUB + (long) ((bucket - LINEAR) % SUB)) << (exponent - SUB_BITS);
+    }
+
+    @Override
+    public long getRecords() {
+        return records.sum();
+    }
+
+    @Override
+    public long getRecordsMissingHeader() {
+        return missing.sum();
+    }
+
+    @Override
+    public long getLagLastMillis() {
+        return lastLag;
+    }
+
+    @Override
+    public long getLagMeanMillis() {
+        long count = records.sum();
+        return count == 0 ? 0 : totalMillis.sum() / count;
+    }
+
+    @Override
+    public long getLagMaxMillis() {
+        return maxLag.get();
+    }
+
+    @Override
+    public long getLagP50Millis() {
+        return percentile(0.50);
+    }
+
+    @Override
+    public long getLagP99Millis() {
+        return percentile(0.99);
+    }
+
+    @Override
+    public long getLagP999Millis() {
+        return percentile(0.999);
+    }
+
+    @Override
+    public long[] getLagHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public long[] getLagHistogramBoundsMillis() {
+        long[] bounds = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            bounds[i] = lowerBound(i);
+        }
+        return bounds;
+    }
+
+    @Override
+    public long getHighWatermarkSourceTsMs() {
+        return highWatermark;
+    }
+
+    @Override
+    public String getHighWatermarkPosition() {
+        return highWatermarkPosition;
+    }
+
+    @Override
+    public long getHighWatermarkAgeMillis() {
+        long watermark = highWatermark;
+        return watermark == 0 ? 0 : Math.max(0, System.currentTimeMillis() - watermark);
+    }
+
+    @Override
+    public void reset() {
+        records.reset();
+        missing.reset();
+        totalMillis.reset();
+        maxLag.reset();
+        lastLag = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+    }
+
+    private long percentile(double fraction) {
+        long[] counts = getLagHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                // Upper bound of the bucket, never above the largest lag seen
+                return Math.min(maxLag.get(), i < LINEAR ? i : lowerBound(i + 1) - 1);
+            }
+        }
+        return maxLag.get();
+    }
+}
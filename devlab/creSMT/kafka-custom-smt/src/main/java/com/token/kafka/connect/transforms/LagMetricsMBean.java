@@ -0,0 +1,59 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   LagMetricsMBean.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       JMX attributes published per AZ by MeasureLag, all times in milliseconds.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+public interface LagMetricsMBean {
+
+    /** Records with a source commit time, measured */
+    long getRecords();
+
+    /** Records without the commit time header, passed unmeasured */
+    long getRecordsMissingHeader();
+
+    /** Commit to sink lag of the last measured record */
+    long getLagLastMillis();
+
+    long getLagMeanMillis();
+
+    long getLagMaxMillis();
+
+    /** Percentiles are the upper bound of the histogram bucket they fall in (within ~6%) */
+    long getLagP50Millis();
+
+    long getLagP99Millis();
+
+    long getLagP999Millis();
+
+    /** Record counts per lag bucket, bucket i starts at getLagHistogramBoundsMillis()[i] */
+    long[] getLagHistogram();
+
+    long[] getLagHistogramBoundsMillis();
+
+    /** Latest MySQL commit time (source.ts_ms) that has reached the sink, 0 before the first record */
+    long getHighWatermarkSourceTsMs();
+
+    /** Binlog position of the high watermark record, empty when not known */
+    String getHighWatermarkPosition();
+
+    /** Now minus the high watermark: how far Redis is behind MySQL, keeps growing while nothing arrives */
+    long getHighWatermarkAgeMillis();
+
+    /** Reset the counters and the histogram, the high watermark is kept */
+    void reset();
+}
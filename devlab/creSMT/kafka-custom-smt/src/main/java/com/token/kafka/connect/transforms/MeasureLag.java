@@ -0,0 +1,351 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   MeasureLag.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Custom SMT that:
+*
+*       Sink Engine:
+*
+*       Measures how stale Redis is against MySQL: the commit to sink lag, now minus the MySQL commit time
+*       AddSourceHeaders put in the record headers on the source side. Placed last before the value is
+*       serialised (valueToJsonString / encodeValue), after any filter or SuppressUnchanged, so only records
+*       that are about to be written count.
+*
+*       Per AZ a JMX MBean (LagMetrics) publishes a lag histogram (~6% buckets) with p50 / p99 / p99.9, and
+*       the high watermark: the latest commit time that has reached the sink, its binlog position and its
+*       age. The AZ is read from az.header when set and present (sources keyed by card), else az is used
+*       (one AZ per sink, filtered on the Kafka key). The key itself is the Redis key by this point.
+*
+*       Optionally the lag is written into the value (lag.field), as epoch millisecond difference, for
+*       consumers reading Redis. Deletes (null values) are measured but have no value to carry it.
+*
+*       The lag depends on the Connect worker and MySQL clocks agreeing, skew shifts it one way or the other,
+*       a negative lag counts as 0. Records without the header pass unmeasured (RecordsMissingHeader).
+*
+*       Configuration:
+*
+*           - ts.header:         Header holding the MySQL commit time (default: "source_ts_ms")
+*           - position.header:   Header holding the binlog position, reported with the high watermark (default: "source_pos")
+*           - az.header:         Header holding the AZ, e.g. "az". Empty = none (default)
+*           - az:                AZ when az.header is not set or not on the record (default: "default")
+*           - lag.field:         Value field to write the lag (ms) into. Empty = value unchanged (default)
+*           - schema.cache.size: Number of derived Struct schemas to cache for lag.field (default: 16)
+*           - metrics.enabled:   Publish the TransformMetrics MBean as well (record counts, SMT latency) (default: false)
+*           - metrics.name:      Also used as name= in the lag MBeans
+*
+*       Usage, last before valueToJsonString in jnl_acq_redis_sink-SMT.sh (MEASURE_LAG=true):
+*
+*           "transforms": "...,removeTkCardNumber,measureLag,valueToJsonString",
+*           "transforms.measureLag.type": "com.token.kafka.connect.transforms.MeasureLag",
+*           "transforms.measureLag.az": "AZ1",
+*           "transforms.measureLag.metrics.name": "measureLag"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+
+public class MeasureLag<R extends ConnectRecord<R>> implements Transformation<R> {
+
+    private static final Logger log = LoggerFactory.getLogger(MeasureLag.class);
+
+    private static final String TS_HEADER_CONFIG         = "ts.header";
+    private static final String POSITION_HEADER_CONFIG   = "position.header";
+    private static final String AZ_HEADER_CONFIG         = "az.header";
+    private static final String AZ_CONFIG                = "az";
+    private static final String LAG_FIELD_CONFIG         = "lag.field";
+    private static final String SCHEMA_CACHE_SIZE_CONFIG = "schema.cache.size";
+
+    // Distinct AZ values given their own MBean, a header carrying something else must not flood JMX
+    private static final int MAX_AZS = 64;
+    private static final String OTHER_AZ = "other";
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private String tsHeader;
+    private String positionHeader;
+    private String azHeader;
+    private String defaultAz;
+    private String lagField;
+    private String metricsName;
+    private int instance;
+
+    private final Map<String, LagMetrics> lags = new ConcurrentHashMap<>();
+    private SchemaCache<StructPlan> schemaCache;
+
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+        closeLags();
+
+        tsHeader       = config.getString(TS_HEADER_CONFIG);
+        positionHeader = emptyToNull(config.getString(POSITION_HEADER_CONFIG));
+        azHeader       = emptyToNull(config.getString(AZ_HEADER_CONFIG));
+        defaultAz      = config.getString(AZ_CONFIG);
+        lagField       = emptyToNull(config.getString(LAG_FIELD_CONFIG));
+        metricsName    = config.getString(TransformMetrics.METRICS_NAME_CONFIG);
+        instance       = INSTANCES.incrementAndGet();
+
+        schemaCache = new SchemaCache<>(config.getInt(SCHEMA_CACHE_SIZE_CONFIG));
+        metrics.watch(schemaCache);
+
+        // Publish the configured AZ straight away, so the MBean is there before the first record
+        lag(defaultAz);
+    }
+
+    @Override
+    public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+
+    private R transform(R record) {
+        long now = System.currentTimeMillis();
+        Header tsValue = record.headers().lastWithName(tsHeader);
+        Long committed = tsValue != null ? toLong(tsValue.value()) : null;
+
+        LagMetrics lag = lag(az(record));
+        if (committed == null) {
+            lag.missing();
+            return record;
+        }
+
+        long lagMillis = now - committed;
+        if (lag.record(committed, lagMillis)) {
+            Header position = positionHeader != null ? record.headers().lastWithName(positionHeader) : null;
+            lag.advance(committed, position != null ? headerString(position.value()) : null);
+        }
+
+        if (lagField == null || record.value() == null) {
+            return record;
+        }
+        return withLag(record, Math.max(0, lagMillis));
+    }
+
+    private String az(R record) {
+        if (azHeader != null) {
+            Header header = record.headers().lastWithName(azHeader);
+            if (header != null && header.value() != null) {
+                return headerString(header.value());
+            }
+        }
+        return defaultAz;
+    }
+
+    private LagMetrics lag(String az) {
+        LagMetrics lag = lags.get(az);
+        if (lag != null) {
+            return lag;
+        }
+        if (lags.size() >= MAX_AZS) {
+            az = OTHER_AZ;
+            if (!lags.containsKey(az)) {
+                log.warn("More than {} AZ values in header {}, further AZs are counted as '{}'", MAX_AZS, azHeader, OTHER_AZ);
+            }
+        }
+        return lags.computeIfAbsent(az, name -> LagMetrics.create(metricsName, name, instance));
+    }
+
+    private R withLag(R record, long lagMillis) {
+        Object value = record.value();
+        Object updatedValue;
+        Schema updatedSchema = null;
+
+        if (value instanceof Map) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> valueMap = new HashMap<>((Map<String, Object>) value);
+            valueMap.put(lagField, lagMillis);
+            updatedValue = valueMap;
+
+        } else if (value instanceof Struct) {
+            Struct originalStruct = (Struct) value;
+            StructPlan plan = schemaCache.computeIfAbsent(originalStruct.schema(), this::buildPlan);
+            updatedSchema = plan.schema;
+
+            Struct updatedStruct = new Struct(updatedSchema);
+            Field[] sourceFields = plan.sourceFields;
+            Field[] targetFields = plan.targetFields;
+            for (int i = 0; i < sourceFields.length; i++) {
+                updatedStruct.put(targetFields[i], originalStruct.get(sourceFields[i]));
+            }
+            updatedStruct.put(plan.lagField, lagMillis);
+            updatedValue = updatedStruct;
+
+        } else {
+            // String / byte[] values are already serialised, nothing to add the field to
+            return record;
+        }
+
+        return record.newRecord(
+            record.topic(),
+            record.kafkaPartition(),
+            record.keySchema(),
+            record.key(),
+            updatedSchema,
+            updatedValue,
+            record.timestamp(),
+            record.headers()
+        );
+    }
+
+    /**
+     * Derived schema (input fields + lag field) and the positional copy plan for an input schema
+     */
+    private StructPlan buildPlan(Schema originalSchema) {
+        SchemaBuilder builder = SchemaBuilder.struct();
+        if (originalSchema.name() != null) {
+            builder.name(originalSchema.name());
+        }
+        for (Field field : originalSchema.fields()) {
+            if (!field.name().equals(lagField)) {
+                builder.field(field.name(), field.schema());
+            }
+        }
+        builder.field(lagField, Schema.INT64_SCHEMA);
+        Schema updatedSchema = builder.build();
+
+        Field[] sourceFields = new Field[updatedSchema.fields().size() - 1];
+        Field[] targetFields = new Field[sourceFields.length];
+        for (int i = 0; i < sourceFields.length; i++) {
+            targetFields[i] = updatedSchema.fields().get(i);
+            sourceFields[i] = originalSchema.field(targetFields[i].name());
+        }
+        return new StructPlan(updatedSchema, sourceFields, targetFields, updatedSchema.field(lagField));
+    }
+
+    /**
+     * Header value as a long: a number, or its string form as the SimpleHeaderConverter / StringConverter
+     * pass it on
+     */
+    private static Long toLong(Object value) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String || value instanceof byte[]) {
+            try {
+                return Long.parseLong(headerString(value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static String headerString(Object value) {
+        return value instanceof byte[] ? new String((byte[]) value, StandardCharsets.UTF_8) : String.valueOf(value);
+    }
+
+    private static String emptyToNull(String value) {
+        return value == null || value.isEmpty() ? null : value;
+    }
+
+    /**
+     * Lag metrics of an AZ, null when no record of it was seen
+     */
+    public LagMetricsMBean lagMetrics(String az) {
+        return lags.get(az);
+    }
+
+    @Override
+    public ConfigDef config() {
+        return TransformMetrics.define(new ConfigDef()
+            .define(TS_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    AddSourceHeaders.DEFAULT_TS_HEADER,
+                    new ConfigDef.NonEmptyString(),
+                    ConfigDef.Importance.MEDIUM,
+                    "Header holding the MySQL commit time (epoch ms), as set by AddSourceHeaders ts.header")
+            .define(POSITION_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    AddSourceHeaders.DEFAULT_POSITION_HEADER,
+                    ConfigDef.Importance.LOW,
+                    "Header holding the binlog position, reported with the high watermark. Empty = none")
+            .define(AZ_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Header holding the AZ the lag is reported under (e.g. 'az'). Empty = always use az")
+            .define(AZ_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "default",
+                    new ConfigDef.NonEmptyString(),
+                    ConfigDef.Importance.MEDIUM,
+                    "AZ the lag is reported under when az.header is not set or missing, e.g. the Kafka key filtered on ('AZ1')")
+            .define(LAG_FIELD_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "",
+                    ConfigDef.Importance.LOW,
+                    "Map/Struct value field to write the commit to sink lag (ms) into. Empty = leave the value unchanged")
+            .define(SCHEMA_CACHE_SIZE_CONFIG,
+                    ConfigDef.Type.INT,
+                    SchemaCache.DEFAULT_CAPACITY,
+                    ConfigDef.Range.atLeast(1),
+                    ConfigDef.Importance.LOW,
+                    "Number of derived Struct schemas to cache for lag.field, one per distinct input schema"));
+    }
+
+    private void closeLags() {
+        for (LagMetrics lag : lags.values()) {
+            lag.close();
+        }
+        lags.clear();
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+        closeLags();
+        if (schemaCache != null) {
+            schemaCache.clear();
+        }
+    }
+
+    /**
+     * Derived schema plus the positional field copy plan for one input schema
+     */
+    private static final class StructPlan {
+        final Schema schema;
+        final Field[] sourceFields;
+        final Field[] targetFields;
+        final Field lagField;
+
+        StructPlan(Schema schema, Field[] sourceFields, Field[] targetFields, Field lagField) {
+            this.schema       = schema;
+            this.sourceFields = sourceFields;
+            this.targetFields = targetFields;
+            this.lagField     = lagField;
+        }
+    }
+}
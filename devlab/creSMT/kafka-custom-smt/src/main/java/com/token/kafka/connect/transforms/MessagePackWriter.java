@@ -0,0 +1,320 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   MessagePackWriter.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Streaming MessagePack writer, the binary counterpart of JsonWriter, same reusable per-thread buffer.
+*
+*       - Integers use the smallest MessagePack int encoding (1 byte up to 127)
+*       - Connect logical types as in JsonWriter: Timestamp -> epoch ms, Date -> days, Time -> ms of day.
+*         Decimal -> int when it has no fraction and fits a long, otherwise its plain string
+*       - Map keys and Struct field names are strings, callers can pre-encode them with encodeName()
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.errors.DataException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+public final class MessagePackWriter {
+
+    private static final int  INITIAL_CAPACITY = 256;
+    private static final int  RETAIN_CAPACITY  = 64 * 1024;
+    private static final long MILLIS_PER_DAY   = 24L * 60 * 60 * 1000;
+
+    private static final BigDecimal LONG_MIN = BigDecimal.valueOf(Long.MIN_VALUE);
+    private static final BigDecimal LONG_MAX = BigDecimal.valueOf(Long.MAX_VALUE);
+
+    private static final ThreadLocal<MessagePackWriter> LOCAL = ThreadLocal.withInitial(MessagePackWriter::new);
+
+    private byte[] buffer = new byte[INITIAL_CAPACITY];
+    private int length;
+
+    /**
+     * The calling thread's writer, reset and ready for use
+     */
+    public static MessagePackWriter local() {
+        MessagePackWriter writer = LOCAL.get();
+        writer.reset();
+        return writer;
+    }
+
+    /**
+     * Pre-encode a map key / field name for use with writeRaw(byte[])
+     */
+    public static byte[] encodeName(String name) {
+        MessagePackWriter writer = new MessagePackWriter();
+        writer.writeString(name);
+        return writer.toByteArray();
+    }
+
+    public void reset() {
+        if (buffer.length > RETAIN_CAPACITY) {
+            buffer = new byte[INITIAL_CAPACITY];
+        }
+        length = 0;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public byte[] toByteArray() {
+        return Arrays.copyOf(buffer, length);
+    }
+
+    public MessagePackWriter writeMapHeader(int size) {
+        if (size < 16) {
+            writeByte(0x80 | size);
+        } else if (size < 0x10000) {
+            writeByte(0xde);
+            writeShort(size);
+        } else {
+            writeByte(0xdf);
+            writeInt(size);
+        }
+        return this;
+    }
+
+    public MessagePackWriter writeArrayHeader(int size) {
+        if (size < 16) {
+            writeByte(0x90 | size);
+        } else if (size < 0x10000) {
+            writeByte(0xdc);
+            writeShort(size);
+        } else {
+            writeByte(0xdd);
+            writeInt(size);
+        }
+        return this;
+    }
+
+    /**
+     * Append already encoded MessagePack (e.g. a name from encodeName())
+     */
+    public MessagePackWriter writeRaw(byte[] encoded) {
+        ensure(encoded.length);
+        System.arraycopy(encoded, 0, buffer, length, encoded.length);
+        length += encoded.length;
+        return this;
+    }
+
+    /**
+     * Write a value, the schema (may be null) is used to interpret Connect logical types
+     */
+    public MessagePackWriter writeValue(Object value, Schema schema) {
+        if (value == null) {
+            writeByte(0xc0);
+        } else if (value instanceof String) {
+            writeString((String) value);
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeLong(((Number) value).longValue());
+        } else if (value instanceof Boolean) {
+            writeByte((Boolean) value ? 0xc3 : 0xc2);
+        } else if (value instanceof Float) {
+            writeByte(0xca);
+            writeInt(Float.floatToIntBits((Float) value));
+        } else if (value instanceof Double) {
+            writeByte(0xcb);
+            writeLongBits(Double.doubleToLongBits((Double) value));
+        } else if (value instanceof BigDecimal) {
+            writeDecimal((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            writeDecimal(new BigDecimal((BigInteger) value));
+        } else if (value instanceof java.util.Date) {
+            writeDate((java.util.Date) value, schema);
+        } else if (value instanceof byte[]) {
+            writeBinary((byte[]) value);
+        } else if (value instanceof ByteBuffer) {
+            ByteBuffer bytes = ((ByteBuffer) value).duplicate();
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.get(copy);
+            writeBinary(copy);
+        } else if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            writeMapHeader(struct.schema().fields().size());
+            for (Field field : struct.schema().fields()) {
+                writeString(field.name());
+                writeValue(struct.get(field), field.schema());
+            }
+        } else if (value instanceof Map) {
+            Map<?, ?> map = (Map<?, ?>) value;
+            writeMapHeader(map.size());
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                writeString(String.valueOf(entry.getKey()));
+                writeValue(entry.getValue(), null);
+            }
+        } else if (value instanceof Collection) {
+            Collection<?> values = (Collection<?>) value;
+            Schema elementSchema = schema != null && schema.type() == Schema.Type.ARRAY ? schema.valueSchema() : null;
+            writeArrayHeader(values.size());
+            for (Object element : values) {
+                writeValue(element, elementSchema);
+            }
+        } else if (value instanceof CharSequence || value instanceof Character) {
+            writeString(value.toString());
+        } else {
+            throw new DataException("Cannot write value of type " + value.getClass().getName() + " as MessagePack");
+        }
+        return this;
+    }
+
+    public void writeLong(long value) {
+        if (value >= 0) {
+            if (value < 128) {
+                writeByte((int) value);
+            } else if (value < 0x100) {
+                writeByte(0xcc);
+                writeByte((int) value);
+            } else if (value < 0x10000) {
+                writeByte(0xcd);
+                writeShort((int) value);
+            } else if (value < 0x100000000L) {
+                writeByte(0xce);
+                writeInt((int) value);
+            } else {
+                writeByte(0xcf);
+                writeLongBits(value);
+            }
+        } else {
+            if (value >= -32) {
+                writeByte((int) value & 0xff);
+            } else if (value >= Byte.MIN_VALUE) {
+                writeByte(0xd0);
+                writeByte((int) value);
+            } else if (value >= Short.MIN_VALUE) {
+                writeByte(0xd1);
+                writeShort((int) value);
+            } else if (value >= Integer.MIN_VALUE) {
+                writeByte(0xd2);
+                writeInt((int) value);
+            } else {
+                writeByte(0xd3);
+                writeLongBits(value);
+            }
+        }
+    }
+
+    public void writeString(String value) {
+        int chars = value.length();
+        boolean ascii = true;
+        for (int i = 0; i < chars && ascii; i++) {
+            ascii = value.charAt(i) < 0x80;
+        }
+        if (!ascii) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            writeStringHeader(utf8.length);
+            writeRaw(utf8);
+            return;
+        }
+
+        writeStringHeader(chars);
+        ensure(chars);
+        for (int i = 0; i < chars; i++) {
+            buffer[length++] = (byte) value.charAt(i);
+        }
+    }
+
+    private void writeStringHeader(int size) {
+        if (size < 32) {
+            writeByte(0xa0 | size);
+        } else if (size < 0x100) {
+            writeByte(0xd9);
+            writeByte(size);
+        } else if (size < 0x10000) {
+            writeByte(0xda);
+            writeShort(size);
+        } else {
+            writeByte(0xdb);
+            writeInt(size);
+        }
+    }
+
+    private void writeBinary(byte[] value) {
+        if (value.length < 0x100) {
+            writeByte(0xc4);
+            writeByte(value.length);
+        } else if (value.length < 0x10000) {
+            writeByte(0xc5);
+            writeShort(value.length);
+        } else {
+            writeByte(0xc6);
+            writeInt(value.length);
+        }
+        writeRaw(value);
+    }
+
+    private void writeDecimal(BigDecimal value) {
+        BigDecimal integral = value.scale() <= 0 ? value : value.stripTrailingZeros();
+        if (integral.scale() <= 0 && integral.compareTo(LONG_MIN) >= 0 && integral.compareTo(LONG_MAX) <= 0) {
+            writeLong(integral.longValueExact());
+        } else {
+            writeString(value.toPlainString());
+        }
+    }
+
+    private void writeDate(java.util.Date date, Schema schema) {
+        String logicalName = schema != null ? schema.name() : null;
+        long millis = date.getTime();
+
+        if (Date.LOGICAL_NAME.equals(logicalName)) {
+            writeLong(Math.floorDiv(millis, MILLIS_PER_DAY));
+        } else if (Time.LOGICAL_NAME.equals(logicalName)) {
+            writeLong(Math.floorMod(millis, MILLIS_PER_DAY));
+        } else {
+            writeLong(millis);
+        }
+    }
+
+    private void writeByte(int value) {
+        ensure(1);
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeShort(int value) {
+        ensure(2);
+        buffer[length++] = (byte) (value >>> 8);
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensure(4);
+        buffer[length++] = (byte) (value >>> 24);
+        buffer[length++] = (byte) (value >>> 16);
+        buffer[length++] = (byte) (value >>> 8);
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeLongBits(long value) {
+        writeInt((int) (value >>> 32));
+        writeInt((int) value);
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+}
@@ -0,0 +1,503 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   PrepareRedisRecord.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Blog            :
+*
+*       Custom SMT that:
+*
+*       Sink Engine:
+*
+*       Single pass replacement for the 8 step Redis sink chain:
+*
+*           filterKey -> addTimestamp -> selectFields -> extractRedisKey -> flattenKey -> formatRedisKey
+*                     -> removeTkCardNumber -> valueToJsonString
+*
+*       1. Filters records by Kafka message key, or the AZ header (as FilterByKafkaKey)
+*       2. Projects the value down to the include fields
+*       3. Lifts the key field out of the value and formats it as the Redis key (as RedisKeyFormatter)
+*       4. Adds the createdAt timestamp (as AddTimestamp)
+*       5. Serialises the remaining fields to a JSON string (as ValueToJsonString), or for a Debezium delete
+*          marker (delete.field = true) sets a null value, which RedisSinkConnector applies as UNLINK of the key
+*
+*       A tombstone (null value) has no key field, its record key is formatted with key.pattern instead.
+*
+*       Only one output record is created per input record, the projected fields are written straight to JSON.
+*
+*       Configuration:
+*
+*           - key.value:                 Kafka message key value to match (e.g., "AZ1"). Empty = no filtering
+*           - header.name:               Match key.value against this header instead of the key (e.g., "az", set by
+*                                        FilterAndExtractKey header.name when the source keys by card). Empty = the key
+*           - include:                   Comma-separated list of value fields to keep (key.field is implied). Empty = all fields
+*           - key.field:                 Value field to use as the Redis key, removed from the value (default: "tkcardNumber")
+*           - key.pattern:               Pattern for formatting the Redis key (default: "${key}"), placeholders as in
+*                                        RedisKeyFormatter: ${key}, ${topic}, ${partition}, ${header.<name>}, ${value.<field>}
+*           - key.pattern.hash.tag:      Placeholder to wrap in a Redis Cluster {hash-tag}, e.g. "key". Default: none
+*           - key.pattern.null.handling: "pass" (default) or "drop" records whose key field (or a placeholder) is null
+*           - timestamp.field:           Name of the timestamp field to add (default: "createdAt"). Empty = no timestamp
+*           - timestamp.format:          "epoch" or "iso8601" (default: "iso8601")
+*           - timestamp.timezone:        Timezone for ISO8601 format (default: "UTC")
+*           - timestamp.source:          "wallclock", "record" or "source" (Debezium source.ts_ms) (default: "wallclock")
+*           - timestamp.source.field:    Value fields holding source.ts_ms (default: "__source_ts_ms,source.ts_ms")
+*           - output.type:               "string" (JSON String, default) or "bytes" (UTF-8 JSON byte[])
+*           - delete.field:              Value field marking a Debezium delete (default: "__deleted"), never written to
+*                                        the JSON. Empty = not checked
+*           - key.header:                Header to copy the Kafka message key (the AZ) into before it is replaced by
+*                                        the Redis key, for RedisSinkConnector redis.route.header. Not copied when the
+*                                        record already carries the header. Empty = none (default)
+*           - version.header:            Value field copied into a header of the same name (e.g. "acqJnlSeqNumber"), also
+*                                        for deletes, for RedisSinkConnector redis.version.field once the value is
+*                                        JSON. Empty = none (default)
+*           - metrics.enabled:           Publish a JMX MBean with record counts and latencies, see TransformMetrics (default: false)
+*
+*       Usage:
+*
+*           "transforms": "prepareRedis",
+*           "transforms.prepareRedis.type": "com.token.kafka.connect.transforms.PrepareRedisRecord",
+*           "transforms.prepareRedis.key.value": "AZ1",
+*           "transforms.prepareRedis.include": "acqJnlSeqNumber,cardNumber",
+*           "transforms.prepareRedis.key.field": "tkcardNumber",
+*           "transforms.prepareRedis.key.pattern": "tkcard:${key}",
+*           "transforms.prepareRedis.timestamp.field": "createdAt",
+*           "transforms.prepareRedis.timestamp.format": "iso8601",
+*           "transforms.prepareRedis.timestamp.timezone": "Africa/Johannesburg"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.header.Header;
+import org.apache.kafka.connect.header.Headers;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class PrepareRedisRecord<R extends ConnectRecord<R>> implements Transformation<R> {
+
+    private static final String KEY_VALUE_CONFIG          = "key.value";
+    private static final String INCLUDE_CONFIG            = "include";
+    private static final String KEY_FIELD_CONFIG          = "key.field";
+    private static final String KEY_PATTERN_CONFIG        = "key.pattern";
+    private static final String NULL_HANDLING_CONFIG      = "key.pattern.null.handling";
+    private static final String HASH_TAG_CONFIG           = "key.pattern.hash.tag";
+    private static final String TIMESTAMP_FIELD_CONFIG    = "timestamp.field";
+    private static final String TIMESTAMP_FORMAT_CONFIG   = "timestamp.format";
+    private static final String TIMESTAMP_TIMEZONE_CONFIG = "timestamp.timezone";
+    private static final String TIMESTAMP_SOURCE_CONFIG   = "timestamp.source";
+    private static final String SOURCE_FIELD_CONFIG       = "timestamp.source.field";
+    private static final String OUTPUT_TYPE_CONFIG        = ValueToJsonString.OUTPUT_TYPE_CONFIG;
+    private static final String KEY_HEADER_CONFIG         = "key.header";
+    private static final String HEADER_NAME_CONFIG        = "header.name";
+    private static final String VERSION_HEADER_CONFIG     = "version.header";
+
+    private String keyValue;
+    private String headerName;
+    private List<String> includeFields;
+    private byte[][] includeNames;
+    private String keyField;
+    private KeyTemplate keyTemplate;
+    private boolean dropNullKeys;
+    private String timestampField;
+    private TimestampFormatter timestampFormatter;
+    private TimestampSource timestampSource;
+    private byte[] timestampName;
+    private boolean bytesOutput;
+    private String keyHeader;
+    private String deleteField;
+    private String versionHeader;
+
+    // Include and key fields resolved per Struct schema
+    private SchemaCache<StructPlan> schemaCache;
+
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+
+        keyValue = config.getString(KEY_VALUE_CONFIG);
+        if (keyValue != null && keyValue.trim().isEmpty()) {
+            keyValue = null;
+        }
+        headerName = config.getString(HEADER_NAME_CONFIG);
+        if (headerName != null && headerName.isEmpty()) {
+            headerName = null;
+        }
+
+        keyField = config.getString(KEY_FIELD_CONFIG);
+
+        includeFields = new ArrayList<>();
+        for (String field : config.getList(INCLUDE_CONFIG)) {
+            // The key field is lifted into the key, never written to the value
+            if (!field.isEmpty() && !field.equals(keyField)) {
+                includeFields.add(field);
+            }
+        }
+
+        includeNames = new byte[includeFields.size()][];
+        for (int i = 0; i < includeNames.length; i++) {
+            includeNames[i] = JsonWriter.encodeName(includeFields.get(i));
+        }
+
+        String keyPattern = config.getString(KEY_PATTERN_CONFIG);
+        keyTemplate = keyPattern == null || keyPattern.isEmpty()
+            ? null
+            : KeyTemplate.compile(keyPattern, config.getString(HASH_TAG_CONFIG));
+        if (keyTemplate != null && keyTemplate.isIdentity()) {
+            keyTemplate = null;
+        }
+        dropNullKeys = "drop".equalsIgnoreCase(config.getString(NULL_HANDLING_CONFIG));
+
+        timestampField = config.getString(TIMESTAMP_FIELD_CONFIG);
+        if (timestampField != null && timestampField.isEmpty()) {
+            timestampField = null;
+        }
+        timestampName = timestampField != null ? JsonWriter.encodeName(timestampField) : null;
+        timestampFormatter = new TimestampFormatter(
+            config.getString(TIMESTAMP_FORMAT_CONFIG),
+            config.getString(TIMESTAMP_TIMEZONE_CONFIG)
+        );
+        timestampSource = new TimestampSource(
+            config.getString(TIMESTAMP_SOURCE_CONFIG),
+            config.getList(SOURCE_FIELD_CONFIG)
+        );
+
+        bytesOutput = ValueToJsonString.OUTPUT_BYTES.equalsIgnoreCase(config.getString(OUTPUT_TYPE_CONFIG));
+
+        keyHeader = config.getString(KEY_HEADER_CONFIG);
+        if (keyHeader != null && keyHeader.isEmpty()) {
+            keyHeader = null;
+        }
+
+        versionHeader = config.getString(VERSION_HEADER_CONFIG);
+        if (versionHeader != null && versionHeader.isEmpty()) {
+            versionHeader = null;
+        }
+
+        deleteField = DeleteMarker.field(config.getString(DeleteMarker.DELETE_FIELD_CONFIG));
+
+        schemaCache = new SchemaCache<>();
+        metrics.watch(schemaCache);
+    }
+
+    @Override
+    public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+
+    private R transform(R record) {
+        if (record == null) {
+            return null;
+        }
+
+        // Step 1: Filter on Kafka message key, or the AZ header
+        if (keyValue != null) {
+            Object key = record.key();
+            if (headerName != null) {
+                Header header = record.headers().lastWithName(headerName);
+                key = header != null ? header.value() : null;
+            }
+            if (key == null || !keyValue.equals(key.toString())) {
+                return null;
+            }
+        }
+
+        Object value = record.value();
+        if (value == null) {
+            return tombstone(record);
+        }
+
+        // Step 2: Lift the key field out of the value and format the Redis key
+        Map<?, ?> valueMap = null;
+        Struct struct      = null;
+        StructPlan plan    = null;
+        Object redisKey;
+
+        if (value instanceof Map) {
+            valueMap = (Map<?, ?>) value;
+            redisKey = valueMap.get(keyField);
+        } else if (value instanceof Struct) {
+            struct   = (Struct) value;
+            plan     = schemaCache.computeIfAbsent(struct.schema(), this::buildPlan);
+            redisKey = plan.keyField != null ? struct.get(plan.keyField) : null;
+        } else {
+            throw new DataException(
+                "PrepareRedisRecord requires a Map or Struct value, got: " + value.getClass().getName());
+        }
+
+        if (redisKey == null) {
+            if (dropNullKeys) {
+                return null;
+            }
+        } else {
+            String keyString = redisKey.toString();
+            redisKey = keyTemplate == null ? keyString : keyTemplate.render(record, keyString);
+            if (redisKey == null && dropNullKeys) {
+                return null;
+            }
+        }
+
+        // Step 3: Write the projected fields and the timestamp straight to JSON, no intermediate Map. Deleted rows
+        // get a null value, which deletes the Redis key
+        boolean deleted  = struct != null
+                           ? plan.deleteField != null && DeleteMarker.isTrue(struct.get(plan.deleteField))
+                           : DeleteMarker.isDeleted(valueMap, deleteField);
+        Object jsonValue = deleted ? null : toJson(record, valueMap, struct, plan);
+
+        // Step 4: Keep the Kafka message key (the AZ) as a header, the key itself becomes the Redis key. The version
+        // (e.g. acqJnlSeqNumber) goes to a header too, the sink can not read it from the JSON
+        Headers headers = record.headers();
+        boolean addKey  = keyHeader != null && record.key() != null && headers.lastWithName(keyHeader) == null;
+        Object version  = versionHeader == null ? null
+                          : struct != null ? (plan.versionField != null ? struct.get(plan.versionField) : null)
+                          : valueMap.get(versionHeader);
+        if (addKey || version != null) {
+            headers = headers.duplicate();
+            if (addKey) {
+                headers.addString(keyHeader, record.key().toString());
+            }
+            if (version != null) {
+                headers.addString(versionHeader, version.toString());
+            }
+        }
+
+        return record.newRecord(
+            record.topic(),
+            record.kafkaPartition(),
+            null, // No schema for string key
+            redisKey,
+            null, // No schema for string/bytes value
+            jsonValue,
+            record.timestamp(),
+            headers
+        );
+    }
+
+    /**
+     * A tombstone has no key field to lift, the record key is formatted instead (as RedisKeyFormatter)
+     */
+    private R tombstone(R record) {
+        Object key = record.key();
+        if (key == null) {
+            return dropNullKeys ? null : record;
+        }
+        String keyString = key instanceof byte[] ? new String((byte[]) key, StandardCharsets.UTF_8) : key.toString();
+        Object redisKey  = keyTemplate == null ? keyString : keyTemplate.render(record, keyString);
+        if (redisKey == null) {
+            return dropNullKeys ? null : record;
+        }
+        return record.newRecord(
+            record.topic(),
+            record.kafkaPartition(),
+            null, // No schema for string key
+            redisKey,
+            null,
+            null,
+            record.timestamp(),
+            record.headers()
+        );
+    }
+
+    /**
+     * The projected fields and the timestamp as a JSON String or byte[]
+     */
+    private Object toJson(R record, Map<?, ?> valueMap, Struct struct, StructPlan plan) {
+        JsonWriter writer = JsonWriter.local().beginObject();
+
+        if (struct != null) {
+            Field[] fields = plan.fields;
+            for (int i = 0; i < fields.length; i++) {
+                writer.name(plan.names[i]).writeValue(struct.get(fields[i]), fields[i].schema());
+            }
+        } else if (includeFields.isEmpty()) {
+            for (Map.Entry<?, ?> entry : valueMap.entrySet()) {
+                String name = String.valueOf(entry.getKey());
+                if (!name.equals(keyField) && !name.equals(deleteField)) {
+                    writer.name(name).writeValue(entry.getValue(), null);
+                }
+            }
+        } else {
+            for (int i = 0; i < includeFields.size(); i++) {
+                String name = includeFields.get(i);
+                Object fieldValue = valueMap.get(name);
+                if (fieldValue != null || valueMap.containsKey(name)) {
+                    writer.name(includeNames[i]).writeValue(fieldValue, null);
+                }
+            }
+        }
+
+        if (timestampField != null) {
+            writer.name(timestampName).writeValue(timestampFormatter.format(timestampSource.resolve(record)), null);
+        }
+        writer.endObject();
+
+        return bytesOutput ? writer.toByteArray() : writer.toString();
+    }
+
+    /**
+     * Resolve the include and key fields against a Struct schema, only done once per schema
+     */
+    private StructPlan buildPlan(Schema schema) {
+        List<Field> fields = new ArrayList<>();
+        if (includeFields.isEmpty()) {
+            for (Field field : schema.fields()) {
+                if (!field.name().equals(keyField) && !field.name().equals(deleteField)) {
+                    fields.add(field);
+                }
+            }
+        } else {
+            for (String name : includeFields) {
+                Field field = schema.field(name);
+                if (field != null) {
+                    fields.add(field);
+                }
+            }
+        }
+
+        Field[] resolved = fields.toArray(new Field[0]);
+        byte[][] names   = new byte[resolved.length][];
+        for (int i = 0; i < resolved.length; i++) {
+            names[i] = JsonWriter.encodeName(resolved[i].name());
+        }
+        return new StructPlan(resolved, names, schema.field(keyField),
+                              deleteField != null ? schema.field(deleteField) : null,
+                              versionHeader != null ? schema.field(versionHeader) : null);
+    }
+
+    @Override
+    public ConfigDef config() {
+        return TransformMetrics.define(DeleteMarker.define(new ConfigDef())
+            .define(KEY_VALUE_CONFIG,
+                    ConfigDef.Type.STRING,
+                    null,
+                    ConfigDef.Importance.HIGH,
+                    "Kafka message key value to match (e.g., 'AZ1', 'AZ2'). Only records with this key will pass through.")
+            .define(HEADER_NAME_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Header to match key.value against instead of the Kafka message key (e.g., 'az'). Empty = the key")
+            .define(INCLUDE_CONFIG,
+                    ConfigDef.Type.LIST,
+                    "",
+                    ConfigDef.Importance.HIGH,
+                    "Comma-separated list of value fields to keep (e.g., 'acqJnlSeqNumber,cardNumber'). Empty keeps all fields")
+            .define(KEY_FIELD_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "tkcardNumber",
+                    ConfigDef.Importance.HIGH,
+                    "Value field used as the Redis key, removed from the value")
+            .define(KEY_PATTERN_CONFIG,
+                    ConfigDef.Type.STRING,
+                    KeyTemplate.KEY_PLACEHOLDER,
+                    ConfigDef.Importance.HIGH,
+                    "Pattern for formatting Redis keys. ${key} is the key field value, ${topic}, ${partition}, "
+                    + "${header.<name>} and ${value.<field>} are also available. Examples: 'card:${key}', 'az1:${key}', '${key}:v1'")
+            .define(HASH_TAG_CONFIG,
+                    ConfigDef.Type.STRING,
+                    null,
+                    ConfigDef.Importance.LOW,
+                    "Placeholder (without ${}) to wrap in a Redis Cluster {hash-tag}, e.g. 'key'")
+            .define(NULL_HANDLING_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "pass",
+                    ConfigDef.Importance.LOW,
+                    "How to handle null keys: 'pass' (pass through with a null key) or 'drop' (drop records with null keys)")
+            .define(TIMESTAMP_FIELD_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "createdAt",
+                    ConfigDef.Importance.MEDIUM,
+                    "Name of the field to add for timestamp, empty to not add a timestamp")
+            .define(TIMESTAMP_FORMAT_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "iso8601",
+                    ConfigDef.Importance.MEDIUM,
+                    "Format of timestamp: 'epoch' (milliseconds since epoch) or 'iso8601' (ISO 8601 format)")
+            .define(TIMESTAMP_TIMEZONE_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "UTC",
+                    ConfigDef.Importance.LOW,
+                    "Timezone for ISO8601 format (e.g., 'UTC', 'Africa/Johannesburg')")
+            .define(TIMESTAMP_SOURCE_CONFIG,
+                    ConfigDef.Type.STRING,
+                    TimestampSource.SOURCE_WALLCLOCK,
+                    ConfigDef.ValidString.in(TimestampSource.SOURCE_WALLCLOCK, TimestampSource.SOURCE_RECORD, TimestampSource.SOURCE_DEBEZIUM),
+                    ConfigDef.Importance.MEDIUM,
+                    "Time to record: 'wallclock' (processing time), 'record' (Kafka record timestamp) or 'source' (Debezium source.ts_ms commit time)")
+            .define(SOURCE_FIELD_CONFIG,
+                    ConfigDef.Type.LIST,
+                    TimestampSource.DEFAULT_SOURCE_FIELDS,
+                    ConfigDef.Importance.LOW,
+                    "Value fields holding the Debezium commit time (epoch ms) for timestamp.source=source, tried in order, dotted names read nested fields")
+            .define(OUTPUT_TYPE_CONFIG,
+                    ConfigDef.Type.STRING,
+                    ValueToJsonString.OUTPUT_STRING,
+                    ConfigDef.ValidString.in(ValueToJsonString.OUTPUT_STRING, ValueToJsonString.OUTPUT_BYTES),
+                    ConfigDef.Importance.MEDIUM,
+                    "Output value type: 'string' (JSON String) or 'bytes' (UTF-8 JSON byte[])")
+            .define(KEY_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Header to copy the Kafka message key into (e.g., 'az') before it is replaced by the Redis key, "
+                    + "for RedisSinkConnector redis.route.header. Not copied when the header is already present. Empty = none")
+            .define(VERSION_HEADER_CONFIG,
+                    ConfigDef.Type.STRING,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Value field copied into a header of the same name (e.g., 'acqJnlSeqNumber'), deletes included, for "
+                    + "RedisSinkConnector redis.write.mode=conditional redis.version.field. Empty = none"));
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+        if (schemaCache != null) {
+            schemaCache.clear();
+        }
+    }
+
+    /**
+     * Value fields to write (with pre-encoded JSON names) plus the key field, resolved for one Struct schema
+     */
+    private static final class StructPlan {
+        final Field[] fields;
+        final byte[][] names;
+        final Field keyField;
+        final Field deleteField;
+        final Field versionField;
+
+        StructPlan(Field[] fields, byte[][] names, Field keyField, Field deleteField, Field versionField) {
+            this.fields       = fields;
+            this.names        = names;
+            this.keyField     = keyField;
+            this.deleteField  = deleteField;
+            this.versionField = versionField;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisKeyCodec.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Compact binary Redis keys, written by RedisKeyFormatter key.encoding=binary, and the decoder for
+*       readers. A key is a one byte header followed by the card token:
+*
+*           header bits 7-6: token encoding  00 = BCD, 01 = int64, 10 = raw UTF-8
+*           header bits 5-0: namespace tag (0..63), replaces a prefix such as "az1:tkcard:"
+*
+*           - BCD:    two digits per byte, high nibble first, an odd digit count ends in a 0xF nibble.
+*                     Keeps leading zeros, "4111111111111111" -> 8 bytes
+*           - int64:  8 bytes big-endian, for tokens without a leading zero that fit a long. Tokens that do
+*                     not are written as BCD
+*           - raw:    the token's UTF-8 bytes, for tokens that are not all digits (or empty)
+*
+*       So "az1:tkcard:4111111111111111" (27 bytes) becomes 9 bytes either way, and the encoding is self
+*       describing: decode() needs no configuration. The same token always encodes to the same key for a
+*       given format, readers encode with the writer's tag and format to look a card up.
+*
+*       Command line, for redis-cli users, with the provided Kafka Connect libs next to the jar (mvn package
+*       copies them to target/connect-libs):
+*
+*           CP="target/kafka-connect-token-smt-1.0.0.jar:target/connect-libs/*"
+*           java -cp "$CP" com.token.kafka.connect.transforms.RedisKeyCodec encode <tag> <token> [bcd|int64]
+*           java -cp "$CP" com.token.kafka.connect.transforms.RedisKeyCodec decode <key> ...
+*           redis-cli --no-raw --scan | java -cp "$CP" com.token.kafka.connect.transforms.RedisKeyCodec decode
+*
+*       encode prints the key as redis-cli takes it ("\x01A\x11\x11..."), decode takes that form or hex
+*       (0x0141...) and prints "<tag> <token>", with no key arguments one key per line is read from stdin.
+*       Piped, redis-cli prints the raw key bytes, which can contain line breaks: --no-raw keeps it quoted.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.errors.DataException;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+public final class RedisKeyCodec {
+
+    public static final String FORMAT_BCD   = "bcd";
+    public static final String FORMAT_INT64 = "int64";
+
+    public static final int MAX_TAG = 63;
+
+    private static final int KIND_BCD   = 0x00;
+    private static final int KIND_INT64 = 0x40;
+    private static final int KIND_RAW   = 0x80;
+    private static final int KIND_MASK  = 0xC0;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private RedisKeyCodec() {
+    }
+
+    /**
+     * Binary key for a token under a namespace tag, int64 packs tokens that fit a long into 8 bytes, else BCD
+     */
+    public static byte[] encode(int tag, String token, boolean int64) {
+        if (tag < 0 || tag > MAX_TAG) {
+            throw new DataException("Namespace tag must be 0.." + MAX_TAG + ": " + tag);
+        }
+        int length = token.length();
+        boolean digits = length > 0;
+        for (int i = 0; i < length && digits; i++) {
+            char c = token.charAt(i);
+            digits = c >= '0' && c <= '9';
+        }
+
+        if (!digits) {
+            byte[] raw = token.getBytes(StandardCharsets.UTF_8);
+            byte[] key = new byte[1 + raw.length];
+            key[0] = (byte) (KIND_RAW | tag);
+            System.arraycopy(raw, 0, key, 1, raw.length);
+            return key;
+        }
+
+        if (int64 && (length == 1 || token.charAt(0) != '0') && (length < 19 || length == 19 && token.compareTo("9223372036854775807") <= 0)) {
+            long value = 0;
+            for (int i = 0; i < length; i++) {
+                value = value * 10 + (token.charAt(i) - '0');
+            }
+            byte[] key = new byte[9];
+            key[0] = (byte) (KIND_INT64 | tag);
+            for (int i = 8; i > 0; i--) {
+                key[i] = (byte) value;
+                value >>>= 8;
+            }
+            return key;
+        }
+
+        byte[] key = new byte[1 + (length + 1) / 2];
+        key[0] = (byte) (KIND_BCD | tag);
+        for (int i = 0; i < length; i += 2) {
+            int high = token.charAt(i) - '0';
+            int low  = i + 1 < length ? token.charAt(i + 1) - '0' : 0xF;
+            key[1 + i / 2] = (byte) (high << 4 | low);
+        }
+        return key;
+    }
+
+    /**
+     * Namespace tag of a binary key
+     */
+    public static int tag(byte[] key) {
+        check(key);
+        return key[0] & MAX_TAG;
+    }
+
+    /**
+     * The token a binary key was encoded from
+     */
+    public static String token(byte[] key) {
+        check(key);
+        switch (key[0] & KIND_MASK) {
+            case KIND_RAW:
+                return new String(key, 1, key.length - 1, StandardCharsets.UTF_8);
+
+            case KIND_INT64: {
+                if (key.length != 9) {
+                    throw new DataException("int64 key must be 9 bytes, got " + key.length);
+                }
+                long value = 0;
+                for (int i = 1; i < 9; i++) {
+                    value = value << 8 | (key[i] & 0xFF);
+                }
+                return Long.toString(value);
+            }
+
+            case KIND_BCD: {
+                char[] digits = new char[(key.length - 1) * 2];
+                int length = 0;
+                for (int i = 1; i < key.length; i++) {
+                    int high = (key[i] >> 4) & 0xF;
+                    int low  = key[i] & 0xF;
+                    if (high > 9 || low > 9 && (low != 0xF || i != key.length - 1)) {
+                        throw new DataException("Invalid BCD byte 0x" + HEX[high] + HEX[low] + " at " + i);
+                    }
+                    digits[length++] = (char) ('0' + high);
+                    if (low != 0xF) {
+                        digits[length++] = (char) ('0' + low);
+                    }
+                }
+                return new String(digits, 0, length);
+            }
+
+            default:
+                throw new DataException("Unknown key encoding in header byte 0x" + HEX[(key[0] >> 4) & 0xF] + HEX[key[0] & 0xF]);
+        }
+    }
+
+    private static void check(byte[] key) {
+        if (key == null || key.length == 0) {
+            throw new DataException("Empty binary key");
+        }
+    }
+
+    /**
+     * The key as redis-cli prints and takes it, printable ASCII as is, anything else as \xNN
+     */
+    public static String escape(byte[] key) {
+        StringBuilder text = new StringBuilder(key.length * 4 + 2).append('"');
+        for (byte b : key) {
+            int c = b & 0xFF;
+            if (c == '"' || c == '\\') {
+                text.append('\\').append((char) c);
+            } else if (c >= 0x20 && c < 0x7F) {
+                text.append((char) c);
+            } else {
+                text.append("\\x").append(HEX[c >> 4]).append(HEX[c & 0xF]);
+            }
+        }
+        return text.append('"').toString();
+    }
+
+    /**
+     * Key bytes from hex (0x0141...) or the redis-cli form, with or without the surrounding quotes
+     */
+    public static byte[] unescape(String text) {
+        String key = text.trim();
+        if (key.startsWith("0x") || key.startsWith("0X")) {
+            String hex = key.substring(2);
+            if (hex.length() % 2 != 0) {
+                throw new DataException("Odd number of hex digits: " + text);
+            }
+            byte[] bytes = new byte[hex.length() / 2];
+            for (int i = 0; i < bytes.length; i++) {
+                bytes[i] = (byte) Integer.parseInt(hex.substring(2 * i, 2 * i + 2), 16);
+            }
+            return bytes;
+        }
+
+        if (key.length() >= 2 && key.startsWith("\"") && key.endsWith("\"")) {
+            key = key.substring(1, key.length() - 1);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(key.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            if (c != '\\' || i + 1 == key.length()) {
+                bytes.write(c);
+                continue;
+            }
+            char next = key.charAt(++i);
+            if (next == 'x' && i + 2 < key.length()) {
+                bytes.write(Integer.parseInt(key.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else if (next == 'n') {
+                bytes.write('\n');
+            } else if (next == 'r') {
+                bytes.write('\r');
+            } else if (next == 't') {
+                bytes.write('\t');
+            } else if (next == 'a') {
+                bytes.write(7);
+            } else if (next == 'b') {
+                bytes.write('\b');
+            } else {
+                bytes.write(next);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 3 && args[0].equals("encode")) {
+            boolean int64 = args.length > 3 && FORMAT_INT64.equalsIgnoreCase(args[3]);
+            System.out.println(escape(encode(Integer.parseInt(args[1]), args[2], int64)));
+            return;
+        }
+        if (args.length >= 1 && args[0].equals("decode")) {
+            if (args.length > 1) {
+                for (int i = 1; i < args.length; i++) {
+                    decode(args[i]);
+                }
+                return;
+            }
+            BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (!line.trim().isEmpty()) {
+                    decode(line);
+                }
+            }
+            return;
+        }
+        System.err.println("Usage: RedisKeyCodec encode <tag 0.." + MAX_TAG + "> <token> [bcd|int64]");
+        System.err.println("       RedisKeyCodec decode [<key as redis-cli prints it, or 0x hex> ...]  (keys from stdin without arguments,");
+        System.err.println("                                                                             e.g. redis-cli --no-raw --scan)");
+        System.exit(2);
+    }
+
+    private static void decode(String text) {
+        try {
+            byte[] key = unescape(text);
+            System.out.println(tag(key) + " " + token(key));
+        } catch (RuntimeException e) {
+            System.out.println("? " + text + " (" + e.getMessage() + ")");
+        }
+    }
+}
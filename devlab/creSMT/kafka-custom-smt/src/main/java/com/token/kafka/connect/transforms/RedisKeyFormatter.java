@@ -19,24 +19,53 @@
 * 
 *       Configuration:
 * 
-*           - key.pattern: Pattern for formatting the key. Use ${key} as placeholder for the original key.
+*           - key.pattern: Pattern for formatting the key, compiled once into literal and placeholder segments.
+*                         Placeholders:
+*                           ${key}            the original key
+*                           ${topic}          the record topic
+*                           ${partition}      the record Kafka partition
+*                           ${header.<name>}  a record header value
+*                           ${value.<field>}  a value field (Map or Struct)
 *                         Examples:
-*                           "${key}"              -> "4111111111111111" (no change)
-*                           "card:${key}"         -> "card:4111111111111111"
-*                           "az1:card:${key}"     -> "az1:card:4111111111111111"
-*                           "${key}:v1"           -> "4111111111111111:v1"
-*                           "tenant:prod:${key}"  -> "tenant:prod:4111111111111111"
+*                           "${key}"                        -> "4111111111111111" (no change)
+*                           "card:${key}"                   -> "card:4111111111111111"
+*                           "az1:card:${key}"               -> "az1:card:4111111111111111"
+*                           "${key}:v1"                     -> "4111111111111111:v1"
+*                           "tenant:prod:${key}"            -> "tenant:prod:4111111111111111"
+*                           "${value.acquirerId}:${key}"    -> "ACQ001:4111111111111111"
+*                           "${header.az}:tkcard:${key}"    -> "AZ1:tkcard:4111111111111111" (AZ from the source's
+*                                                              az header when the Kafka key is the card, not the AZ)
 * 
-*           - key.pattern.null.handling: How to handle null keys. Options:
+*           - key.pattern.hash.tag: Placeholder to wrap in a Redis Cluster {hash-tag}, e.g. "key" or "value.acquirerId"
+*                         "az1:card:${key}" with "key"    -> "az1:card:{4111111111111111}"
+*                         Only the tagged part is hashed, so related keys land on the same cluster slot. Default: none
+* 
+*           - key.pattern.null.handling: How to handle null keys (or placeholders without a value). Options:
 *                         "pass" (default) - Pass through null keys unchanged
 *                         "drop"           - Drop records with null keys (return null)
 * 
+*           - delete.field: Value field marking a Debezium delete (default "__deleted", empty = not checked). Marked
+*                         records keep the formatted key and get a null value, which RedisSinkConnector applies as
+*                         UNLINK. Keep the field in any earlier ReplaceField include, exclude it after this step
+* 
+*           - key.encoding: "string" (default), the rendered key.pattern, or "binary": a byte[] key of a one
+*                         byte namespace tag plus the packed ${key} token, see RedisKeyCodec. "az1:tkcard:<16 digits>"
+*                         (27 bytes) becomes 9 bytes. key.pattern must be left at "${key}", the tag replaces the prefix
+* 
+*           - key.binary.tag: Namespace tag (0..63) of binary keys, one per key family, e.g. 1 for az1:tkcard (default: 0)
+* 
+*           - key.binary.format: "bcd" (default), decimal digits two per byte, or "int64", 8 byte big-endian (tokens
+*                         with a leading zero or too long for a long fall back to BCD, non-digit tokens are kept raw)
+* 
+*           - metrics.enabled: Publish a JMX MBean, dropped = null-key drops, see TransformMetrics (default: false)
+* 
 *       Usage:
 * 
 *           "transforms": "formatRedisKey",
 *           "transforms.formatRedisKey.type": "com.token.kafka.connect.transforms.RedisKeyFormatter",
 *           "transforms.formatRedisKey.key.pattern": "card:${key}",
-*           "transforms.formatRedisKey.key.pattern.null.handling": "pass"
+*           "transforms.formatRedisKey.key.pattern.null.handling": "pass",
+*           "transforms.formatRedisKey.key.pattern.hash.tag": "key"
 * 
 *       Example Integration in Sink Connector:
 * 
@@ -47,42 +76,84 @@
 *       This would transform:
 *           Key: "4111111111111111"  ->  "az1:card:4111111111111111"
 * 
+*       Or, binary (readers encode / decode with RedisKeyCodec):
+*           "transforms.formatRedisKey.key.encoding": "binary",
+*           "transforms.formatRedisKey.key.binary.tag": "1"
+*           Key: "4111111111111111"  ->  byte[] {0x01, 0x41, 0x11, 0x11, 0x11, 0x11, 0x11, 0x11, 0x11}
+* 
 *///////////////////////////////////////////////////////////////////////////////////////////////////////
 
 package com.token.kafka.connect.transforms;
 
 import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.transforms.Transformation;
 import org.apache.kafka.connect.transforms.util.SimpleConfig;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 public class RedisKeyFormatter<R extends ConnectRecord<R>> implements Transformation<R> {
     
     private static final String KEY_PATTERN_CONFIG = "key.pattern";
     private static final String NULL_HANDLING_CONFIG = "key.pattern.null.handling";
-    private static final String PLACEHOLDER = "${key}";
+    private static final String HASH_TAG_CONFIG = "key.pattern.hash.tag";
+    private static final String ENCODING_CONFIG = "key.encoding";
+    private static final String BINARY_TAG_CONFIG = "key.binary.tag";
+    private static final String BINARY_FORMAT_CONFIG = "key.binary.format";
+    
+    public static final String ENCODING_STRING = "string";
+    public static final String ENCODING_BINARY = "binary";
     
-    private String keyPattern;
+    private KeyTemplate keyTemplate;
+    private boolean binary;
+    private int binaryTag;
+    private boolean int64;
     private String nullHandling;
+    private String deleteField;
+    
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
     
     @Override
     public void configure(Map<String, ?> configs) {
         SimpleConfig config = new SimpleConfig(config(), configs);
-        keyPattern = config.getString(KEY_PATTERN_CONFIG);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+        String keyPattern = config.getString(KEY_PATTERN_CONFIG);
         nullHandling = config.getString(NULL_HANDLING_CONFIG);
+        deleteField  = DeleteMarker.field(config.getString(DeleteMarker.DELETE_FIELD_CONFIG));
         
-        // Validate pattern contains placeholder
-        if (keyPattern != null && !keyPattern.isEmpty() && !keyPattern.contains(PLACEHOLDER)) {
-            throw new org.apache.kafka.connect.errors.ConnectException(
-                "key.pattern must contain " + PLACEHOLDER + " placeholder. Got: " + keyPattern
-            );
+        binary       = ENCODING_BINARY.equalsIgnoreCase(config.getString(ENCODING_CONFIG));
+        binaryTag    = config.getInt(BINARY_TAG_CONFIG);
+        int64        = RedisKeyCodec.FORMAT_INT64.equalsIgnoreCase(config.getString(BINARY_FORMAT_CONFIG));
+        
+        // Compile the pattern, validates the placeholders
+        keyTemplate = keyPattern == null || keyPattern.isEmpty()
+            ? null
+            : KeyTemplate.compile(keyPattern, config.getString(HASH_TAG_CONFIG));
+        
+        if (binary) {
+            // The tag stands in for the pattern's prefix, only the token itself is packed
+            String hashTag = config.getString(HASH_TAG_CONFIG);
+            if (hashTag != null && !hashTag.isEmpty()) {
+                throw new ConfigException(HASH_TAG_CONFIG, hashTag, "Not supported with " + ENCODING_CONFIG + "=binary");
+            }
+            if (keyTemplate != null && !keyTemplate.isIdentity()) {
+                throw new ConfigException(KEY_PATTERN_CONFIG, keyPattern,
+                    "Must be ${key} with " + ENCODING_CONFIG + "=binary, " + BINARY_TAG_CONFIG + " replaces the prefix");
+            }
         }
     }
     
     @Override
     public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+    
+    private R transform(R record) {
         if (record == null) {
             return null;
         }
@@ -100,23 +171,33 @@ public class RedisKeyFormatter<R extends ConnectRecord<R>> implements Transforma
             }
         }
         
-        // If no pattern configured, pass through unchanged
-        if (keyPattern == null || keyPattern.isEmpty()) {
-            return record;
+        // Deleted rows get a null value, also when the key is not reformatted
+        boolean deleted = DeleteMarker.isDeleted(record.value(), deleteField);
+
+        // If no pattern configured, pass through the key unchanged
+        if (keyTemplate == null && !binary) {
+            return deleted ? record.newRecord(record.topic(), record.kafkaPartition(), record.keySchema(), key,
+                                              null, null, record.timestamp(), record.headers())
+                           : record;
+        }
+
+        // Format the key using the pattern, or pack the token
+        Object formattedKey = binary
+            ? RedisKeyCodec.encode(binaryTag, key instanceof byte[] ? new String((byte[]) key, StandardCharsets.UTF_8) : key.toString(), int64)
+            : keyTemplate.render(record, key);
+        if (formattedKey == null) {
+            // A placeholder had no value, same handling as a null key
+            return "drop".equalsIgnoreCase(nullHandling) ? null : record;
         }
         
-        // Format the key using the pattern
-        String originalKey = key.toString();
-        String formattedKey = keyPattern.replace(PLACEHOLDER, originalKey);
-        
-        // Return new record with formatted key
+        // Return new record with formatted key, deleted rows with a null value
         return record.newRecord(
             record.topic(),
             record.kafkaPartition(),
-            null, // No schema for string key
+            null, // No schema for string / byte[] key
             formattedKey,
-            record.valueSchema(),
-            record.value(),
+            deleted ? null : record.valueSchema(),
+            deleted ? null : record.value(),
             record.timestamp(),
             record.headers()
         );
@@ -124,22 +205,45 @@ public class RedisKeyFormatter<R extends ConnectRecord<R>> implements Transforma
     
     @Override
     public ConfigDef config() {
-        return new ConfigDef()
+        return TransformMetrics.define(DeleteMarker.define(new ConfigDef())
             .define(KEY_PATTERN_CONFIG, 
                     ConfigDef.Type.STRING, 
                     "${key}", 
                     ConfigDef.Importance.HIGH, 
-                    "Pattern for formatting Redis keys. Use ${key} as placeholder for the original key. "
-                    + "Examples: 'card:${key}', 'az1:${key}', '${key}:v1'")
+                    "Pattern for formatting Redis keys. Placeholders: ${key}, ${topic}, ${partition}, ${header.<name>}, ${value.<field>}. "
+                    + "Examples: 'card:${key}', 'az1:${key}', '${key}:v1', '${value.acquirerId}:${key}'")
+            .define(HASH_TAG_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    null, 
+                    ConfigDef.Importance.LOW, 
+                    "Placeholder (without ${}) to wrap in a Redis Cluster {hash-tag}, e.g. 'key' or 'value.acquirerId'")
+            .define(ENCODING_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    ENCODING_STRING, 
+                    ConfigDef.ValidString.in(ENCODING_STRING, ENCODING_BINARY), 
+                    ConfigDef.Importance.MEDIUM, 
+                    "'string': the key.pattern result, 'binary': byte[] key of a namespace tag byte plus the packed key token (RedisKeyCodec)")
+            .define(BINARY_TAG_CONFIG, 
+                    ConfigDef.Type.INT, 
+                    0, 
+                    ConfigDef.Range.between(0, RedisKeyCodec.MAX_TAG), 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Namespace tag of binary keys, in place of a prefix such as 'az1:tkcard:'")
+            .define(BINARY_FORMAT_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    RedisKeyCodec.FORMAT_BCD, 
+                    ConfigDef.ValidString.in(RedisKeyCodec.FORMAT_BCD, RedisKeyCodec.FORMAT_INT64), 
+                    ConfigDef.Importance.LOW, 
+                    "Token packing of binary keys: 'bcd' (two digits per byte) or 'int64' (8 bytes, BCD for tokens that do not fit)")
             .define(NULL_HANDLING_CONFIG, 
                     ConfigDef.Type.STRING, 
                     "pass", 
                     ConfigDef.Importance.LOW, 
-                    "How to handle null keys: 'pass' (pass through unchanged) or 'drop' (drop records with null keys)");
+                    "How to handle null keys: 'pass' (pass through unchanged) or 'drop' (drop records with null keys)"));
     }
     
     @Override
     public void close() {
-        // No resources to close
+        metrics.close();
     }
 }
@@ -0,0 +1,539 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisValueEncoder.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Custom SMT that encodes the (projected) value more compactly than JSON, so more keys fit in Redis
+*       maxmemory. Takes the place of ValueToJsonString at the end of the sink chain.
+*
+*       Encodings (value.encoding):
+*
+*           - msgpack: MessagePack map, field names replaced by their field.aliases. value -> byte[]
+*           - binary:  Fixed layout without field names, value -> byte[]:
+*
+*                          byte 0         layout version (1)
+*                          next n/8 bytes null bitmap, bit (i % 8) of byte (i / 8) set when field i is null
+*                          then the non-null fields in layout order:
+*                              boolean, int8                1 byte
+*                              int16                        2 bytes, big-endian
+*                              int32, float32               4 bytes, big-endian
+*                              int64, float64, timestamp    8 bytes, big-endian (timestamp: epoch ms)
+*                              string, bytes                unsigned LEB128 varint length + UTF-8 / raw bytes
+*
+*                      The layout is binary.layout, or for Struct values the value schema (Decimal as the int64
+*                      unscaled value, Date/Time as int32 days/ms). Map values require binary.layout.
+*
+*           - hash:    Redis HASH, value -> Map of alias -> String (null as ""), written with HSET by
+*                      RedisSinkConnector with "redis.value.type": "hash". Short aliases and values keep the
+*                      hash within hash-max-listpack-entries / -value, stored as one compact listpack.
+*
+*       String and byte[] values are already serialised and passed through.
+*
+*       Configuration:
+*           - value.encoding:  "msgpack" (default), "binary" or "hash"
+*           - field.aliases:   Comma-separated field:alias pairs, e.g. "acqJnlSeqNumber:s,cardNumber:c,createdAt:t".
+*                              Fields without an alias keep their name (msgpack, hash)
+*           - binary.layout:   Comma-separated field:type pairs for the binary encoding, types as above,
+*                              e.g. "acqJnlSeqNumber:int64,cardNumber:string,createdAt:string"
+*           - metrics.enabled: Publish a JMX MBean with record counts and latencies, see TransformMetrics (default: false)
+*
+*       Usage:
+*           "transforms": "...,encodeValue",
+*           "transforms.encodeValue.type": "com.token.kafka.connect.transforms.RedisValueEncoder",
+*           "transforms.encodeValue.value.encoding": "hash",
+*           "transforms.encodeValue.field.aliases": "acqJnlSeqNumber:s,cardNumber:c,createdAt:t"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+public class RedisValueEncoder<R extends ConnectRecord<R>> implements Transformation<R> {
+
+    public static final String ENCODING_CONFIG = "value.encoding";
+    public static final String ALIASES_CONFIG  = "field.aliases";
+    public static final String LAYOUT_CONFIG   = "binary.layout";
+
+    public static final String ENCODING_MSGPACK = "msgpack";
+    public static final String ENCODING_BINARY  = "binary";
+    public static final String ENCODING_HASH    = "hash";
+
+    public static final int BINARY_VERSION = 1;
+
+    private static final long MILLIS_PER_DAY = 24L * 60 * 60 * 1000;
+
+    private enum Encoding { MSGPACK, BINARY, HASH }
+
+    private enum FieldType {
+        BOOLEAN(1), INT8(1), INT16(2), INT32(4), INT64(8), FLOAT32(4), FLOAT64(8), TIMESTAMP(8),
+        STRING(-1), BYTES(-1), DATE(4), TIME(4), DECIMAL(8);
+
+        final int width;
+
+        FieldType(int width) {
+            this.width = width;
+        }
+    }
+
+    private Encoding encoding;
+    private Map<String, String> aliases;
+    private Map<String, byte[]> packedNames;
+    private Layout configuredLayout;
+
+    // Names, aliases and binary layout resolved per Struct schema
+    private SchemaCache<StructPlan> schemaCache;
+
+    private byte[] buffer = new byte[256];
+    private int length;
+
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+
+        encoding = Encoding.valueOf(config.getString(ENCODING_CONFIG).toUpperCase());
+
+        aliases     = pairs(config.getList(ALIASES_CONFIG), ALIASES_CONFIG);
+        packedNames = new HashMap<>();
+
+        Map<String, String> layout = pairs(config.getList(LAYOUT_CONFIG), LAYOUT_CONFIG);
+        if (layout.isEmpty()) {
+            configuredLayout = null;
+        } else {
+            String[] names = layout.keySet().toArray(new String[0]);
+            FieldType[] types = new FieldType[names.length];
+            for (int i = 0; i < names.length; i++) {
+                String type = layout.get(names[i]);
+                try {
+                    types[i] = FieldType.valueOf(type.toUpperCase());
+                } catch (IllegalArgumentException e) {
+                    throw new ConfigException(LAYOUT_CONFIG, type, "Unknown type for field " + names[i]);
+                }
+                if (types[i] == FieldType.DATE || types[i] == FieldType.TIME || types[i] == FieldType.DECIMAL) {
+                    throw new ConfigException(LAYOUT_CONFIG, type, "Logical types are only derived from Struct schemas");
+                }
+            }
+            configuredLayout = new Layout(names, types, new int[names.length]);
+        }
+
+        schemaCache = new SchemaCache<>();
+        metrics.watch(schemaCache);
+    }
+
+    private static Map<String, String> pairs(List<String> entries, String configName) {
+        Map<String, String> pairs = new LinkedHashMap<>();
+        for (String entry : entries) {
+            if (entry.isEmpty()) {
+                continue;
+            }
+            int colon = entry.indexOf(':');
+            if (colon <= 0 || colon == entry.length() - 1) {
+                throw new ConfigException(configName, entry, "Expected field:value");
+            }
+            pairs.put(entry.substring(0, colon).trim(), entry.substring(colon + 1).trim());
+        }
+        return pairs;
+    }
+
+    @Override
+    public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+
+    private R transform(R record) {
+        Object value = record.value();
+        if (value == null || value instanceof String || value instanceof byte[]) {
+            return record;
+        }
+
+        Object encoded;
+        try {
+            if (value instanceof Struct) {
+                Struct struct = (Struct) value;
+                StructPlan plan = schemaCache.computeIfAbsent(struct.schema(), this::plan);
+                encoded = encodeStruct(struct, plan);
+            } else if (value instanceof Map) {
+                encoded = encodeMap((Map<?, ?>) value);
+            } else {
+                throw new DataException("Unsupported value type: " + value.getClass().getName());
+            }
+        } catch (DataException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new DataException("Failed to encode value as " + encoding.name().toLowerCase(), e);
+        }
+
+        return record.newRecord(
+            record.topic(),
+            record.kafkaPartition(),
+            record.keySchema(),
+            record.key(),
+            null,
+            encoded,
+            record.timestamp(),
+            record.headers()
+        );
+    }
+
+    private Object encodeStruct(Struct struct, StructPlan plan) {
+        Field[] fields = plan.fields;
+        switch (encoding) {
+            case MSGPACK: {
+                MessagePackWriter writer = MessagePackWriter.local().writeMapHeader(fields.length);
+                for (int i = 0; i < fields.length; i++) {
+                    writer.writeRaw(plan.packedNames[i]).writeValue(struct.get(fields[i]), fields[i].schema());
+                }
+                return writer.toByteArray();
+            }
+            case HASH: {
+                Map<String, Object> hash = new LinkedHashMap<>(fields.length * 2);
+                for (int i = 0; i < fields.length; i++) {
+                    hash.put(plan.names[i], hashValue(struct.get(fields[i]), fields[i].schema()));
+                }
+                return hash;
+            }
+            default: {
+                Layout layout = plan.layout;
+                startBinary(layout.types.length);
+                for (int i = 0; i < layout.types.length; i++) {
+                    Object fieldValue = plan.layoutFields[i] != null ? struct.get(plan.layoutFields[i]) : null;
+                    writeBinaryField(i, fieldValue, layout.types[i], layout.scales[i]);
+                }
+                return Arrays.copyOf(buffer, length);
+            }
+        }
+    }
+
+    private Object encodeMap(Map<?, ?> map) {
+        switch (encoding) {
+            case MSGPACK: {
+                MessagePackWriter writer = MessagePackWriter.local().writeMapHeader(map.size());
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    writer.writeRaw(packedName(String.valueOf(entry.getKey()))).writeValue(entry.getValue(), null);
+                }
+                return writer.toByteArray();
+            }
+            case HASH: {
+                Map<String, Object> hash = new LinkedHashMap<>(map.size() * 2);
+                for (Map.Entry<?, ?> entry : map.entrySet()) {
+                    String name = String.valueOf(entry.getKey());
+                    hash.put(aliases.getOrDefault(name, name), hashValue(entry.getValue(), null));
+                }
+                return hash;
+            }
+            default: {
+                if (configuredLayout == null) {
+                    throw new DataException("Schemaless values need " + LAYOUT_CONFIG + " for the binary encoding");
+                }
+                Layout layout = configuredLayout;
+                startBinary(layout.types.length);
+                for (int i = 0; i < layout.types.length; i++) {
+                    writeBinaryField(i, map.get(layout.names[i]), layout.types[i], 0);
+                }
+                return Arrays.copyOf(buffer, length);
+            }
+        }
+    }
+
+    private byte[] packedName(String name) {
+        byte[] packed = packedNames.get(name);
+        if (packed == null) {
+            packed = MessagePackWriter.encodeName(aliases.getOrDefault(name, name));
+            packedNames.put(name, packed);
+        }
+        return packed;
+    }
+
+    private static Object hashValue(Object value, Schema schema) {
+        if (value == null) {
+            return "";
+        }
+        if (value instanceof String || value instanceof byte[]) {
+            return value;
+        }
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).toPlainString();
+        }
+        if (value instanceof java.util.Date) {
+            long millis = ((java.util.Date) value).getTime();
+            String logicalName = schema != null ? schema.name() : null;
+            if (Date.LOGICAL_NAME.equals(logicalName)) {
+                return Long.toString(Math.floorDiv(millis, MILLIS_PER_DAY));
+            }
+            if (Time.LOGICAL_NAME.equals(logicalName)) {
+                return Long.toString(Math.floorMod(millis, MILLIS_PER_DAY));
+            }
+            return Long.toString(millis);
+        }
+        if (value instanceof ByteBuffer) {
+            ByteBuffer bytes = ((ByteBuffer) value).duplicate();
+            byte[] copy = new byte[bytes.remaining()];
+            bytes.get(copy);
+            return copy;
+        }
+        if (value instanceof Map || value instanceof Struct || value instanceof List) {
+            return JsonWriter.toJsonString(value);
+        }
+        return value.toString();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Binary layout
+    // ---------------------------------------------------------------------------------------------
+
+    private void startBinary(int fields) {
+        length = 0;
+        int bitmapBytes = (fields + 7) / 8;
+        ensure(1 + bitmapBytes);
+        buffer[length++] = BINARY_VERSION;
+        Arrays.fill(buffer, length, length + bitmapBytes, (byte) 0);
+        length += bitmapBytes;
+    }
+
+    private void writeBinaryField(int index, Object value, FieldType type, int scale) {
+        if (value == null) {
+            buffer[1 + index / 8] |= (byte) (1 << (index % 8));
+            return;
+        }
+
+        switch (type) {
+            case BOOLEAN:
+                writeFixed(Boolean.TRUE.equals(value) ? 1 : 0, 1);
+                break;
+            case STRING: {
+                byte[] utf8 = value.toString().getBytes(StandardCharsets.UTF_8);
+                writeVarint(utf8.length);
+                writeBytes(utf8);
+                break;
+            }
+            case BYTES: {
+                byte[] bytes;
+                if (value instanceof byte[]) {
+                    bytes = (byte[]) value;
+                } else if (value instanceof ByteBuffer) {
+                    ByteBuffer source = ((ByteBuffer) value).duplicate();
+                    bytes = new byte[source.remaining()];
+                    source.get(bytes);
+                } else {
+                    bytes = value.toString().getBytes(StandardCharsets.UTF_8);
+                }
+                writeVarint(bytes.length);
+                writeBytes(bytes);
+                break;
+            }
+            case FLOAT32:
+                writeFixed(Float.floatToIntBits(((Number) value).floatValue()), 4);
+                break;
+            case FLOAT64:
+                writeFixed(Double.doubleToLongBits(((Number) value).doubleValue()), 8);
+                break;
+            case DECIMAL:
+                writeFixed(((BigDecimal) value).setScale(scale).unscaledValue().longValueExact(), 8);
+                break;
+            case DATE:
+                writeFixed(Math.floorDiv(((java.util.Date) value).getTime(), MILLIS_PER_DAY), 4);
+                break;
+            case TIME:
+                writeFixed(Math.floorMod(((java.util.Date) value).getTime(), MILLIS_PER_DAY), 4);
+                break;
+            case TIMESTAMP:
+                writeFixed(value instanceof java.util.Date ? ((java.util.Date) value).getTime() : longValue(value), 8);
+                break;
+            default:
+                writeFixed(longValue(value), type.width);
+        }
+    }
+
+    private static long longValue(Object value) {
+        if (value instanceof BigDecimal) {
+            return ((BigDecimal) value).longValueExact();
+        }
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            return Long.parseLong((String) value);
+        }
+        throw new DataException("Cannot write " + value.getClass().getName() + " as an integer");
+    }
+
+    private void writeFixed(long value, int width) {
+        ensure(width);
+        for (int shift = (width - 1) * 8; shift >= 0; shift -= 8) {
+            buffer[length++] = (byte) (value >>> shift);
+        }
+    }
+
+    private void writeVarint(int value) {
+        ensure(5);
+        while ((value & ~0x7F) != 0) {
+            buffer[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[length++] = (byte) value;
+    }
+
+    private void writeBytes(byte[] bytes) {
+        ensure(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void ensure(int bytes) {
+        if (length + bytes > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + bytes));
+        }
+    }
+
+    private StructPlan plan(Schema schema) {
+        return new StructPlan(schema, aliases, configuredLayout, encoding == Encoding.BINARY);
+    }
+
+    private static FieldType typeOf(Field field) {
+        Schema schema = field.schema();
+        String logicalName = schema.name();
+        if (Decimal.LOGICAL_NAME.equals(logicalName)) {
+            return FieldType.DECIMAL;
+        }
+        if (Timestamp.LOGICAL_NAME.equals(logicalName)) {
+            return FieldType.TIMESTAMP;
+        }
+        if (Date.LOGICAL_NAME.equals(logicalName)) {
+            return FieldType.DATE;
+        }
+        if (Time.LOGICAL_NAME.equals(logicalName)) {
+            return FieldType.TIME;
+        }
+        switch (schema.type()) {
+            case BOOLEAN: return FieldType.BOOLEAN;
+            case INT8:    return FieldType.INT8;
+            case INT16:   return FieldType.INT16;
+            case INT32:   return FieldType.INT32;
+            case INT64:   return FieldType.INT64;
+            case FLOAT32: return FieldType.FLOAT32;
+            case FLOAT64: return FieldType.FLOAT64;
+            case STRING:  return FieldType.STRING;
+            case BYTES:   return FieldType.BYTES;
+            default:
+                throw new DataException("Field " + field.name() + " of type " + schema.type()
+                                        + " is not supported by the binary encoding");
+        }
+    }
+
+    private static final class Layout {
+        final String[] names;
+        final FieldType[] types;
+        final int[] scales;
+
+        Layout(String[] names, FieldType[] types, int[] scales) {
+            this.names  = names;
+            this.types  = types;
+            this.scales = scales;
+        }
+    }
+
+    private static final class StructPlan {
+        final Field[] fields;
+        final String[] names;
+        final byte[][] packedNames;
+        final Layout layout;
+        final Field[] layoutFields;
+
+        StructPlan(Schema schema, Map<String, String> aliases, Layout configured, boolean binary) {
+            fields      = schema.fields().toArray(new Field[0]);
+            names       = new String[fields.length];
+            packedNames = new byte[fields.length][];
+            for (int i = 0; i < fields.length; i++) {
+                names[i]       = aliases.getOrDefault(fields[i].name(), fields[i].name());
+                packedNames[i] = MessagePackWriter.encodeName(names[i]);
+            }
+
+            if (!binary) {
+                layout       = null;
+                layoutFields = null;
+            } else if (configured != null) {
+                layout       = configured;
+                layoutFields = new Field[configured.names.length];
+                for (int i = 0; i < layoutFields.length; i++) {
+                    layoutFields[i] = schema.field(configured.names[i]);
+                }
+            } else {
+                String[] layoutNames = new String[fields.length];
+                FieldType[] types    = new FieldType[fields.length];
+                int[] scales         = new int[fields.length];
+                for (int i = 0; i < fields.length; i++) {
+                    layoutNames[i] = fields[i].name();
+                    types[i]       = typeOf(fields[i]);
+                    if (types[i] == FieldType.DECIMAL) {
+                        scales[i] = Integer.parseInt(fields[i].schema().parameters().get(Decimal.SCALE_FIELD));
+                    }
+                }
+                layout       = new Layout(layoutNames, types, scales);
+                layoutFields = fields;
+            }
+        }
+    }
+
+    @Override
+    public ConfigDef config() {
+        return TransformMetrics.define(new ConfigDef()
+            .define(ENCODING_CONFIG,
+                    ConfigDef.Type.STRING,
+                    ENCODING_MSGPACK,
+                    ConfigDef.ValidString.in(ENCODING_MSGPACK, ENCODING_BINARY, ENCODING_HASH),
+                    ConfigDef.Importance.HIGH,
+                    "Value encoding: 'msgpack' (MessagePack byte[]), 'binary' (fixed layout byte[]) or 'hash' (Redis HASH field map)")
+            .define(ALIASES_CONFIG,
+                    ConfigDef.Type.LIST,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Comma-separated field:alias pairs, short names written in place of the field names (msgpack, hash)")
+            .define(LAYOUT_CONFIG,
+                    ConfigDef.Type.LIST,
+                    "",
+                    ConfigDef.Importance.MEDIUM,
+                    "Comma-separated field:type pairs for the binary encoding, required for schemaless values. "
+                    + "Types: boolean, int8, int16, int32, int64, float32, float64, timestamp, string, bytes"));
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+    }
+}
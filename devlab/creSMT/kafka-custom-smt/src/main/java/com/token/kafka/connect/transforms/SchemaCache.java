@@ -0,0 +1,117 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   SchemaCache.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Small bounded cache keyed on Schema identity, shared by the SMTs that derive per-schema state.
+*
+*       Connect converters hand out the same Schema instance for every record until the table changes,
+*       so an identity (==) scan over a handful of entries is far cheaper than Schema.equals()/hashCode(),
+*       which walk every field of a 60+ column Debezium schema.
+*
+*       Reads are lock free (copy-on-write array), the most recently added schema is checked first and
+*       the oldest entry is evicted once the cache is full.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+public final class SchemaCache<V> {
+
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final int capacity;
+    private final LongAdder hits   = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    // Alternating key/value pairs, newest first
+    private volatile Object[] entries = new Object[0];
+
+    public SchemaCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public SchemaCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Schema cache capacity must be at least 1, got: " + capacity);
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Return the cached value for this schema instance, or null when not cached
+     */
+    @SuppressWarnings("unchecked")
+    public V get(Schema schema) {
+        Object[] current = entries;
+        for (int i = 0; i < current.length; i += 2) {
+            if (current[i] == schema) {
+                hits.increment();
+                return (V) current[i + 1];
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Return the cached value for this schema instance, deriving and caching it on a miss
+     */
+    public V computeIfAbsent(Schema schema, Function<Schema, V> loader) {
+        V value = get(schema);
+        if (value == null) {
+            value = loader.apply(schema);
+            put(schema, value);
+        }
+        return value;
+    }
+
+    public synchronized void put(Schema schema, V value) {
+        Object[] current = entries;
+        int retained = Math.min(current.length, (capacity - 1) * 2);
+
+        Object[] updated = new Object[retained + 2];
+        updated[0] = schema;
+        updated[1] = value;
+
+        int next = 2;
+        for (int i = 0; i < current.length && next < updated.length; i += 2) {
+            if (current[i] != schema) {
+                updated[next++] = current[i];
+                updated[next++] = current[i + 1];
+            }
+        }
+        entries = next == updated.length ? updated : Arrays.copyOf(updated, next);
+    }
+
+    public synchronized void clear() {
+        entries = new Object[0];
+    }
+
+    public int size() {
+        return entries.length / 2;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,256 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   SuppressUnchanged.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Blog            :
+*
+*       Custom SMT that:
+*
+*       Sink Engine:
+*
+*       Drops records whose value is the same as the last one passed for their key. Most JNL_ACQ updates touch
+*       columns the sink projection throws away, the Redis value would be rewritten byte for byte. Placed after
+*       the projection (and key formatting) these records never reach Redis, without a read round trip.
+*
+*       The last value per key is remembered as a 64-bit digest in a bounded primitive map (DigestCache, CLOCK
+*       eviction, ~34 bytes per key). Keys are held as 64-bit hashes too, two records are treated as the same
+*       key / value when their hashes match, which for non-adversarial data is practically never wrong.
+*
+*       Values: String and byte[] are digested as is, Map and Struct field by field leaving out ignore.fields
+*       (e.g. the createdAt that AddTimestamp sets on every record). A null value (a delete) is passed and the
+*       key forgotten, so the next write after it goes through.
+*
+*       The cache only knows what this task passed on: it starts empty (the first record per key after a
+*       (re)start is written) and does not see keys Redis evicted or expired. A suppressed write does not
+*       refresh redis.ttl.seconds or the expiry index score.
+*
+*       Configuration:
+*
+*           - cache.size:      Keys remembered, least recently seen evicted beyond it (default: 1000000, ~34 MB)
+*           - ignore.fields:   Map/Struct fields left out of the comparison (default: "createdAt")
+*           - metrics.enabled: Publish a JMX MBean, see TransformMetrics. dropped = suppressed records, the
+*                              DroppedRatio attribute is the hit rate (default: false)
+*
+*       Usage, after the projection and before valueToJsonString in jnl_acq_redis_sink-SMT.sh:
+*
+*           "transforms": "...,formatRedisKey,removeTkCardNumber,suppressUnchanged,valueToJsonString",
+*           "transforms.suppressUnchanged.type": "com.token.kafka.connect.transforms.SuppressUnchanged",
+*           "transforms.suppressUnchanged.cache.size": "1000000",
+*           "transforms.suppressUnchanged.ignore.fields": "createdAt"
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigDef;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+public class SuppressUnchanged<R extends ConnectRecord<R>> implements Transformation<R> {
+
+    private static final String CACHE_SIZE_CONFIG    = "cache.size";
+    private static final String IGNORE_FIELDS_CONFIG = "ignore.fields";
+
+    private static final long SEED      = 0x9E3779B97F4A7C15L;
+    private static final long FNV_PRIME = 0x100000001B3L;
+    private static final long NULL_HASH = 0x6A09E667F3BCC909L;
+
+    private DigestCache cache;
+    private Set<String> ignoreFields;
+
+    // Struct fields compared, per schema
+    private SchemaCache<Field[]> fieldCache;
+
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
+
+    @Override
+    public void configure(Map<String, ?> configs) {
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+
+        cache = new DigestCache(config.getInt(CACHE_SIZE_CONFIG));
+        ignoreFields = new HashSet<>();
+        for (String field : config.getList(IGNORE_FIELDS_CONFIG)) {
+            if (!field.isEmpty()) {
+                ignoreFields.add(field);
+            }
+        }
+        fieldCache = new SchemaCache<>();
+        metrics.watch(fieldCache);
+    }
+
+    @Override
+    public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+
+    private R transform(R record) {
+        if (record == null || record.key() == null) {
+            return record;
+        }
+
+        long key = hash(record.key(), null);
+        if (key == 0) {
+            key = 1;
+        }
+        if (record.value() == null) {
+            // Delete, whatever follows has to be written
+            cache.remove(key);
+            return record;
+        }
+
+        return cache.unchanged(key, hash(record.value(), record.valueSchema())) ? null : record;
+    }
+
+    /**
+     * 64-bit digest of a key or value, Map entries combine order independently, Struct fields in schema order
+     */
+    private long hash(Object value, Schema schema) {
+        if (value == null) {
+            return NULL_HASH;
+        }
+        if (value instanceof String) {
+            return hashChars((String) value);
+        }
+        if (value instanceof byte[]) {
+            return hashBytes((byte[]) value);
+        }
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return mix(((Number) value).longValue() ^ SEED);
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return mix(Double.doubleToLongBits(((Number) value).doubleValue()) + SEED);
+        }
+        if (value instanceof Boolean) {
+            return (Boolean) value ? mix(SEED + 1) : mix(SEED + 2);
+        }
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            Field[] fields = fieldCache.computeIfAbsent(struct.schema(), this::compared);
+            long h = SEED;
+            for (Field field : fields) {
+                h = mix(h ^ hash(struct.get(field), field.schema())) * FNV_PRIME;
+            }
+            return mix(h);
+        }
+        if (value instanceof Map) {
+            long h = SEED;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                Object name = entry.getKey();
+                if (!ignoreFields.contains(name)) {
+                    h += mix(hash(name, null) * FNV_PRIME ^ hash(entry.getValue(), null));
+                }
+            }
+            return mix(h);
+        }
+        if (value instanceof List) {
+            long h = SEED;
+            for (Object element : (List<?>) value) {
+                h = mix(h ^ hash(element, null)) * FNV_PRIME;
+            }
+            return mix(h);
+        }
+        // BigDecimal, java.util.Date and other logical types
+        return hashChars(value.toString());
+    }
+
+    private Field[] compared(Schema schema) {
+        List<Field> fields = new ArrayList<>();
+        for (Field field : schema.fields()) {
+            if (!ignoreFields.contains(field.name())) {
+                fields.add(field);
+            }
+        }
+        return fields.toArray(new Field[0]);
+    }
+
+    private static long hashChars(String value) {
+        long h = SEED;
+        for (int i = 0; i < value.length(); i++) {
+            h = (h ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return mix(h ^ value.length());
+    }
+
+    private static long hashBytes(byte[] value) {
+        long h = SEED;
+        for (byte b : value) {
+            h = (h ^ (b & 0xFF)) * FNV_PRIME;
+        }
+        return mix(h ^ value.length);
+    }
+
+    /**
+     * MurmurHash3 fmix64 finaliser
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Keys currently remembered
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Keys evicted to make room since configure()
+     */
+    public long evictions() {
+        return cache.evictions();
+    }
+
+    @Override
+    public ConfigDef config() {
+        return TransformMetrics.define(new ConfigDef()
+            .define(CACHE_SIZE_CONFIG,
+                    ConfigDef.Type.INT,
+                    1_000_000,
+                    ConfigDef.Range.between(1, 1 << 28),
+                    ConfigDef.Importance.MEDIUM,
+                    "Number of keys whose last value digest is remembered (about 34 bytes each), the least recently "
+                    + "seen are evicted beyond it")
+            .define(IGNORE_FIELDS_CONFIG,
+                    ConfigDef.Type.LIST,
+                    "createdAt",
+                    ConfigDef.Importance.MEDIUM,
+                    "Map/Struct value fields left out of the comparison, e.g. a write timestamp that differs on every record"));
+    }
+
+    @Override
+    public void close() {
+        metrics.close();
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   TimestampFormatter.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Thread-safe replacement for the SimpleDateFormat used to produce the createdAt value.
+*
+*       Formats:
+*           - "iso8601": "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'" in the configured timezone (same output as before)
+*           - "epoch":   milliseconds since epoch as a Long
+*
+*       The "yyyy-MM-ddTHH:mm:ss." prefix is computed once per second and cached, each call only patches
+*       in the milliseconds. The String of the last millisecond formatted is cached as well, so records
+*       arriving within the same millisecond share one instance.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Schema;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+public final class TimestampFormatter {
+
+    public static final String FORMAT_EPOCH   = "epoch";
+    public static final String FORMAT_ISO8601 = "iso8601";
+
+    private static final int PREFIX_LENGTH = 20;   // yyyy-MM-ddTHH:mm:ss.
+    private static final int ISO_LENGTH    = 24;   // yyyy-MM-ddTHH:mm:ss.SSSZ
+
+    private final boolean epoch;
+    private final ZoneRules zoneRules;
+
+    private volatile SecondPrefix secondPrefix = new SecondPrefix(Long.MIN_VALUE, null);
+    private volatile Formatted lastFormatted   = new Formatted(Long.MIN_VALUE, null);
+
+    public TimestampFormatter(String format, String timezone) {
+        this.epoch = FORMAT_EPOCH.equalsIgnoreCase(format);
+        try {
+            this.zoneRules = ZoneId.of(timezone, ZoneId.SHORT_IDS).getRules();
+        } catch (DateTimeException e) {
+            throw new ConfigException("timestamp.timezone", timezone, e.getMessage());
+        }
+    }
+
+    public boolean isEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Connect schema of the values returned by format()
+     */
+    public Schema schema() {
+        return epoch ? Schema.INT64_SCHEMA : Schema.STRING_SCHEMA;
+    }
+
+    /**
+     * Format epoch milliseconds as a Long (epoch) or ISO8601 String
+     */
+    public Object format(long epochMillis) {
+        return epoch ? (Object) epochMillis : formatIso(epochMillis);
+    }
+
+    public String formatIso(long epochMillis) {
+        Formatted last = lastFormatted;
+        if (last.epochMillis == epochMillis) {
+            return last.value;
+        }
+
+        long epochSecond = Math.floorDiv(epochMillis, 1000L);
+        SecondPrefix prefix = secondPrefix;
+        if (prefix.epochSecond != epochSecond) {
+            prefix = new SecondPrefix(epochSecond, buildPrefix(epochSecond));
+            secondPrefix = prefix;
+        }
+
+        int millis = (int) Math.floorMod(epochMillis, 1000L);
+        byte[] out = Arrays.copyOf(prefix.bytes, ISO_LENGTH);
+        out[20] = (byte) ('0' + millis / 100);
+        out[21] = (byte) ('0' + millis / 10 % 10);
+        out[22] = (byte) ('0' + millis % 10);
+        out[23] = 'Z';
+
+        String value = new String(out, StandardCharsets.ISO_8859_1);
+        lastFormatted = new Formatted(epochMillis, value);
+        return value;
+    }
+
+    private byte[] buildPrefix(long epochSecond) {
+        ZoneOffset offset = zoneRules.getOffset(Instant.ofEpochSecond(epochSecond));
+        LocalDateTime time = LocalDateTime.ofEpochSecond(epochSecond, 0, offset);
+
+        byte[] bytes = new byte[PREFIX_LENGTH];
+        putDigits(bytes, 0, time.getYear(), 4);
+        bytes[4] = '-';
+        putDigits(bytes, 5, time.getMonthValue(), 2);
+        bytes[7] = '-';
+        putDigits(bytes, 8, time.getDayOfMonth(), 2);
+        bytes[10] = 'T';
+        putDigits(bytes, 11, time.getHour(), 2);
+        bytes[13] = ':';
+        putDigits(bytes, 14, time.getMinute(), 2);
+        bytes[16] = ':';
+        putDigits(bytes, 17, time.getSecond(), 2);
+        bytes[19] = '.';
+        return bytes;
+    }
+
+    private static void putDigits(byte[] bytes, int offset, int value, int width) {
+        for (int i = offset + width - 1; i >= offset; i--) {
+            bytes[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+    }
+
+    private static final class SecondPrefix {
+        final long epochSecond;
+        final byte[] bytes;
+
+        SecondPrefix(long epochSecond, byte[] bytes) {
+            this.epochSecond = epochSecond;
+            this.bytes       = bytes;
+        }
+    }
+
+    private static final class Formatted {
+        final long epochMillis;
+        final String value;
+
+        Formatted(long epochMillis, String value) {
+            this.epochMillis = epochMillis;
+            this.value       = value;
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   TimestampSource.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Decides which point in time the createdAt value describes.
+*
+*       Modes (timestamp.source):
+*           - "wallclock": System.currentTimeMillis(), when Connect processed the record (default)
+*           - "record":    record.timestamp(), the Kafka record timestamp
+*           - "source":    Debezium source.ts_ms, when the row was committed in MySQL
+*
+*       For "source" the value fields listed in timestamp.source.field are tried in order, a dotted name
+*       reads a nested field. The defaults cover both the flattened field ExtractNewRecordState adds with
+*       "add.fields": "source.ts_ms" (__source_ts_ms) and the raw Debezium envelope (source.ts_ms).
+*
+*       When the selected time is not available on a record the wall clock is used.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.connector.ConnectRecord;
+import org.apache.kafka.connect.data.Field;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.Struct;
+
+import java.util.List;
+import java.util.Map;
+
+public final class TimestampSource {
+
+    public static final String SOURCE_WALLCLOCK = "wallclock";
+    public static final String SOURCE_RECORD    = "record";
+    public static final String SOURCE_DEBEZIUM  = "source";
+
+    public static final String DEFAULT_SOURCE_FIELDS = "__source_ts_ms,source.ts_ms";
+
+    private static final Field[] NOT_FOUND = new Field[0];
+
+    private enum Mode { WALLCLOCK, RECORD, SOURCE }
+
+    private final Mode mode;
+    private final String[][] paths;
+    private final SchemaCache<Field[]> pathCache = new SchemaCache<>();
+
+    public TimestampSource(String mode, List<String> sourceFields) {
+        if (SOURCE_WALLCLOCK.equalsIgnoreCase(mode)) {
+            this.mode = Mode.WALLCLOCK;
+        } else if (SOURCE_RECORD.equalsIgnoreCase(mode)) {
+            this.mode = Mode.RECORD;
+        } else if (SOURCE_DEBEZIUM.equalsIgnoreCase(mode)) {
+            this.mode = Mode.SOURCE;
+        } else {
+            throw new ConfigException("timestamp.source", mode, "Must be one of 'wallclock', 'record' or 'source'");
+        }
+
+        this.paths = new String[sourceFields.size()][];
+        for (int i = 0; i < paths.length; i++) {
+            paths[i] = sourceFields.get(i).split("\\.");
+        }
+    }
+
+    /**
+     * Epoch milliseconds for this record according to the configured mode
+     */
+    public long resolve(ConnectRecord<?> record) {
+        if (mode == Mode.RECORD) {
+            Long timestamp = record.timestamp();
+            if (timestamp != null) {
+                return timestamp;
+            }
+        } else if (mode == Mode.SOURCE) {
+            Object timestamp = sourceTimestamp(record.value());
+            if (timestamp instanceof Number) {
+                return ((Number) timestamp).longValue();
+            }
+        }
+        return System.currentTimeMillis();
+    }
+
+    private Object sourceTimestamp(Object value) {
+        if (value instanceof Struct) {
+            Struct struct = (Struct) value;
+            Field[] path = pathCache.computeIfAbsent(struct.schema(), this::resolvePath);
+            if (path.length == 0) {
+                return null;
+            }
+            for (int i = 0; i < path.length - 1; i++) {
+                struct = (Struct) struct.get(path[i]);
+                if (struct == null) {
+                    return null;
+                }
+            }
+            return struct.get(path[path.length - 1]);
+        }
+
+        if (value instanceof Map) {
+            for (String[] path : paths) {
+                Object current = value;
+                int i = 0;
+                for (; i < path.length && current instanceof Map; i++) {
+                    current = ((Map<?, ?>) current).get(path[i]);
+                }
+                if (i == path.length && current instanceof Number) {
+                    return current;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * First configured path that exists in this schema, resolved to its fields
+     */
+    private Field[] resolvePath(Schema schema) {
+        for (String[] path : paths) {
+            Field[] fields = new Field[path.length];
+            Schema current = schema;
+            int i = 0;
+            for (; i < path.length; i++) {
+                if (current.type() != Schema.Type.STRUCT) {
+                    break;
+                }
+                Field field = current.field(path[i]);
+                if (field == null) {
+                    break;
+                }
+                fields[i] = field;
+                current = field.schema();
+            }
+            if (i == path.length) {
+                return fields;
+            }
+        }
+        return NOT_FOUND;
+    }
+}
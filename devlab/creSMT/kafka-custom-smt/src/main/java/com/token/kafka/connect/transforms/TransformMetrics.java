@@ -0,0 +1,330 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   TransformMetrics.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       Shared instrumentation for the SMTs in this package, one JMX MBean per configured instance:
+*
+*           com.token.kafka.connect.transforms:type=<SMT class>,name=<metrics.name>,instance=<n>
+*
+*       Each SMT creates its metrics in configure() and closes them (unregistering the MBean) in close().
+*       apply() / test() run through apply(record, step) / test(record, predicate), which count records
+*       in/out/dropped/errors and add the latency to a power of two histogram (64 buckets, no locking).
+*
+*       Configuration (added to every SMT's ConfigDef by define()):
+*
+*           - metrics.enabled: Publish the MBean and time every record (default: false)
+*           - metrics.name:    Name used in the ObjectName, e.g. the transform alias. Default: none
+*
+*       When disabled the SMT gets the shared NOOP instance, which only forwards the call: no clock reads,
+*       no counters and no MBean.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.AbstractConfig;
+import org.apache.kafka.common.config.ConfigDef;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+public class TransformMetrics implements TransformMetricsMBean {
+
+    private static final Logger log = LoggerFactory.getLogger(TransformMetrics.class);
+
+    public static final String METRICS_ENABLED_CONFIG = "metrics.enabled";
+    public static final String METRICS_NAME_CONFIG    = "metrics.name";
+
+    public static final String DOMAIN = "com.token.kafka.connect.transforms";
+
+    /** Shared disabled instance, forwards calls without measuring */
+    public static final TransformMetrics NOOP = new TransformMetrics(null);
+
+    private static final int BUCKETS = 64;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final ObjectName objectName;
+    private final boolean enabled;
+
+    private final LongAdder recordsIn      = new LongAdder();
+    private final LongAdder recordsOut     = new LongAdder();
+    private final LongAdder recordsDropped = new LongAdder();
+    private final LongAdder errors         = new LongAdder();
+    private final LongAdder totalNanos     = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Long::max, 0L);
+    private final AtomicLongArray buckets  = new AtomicLongArray(BUCKETS);
+
+    private final List<SchemaCache<?>> caches = new CopyOnWriteArrayList<>();
+
+    private TransformMetrics(ObjectName objectName) {
+        this.objectName = objectName;
+        this.enabled    = objectName != null;
+    }
+
+    /**
+     * Add the metrics configs to an SMT's ConfigDef
+     */
+    public static ConfigDef define(ConfigDef configDef) {
+        return configDef
+            .define(METRICS_ENABLED_CONFIG,
+                    ConfigDef.Type.BOOLEAN,
+                    false,
+                    ConfigDef.Importance.LOW,
+                    "Publish a JMX MBean with record counts and a latency histogram for this transform")
+            .define(METRICS_NAME_CONFIG,
+                    ConfigDef.Type.STRING,
+                    null,
+                    ConfigDef.Importance.LOW,
+                    "Name used in the MBean ObjectName (e.g. the transform alias), to tell instances apart");
+    }
+
+    /**
+     * Metrics for an SMT instance, NOOP unless metrics.enabled is set
+     */
+    public static TransformMetrics create(Class<?> transform, AbstractConfig config) {
+        if (!config.getBoolean(METRICS_ENABLED_CONFIG)) {
+            return NOOP;
+        }
+
+        StringBuilder name = new StringBuilder(DOMAIN).append(":type=").append(transform.getSimpleName());
+        String metricsName = config.getString(METRICS_NAME_CONFIG);
+        if (metricsName != null && !metricsName.isEmpty()) {
+            boolean plain = metricsName.matches("[A-Za-z0-9_.-]+");
+            name.append(",name=").append(plain ? metricsName : ObjectName.quote(metricsName));
+        }
+        name.append(",instance=").append(INSTANCES.incrementAndGet());
+
+        TransformMetrics metrics;
+        try {
+            metrics = new TransformMetrics(new ObjectName(name.toString()));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(metrics, metrics.objectName);
+        } catch (Exception e) {
+            log.warn("Could not register metrics MBean {}, metrics disabled", name, e);
+            return NOOP;
+        }
+
+        log.info("Registered metrics MBean {}", metrics.objectName);
+        return metrics;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Include a schema cache in the SchemaCacheHits/Misses attributes
+     */
+    public void watch(SchemaCache<?> cache) {
+        if (enabled) {
+            caches.add(cache);
+        }
+    }
+
+    /**
+     * Run a transform step, counting the record and timing the call
+     */
+    public <R> R apply(R record, UnaryOperator<R> step) {
+        if (!enabled) {
+            return step.apply(record);
+        }
+
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = step.apply(record);
+        } catch (RuntimeException e) {
+            errors.increment();
+            record(start);
+            throw e;
+        }
+        (result != null ? recordsOut : recordsDropped).increment();
+        record(start);
+        return result;
+    }
+
+    /**
+     * Run a predicate, a non-match counts as dropped
+     */
+    public <R> boolean test(R record, Predicate<R> predicate) {
+        if (!enabled) {
+            return predicate.test(record);
+        }
+
+        long start = System.nanoTime();
+        boolean matched;
+        try {
+            matched = predicate.test(record);
+        } catch (RuntimeException e) {
+            errors.increment();
+            record(start);
+            throw e;
+        }
+        (matched ? recordsOut : recordsDropped).increment();
+        record(start);
+        return matched;
+    }
+
+    private void record(long start) {
+        long nanos = System.nanoTime() - start;
+        recordsIn.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+        buckets.incrementAndGet(bucket(nanos));
+    }
+
+    private static int bucket(long nanos) {
+        return nanos <= 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+    }
+
+    /**
+     * Unregister the MBean, the instance keeps counting but is no longer visible
+     */
+    public void close() {
+        if (!enabled) {
+            return;
+        }
+        caches.clear();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (Exception e) {
+            log.warn("Could not unregister metrics MBean {}", objectName, e);
+        }
+    }
+
+    @Override
+    public long getRecordsIn() {
+        return recordsIn.sum();
+    }
+
+    @Override
+    public long getRecordsOut() {
+        return recordsOut.sum();
+    }
+
+    @Override
+    public long getRecordsDropped() {
+        return recordsDropped.sum();
+    }
+
+    @Override
+    public double getDroppedRatio() {
+        long in = recordsIn.sum();
+        return in == 0 ? 0.0 : (double) recordsDropped.sum() / in;
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getLatencyMeanNanos() {
+        long count = recordsIn.sum();
+        return count == 0 ? 0 : totalNanos.sum() / count;
+    }
+
+    @Override
+    public long getLatencyMaxNanos() {
+        return maxNanos.get();
+    }
+
+    @Override
+    public long getLatencyP50Nanos() {
+        return percentile(0.50);
+    }
+
+    @Override
+    public long getLatencyP99Nanos() {
+        return percentile(0.99);
+    }
+
+    @Override
+    public long getLatencyP999Nanos() {
+        return percentile(0.999);
+    }
+
+    @Override
+    public long[] getLatencyHistogram() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+        }
+        return counts;
+    }
+
+    @Override
+    public long getSchemaCacheHits() {
+        long hits = 0;
+        for (SchemaCache<?> cache : caches) {
+            hits += cache.hits();
+        }
+        return hits;
+    }
+
+    @Override
+    public long getSchemaCacheMisses() {
+        long misses = 0;
+        for (SchemaCache<?> cache : caches) {
+            misses += cache.misses();
+        }
+        return misses;
+    }
+
+    @Override
+    public void reset() {
+        recordsIn.reset();
+        recordsOut.reset();
+        recordsDropped.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets.set(i, 0);
+        }
+    }
+
+    private long percentile(double fraction) {
+        long[] counts = getLatencyHistogram();
+        long total = 0;
+        for (long count : counts) {
+            total += count;
+        }
+        if (total == 0) {
+            return 0;
+        }
+
+        long threshold = (long) Math.ceil(total * fraction);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= threshold) {
+                return i == 0 ? 0 : 1L << Math.min(i, 62);
+            }
+        }
+        return Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,59 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   TransformMetricsMBean.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       JMX attributes published per SMT instance by TransformMetrics.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+public interface TransformMetricsMBean {
+
+    /** Records handed to the transform (or predicate) */
+    long getRecordsIn();
+
+    /** Records returned (transform) or matched (predicate) */
+    long getRecordsOut();
+
+    /** Records dropped (transform returned null) or not matched (predicate) */
+    long getRecordsDropped();
+
+    /** RecordsDropped / RecordsIn, e.g. the hit rate of SuppressUnchanged, 0 before the first record */
+    double getDroppedRatio();
+
+    /** Records that failed with an exception */
+    long getErrors();
+
+    long getLatencyMeanNanos();
+
+    long getLatencyMaxNanos();
+
+    /** Percentiles are the upper bound of the power of two bucket they fall in */
+    long getLatencyP50Nanos();
+
+    long getLatencyP99Nanos();
+
+    long getLatencyP999Nanos();
+
+    /** Record counts per latency bucket, bucket i holds latencies below 2^i nanoseconds */
+    long[] getLatencyHistogram();
+
+    /** Summed over the schema caches of the transform, 0 when it has none */
+    long getSchemaCacheHits();
+
+    long getSchemaCacheMisses();
+
+    /** Reset all counters and the histogram */
+    void reset();
+}
@@ -17,51 +17,88 @@
 *       Custom SMT to convert value (Map/Struct) to JSON string for Redis sink.
 * 
 *       The Redis sink connector requires the value to be a String or Bytes.
-*       This transform converts Map objects to JSON strings.
+*       This transform converts Map and Struct objects to JSON, Struct fields are written directly from the
+*       Struct (Decimal, Timestamp, Date and Time logical types as numbers), no intermediate Map is built.
+* 
+*       Configuration:
+* 
+*           - output.type: "string" (default) - value becomes a JSON String
+*                          "bytes"            - value becomes UTF-8 JSON byte[], written straight from the
+*                                               Struct/Map, saving the String and the sink's re-encoding to bytes
+*           - delete.field: Value field marking a Debezium delete (default "__deleted", empty = not checked). Marked
+*                          records get a null value, RedisSinkConnector applies that as UNLINK on the key. The field
+*                          is written for live records like any other, exclude it with ReplaceField
+*           - metrics.enabled: Publish a JMX MBean with record counts and latencies, see TransformMetrics (default: false)
 * 
 *       Usage:
 *           "transforms": "toJsonString",
-*           "transforms.toJsonString.type": "com.token.kafka.connect.transforms.ValueToJsonString"
+*           "transforms.toJsonString.type": "com.token.kafka.connect.transforms.ValueToJsonString",
+*           "transforms.toJsonString.output.type": "string"
 *
 *///////////////////////////////////////////////////////////////////////////////////////////////////////
 
 package com.token.kafka.connect.transforms;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.kafka.common.config.ConfigDef;
 import org.apache.kafka.connect.connector.ConnectRecord;
 import org.apache.kafka.connect.transforms.Transformation;
+import org.apache.kafka.connect.transforms.util.SimpleConfig;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
+import java.util.function.UnaryOperator;
 
 public class ValueToJsonString<R extends ConnectRecord<R>> implements Transformation<R> {
     
-    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    public static final String OUTPUT_TYPE_CONFIG = "output.type";
+    public static final String OUTPUT_STRING      = "string";
+    public static final String OUTPUT_BYTES       = "bytes";
+    
+    private boolean bytesOutput;
+    private String deleteField;
+    
+    private TransformMetrics metrics = TransformMetrics.NOOP;
+    private final UnaryOperator<R> step = this::transform;
     
     @Override
     public void configure(Map<String, ?> configs) {
-        // No configuration needed
+        SimpleConfig config = new SimpleConfig(config(), configs);
+        metrics.close();
+        metrics = TransformMetrics.create(getClass(), config);
+        bytesOutput = OUTPUT_BYTES.equalsIgnoreCase(config.getString(OUTPUT_TYPE_CONFIG));
+        deleteField = DeleteMarker.field(config.getString(DeleteMarker.DELETE_FIELD_CONFIG));
     }
     
     @Override
     public R apply(R record) {
+        return metrics.apply(record, step);
+    }
+    
+    private R transform(R record) {
         if (record.value() == null) {
             return record;
         }
         
         Object value = record.value();
-        String jsonString;
+        Object jsonValue;
         
         try {
             if (value instanceof String) {
-                // Already a string, pass through
+                // Already a string, pass through (as bytes in bytes mode)
+                if (!bytesOutput) {
+                    return record;
+                }
+                jsonValue = ((String) value).getBytes(StandardCharsets.UTF_8);
+            } else if (value instanceof byte[]) {
+                // Already serialised
                 return record;
-            } else if (value instanceof Map) {
-                // Convert Map to JSON string
-                jsonString = OBJECT_MAPPER.writeValueAsString(value);
+            } else if (DeleteMarker.isDeleted(value, deleteField)) {
+                // Deleted row, a null value deletes the key
+                jsonValue = null;
             } else {
-                // For other types, try to serialize
-                jsonString = OBJECT_MAPPER.writeValueAsString(value);
+                // Map, Struct or other value - stream straight into the thread's JSON buffer
+                JsonWriter writer = JsonWriter.local().writeValue(value, record.valueSchema());
+                jsonValue = bytesOutput ? writer.toByteArray() : writer.toString();
             }
             
             return record.newRecord(
@@ -69,8 +106,8 @@ public class ValueToJsonString<R extends ConnectRecord<R>> implements Transforma
                 record.kafkaPartition(),
                 record.keySchema(),
                 record.key(),
-                null, // No schema for string value
-                jsonString,
+                null, // No schema for string/bytes value
+                jsonValue,
                 record.timestamp(),
                 record.headers()
             );
@@ -83,11 +120,17 @@ public class ValueToJsonString<R extends ConnectRecord<R>> implements Transforma
     
     @Override
     public ConfigDef config() {
-        return new ConfigDef();
+        return TransformMetrics.define(DeleteMarker.define(new ConfigDef())
+            .define(OUTPUT_TYPE_CONFIG, 
+                    ConfigDef.Type.STRING, 
+                    OUTPUT_STRING, 
+                    ConfigDef.ValidString.in(OUTPUT_STRING, OUTPUT_BYTES), 
+                    ConfigDef.Importance.MEDIUM, 
+                    "Output value type: 'string' (JSON String) or 'bytes' (UTF-8 JSON byte[])"));
     }
     
     @Override
     public void close() {
-        // No resources to close
+        metrics.close();
     }
 }
@@ -0,0 +1,219 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   JsonScannerTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       ProjectingJsonConverter / JsonScanner against the conversion JsonConverter (schemas.enable=false)
+*       does: a Jackson tree, integers as Long (wrapping), other numbers as Double, objects as Map, arrays as
+*       List. connect-json is not a dependency of this build, jsonConverter() below is that conversion.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.converters;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.connect.data.SchemaAndValue;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonScannerTest {
+
+    private static final String TOPIC = "jnl_acq";
+    private static final String FIELDS = "acqJnlSeqNumber,cardNumber,tkcardNumber,__deleted";
+
+    // Sink side JNL_ACQ rows as the source writes them, wanted fields first, in the middle and last
+    private static final String[] ROWS = {
+        "{\"acqJnlSeqNumber\":4691850412,\"accountId1\":\"000123456789\",\"accountId2\":null,\"acquirerCountryCode\":710,"
+        + "\"acquirerId\":\"ACQ123456\",\"additionalDataPrivate\":\"MC \\\"promo\\\" 10% off\\n\",\"amtCredits\":\"0000000000012500\","
+        + "\"bankId\":\"00000000011\",\"cardNumber\":\"4111111111111111\",\"tkcardNumber\":\"9000000000001234\","
+        + "\"discountAmt\":125.5,\"endDateTime\":1767225600123,\"MTI\":1100,\"__deleted\":\"false\"}",
+
+        "{\"accountId1\":\"000123456790\",\"additionalRespData\":\"Zahlung \u00fcberpr\u00fcft \u20ac\",\"cardNumber\":\"5100000000000000\","
+        + "\"acqJnlSeqNumber\":4691850413,\"networkData\":{\"id\":\"MCC\",\"hops\":[1,2,{\"x\":\"]}\"}]},\"tkcardNumber\":\"\","
+        + "\"requestedAmt\":-0.25,\"__deleted\":\"true\"}",
+
+        " {\n  \"__deleted\" : \"false\" ,\n  \"tkcardNumber\" : \"9000000000005678\",\n  \"amtDebits\" : 1E3,\n"
+        + "  \"cardNumber\" : \"4000\\u00201234\",\n  \"acqJnlSeqNumber\" : 1\n }\n",
+    };
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    void fixtureRowsConvertAsJsonConverterDoes() throws IOException {
+        ProjectingJsonConverter all = converter("");
+        ProjectingJsonConverter projected = converter(FIELDS);
+        List<String> fields = Arrays.asList(FIELDS.split(","));
+
+        for (String row : ROWS) {
+            Map<?, ?> expected = (Map<?, ?>) jsonConverter(row);
+            assertEquals(expected, value(all, row), row);
+
+            Map<Object, Object> expectedProjection = new HashMap<>(expected);
+            expectedProjection.keySet().retainAll(fields);
+            assertEquals(expectedProjection, value(projected, row), row);
+        }
+    }
+
+    @Test
+    void escapedNamesAndValues() throws IOException {
+        String row = "{\"card\\u004eumber\":\"41\\\"11\\\\\\/\\t\",\"tkcard\\\"Number\":\"x\",\"tkcardNumber\":\"\\u0034\"}";
+        ProjectingJsonConverter converter = converter("cardNumber,tkcardNumber,tkcard\"Number");
+
+        Map<?, ?> value = (Map<?, ?>) value(converter, row);
+        assertEquals("41\"11\\/\t", value.get("cardNumber"));
+        assertEquals("x", value.get("tkcard\"Number"));
+        assertEquals("4", value.get("tkcardNumber"));
+        assertEquals(jsonConverter(row), value);
+    }
+
+    @Test
+    void nonAsciiNamesAndValues() throws IOException {
+        String row = "{\"emisor\":\"Banco Espa\u00f1ol\",\"l\u00e4nd\":\"\u00d6sterreich \ud83d\udcb3\",\"cardNumber\":\"\u0664\u0661\"}";
+        ProjectingJsonConverter converter = converter("l\u00e4nd,cardNumber");
+
+        Map<?, ?> value = (Map<?, ?>) value(converter, row);
+        assertEquals("\u00d6sterreich \ud83d\udcb3", value.get("l\u00e4nd"));
+        assertEquals("\u0664\u0661", value.get("cardNumber"));
+        assertEquals(2, value.size());
+        assertEquals(jsonConverter(row), value(converter(""), row));
+    }
+
+    @Test
+    void numbersOfEveryLength() throws IOException {
+        String row = "{\"d18\":999999999999999999,\"d19\":1234567890123456789,\"n19\":-1234567890123456789,"
+                     + "\"max\":9223372036854775807,\"min\":-9223372036854775808,\"d20\":12345678901234567890,"
+                     + "\"d30\":-123456789012345678901234567890,\"zero\":0,\"neg\":-7,\"frac\":0.1,\"exp\":2e-3,\"big\":1.5E300}";
+        String fields = "d18,d19,n19,max,min,d20,d30,zero,neg,frac,exp,big";
+
+        Map<?, ?> expected = (Map<?, ?>) jsonConverter(row);
+        assertEquals(expected, value(converter(fields), row));
+        assertEquals(expected, value(converter(""), row));
+        assertEquals(1234567890123456789L, expected.get("d19"));
+        assertEquals(new BigInteger("12345678901234567890").longValue(), expected.get("d20"), "wraps as JsonConverter does");
+    }
+
+    @Test
+    void nestedObjectsAndArraysSkippedAndProjected() throws IOException {
+        String row = "{\"skipped\":{\"a\":[1,{\"b\":\"}]\\\"\"}],\"c\":{}},\"cardNumber\":\"1\",\"list\":[[],{},[1,[2,\"[\"]],null],"
+                     + "\"object\":{\"k\":{\"v\":[true,false]}},\"skippedList\":[{\"x\":\"{\"}],\"last\":2}";
+        ProjectingJsonConverter converter = converter("cardNumber,list,object,last");
+
+        Map<?, ?> expected = (Map<?, ?>) jsonConverter(row);
+        expected.keySet().removeAll(Arrays.asList("skipped", "skippedList"));
+        Map<?, ?> value = (Map<?, ?>) value(converter, row);
+        assertEquals(expected, value);
+        assertTrue(value.get("list") instanceof List);
+        assertTrue(value.get("object") instanceof Map);
+        assertEquals(jsonConverter(row), value(converter(""), row));
+    }
+
+    @Test
+    void emptyObjectAndNonObjects() throws IOException {
+        assertEquals(Map.of(), value(converter(FIELDS), "{}"));
+        assertEquals(Map.of(), value(converter(FIELDS), " { \n } "));
+        assertEquals(Map.of(), value(converter(""), "{}"));
+        assertEquals(Map.of(), value(converter(FIELDS), "{\"other\":1}"));
+        assertEquals(jsonConverter("[1,\"a\"]"), value(converter(FIELDS), "[1,\"a\"]"));
+        assertEquals(42L, value(converter(FIELDS), "42"));
+        assertNull(converter(FIELDS).toConnectData(TOPIC, null).value());
+        assertNull(converter(FIELDS).toConnectData(TOPIC, new byte[0]).value());
+    }
+
+    @Test
+    void truncatedInputFails() {
+        ProjectingJsonConverter projected = converter(FIELDS);
+        ProjectingJsonConverter all = converter("");
+        String[] truncated = {
+            "{", "{\"cardNumber\"", "{\"cardNumber\":", "{\"cardNumber\":\"41", "{\"other\":{\"a\":[1,2",
+            "{\"other\":\"unterminated", "{\"other\":1", "{\"other\":1,", "{\"cardNumber\":\"1\",\"tkcard",
+            "{\"cardNumber\":tru", "{\"acqJnlSeqNumber\":-", "{\"cardNumber\":{\"a\":1"
+        };
+        for (String row : truncated) {
+            assertThrows(DataException.class, () -> value(projected, row), row);
+            assertThrows(DataException.class, () -> value(all, row), row);
+        }
+    }
+
+    @Test
+    void malformedInputAfterTheLastWantedFieldIsNotRead() {
+        // Documented: scanning stops once every wanted field is seen
+        assertEquals(Map.of("cardNumber", "1"), value(converter("cardNumber"), "{\"cardNumber\":\"1\",\"rest"));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private static ProjectingJsonConverter converter(String fields) {
+        ProjectingJsonConverter converter = new ProjectingJsonConverter();
+        converter.configure(Map.of(ProjectingJsonConverter.FIELDS_CONFIG, fields), false);
+        return converter;
+    }
+
+    private static Object value(ProjectingJsonConverter converter, String json) {
+        SchemaAndValue converted = converter.toConnectData(TOPIC, json.getBytes(StandardCharsets.UTF_8));
+        assertNull(converted.schema());
+        return converted.value();
+    }
+
+    /**
+     * The value JsonConverter with schemas.enable=false returns for json
+     */
+    private static Object jsonConverter(String json) throws IOException {
+        return convert(MAPPER.readTree(json.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static Object convert(JsonNode node) {
+        switch (node.getNodeType()) {
+            case NULL:
+                return null;
+            case BOOLEAN:
+                return node.booleanValue();
+            case NUMBER:
+                return node.isIntegralNumber() ? (Object) node.longValue() : (Object) node.doubleValue();
+            case STRING:
+                return node.textValue();
+            case ARRAY: {
+                List<Object> list = new ArrayList<>();
+                for (JsonNode element : node) {
+                    list.add(convert(element));
+                }
+                return list;
+            }
+            case OBJECT: {
+                Map<String, Object> map = new HashMap<>();
+                Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> field = fields.next();
+                    map.put(field.getKey(), convert(field.getValue()));
+                }
+                return map;
+            }
+            default:
+                throw new IllegalArgumentException("Unexpected JSON node " + node.getNodeType());
+        }
+    }
+}
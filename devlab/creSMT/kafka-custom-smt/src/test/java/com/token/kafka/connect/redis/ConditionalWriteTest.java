@@ -0,0 +1,253 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ConditionalWriteTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       The ConditionalWrite Lua script as EmbeddedRedis runs it (LuaJ), called directly and through
+*       RedisSinkTask with redis.write.mode=conditional, plus the version normaliser.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConditionalWriteTest {
+
+    private static final String TOPIC = "jnl_acq";
+    private static final String VERSION_FIELD = "acqJnlSeqNumber";
+
+    private EmbeddedRedis redis;
+    private RespConnection connection;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redis = new EmbeddedRedis();
+        connection = new RespConnection("127.0.0.1", redis.port(), "", 0, 5000);
+        connection.connect();
+        assertEquals(ConditionalWrite.SHA, new String((byte[]) connection.call("SCRIPT", "LOAD", ConditionalWrite.SCRIPT),
+                                                      StandardCharsets.US_ASCII));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connection.close();
+        redis.close();
+    }
+
+    @Test
+    void newerVersionIsApplied() throws IOException {
+        assertEquals(1L, write("tkcard:1", "5", "SET", "v5"));
+        assertEquals(1L, write("tkcard:1", "6", "SET", "v6"));
+        assertEquals(1L, write("tkcard:1", "10", "SET", "v10"));
+
+        assertValue("tkcard:1", "v10");
+        assertValue("tkcard:1:ver", "10");
+    }
+
+    @Test
+    void olderVersionIsRejected() throws IOException {
+        assertEquals(1L, write("tkcard:1", "10", "SET", "v10"));
+        assertEquals(0L, write("tkcard:1", "9", "SET", "v9"));
+        assertEquals(0L, write("tkcard:1", "09", "SET", "v09"));
+        assertEquals(0L, write("tkcard:1", "9", "UNLINK", ""));
+
+        assertValue("tkcard:1", "v10");
+        assertValue("tkcard:1:ver", "10");
+    }
+
+    @Test
+    void equalVersionIsApplied() throws IOException {
+        assertEquals(1L, write("tkcard:1", "7", "SET", "insert"));
+        assertEquals(1L, write("tkcard:1", "7", "SET", "update"));
+        assertValue("tkcard:1", "update");
+
+        assertEquals(1L, write("tkcard:1", "7", "UNLINK", ""));
+        assertNull(redis.get("tkcard:1"));
+        assertValue("tkcard:1:ver", "7");
+    }
+
+    @Test
+    void unversionedWriteIsAlwaysApplied() throws IOException {
+        assertEquals(1L, write("tkcard:1", "10", "SET", "v10"));
+        assertEquals(1L, write("tkcard:1", "", "SET", "plain"));
+
+        assertValue("tkcard:1", "plain");
+        assertValue("tkcard:1:ver", "10");
+    }
+
+    @Test
+    void maintainsTheExpiryIndex() throws IOException {
+        connection.call("EVALSHA", ConditionalWrite.SHA, 3, "tkcard:1", "tkcard:1:ver", "az1:expiry",
+                        "1", "SET", "v", 0, 60, 1000);
+        assertEquals(1, redis.sortedSetSize("az1:expiry"));
+
+        connection.call("EVALSHA", ConditionalWrite.SHA, 3, "tkcard:1", "tkcard:1:ver", "az1:expiry",
+                        "2", "UNLINK", "", 0, 60, 2000);
+        assertEquals(0, redis.sortedSetSize("az1:expiry"));
+        assertNull(redis.get("tkcard:1"));
+    }
+
+    @Test
+    void unknownShaGetsNoscript() throws IOException {
+        connection.call("SCRIPT", "FLUSH");
+        Object reply = connection.call("EVALSHA", ConditionalWrite.SHA, 2, "tkcard:1", "tkcard:1:ver",
+                                       "1", "SET", "v", 0, 60, 0);
+        assertTrue(assertInstanceOf(RespConnection.ErrorReply.class, reply).startsWith("NOSCRIPT"));
+    }
+
+    @Test
+    void sinkAppliesAnEqualVersionDelete() throws IOException {
+        RedisSinkTask task = start();
+        try {
+            task.put(Collections.singletonList(versioned(0, "tkcard:1", "{\"a\":1}", 7)));
+            task.preCommit(Collections.emptyMap());
+            assertValue("tkcard:1", "{\"a\":1}");
+
+            // The Debezium delete of the row: same acqJnlSeqNumber, the sink SMTs turned it into a tombstone
+            task.put(Collections.singletonList(versioned(1, "tkcard:1", null, 7)));
+            task.preCommit(Collections.emptyMap());
+            assertNull(redis.get("tkcard:1"));
+        } finally {
+            task.stop();
+        }
+    }
+
+    @Test
+    void sinkReloadsTheScriptAfterNoscript() throws Exception {
+        RedisSinkTask task = start();
+        try {
+            task.put(Collections.singletonList(versioned(0, "tkcard:1", "v1", 1)));
+            task.preCommit(Collections.emptyMap());
+            assertValue("tkcard:1", "v1");
+
+            connection.call("SCRIPT", "FLUSH");
+
+            task.put(Collections.singletonList(versioned(1, "tkcard:2", "v2", 2)));
+            long deadline = System.currentTimeMillis() + 5000;
+            while (redis.get("tkcard:2") == null && System.currentTimeMillis() < deadline) {
+                task.preCommit(Collections.emptyMap());
+                Thread.sleep(20);
+            }
+            assertValue("tkcard:2", "v2");
+            assertValue("tkcard:2:ver", "2");
+        } finally {
+            task.stop();
+        }
+    }
+
+    @Test
+    void normalizesVersions() {
+        assertEquals("", ConditionalWrite.normalize(null));
+        assertEquals("7", ConditionalWrite.normalize(7L));
+        assertEquals("7", ConditionalWrite.normalize((short) 7));
+        assertEquals("12", ConditionalWrite.normalize("0012"));
+        assertEquals("12", ConditionalWrite.normalize(" 12 "));
+        assertEquals("3", ConditionalWrite.normalize("3.0"));
+        assertEquals("123456789012345678901234567890",
+                     ConditionalWrite.normalize(new BigInteger("123456789012345678901234567890")));
+        assertNull(ConditionalWrite.normalize(-1));
+        assertNull(ConditionalWrite.normalize("3.5"));
+        assertNull(ConditionalWrite.normalize("abc"));
+        assertNull(ConditionalWrite.normalize(true));
+
+        assertTrue(ConditionalWrite.isNewer("13", "12"));
+        assertTrue(ConditionalWrite.isNewer("100", "99"));
+        assertTrue(!ConditionalWrite.isNewer("12", "12"));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private Object write(String key, String version, String op, String value) throws IOException {
+        return connection.call("EVALSHA", ConditionalWrite.SHA, 2, key, key + ":ver", version, op, value, 0, 60, 0);
+    }
+
+    private void assertValue(String key, String expected) {
+        byte[] value = redis.get(key);
+        assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), value,
+                          key + " = " + (value == null ? null : new String(value, StandardCharsets.UTF_8)));
+    }
+
+    private RedisSinkTask start() {
+        Map<String, String> props = new HashMap<>();
+        props.put(RedisSinkConfig.HOSTS_CONFIG, redis.hostPort());
+        props.put(RedisSinkConfig.RETRY_BACKOFF_CONFIG, "50");
+        props.put(RedisSinkConfig.TIMEOUT_CONFIG, "2000");
+        props.put(RedisSinkConfig.WRITE_MODE_CONFIG, RedisSinkConfig.WRITE_MODE_CONDITIONAL);
+        props.put(RedisSinkConfig.VERSION_FIELD_CONFIG, VERSION_FIELD);
+        RedisSinkTask task = new RedisSinkTask();
+        task.initialize(new NoopContext());
+        task.start(props);
+        return task;
+    }
+
+    private static SinkRecord versioned(long offset, String key, String value, long version) {
+        SinkRecord record = new SinkRecord(TOPIC, 0, null, key, null, value, offset);
+        record.headers().addString(VERSION_FIELD, Long.toString(version));
+        return record;
+    }
+
+    private static final class NoopContext implements SinkTaskContext {
+        @Override
+        public Map<String, String> configs() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void offset(Map<TopicPartition, Long> offsets) {
+        }
+
+        @Override
+        public void offset(TopicPartition partition, long offset) {
+        }
+
+        @Override
+        public void timeout(long timeoutMs) {
+        }
+
+        @Override
+        public Set<TopicPartition> assignment() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public void pause(TopicPartition... partitions) {
+        }
+
+        @Override
+        public void resume(TopicPartition... partitions) {
+        }
+
+        @Override
+        public void requestCommit() {
+        }
+    }
+}
@@ -0,0 +1,714 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   EmbeddedRedis.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       In-JVM stand-in for Redis, speaks enough RESP2 for the sink connector and the tools to be exercised
+*       without a server: PING, AUTH, SELECT, SET [EX n], GET, DEL, UNLINK, EXISTS, TTL, DBSIZE, FLUSHALL,
+*       SCAN [MATCH] [COUNT], EXPIRE, for sorted sets ZADD, ZREM, ZCARD, ZSCORE, ZCOUNT, ZRANGEBYSCORE [LIMIT]
+*       and for hashes HSET, HGET, HGETALL. GET and HGET of a key of another type get WRONGTYPE.
+*
+*       Scripts: SCRIPT LOAD / FLUSH, EVAL and EVALSHA run the script itself in LuaJ, so ConditionalWrite and
+*       the RedisPurge scripts are tested as Redis runs them. redis.call / redis.pcall dispatch to the commands
+*       above, replies are converted as Redis does. Scripts are atomic against other scripts, not against plain
+*       commands. An unknown SHA gets NOSCRIPT as from Redis.
+*
+*       One thread per client, replies are buffered and flushed once the client has no more pipelined
+*       commands waiting, so a pipeline costs one write as it would against Redis. A single keyspace (SELECT
+*       is accepted and ignored), keys compared as bytes.
+*
+*       Used by the unit tests and, with -Pbenchmark, by the Redis sink benchmarks.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.luaj.vm2.Globals;
+import org.luaj.vm2.LuaError;
+import org.luaj.vm2.LuaInteger;
+import org.luaj.vm2.LuaString;
+import org.luaj.vm2.LuaTable;
+import org.luaj.vm2.LuaValue;
+import org.luaj.vm2.Varargs;
+import org.luaj.vm2.lib.VarArgFunction;
+import org.luaj.vm2.lib.jse.JsePlatform;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+public final class EmbeddedRedis implements Closeable {
+
+    private static final byte[] OK   = "+OK\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PONG = "+PONG\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] NIL  = "$-1\r\n".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] WRONGTYPE =
+            "-WRONGTYPE Operation against a key holding the wrong kind of value\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private final ServerSocket server;
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Double>> sortedSets = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+    // SHA -> source as loaded, and compiled on first run
+    private final Map<String, String> scripts = new ConcurrentHashMap<>();
+    private final Object scriptLock = new Object();
+    private final Globals lua = JsePlatform.standardGlobals();
+    private final Map<String, LuaValue> compiled = new HashMap<>();
+
+    // SCAN order: every key gets a sequence number when first written, the cursor is the next number, so
+    // keys present for the whole scan are returned even when others are deleted in between (as in Redis)
+    private final Map<String, Long> sequence = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, String> scanOrder = new ConcurrentSkipListMap<>();
+    private final AtomicLong nextSequence = new AtomicLong(1);
+    private volatile boolean running = true;
+
+    public EmbeddedRedis() throws IOException {
+        this(0);
+    }
+
+    /**
+     * Listening on port, 0 for any free one
+     */
+    public EmbeddedRedis(int port) throws IOException {
+        server = new ServerSocket();
+        server.setReuseAddress(true);
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 50);
+        LuaTable redis = new LuaTable();
+        redis.set("call", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return redisCall(args, false);
+            }
+        });
+        redis.set("pcall", new VarArgFunction() {
+            @Override
+            public Varargs invoke(Varargs args) {
+                return redisCall(args, true);
+            }
+        });
+        lua.set("redis", redis);
+        Thread acceptor = new Thread(this::accept, "embedded-redis-" + server.getLocalPort());
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    public String hostPort() {
+        return "localhost:" + port();
+    }
+
+    public int size() {
+        return data.size();
+    }
+
+    public int sortedSetSize(String key) {
+        Map<String, Double> set = sortedSets.get(key);
+        return set != null ? set.size() : 0;
+    }
+
+    public Map<String, byte[]> hash(String key) {
+        return hashes.get(key);
+    }
+
+    public byte[] get(String key) {
+        Entry entry = live(key);
+        return entry != null ? entry.value : null;
+    }
+
+    private void accept() {
+        while (running) {
+            try {
+                Socket socket = server.accept();
+                socket.setTcpNoDelay(true);
+                Thread client = new Thread(() -> serve(socket), "embedded-redis-client");
+                client.setDaemon(true);
+                client.start();
+            } catch (IOException e) {
+                if (running) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket;
+             InputStream in = new BufferedInputStream(s.getInputStream(), 64 * 1024);
+             OutputStream out = new BufferedOutputStream(s.getOutputStream(), 64 * 1024)) {
+            while (running) {
+                byte[][] command = readCommand(in);
+                if (command == null) {
+                    return;
+                }
+                execute(command, out);
+                if (in.available() == 0) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // Client went away
+        }
+    }
+
+    private void execute(byte[][] args, OutputStream out) throws IOException {
+        String name = new String(args[0], StandardCharsets.US_ASCII).toUpperCase();
+        switch (name) {
+            case "PING":
+                out.write(PONG);
+                break;
+            case "AUTH":
+            case "SELECT":
+            case "FLUSHALL":
+            case "FLUSHDB":
+                if (name.startsWith("FLUSH")) {
+                    data.clear();
+                    sortedSets.clear();
+                    hashes.clear();
+                    sequence.clear();
+                    scanOrder.clear();
+                }
+                out.write(OK);
+                break;
+            case "SET": {
+                long expiresAt = 0;
+                for (int i = 3; i + 1 < args.length; i += 2) {
+                    String option = new String(args[i], StandardCharsets.US_ASCII).toUpperCase();
+                    long amount = Long.parseLong(new String(args[i + 1], StandardCharsets.US_ASCII));
+                    if (option.equals("EX")) {
+                        expiresAt = System.currentTimeMillis() + amount * 1000;
+                    } else if (option.equals("PX")) {
+                        expiresAt = System.currentTimeMillis() + amount;
+                    }
+                }
+                data.put(register(key(args[1])), new Entry(args[2], expiresAt));
+                out.write(OK);
+                break;
+            }
+            case "GET": {
+                Entry entry = live(key(args[1]));
+                if (entry == null && (hashes.containsKey(key(args[1])) || sortedSets.containsKey(key(args[1])))) {
+                    out.write(WRONGTYPE);
+                } else if (entry == null) {
+                    out.write(NIL);
+                } else {
+                    writeBulk(out, entry.value);
+                }
+                break;
+            }
+            case "DEL":
+            case "UNLINK": {
+                long removed = 0;
+                for (int i = 1; i < args.length; i++) {
+                    String key = key(args[i]);
+                    if (data.remove(key) != null | sortedSets.remove(key) != null | hashes.remove(key) != null) {
+                        removed++;
+                    }
+                }
+                writeInteger(out, removed);
+                break;
+            }
+            case "EXISTS": {
+                long found = 0;
+                for (int i = 1; i < args.length; i++) {
+                    if (live(key(args[i])) != null) {
+                        found++;
+                    }
+                }
+                writeInteger(out, found);
+                break;
+            }
+            case "TTL": {
+                Entry entry = live(key(args[1]));
+                writeInteger(out, entry == null ? -2 : entry.expiresAt == 0 ? -1
+                                  : Math.max(0, (entry.expiresAt - System.currentTimeMillis()) / 1000));
+                break;
+            }
+            case "DBSIZE":
+                writeInteger(out, data.size() + sortedSets.size() + hashes.size());
+                break;
+            case "SCAN": {
+                long cursor = Long.parseLong(text(args[1]));
+                Pattern match = null;
+                int count = 10;
+                for (int i = 2; i + 1 < args.length; i += 2) {
+                    if (text(args[i]).equalsIgnoreCase("MATCH")) {
+                        match = glob(text(args[i + 1]));
+                    } else if (text(args[i]).equalsIgnoreCase("COUNT")) {
+                        count = Integer.parseInt(text(args[i + 1]));
+                    }
+                }
+                List<String> page = new ArrayList<>();
+                long next = 0;
+                int visited = 0;
+                for (Map.Entry<Long, String> entry : scanOrder.tailMap(Math.max(cursor, 1)).entrySet()) {
+                    if (visited++ == count) {
+                        next = entry.getKey();
+                        break;
+                    }
+                    String key = entry.getValue();
+                    boolean exists = live(key) != null || sortedSets.containsKey(key) || hashes.containsKey(key);
+                    if (exists && (match == null || match.matcher(key).matches())) {
+                        page.add(key);
+                    }
+                }
+                out.write("*2\r\n".getBytes(StandardCharsets.US_ASCII));
+                writeBulk(out, Long.toString(next).getBytes(StandardCharsets.US_ASCII));
+                writeKeys(out, page);
+                break;
+            }
+            case "EXPIRE": {
+                String key = key(args[1]);
+                Entry entry = live(key);
+                if (entry != null) {
+                    data.put(key, new Entry(entry.value, System.currentTimeMillis() + Long.parseLong(text(args[2])) * 1000));
+                }
+                // Hashes and sorted sets are kept, expiry of those is not modelled
+                writeInteger(out, entry != null || hashes.containsKey(key) || sortedSets.containsKey(key) ? 1 : 0);
+                break;
+            }
+            case "HSET": {
+                if (args.length < 4 || args.length % 2 != 0) {
+                    out.write("-ERR wrong number of arguments for 'hset' command\r\n".getBytes(StandardCharsets.US_ASCII));
+                    break;
+                }
+                Map<String, byte[]> hash = hashes.computeIfAbsent(register(key(args[1])), k -> new ConcurrentHashMap<>());
+                long added = 0;
+                for (int i = 2; i + 1 < args.length; i += 2) {
+                    if (hash.put(key(args[i]), args[i + 1]) == null) {
+                        added++;
+                    }
+                }
+                writeInteger(out, added);
+                break;
+            }
+            case "HGET": {
+                if (live(key(args[1])) != null || sortedSets.containsKey(key(args[1]))) {
+                    out.write(WRONGTYPE);
+                    break;
+                }
+                byte[] field = hashes.getOrDefault(key(args[1]), Collections.emptyMap()).get(key(args[2]));
+                if (field == null) {
+                    out.write(NIL);
+                } else {
+                    writeBulk(out, field);
+                }
+                break;
+            }
+            case "HGETALL": {
+                Map<String, byte[]> hash = hashes.getOrDefault(key(args[1]), Collections.emptyMap());
+                out.write(("*" + hash.size() * 2 + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                for (Map.Entry<String, byte[]> field : hash.entrySet()) {
+                    writeBulk(out, field.getKey().getBytes(StandardCharsets.ISO_8859_1));
+                    writeBulk(out, field.getValue());
+                }
+                break;
+            }
+            case "ZADD": {
+                Map<String, Double> set = sortedSets.computeIfAbsent(register(key(args[1])), k -> new ConcurrentHashMap<>());
+                long added = 0;
+                for (int i = 2; i + 1 < args.length; i += 2) {
+                    if (set.put(key(args[i + 1]), Double.parseDouble(text(args[i]))) == null) {
+                        added++;
+                    }
+                }
+                writeInteger(out, added);
+                break;
+            }
+            case "ZREM": {
+                Map<String, Double> set = sortedSets.get(key(args[1]));
+                long removed = 0;
+                for (int i = 2; set != null && i < args.length; i++) {
+                    if (set.remove(key(args[i])) != null) {
+                        removed++;
+                    }
+                }
+                writeInteger(out, removed);
+                break;
+            }
+            case "ZCARD":
+                writeInteger(out, sortedSetSize(key(args[1])));
+                break;
+            case "ZSCORE": {
+                Map<String, Double> set = sortedSets.get(key(args[1]));
+                Double score = set != null ? set.get(key(args[2])) : null;
+                if (score == null) {
+                    out.write(NIL);
+                } else {
+                    writeBulk(out, Long.toString(score.longValue()).getBytes(StandardCharsets.US_ASCII));
+                }
+                break;
+            }
+            case "ZCOUNT":
+            case "ZRANGEBYSCORE": {
+                double min = score(text(args[2]));
+                double max = score(text(args[3]));
+                int offset = 0;
+                int limit = Integer.MAX_VALUE;
+                if (args.length >= 7 && text(args[4]).equalsIgnoreCase("LIMIT")) {
+                    offset = Integer.parseInt(text(args[5]));
+                    limit  = Integer.parseInt(text(args[6]));
+                }
+                TreeMap<Double, List<String>> byScore = new TreeMap<>();
+                Map<String, Double> set = sortedSets.getOrDefault(key(args[1]), Collections.emptyMap());
+                for (Map.Entry<String, Double> member : set.entrySet()) {
+                    if (member.getValue() >= min && member.getValue() <= max) {
+                        byScore.computeIfAbsent(member.getValue(), k -> new ArrayList<>()).add(member.getKey());
+                    }
+                }
+                List<String> members = new ArrayList<>();
+                for (List<String> sameScore : byScore.values()) {
+                    Collections.sort(sameScore);
+                    members.addAll(sameScore);
+                }
+                if (name.equals("ZCOUNT")) {
+                    writeInteger(out, members.size());
+                } else {
+                    int from = Math.min(offset, members.size());
+                    writeKeys(out, members.subList(from, (int) Math.min(members.size(), (long) from + limit)));
+                }
+                break;
+            }
+            case "SCRIPT": {
+                String subcommand = text(args[1]).toUpperCase();
+                if (subcommand.equals("LOAD")) {
+                    String source = new String(args[2], StandardCharsets.UTF_8);
+                    String sha = ConditionalWrite.sha1(source);
+                    scripts.put(sha, source);
+                    writeBulk(out, sha.getBytes(StandardCharsets.US_ASCII));
+                } else if (subcommand.equals("FLUSH")) {
+                    synchronized (scriptLock) {
+                        scripts.clear();
+                        compiled.clear();
+                    }
+                    out.write(OK);
+                } else {
+                    out.write(("-ERR unknown SCRIPT subcommand '" + subcommand + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+                }
+                break;
+            }
+            case "EVAL":
+            case "EVALSHA": {
+                String source = name.equals("EVAL") ? new String(args[1], StandardCharsets.UTF_8) : null;
+                String sha = source != null ? ConditionalWrite.sha1(source) : text(args[1]).toLowerCase();
+                if (source != null) {
+                    scripts.put(sha, source);
+                } else {
+                    source = scripts.get(sha);
+                }
+                if (source == null) {
+                    out.write("-NOSCRIPT No matching script. Please use EVAL.\r\n".getBytes(StandardCharsets.US_ASCII));
+                } else {
+                    int keyCount = Integer.parseInt(text(args[2]));
+                    byte[][] keys = Arrays.copyOfRange(args, 3, 3 + keyCount);
+                    byte[][] argv = Arrays.copyOfRange(args, 3 + keyCount, args.length);
+                    runScript(sha, source, keys, argv, out);
+                }
+                break;
+            }
+            default:
+                out.write(("-ERR unknown command '" + name + "'\r\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Run a script with KEYS and ARGV set and write its result as Redis converts it
+     */
+    private void runScript(String sha, String source, byte[][] keys, byte[][] argv, OutputStream out) throws IOException {
+        synchronized (scriptLock) {
+            try {
+                LuaValue function = compiled.get(sha);
+                if (function == null) {
+                    function = lua.load(source, "@user_script");
+                    compiled.put(sha, function);
+                }
+                lua.set("KEYS", table(keys));
+                lua.set("ARGV", table(argv));
+                writeLua(out, function.call());
+            } catch (LuaError e) {
+                out.write(("-ERR Error running script: " + e.getMessage().replaceAll("[\r\n]+", " ") + "\r\n")
+                          .getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    /**
+     * redis.call / redis.pcall: run the command and convert its reply to Lua, an error reply raises an error,
+     * or with pcall comes back as {err=}
+     */
+    private Varargs redisCall(Varargs args, boolean protectedCall) {
+        byte[][] command = new byte[args.narg()][];
+        for (int i = 0; i < command.length; i++) {
+            command[i] = bytes(args.checkstring(i + 1));
+        }
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        try {
+            execute(command, reply);
+        } catch (IOException e) {
+            throw new LuaError(e);
+        }
+        byte[] bytes = reply.toByteArray();
+        if (protectedCall && bytes[0] == '-') {
+            LuaTable error = new LuaTable();
+            error.set("err", new String(bytes, 1, bytes.length - 3, StandardCharsets.UTF_8));
+            return error;
+        }
+        return toLua(bytes, new int[1]);
+    }
+
+    private static LuaValue toLua(byte[] reply, int[] at) {
+        byte type = reply[at[0]++];
+        int lineEnd = at[0];
+        while (reply[lineEnd] != '\r') {
+            lineEnd++;
+        }
+        String line = new String(reply, at[0], lineEnd - at[0], StandardCharsets.UTF_8);
+        at[0] = lineEnd + 2;
+        switch (type) {
+            case '+': {
+                LuaTable status = new LuaTable();
+                status.set("ok", line);
+                return status;
+            }
+            case '-':
+                throw new LuaError(line);
+            case ':':
+                return LuaInteger.valueOf(Long.parseLong(line));
+            case '$': {
+                int length = Integer.parseInt(line);
+                if (length < 0) {
+                    return LuaValue.FALSE;
+                }
+                LuaString value = LuaString.valueOf(Arrays.copyOfRange(reply, at[0], at[0] + length));
+                at[0] += length + 2;
+                return value;
+            }
+            case '*': {
+                int count = Integer.parseInt(line);
+                if (count < 0) {
+                    return LuaValue.FALSE;
+                }
+                LuaTable array = new LuaTable();
+                for (int i = 1; i <= count; i++) {
+                    array.set(i, toLua(reply, at));
+                }
+                return array;
+            }
+            default:
+                throw new LuaError("Unexpected reply type '" + (char) type + "'");
+        }
+    }
+
+    /**
+     * A script's return value as a reply: number -> integer, string -> bulk, false / nil -> nil, {ok=} ->
+     * status, {err=} -> error, other tables -> array up to the first nil
+     */
+    private static void writeLua(OutputStream out, LuaValue value) throws IOException {
+        if (value.type() == LuaValue.TNUMBER) {
+            writeInteger(out, value.tolong());
+        } else if (value.isstring()) {
+            writeBulk(out, bytes(value.checkstring()));
+        } else if (value.isboolean() && value.toboolean()) {
+            writeInteger(out, 1);
+        } else if (value.istable()) {
+            LuaValue error = value.get("err");
+            LuaValue status = value.get("ok");
+            if (error.isstring()) {
+                out.write(("-" + error.tojstring() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            } else if (status.isstring()) {
+                out.write(("+" + status.tojstring() + "\r\n").getBytes(StandardCharsets.UTF_8));
+            } else {
+                int count = 0;
+                while (!value.get(count + 1).isnil()) {
+                    count++;
+                }
+                out.write(("*" + count + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                for (int i = 1; i <= count; i++) {
+                    writeLua(out, value.get(i));
+                }
+            }
+        } else {
+            out.write(NIL);
+        }
+    }
+
+    private static LuaTable table(byte[][] values) {
+        LuaTable table = new LuaTable();
+        for (int i = 0; i < values.length; i++) {
+            table.set(i + 1, LuaString.valueOf(values[i]));
+        }
+        return table;
+    }
+
+    private static byte[] bytes(LuaString value) {
+        byte[] bytes = new byte[value.length()];
+        value.copyInto(0, bytes, 0, bytes.length);
+        return bytes;
+    }
+
+    private String register(String key) {
+        sequence.computeIfAbsent(key, k -> {
+            long number = nextSequence.getAndIncrement();
+            scanOrder.put(number, k);
+            return number;
+        });
+        return key;
+    }
+
+    private Entry live(String key) {
+        Entry entry = data.get(key);
+        if (entry != null && entry.expiresAt != 0 && entry.expiresAt <= System.currentTimeMillis()) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry;
+    }
+
+    private static String key(byte[] key) {
+        return new String(key, StandardCharsets.ISO_8859_1);
+    }
+
+    private static String text(byte[] arg) {
+        return new String(arg, StandardCharsets.US_ASCII);
+    }
+
+    private static double score(String text) {
+        switch (text.toLowerCase()) {
+            case "-inf":
+                return Double.NEGATIVE_INFINITY;
+            case "+inf":
+            case "inf":
+                return Double.POSITIVE_INFINITY;
+            default:
+                return Double.parseDouble(text);
+        }
+    }
+
+    private static Pattern glob(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*') {
+                regex.append(".*");
+            } else if (c == '?') {
+                regex.append('.');
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString(), Pattern.DOTALL);
+    }
+
+    private static byte[][] readCommand(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            return null;
+        }
+        if (type != '*') {
+            throw new IOException("Expected RESP array, got '" + (char) type + "'");
+        }
+        byte[][] args = new byte[(int) readNumber(in)][];
+        for (int i = 0; i < args.length; i++) {
+            if (in.read() != '$') {
+                throw new IOException("Expected RESP bulk string");
+            }
+            byte[] arg = new byte[(int) readNumber(in)];
+            int read = 0;
+            while (read < arg.length) {
+                int n = in.read(arg, read, arg.length - read);
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                read += n;
+            }
+            in.read();
+            in.read();
+            args[i] = arg;
+        }
+        return args;
+    }
+
+    private static long readNumber(InputStream in) throws IOException {
+        long value = 0;
+        boolean negative = false;
+        while (true) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException();
+            }
+            if (b == '-') {
+                negative = true;
+            } else if (b == '\r') {
+                in.read();
+                return negative ? -value : value;
+            } else {
+                value = value * 10 + (b - '0');
+            }
+        }
+    }
+
+    private static void writeInteger(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void writeBulk(OutputStream out, byte[] value) throws IOException {
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(value);
+        out.write('\r');
+        out.write('\n');
+    }
+
+    private static void writeKeys(OutputStream out, List<String> keys) throws IOException {
+        out.write(("*" + keys.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (String key : keys) {
+            writeBulk(out, key.getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        server.close();
+    }
+
+    private static final class Entry {
+        final byte[] value;
+        final long expiresAt;
+
+        Entry(byte[] value, long expiresAt) {
+            this.value     = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
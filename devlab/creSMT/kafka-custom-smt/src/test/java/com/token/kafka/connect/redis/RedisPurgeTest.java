@@ -0,0 +1,166 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisPurgeTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       RedisPurge against EmbeddedRedis: index and scan mode, version keys, keys of other types, and the
+*       scripts keeping a key the sink rewrote after it was read.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RedisPurgeTest {
+
+    private static final ZoneId UTC = ZoneOffset.UTC;
+    private static final long CUTOFF = 1_000_000L;
+
+    private EmbeddedRedis redis;
+    private RespConnection connection;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redis = new EmbeddedRedis();
+        connection = new RespConnection("127.0.0.1", redis.port(), "", 0, 5000);
+        connection.connect();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        connection.close();
+        redis.close();
+    }
+
+    @Test
+    void indexModeRemovesExpiredKeysWithTheirVersionKeys() throws IOException {
+        for (int i = 0; i < 7; i++) {
+            indexed("az1:old:" + i, CUTOFF - i);
+            connection.call("SET", "az1:old:" + i + ":ver", "1");
+        }
+        indexed("az1:new", CUTOFF + 1);
+
+        RedisPurge purge = new RedisPurge(connection, 3, 0, false, ":ver");
+        assertEquals(7, purge.purgeIndex("az1:expiry", CUTOFF));
+
+        assertEquals(1, redis.sortedSetSize("az1:expiry"));
+        assertNotNull(redis.get("az1:new"));
+        for (int i = 0; i < 7; i++) {
+            assertNull(redis.get("az1:old:" + i));
+            assertNull(redis.get("az1:old:" + i + ":ver"));
+        }
+    }
+
+    @Test
+    void indexModeDryRunOnlyCounts() throws IOException {
+        indexed("az1:old", CUTOFF);
+        indexed("az1:new", CUTOFF + 1);
+
+        RedisPurge purge = new RedisPurge(connection, 500, 0, true, ":ver");
+        assertEquals(1, purge.purgeIndex("az1:expiry", CUTOFF));
+        assertNotNull(redis.get("az1:old"));
+        assertEquals(2, redis.sortedSetSize("az1:expiry"));
+    }
+
+    @Test
+    void indexScriptKeepsAKeyRewrittenAfterTheRange() throws IOException {
+        indexed("az1:1", CUTOFF - 10);
+        indexed("az1:2", CUTOFF - 10);
+        // The sink rewrites az1:2 between ZRANGEBYSCORE and the delete
+        connection.call("SET", "az1:2", "fresh");
+        connection.call("ZADD", "az1:expiry", CUTOFF + 10, "az1:2");
+
+        assertEquals(1L, connection.call("EVAL", RedisPurge.INDEX_SCRIPT, 3, "az1:expiry", "az1:1", "az1:2", CUTOFF, 1));
+        assertNull(redis.get("az1:1"));
+        assertValue("az1:2", "fresh");
+        assertEquals(1, redis.sortedSetSize("az1:expiry"));
+    }
+
+    @Test
+    void scanScriptKeepsAValueChangedAfterTheRead() throws IOException {
+        connection.call("SET", "az1:1", "{\"createdAt\":1}");
+        connection.call("SET", "az1:2", "{\"createdAt\":2000000}");
+
+        assertEquals(1L, connection.call("EVAL", RedisPurge.SCAN_SCRIPT, 2, "az1:1", "az1:2", 1, "createdAt",
+                                         "s", "{\"createdAt\":1}", "s", "{\"createdAt\":2}"));
+        assertNull(redis.get("az1:1"));
+        assertNotNull(redis.get("az1:2"));
+    }
+
+    @Test
+    void scanModeSkipsTheIndexAndOtherTypesAndReadsHashes() throws IOException {
+        connection.call("SET", "az1:json-old", "{\"cardNumber\":\"1\",\"createdAt\":\"1970-01-01T00:00:01.000Z\"}");
+        connection.call("SET", "az1:json-old:ver", "5");
+        connection.call("SET", "az1:json-new", "{\"createdAt\":" + (CUTOFF + 5) + "}");
+        connection.call("HSET", "az1:hash-old", "cardNumber", "2", "createdAt", "1970-01-01T00:00:02.000Z");
+        connection.call("HSET", "az1:hash-new", "createdAt", Long.toString(CUTOFF + 7));
+        connection.call("HSET", "az1:hash-none", "cardNumber", "3");
+        connection.call("SET", "az1:msgpack", new byte[] {(byte) 0x82, (byte) 0xa1, 'a', 1});
+        connection.call("ZADD", "az1:expiry", CUTOFF + 100, "az1:elsewhere");
+        connection.call("ZADD", "az1:other", 1, "x");
+
+        RedisPurge purge = new RedisPurge(connection, 2, 0, false, ":ver");
+        assertEquals(2, purge.purgeScan("az1:*", "createdAt", UTC, CUTOFF, "az1:expiry"));
+
+        assertNull(redis.get("az1:json-old"));
+        assertNull(redis.get("az1:json-old:ver"));
+        assertNull(redis.hash("az1:hash-old"));
+        assertNotNull(redis.get("az1:json-new"));
+        assertNotNull(redis.hash("az1:hash-new"));
+        assertNotNull(redis.get("az1:msgpack"));
+        assertEquals(1, redis.sortedSetSize("az1:other"));
+
+        assertEquals(2, purge.noTimestamp(), "msgpack value and hash without createdAt");
+        assertEquals(1, purge.otherTypes(), "az1:other");
+        // az1:elsewhere plus the two kept keys with a createdAt
+        assertEquals(3, redis.sortedSetSize("az1:expiry"));
+    }
+
+    @Test
+    void readsIsoAndEpochTimestamps() {
+        byte[] token = "\"createdAt\":".getBytes(StandardCharsets.UTF_8);
+        assertEquals(1000L, RedisPurge.timeOf(bytes("{\"createdAt\":\"1970-01-01T00:00:01.000Z\"}"), token, UTC));
+        assertEquals(1000L, RedisPurge.timeOf(bytes("{\"createdAt\": \"1970-01-01T02:00:01\"}"), token,
+                                              ZoneId.of("Africa/Johannesburg")));
+        assertEquals(42L, RedisPurge.timeOf(bytes("{\"a\":1,\"createdAt\":42}"), token, UTC));
+        assertEquals(Long.MIN_VALUE, RedisPurge.timeOf(bytes("{\"a\":1}"), token, UTC));
+        assertEquals(Long.MIN_VALUE, RedisPurge.timeOf(bytes("{\"createdAt\":\"soon\"}"), token, UTC));
+        assertEquals(2000L, RedisPurge.timeOfValue(bytes("1970-01-01T00:00:02.000Z"), 0, UTC));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void indexed(String key, long score) throws IOException {
+        connection.call("SET", key, "v");
+        connection.call("ZADD", "az1:expiry", score, key);
+    }
+
+    private void assertValue(String key, String expected) {
+        assertEquals(expected, new String(redis.get(key), StandardCharsets.UTF_8));
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,341 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisSinkTaskTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       RedisSinkTask against EmbeddedRedis: SET / EX, when batches are submitted (redis.batch.size and
+*       redis.flush.interval.ms), preCommit() offsets with an unreachable route, partition pausing and the
+*       records of revoked partitions being dropped.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.sink.SinkTaskContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisSinkTaskTest {
+
+    private static final String TOPIC = "jnl_acq";
+    private static final TopicPartition P0 = new TopicPartition(TOPIC, 0);
+    private static final TopicPartition P1 = new TopicPartition(TOPIC, 1);
+
+    private EmbeddedRedis redis;
+    private RedisSinkTask task;
+    private RecordingContext context;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        redis   = new EmbeddedRedis();
+        task    = new RedisSinkTask();
+        context = new RecordingContext();
+        task.initialize(context);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        task.stop();
+        redis.close();
+    }
+
+    @Test
+    void writesSetWithExpiry() throws IOException {
+        task.start(config(RedisSinkConfig.TTL_CONFIG, "3600"));
+        task.put(Arrays.asList(record(0, 0, "tkcard:1", "{\"a\":1}"), record(0, 1, "tkcard:2", "{\"a\":2}")));
+        task.preCommit(offsets(P0, 2));
+
+        assertArrayEquals("{\"a\":1}".getBytes(StandardCharsets.UTF_8), redis.get("tkcard:1"));
+        assertArrayEquals("{\"a\":2}".getBytes(StandardCharsets.UTF_8), redis.get("tkcard:2"));
+        try (RespConnection connection = new RespConnection("127.0.0.1", redis.port(), "", 0, 5000)) {
+            connection.connect();
+            long ttl = (Long) connection.call("TTL", "tkcard:1");
+            assertTrue(ttl > 3590 && ttl <= 3600, "TTL " + ttl);
+        }
+    }
+
+    @Test
+    void writesWithoutExpiryByDefault() throws IOException {
+        task.start(config());
+        task.put(Collections.singletonList(record(0, 0, "tkcard:1", "v")));
+        task.preCommit(offsets(P0, 1));
+
+        try (RespConnection connection = new RespConnection("127.0.0.1", redis.port(), "", 0, 5000)) {
+            connection.connect();
+            assertEquals(-1L, connection.call("TTL", "tkcard:1"));
+        }
+    }
+
+    @Test
+    void submitsOnceTheBatchIsFull() throws InterruptedException {
+        task.start(config(RedisSinkConfig.BATCH_SIZE_CONFIG, "10",
+                          RedisSinkConfig.FLUSH_INTERVAL_CONFIG, "60000"));
+
+        List<SinkRecord> records = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            records.add(record(0, i, "tkcard:" + i, "v" + i));
+        }
+        task.put(records);
+        Thread.sleep(200);
+        assertEquals(0, redis.size(), "a partial batch waits for the flush interval");
+
+        task.put(Collections.singletonList(record(0, 9, "tkcard:9", "v9")));
+        await(() -> redis.size() == 10);
+    }
+
+    @Test
+    void submitsAPartialBatchAfterTheFlushInterval() throws InterruptedException {
+        task.start(config(RedisSinkConfig.BATCH_SIZE_CONFIG, "1000",
+                          RedisSinkConfig.FLUSH_INTERVAL_CONFIG, "300"));
+
+        task.put(Collections.singletonList(record(0, 0, "tkcard:1", "v")));
+        Thread.sleep(100);
+        assertNull(redis.get("tkcard:1"));
+
+        Thread.sleep(300);
+        task.put(Collections.emptyList());
+        await(() -> redis.get("tkcard:1") != null);
+    }
+
+    @Test
+    void preCommitOnlyCommitsWrittenOffsets() throws IOException {
+        task.start(routed(RedisSinkConfig.TIMEOUT_CONFIG, "1000"));
+
+        List<SinkRecord> records = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            records.add(routedRecord(0, i, "AZ1", "az1:" + i));
+            records.add(routedRecord(1, i, "AZ2", "az2:" + i));
+        }
+        task.put(records);
+
+        Map<TopicPartition, OffsetAndMetadata> current = new HashMap<>();
+        current.put(P0, new OffsetAndMetadata(5));
+        current.put(P1, new OffsetAndMetadata(5));
+        Map<TopicPartition, OffsetAndMetadata> committed = task.preCommit(current);
+
+        assertEquals(5, committed.get(P0).offset(), "AZ1 is written");
+        assertEquals(0, committed.get(P1).offset(), "AZ2 is unreachable, nothing of it is committed");
+        assertEquals(5, redis.size());
+    }
+
+    @Test
+    void sharedPartitionStaysPausedUntilEveryWriterCaughtUp() throws IOException {
+        task.start(routed(RedisSinkConfig.TIMEOUT_CONFIG, "1000",
+                          RedisSinkConfig.MAX_BACKLOG_CONFIG, "4",
+                          RedisSinkConfig.BATCH_SIZE_CONFIG, "1000",
+                          RedisSinkConfig.FLUSH_INTERVAL_CONFIG, "60000"));
+
+        // P0 feeds both AZs, P1 only AZ1
+        List<SinkRecord> records = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            records.add(routedRecord(0, 2 * i, "AZ1", "az1:" + i));
+            records.add(routedRecord(0, 2 * i + 1, "AZ2", "az2:" + i));
+            records.add(routedRecord(1, i, "AZ1", "az1:p1:" + i));
+        }
+        task.put(records);
+        assertEquals(new HashSet<>(Arrays.asList(P0, P1)), context.paused);
+
+        // AZ1 is written, AZ2 is not reachable
+        task.preCommit(offsets(P0, 8));
+        task.put(Collections.emptyList());
+
+        assertEquals(Collections.singleton(P0), context.paused, "AZ2 still holds P0");
+        assertEquals(Collections.singletonList(P1), context.resumed);
+    }
+
+    @Test
+    void revokedPartitionsAreNotWrittenFromTheBuffer() {
+        task.start(config(RedisSinkConfig.BATCH_SIZE_CONFIG, "1000",
+                          RedisSinkConfig.FLUSH_INTERVAL_CONFIG, "60000"));
+        task.put(Arrays.asList(record(0, 0, "tkcard:p0", "old"), record(1, 0, "tkcard:p1", "v")));
+
+        task.close(Collections.singletonList(P0));
+        Map<TopicPartition, OffsetAndMetadata> committed = task.preCommit(offsets(P1, 1));
+
+        assertEquals(1, committed.get(P1).offset());
+        assertNull(redis.get("tkcard:p0"), "P0 belongs to another task now");
+        assertArrayEquals("v".getBytes(StandardCharsets.UTF_8), redis.get("tkcard:p1"));
+    }
+
+    @Test
+    void revokedPartitionsAreNotWrittenFromABatchWaitingForRedis() throws IOException, InterruptedException {
+        // Redis is down during the rebalance: the batch is retried, and only comes through once it is back
+        int port = unusedPort();
+        redis.close();
+        task.start(config(RedisSinkConfig.HOSTS_CONFIG, "127.0.0.1:" + port,
+                          RedisSinkConfig.RETRY_BACKOFF_CONFIG, "50",
+                          RedisSinkConfig.BATCH_SIZE_CONFIG, "2"));
+        task.put(Arrays.asList(record(0, 0, "tkcard:p0", "old"), record(1, 0, "tkcard:p1", "v")));
+        Thread.sleep(100);
+
+        task.close(Collections.singletonList(P0));
+        redis = new EmbeddedRedis(port);
+        await(() -> redis.get("tkcard:p1") != null);
+        assertNull(redis.get("tkcard:p0"), "P0 belongs to another task now");
+
+        // Assigned again: its redelivered records are written
+        task.open(Collections.singletonList(P0));
+        task.put(Collections.singletonList(record(0, 0, "tkcard:p0", "new")));
+        task.preCommit(offsets(P0, 1));
+        assertArrayEquals("new".getBytes(StandardCharsets.UTF_8), redis.get("tkcard:p0"));
+    }
+
+    @Test
+    void hashRewriteReplacesTheWholeHash() {
+        task.start(config(RedisSinkConfig.VALUE_TYPE_CONFIG, RedisSinkConfig.VALUE_TYPE_HASH));
+        Schema schema = SchemaBuilder.struct().field("c", Schema.STRING_SCHEMA).field("t", Schema.OPTIONAL_STRING_SCHEMA).build();
+        task.put(Collections.singletonList(hashRecord(0, "tkcard:1", new Struct(schema).put("c", "4111").put("t", "1"))));
+        task.put(Collections.singletonList(hashRecord(1, "tkcard:1", Map.of("c", "5100"))));
+        task.preCommit(offsets(P0, 2));
+
+        Map<String, byte[]> hash = redis.hash("tkcard:1");
+        assertEquals(Collections.singleton("c"), hash.keySet(), "t of the first write is gone");
+        assertArrayEquals("5100".getBytes(StandardCharsets.UTF_8), hash.get("c"));
+    }
+
+    @Test
+    void hashWithoutFieldsIsSkipped() {
+        task.start(config(RedisSinkConfig.VALUE_TYPE_CONFIG, RedisSinkConfig.VALUE_TYPE_HASH));
+        Struct empty = new Struct(SchemaBuilder.struct().build());
+        task.put(Arrays.asList(hashRecord(0, "tkcard:empty", empty),
+                               hashRecord(1, "tkcard:map", Collections.emptyMap()),
+                               hashRecord(2, "tkcard:1", Map.of("c", "4111"))));
+        Map<TopicPartition, OffsetAndMetadata> committed = task.preCommit(offsets(P0, 3));
+
+        assertEquals(3, committed.get(P0).offset(), "skipped values do not fail or hold the batch");
+        assertNull(redis.hash("tkcard:empty"));
+        assertNull(redis.hash("tkcard:map"));
+        assertArrayEquals("4111".getBytes(StandardCharsets.UTF_8), redis.hash("tkcard:1").get("c"));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private Map<String, String> config(String... overrides) {
+        Map<String, String> props = new HashMap<>();
+        props.put(RedisSinkConfig.HOSTS_CONFIG, redis.hostPort());
+        props.put(RedisSinkConfig.RETRY_BACKOFF_CONFIG, "100");
+        for (int i = 0; i < overrides.length; i += 2) {
+            props.put(overrides[i], overrides[i + 1]);
+        }
+        return props;
+    }
+
+    private Map<String, String> routed(String... overrides) throws IOException {
+        Map<String, String> props = config(overrides);
+        props.put(RedisSinkConfig.ROUTES_CONFIG, "AZ1=" + redis.hostPort() + ",AZ2=127.0.0.1:" + unusedPort());
+        return props;
+    }
+
+    private static int unusedPort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static SinkRecord record(int partition, long offset, String key, String value) {
+        return new SinkRecord(TOPIC, partition, null, key, null, value, offset);
+    }
+
+    private static SinkRecord hashRecord(long offset, String key, Object value) {
+        Schema schema = value instanceof Struct ? ((Struct) value).schema() : null;
+        return new SinkRecord(TOPIC, 0, null, key, schema, value, offset);
+    }
+
+    private static SinkRecord routedRecord(int partition, long offset, String az, String key) {
+        SinkRecord record = record(partition, offset, key, "v");
+        record.headers().addString("az", az);
+        return record;
+    }
+
+    private static Map<TopicPartition, OffsetAndMetadata> offsets(TopicPartition partition, long offset) {
+        return Collections.singletonMap(partition, new OffsetAndMetadata(offset));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 5 s");
+            Thread.sleep(10);
+        }
+    }
+
+    /**
+     * Keeps the partitions currently paused and every resume() call
+     */
+    private static final class RecordingContext implements SinkTaskContext {
+        final Set<TopicPartition> paused = new HashSet<>();
+        final List<TopicPartition> resumed = new ArrayList<>();
+
+        @Override
+        public void pause(TopicPartition... partitions) {
+            paused.addAll(Arrays.asList(partitions));
+        }
+
+        @Override
+        public void resume(TopicPartition... partitions) {
+            paused.removeAll(Arrays.asList(partitions));
+            resumed.addAll(Arrays.asList(partitions));
+        }
+
+        @Override
+        public Map<String, String> configs() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public void offset(Map<TopicPartition, Long> offsets) {
+        }
+
+        @Override
+        public void offset(TopicPartition partition, long offset) {
+        }
+
+        @Override
+        public void timeout(long timeoutMs) {
+        }
+
+        @Override
+        public Set<TopicPartition> assignment() {
+            return new HashSet<>(Arrays.asList(P0, P1));
+        }
+
+        @Override
+        public void requestCommit() {
+        }
+    }
+}
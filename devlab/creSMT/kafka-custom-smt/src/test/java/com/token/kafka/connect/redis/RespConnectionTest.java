@@ -0,0 +1,248 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RespConnectionTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       RespConnection against a scripted server that only answers once the whole pipeline has arrived, so a
+*       client waiting for a reply per command would time out, and that answers with canned RESP to check
+*       the reply parsing.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.redis;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RespConnectionTest {
+
+    @Test
+    void pipelinedCommandsAreSentBeforeAnyReplyIsRead() throws Exception {
+        int count = 1000;
+        StringBuilder replies = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            replies.append("+OK\r\n");
+        }
+
+        try (ScriptedServer server = new ScriptedServer(count, replies.toString().getBytes(StandardCharsets.US_ASCII));
+             RespConnection connection = new RespConnection("127.0.0.1", server.port(), "", 0, 5000)) {
+            connection.connect();
+            for (int i = 0; i < count; i++) {
+                connection.command(5).arg("SET").arg("key:" + i).arg("value-" + i).arg("EX").arg(3600);
+            }
+            assertEquals(count, connection.pending());
+
+            List<Object> result = connection.sync();
+            assertEquals(0, connection.pending());
+            assertEquals(count, result.size());
+            for (Object reply : result) {
+                assertSame(RespConnection.OK, reply);
+            }
+
+            List<List<String>> commands = server.commands();
+            assertEquals(count, commands.size());
+            assertEquals(Arrays.asList("SET", "key:0", "value-0", "EX", "3600"), commands.get(0));
+            assertEquals(Arrays.asList("SET", "key:999", "value-999", "EX", "3600"), commands.get(count - 1));
+        }
+    }
+
+    @Test
+    void parsesEveryReplyType() throws Exception {
+        String replies = "+QUEUED\r\n"
+                         + "-ERR wrong number of arguments\r\n"
+                         + ":-42\r\n"
+                         + "$5\r\nhe\r\no\r\n"
+                         + "$0\r\n\r\n"
+                         + "$-1\r\n"
+                         + "*3\r\n$1\r\na\r\n:7\r\n*1\r\n+OK\r\n"
+                         + "*-1\r\n"
+                         + "*0\r\n";
+
+        try (ScriptedServer server = new ScriptedServer(9, replies.getBytes(StandardCharsets.US_ASCII));
+             RespConnection connection = new RespConnection("127.0.0.1", server.port(), "", 0, 5000)) {
+            connection.connect();
+            for (int i = 0; i < 9; i++) {
+                connection.command(1).arg("PING");
+            }
+            List<Object> result = connection.sync();
+
+            assertEquals("QUEUED", result.get(0));
+            RespConnection.ErrorReply error = assertInstanceOf(RespConnection.ErrorReply.class, result.get(1));
+            assertTrue(error.startsWith("ERR"));
+            assertEquals("ERR wrong number of arguments", error.message());
+            assertEquals(-42L, result.get(2));
+            assertArrayEquals("he\r\no".getBytes(StandardCharsets.US_ASCII), (byte[]) result.get(3));
+            assertArrayEquals(new byte[0], (byte[]) result.get(4));
+            assertNull(result.get(5));
+
+            Object[] array = (Object[]) result.get(6);
+            assertArrayEquals("a".getBytes(StandardCharsets.US_ASCII), (byte[]) array[0]);
+            assertEquals(7L, array[1]);
+            assertArrayEquals(new Object[] {RespConnection.OK}, (Object[]) array[2]);
+
+            assertNull(result.get(7));
+            assertArrayEquals(new Object[0], (Object[]) result.get(8));
+        }
+    }
+
+    @Test
+    void readsBulkStringsLargerThanTheBuffer() throws Exception {
+        byte[] value = new byte[200_000];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = (byte) i;
+        }
+        ByteArrayOutputStream reply = new ByteArrayOutputStream();
+        reply.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        reply.write(value);
+        reply.write("\r\n:1\r\n".getBytes(StandardCharsets.US_ASCII));
+
+        try (ScriptedServer server = new ScriptedServer(2, reply.toByteArray());
+             RespConnection connection = new RespConnection("127.0.0.1", server.port(), "", 0, 5000)) {
+            connection.connect();
+            connection.command(3).arg("SET").arg("big".getBytes(StandardCharsets.US_ASCII)).arg(value);
+            connection.command(2).arg("GET").arg("big");
+            List<Object> result = connection.sync();
+
+            assertArrayEquals(value, (byte[]) result.get(0));
+            assertEquals(1L, result.get(1));
+            assertArrayEquals(value, server.commands().get(0).get(2).getBytes(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    @Test
+    void callRejectsUnsyncedPipeline() throws Exception {
+        try (ScriptedServer server = new ScriptedServer(1, "+PONG\r\n".getBytes(StandardCharsets.US_ASCII));
+             RespConnection connection = new RespConnection("127.0.0.1", server.port(), "", 0, 5000)) {
+            connection.connect();
+            connection.command(1).arg("PING");
+            assertThrows(IllegalStateException.class, () -> connection.call("PING"));
+        }
+    }
+
+    @Test
+    void unknownReplyTypeClosesTheConnection() throws Exception {
+        try (ScriptedServer server = new ScriptedServer(1, "!oops\r\n".getBytes(StandardCharsets.US_ASCII));
+             RespConnection connection = new RespConnection("127.0.0.1", server.port(), "", 0, 5000)) {
+            connection.connect();
+            connection.command(1).arg("PING");
+            assertThrows(IOException.class, connection::sync);
+            assertTrue(!connection.isConnected());
+        }
+    }
+
+    /**
+     * Accepts one client, reads the expected number of commands, then writes the canned replies in one go
+     */
+    private static final class ScriptedServer implements AutoCloseable {
+        private final ServerSocket server;
+        private final CompletableFuture<List<List<String>>> commands = new CompletableFuture<>();
+
+        ScriptedServer(int expected, byte[] replies) throws IOException {
+            server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+            Thread thread = new Thread(() -> serve(expected, replies), "scripted-redis");
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        int port() {
+            return server.getLocalPort();
+        }
+
+        List<List<String>> commands() throws Exception {
+            return commands.get(5, TimeUnit.SECONDS);
+        }
+
+        private void serve(int expected, byte[] replies) {
+            try (Socket socket = server.accept()) {
+                InputStream in = new BufferedInputStream(socket.getInputStream());
+                List<List<String>> received = new ArrayList<>();
+                while (received.size() < expected) {
+                    received.add(readCommand(in));
+                }
+                socket.getOutputStream().write(replies);
+                socket.getOutputStream().flush();
+                commands.complete(received);
+                // Hold the connection open until the client is done
+                while (in.read() >= 0) {
+                    // discard
+                }
+            } catch (IOException e) {
+                commands.completeExceptionally(e);
+            }
+        }
+
+        private static List<String> readCommand(InputStream in) throws IOException {
+            expect(in, '*');
+            int argc = Integer.parseInt(readLine(in));
+            List<String> args = new ArrayList<>(argc);
+            for (int i = 0; i < argc; i++) {
+                expect(in, '$');
+                byte[] arg = new byte[Integer.parseInt(readLine(in))];
+                for (int read = 0; read < arg.length; ) {
+                    int n = in.read(arg, read, arg.length - read);
+                    if (n < 0) {
+                        throw new IOException("Client closed mid argument");
+                    }
+                    read += n;
+                }
+                readLine(in);
+                args.add(new String(arg, StandardCharsets.ISO_8859_1));
+            }
+            return args;
+        }
+
+        private static void expect(InputStream in, char type) throws IOException {
+            int b = in.read();
+            if (b != type) {
+                throw new IOException("Expected '" + type + "', got " + b);
+            }
+        }
+
+        private static String readLine(InputStream in) throws IOException {
+            StringBuilder line = new StringBuilder();
+            for (int b = in.read(); b != '\r'; b = in.read()) {
+                if (b < 0) {
+                    throw new IOException("Client closed mid line");
+                }
+                line.append((char) b);
+            }
+            in.read();
+            return line.toString();
+        }
+
+        @Override
+        public void close() throws IOException {
+            server.close();
+        }
+    }
+}
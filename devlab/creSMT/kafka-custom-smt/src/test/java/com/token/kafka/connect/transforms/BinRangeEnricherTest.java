@@ -0,0 +1,134 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   BinRangeEnricherTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       BinRangeEnricher on Map and Struct values, and the hot reload keeping the old table when the new file
+*       does not load.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class BinRangeEnricherTest {
+
+    @TempDir
+    Path dir;
+
+    private final BinRangeEnricher<SinkRecord> enricher = new BinRangeEnricher<>();
+
+    @AfterEach
+    void tearDown() {
+        enricher.close();
+    }
+
+    @Test
+    void addsTheAttributesToAMap() throws IOException {
+        configure(file("ranges.csv", BinRangeIndexTest.RANGES), "0");
+
+        Map<?, ?> value = (Map<?, ?>) enricher.apply(record(Map.of("cardNumber", "4111111111111111"))).value();
+        assertEquals("VISA", value.get("bin_scheme"));
+        assertEquals("Bank A, Ltd", value.get("bin_issuer"));
+        assertEquals("4111111111111111", value.get("cardNumber"));
+
+        value = (Map<?, ?>) enricher.apply(record(Map.of("cardNumber", 4111125000000000L))).value();
+        assertEquals("Bank \"C\"", value.get("bin_issuer"));
+
+        SinkRecord unknown = record(Map.of("cardNumber", "4000000000000000"));
+        assertSame(unknown, enricher.apply(unknown));
+    }
+
+    @Test
+    void addsOptionalFieldsToAStruct() throws IOException {
+        configure(file("ranges.csv", BinRangeIndexTest.RANGES), "0");
+        Schema schema = SchemaBuilder.struct().name("jnl_acq").field("cardNumber", Schema.STRING_SCHEMA).build();
+
+        Struct known = (Struct) enricher.apply(record(schema, new Struct(schema).put("cardNumber", "5100000000000000"))).value();
+        assertEquals("MASTERCARD", known.getString("bin_scheme"));
+        assertEquals("Bank B", known.getString("bin_issuer"));
+
+        Struct unknown = (Struct) enricher.apply(record(schema, new Struct(schema).put("cardNumber", "4000000000000000"))).value();
+        assertNull(unknown.getString("bin_scheme"));
+        assertSame(known.schema(), unknown.schema());
+    }
+
+    @Test
+    void reloadKeepsTheOldTableWhenTheNewFileFails() throws Exception {
+        Path live = file("ranges.csv", BinRangeIndexTest.RANGES);
+        configure(live, "1");
+
+        replace(live, "low,high,scheme,issuer\n411111,411111,VISA\n41111150,41111159,OTHER\n");
+        Thread.sleep(5);
+        assertEquals("VISA", scheme("4111111111111111"), "overlapping ranges, old table kept");
+        assertEquals("MASTERCARD", scheme("5100000000000000"));
+
+        replace(live, "low,high,scheme,issuer\n411111,411111,AMEX,Bank D\n");
+        Thread.sleep(5);
+        assertEquals("AMEX", scheme("4111111111111111"));
+        assertNull(scheme("5100000000000000"));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void configure(Path binFile, String reloadIntervalMs) {
+        Map<String, String> config = new HashMap<>();
+        config.put("bin.file", binFile.toString());
+        config.put("bin.fields", "scheme,issuer");
+        config.put("field.prefix", "bin_");
+        config.put("bin.reload.interval.ms", reloadIntervalMs);
+        enricher.configure(config);
+    }
+
+    private String scheme(String cardNumber) {
+        return (String) ((Map<?, ?>) enricher.apply(record(Map.of("cardNumber", cardNumber))).value()).get("bin_scheme");
+    }
+
+    private Path file(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Write a new file and move it over the live one, as the guide does
+     */
+    private void replace(Path live, String content) throws IOException {
+        Files.move(file(live.getFileName() + ".new", content), live, StandardCopyOption.REPLACE_EXISTING,
+                   StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static SinkRecord record(Object value) {
+        return new SinkRecord("jnl_acq", 0, null, "AZ1", null, value, 0);
+    }
+
+    private static SinkRecord record(Schema schema, Struct value) {
+        return new SinkRecord("jnl_acq", 0, null, "AZ1", schema, value, 0);
+    }
+}
@@ -0,0 +1,136 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   BinRangeIndexTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       BinRangeIndex: CSV parsing, overlap rejection, the compiled file round trip and lookups at the range
+*       edges.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BinRangeIndexTest {
+
+    static final String RANGES = String.join("\n",
+            "low,high,scheme,issuer,country",
+            "# comment",
+            "",
+            "51000000,55999999,MASTERCARD,Bank B,ZA",
+            "411111,411111,VISA,\"Bank A, Ltd\",ZA",
+            "41111200,41111299,VISA,\"Bank \"\"C\"\"\",",
+            "");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parsesCsv() throws IOException {
+        BinRangeIndex index = BinRangeIndex.load(file("ranges.csv", RANGES));
+
+        assertEquals(Arrays.asList("scheme", "issuer", "country"), index.columns());
+        assertEquals(3, index.size());
+
+        int range = index.lookup("4111111111111111");
+        assertEquals("VISA", index.attribute(range, 0));
+        assertEquals("Bank A, Ltd", index.attribute(range, 1));
+        assertEquals("ZA", index.attribute(range, 2));
+
+        range = index.lookup("4111125000000000");
+        assertEquals("Bank \"C\"", index.attribute(range, 1));
+        assertNull(index.attribute(range, 2), "empty value");
+    }
+
+    @Test
+    void rejectsOverlappingRanges() throws IOException {
+        Path csv = file("overlap.csv", "low,high,scheme\n411111,411111,VISA\n41111150,41111159,OTHER\n");
+        DataException e = assertThrows(DataException.class, () -> BinRangeIndex.load(csv));
+        assertTrue(e.getMessage().contains("Overlapping"), e.getMessage());
+    }
+
+    @Test
+    void rejectsInvalidRows() throws IOException {
+        assertThrows(DataException.class, () -> BinRangeIndex.load(file("short.csv", "low,high\n1,2\n")));
+        assertThrows(DataException.class, () -> BinRangeIndex.load(file("bound.csv", "low,high,a\n41x,42,v\n")));
+        assertThrows(DataException.class, () -> BinRangeIndex.load(file("order.csv", "low,high,a\n42,41,v\n")));
+        assertThrows(DataException.class, () -> BinRangeIndex.load(file("empty.csv", "# nothing\n")));
+    }
+
+    @Test
+    void looksUpAtTheRangeEdges() throws IOException {
+        BinRangeIndex index = BinRangeIndex.load(file("ranges.csv", RANGES));
+
+        assertEquals(-1, index.lookup("4111109999999999"));
+        assertTrue(index.lookup("4111110000000000") >= 0);
+        assertTrue(index.lookup("4111119999999999") >= 0);
+        assertEquals(index.lookup("4111110000000000"), index.lookup("411111******1111"), "masked card");
+        assertTrue(index.lookup("4111120000000000") >= 0, "low edge of the 8 digit range");
+        assertTrue(index.lookup("4111129999999999") >= 0);
+        assertEquals(-1, index.lookup("4111130000000000"));
+        assertEquals(-1, index.lookup("5099999999999999"));
+        assertTrue(index.lookup("5100000000000000") >= 0);
+        assertTrue(index.lookup("5599999999999999999") >= 0, "19 digits, looked up by the first 18");
+        assertEquals(-1, index.lookup("5600000000000000"));
+        assertEquals(-1, index.lookup(""));
+        assertEquals(-1, index.lookup("x4111111111111111"));
+
+        for (String card : new String[] {"4111110000000000", "4111119999999999", "4111120000000000",
+                                         "5599999999999999", "5599999999999999999", "5600000000000000"}) {
+            assertEquals(index.lookup(card), index.lookupNumber(Long.parseLong(card)), card);
+        }
+        assertEquals(index.lookup("411111"), index.lookupNumber(411111L));
+        assertEquals(-1, index.lookupNumber(0L));
+        assertEquals(-1, index.lookupNumber(-4111111111111111L));
+    }
+
+    @Test
+    void compiledFileRoundTrip() throws IOException {
+        BinRangeIndex csv = BinRangeIndex.load(file("ranges.csv", RANGES));
+        Path bin = dir.resolve("ranges.bin");
+        try (OutputStream out = Files.newOutputStream(bin)) {
+            csv.write(out);
+        }
+
+        BinRangeIndex compiled = BinRangeIndex.load(bin);
+        assertEquals(csv.columns(), compiled.columns());
+        assertEquals(csv.size(), compiled.size());
+        for (String card : new String[] {"4111110000000000", "4111125000000000", "5500000000000000", "4000000000000000"}) {
+            int range = csv.lookup(card);
+            assertEquals(range, compiled.lookup(card), card);
+            for (int column = 0; range >= 0 && column < csv.columns().size(); column++) {
+                assertEquals(csv.attribute(range, column), compiled.attribute(range, column), card);
+            }
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private Path file(String name, String content) throws IOException {
+        return Files.write(dir.resolve(name), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,71 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   ConnectorChainTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       ConnectorChain: only the optional Debezium steps may be missing from the classpath.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.errors.ConnectException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.apache.kafka.connect.source.SourceRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ConnectorChainTest {
+
+    @Test
+    void leavesOutOptionalDebeziumSteps() {
+        Map<String, String> config = new HashMap<>();
+        config.put("transforms", "route,unwrap,filter");
+        config.put("transforms.route.type", "io.debezium.transforms.ByLogicalTableRouter");
+        config.put("transforms.unwrap.type", "io.debezium.transforms.ExtractNewRecordState");
+        config.put("transforms.filter.type", "org.apache.kafka.connect.transforms.Filter");
+
+        try (ConnectorChain<SourceRecord> chain = new ConnectorChain<>(config, ConnectorChain.DEBEZIUM_STEPS)) {
+            assertEquals(Collections.singletonList("filter"), chain.names());
+            assertEquals(Arrays.asList("route", "unwrap"), Arrays.asList(chain.skipped().keySet().toArray()));
+        }
+    }
+
+    @Test
+    void missingTransformFailsTheChain() {
+        Map<String, String> config = new HashMap<>();
+        config.put("transforms", "unwrap,selectFields");
+        config.put("transforms.unwrap.type", "io.debezium.transforms.ExtractNewRecordState");
+        config.put("transforms.selectFields.type", "org.example.NotOnTheClasspath$Value");
+
+        ConnectException e = assertThrows(ConnectException.class,
+                                          () -> new ConnectorChain<SourceRecord>(config, ConnectorChain.DEBEZIUM_STEPS));
+        assertTrue(e.getMessage().contains("selectFields"), e.getMessage());
+    }
+
+    @Test
+    void sinkChainHasNoOptionalSteps() {
+        Map<String, String> config = new HashMap<>();
+        config.put("transforms", "unwrap");
+        config.put("transforms.unwrap.type", "io.debezium.transforms.ExtractNewRecordState");
+
+        assertThrows(ConnectException.class, () -> new ConnectorChain<SinkRecord>(config));
+    }
+}
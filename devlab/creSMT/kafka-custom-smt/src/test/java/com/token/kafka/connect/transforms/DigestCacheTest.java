@@ -0,0 +1,167 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   DigestCacheTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       DigestCache: CLOCK eviction, backward-shift removal across the end of the table, and through
+*       SuppressUnchanged a delete followed by the same value again being passed.
+*
+*       Keys are chosen by home slot: with maxEntries 4 the table has 8 slots, key & 7 is the home slot.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DigestCacheTest {
+
+    @Test
+    void remembersTheLastDigestPerKey() {
+        DigestCache cache = new DigestCache(4);
+        assertFalse(cache.unchanged(1, 100));
+        assertTrue(cache.unchanged(1, 100));
+        assertFalse(cache.unchanged(1, 101), "changed value");
+        assertTrue(cache.unchanged(1, 101));
+        assertFalse(cache.unchanged(9, 101), "same home slot, other key");
+        assertEquals(2, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertFalse(cache.unchanged(1, 101));
+        assertThrows(IllegalArgumentException.class, () -> new DigestCache(0));
+    }
+
+    @Test
+    void clockEvictsTheFirstEntryNotSeenSinceTheLastPass() {
+        DigestCache cache = new DigestCache(4);
+        for (long key = 1; key <= 4; key++) {
+            cache.unchanged(key, key);
+        }
+        // 1 and 3 seen again, the hand passes them and evicts 2
+        assertTrue(cache.unchanged(1, 1));
+        assertTrue(cache.unchanged(3, 3));
+        assertFalse(cache.unchanged(5, 5));
+        assertEquals(1, cache.evictions());
+        assertEquals(4, cache.size());
+        for (long key : new long[] {1, 3, 4, 5}) {
+            assertTrue(cache.unchanged(key, key), "kept " + key);
+        }
+
+        // Every entry seen: one full sweep clears the bits, the hand then evicts where it continues (3)
+        assertFalse(cache.unchanged(2, 2), "2 was evicted");
+        assertEquals(2, cache.evictions());
+        assertFalse(cache.unchanged(3, 3), "3 was evicted");
+        assertEquals(4, cache.size());
+    }
+
+    @Test
+    void evictionShiftingIntoTheFreeSlotKeepsTheChain() {
+        // 2 entries, 4 slots: 1, 5 and 9 share home slot 1
+        DigestCache cache = new DigestCache(2);
+        cache.unchanged(1, 1);
+        cache.unchanged(5, 5);
+        // 9 finds slot 3 free, evicting 1 shifts 5 back to 1, 9 has to go in slot 2
+        assertFalse(cache.unchanged(9, 9));
+        assertTrue(cache.unchanged(9, 9));
+        assertTrue(cache.unchanged(5, 5));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void removalShiftsBackAcrossTheEndOfTheTable() {
+        DigestCache cache = new DigestCache(4);
+        // Home slot 7: 7 in slot 7, 15 wraps to 0, 23 to 1. 2 sits in its home slot 2
+        cache.unchanged(7, 7);
+        cache.unchanged(15, 15);
+        cache.unchanged(23, 23);
+        cache.unchanged(2, 2);
+
+        // 23 moves from slot 1 back to 0 (home 7 is not in (0, 1]), 2 stays
+        cache.remove(15);
+        assertEquals(3, cache.size());
+        assertTrue(cache.unchanged(7, 7));
+        assertTrue(cache.unchanged(23, 23));
+        assertTrue(cache.unchanged(2, 2));
+
+        // 23 moves from slot 0 to 7 across the end
+        cache.remove(7);
+        assertEquals(2, cache.size());
+        assertTrue(cache.unchanged(23, 23));
+        assertTrue(cache.unchanged(2, 2));
+
+        cache.remove(23);
+        cache.remove(99);
+        assertEquals(1, cache.size());
+        assertTrue(cache.unchanged(2, 2));
+        assertFalse(cache.unchanged(15, 15), "removed");
+
+        // Freed slot 7 before the end, 8 in its home slot 0 after it stays
+        cache = new DigestCache(4);
+        cache.unchanged(7, 7);
+        cache.unchanged(8, 8);
+        cache.remove(7);
+        assertTrue(cache.unchanged(8, 8));
+    }
+
+    @Test
+    void removalShiftsAChainWrappingIntoOtherHomeSlots() {
+        DigestCache cache = new DigestCache(4);
+        // 7 in 7, 15 in 0, 23 in 1, 1 displaced from its home 1 to 2
+        cache.unchanged(7, 7);
+        cache.unchanged(15, 15);
+        cache.unchanged(23, 23);
+        cache.unchanged(1, 1);
+
+        cache.remove(7);
+        assertEquals(3, cache.size());
+        for (long key : new long[] {15, 23, 1}) {
+            assertTrue(cache.unchanged(key, key), "found " + key);
+        }
+        assertFalse(cache.unchanged(7, 7));
+    }
+
+    @Test
+    void deleteThenRewritePassesThrough() {
+        SuppressUnchanged<SinkRecord> suppress = new SuppressUnchanged<>();
+        suppress.configure(Map.of("cache.size", "10"));
+
+        SinkRecord write = record("{\"a\":1}");
+        assertSame(write, suppress.apply(write));
+        assertNull(suppress.apply(record("{\"a\":1}")), "unchanged");
+
+        SinkRecord delete = record(null);
+        assertSame(delete, suppress.apply(delete));
+        assertEquals(0, suppress.cacheSize());
+
+        SinkRecord rewrite = record("{\"a\":1}");
+        assertSame(rewrite, suppress.apply(rewrite), "same value after the delete is written again");
+        assertNull(suppress.apply(record("{\"a\":1}")));
+        suppress.close();
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private static SinkRecord record(String value) {
+        return new SinkRecord("jnl_acq", 0, null, "tkcard:1", null, value, 0);
+    }
+}
@@ -0,0 +1,194 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   FilterConditionTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       FilterCondition: the filter.condition parser, and every operator on Map values and on Structs through
+*       bind(), which must agree.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FilterConditionTest {
+
+    private static final Schema SCHEMA = SchemaBuilder.struct()
+        .field("cardNumber",   Schema.OPTIONAL_STRING_SCHEMA)
+        .field("acquirerId",   Schema.OPTIONAL_STRING_SCHEMA)
+        .field("MTI",          Schema.OPTIONAL_INT32_SCHEMA)
+        .field("sequence",     Schema.OPTIONAL_INT64_SCHEMA)
+        .field("amount",       Schema.OPTIONAL_FLOAT64_SCHEMA)
+        .field("currencyCode", Decimal.builder(0).optional().build())
+        .field("code",         Schema.OPTIONAL_STRING_SCHEMA)
+        .build();
+
+    @Test
+    void comparesEqualsAndNotEquals() {
+        assertMatches("cardNumber = 4111", row("cardNumber", "4111"), true);
+        assertMatches("cardNumber == '4111'", row("cardNumber", "4111"), true);
+        assertMatches("cardNumber = 4111", row("cardNumber", "04111"), false);
+        assertMatches("MTI = 100", row("MTI", 100), true);
+        assertMatches("MTI = 100.0", row("MTI", 100), true);
+        assertMatches("sequence = 9007199254740993", row("sequence", 9007199254740993L), true);
+        assertMatches("sequence = 9007199254740992", row("sequence", 9007199254740993L), false);
+        assertMatches("amount = 12.5", row("amount", 12.5), true);
+        assertMatches("currencyCode = 710", row("currencyCode", new BigDecimal("710")), true);
+        assertMatches("MTI = abc", row("MTI", 100), false);
+
+        assertMatches("cardNumber != 4111", row("cardNumber", "4112"), true);
+        assertMatches("cardNumber <> 4111", row("cardNumber", "4111"), false);
+        assertMatches("cardNumber != 4111", row(), false);
+        assertMatches("cardNumber = 4111", row(), false);
+    }
+
+    @Test
+    void comparesInAndStartsWith() {
+        assertMatches("acquirerId IN (PUR, 'REF', 'a b')", row("acquirerId", "REF"), true);
+        assertMatches("acquirerId IN (PUR, 'REF', 'a b')", row("acquirerId", "a b"), true);
+        assertMatches("acquirerId IN (PUR, REF)", row("acquirerId", "pur"), false);
+        assertMatches("MTI IN (100, 200)", row("MTI", 200), true);
+        assertMatches("MTI IN (100, 200)", row("MTI", 300), false);
+        assertMatches("MTI IN (100, 200)", row(), false);
+
+        assertMatches("acquirerId STARTSWITH 'TEST'", row("acquirerId", "TEST01"), true);
+        assertMatches("acquirerId startswith TEST", row("acquirerId", "XTEST"), false);
+        assertMatches("MTI STARTSWITH 1", row("MTI", 100), false);
+    }
+
+    @Test
+    void comparesBetween() {
+        assertMatches("MTI BETWEEN 100 AND 200", row("MTI", 100), true);
+        assertMatches("MTI BETWEEN 100 AND 200", row("MTI", 200), true);
+        assertMatches("MTI BETWEEN 100 AND 200", row("MTI", 201), false);
+        assertMatches("MTI BETWEEN 100 AND 200", row("MTI", 99), false);
+        assertMatches("amount BETWEEN 0.5 AND 1", row("amount", 0.75), true);
+        assertMatches("currencyCode BETWEEN 700 AND 799", row("currencyCode", new BigDecimal("710")), true);
+        assertMatches("MTI BETWEEN 100 AND 200", row(), false);
+
+        // Lexical for string bounds
+        assertMatches("acquirerId BETWEEN A AND C", row("acquirerId", "BANK"), true);
+        assertMatches("acquirerId BETWEEN A AND C", row("acquirerId", "D"), false);
+    }
+
+    @Test
+    void betweenNumericBoundsReadsAStringValueAsANumber() {
+        assertMatches("code BETWEEN 10 AND 20", row("code", "9"), false);
+        assertMatches("code BETWEEN 10 AND 20", row("code", "100"), false);
+        assertMatches("code BETWEEN 10 AND 20", row("code", "15"), true);
+        assertMatches("code BETWEEN 10 AND 20", row("code", " 20 "), true);
+        assertMatches("code BETWEEN 10 AND 20", row("code", "10.5"), true);
+        assertMatches("code BETWEEN '10' AND '20'", row("code", "9"), false);
+        assertMatches("code BETWEEN 100 AND 200", row("code", "1100"), false);
+        assertMatches("code BETWEEN 10 AND 20", row("code", "1x"), false);
+        assertMatches("code BETWEEN 10 AND 20", row("code", ""), false);
+    }
+
+    @Test
+    void comparesIsNotNullAndIsNotEmpty() {
+        assertMatches("cardNumber IS NOT NULL", row("cardNumber", ""), true);
+        assertMatches("cardNumber IS NOT NULL", row(), false);
+        assertMatches("cardNumber is not empty", row("cardNumber", "4111"), true);
+        assertMatches("cardNumber IS NOT EMPTY", row("cardNumber", " \t"), false);
+        assertMatches("cardNumber IS NOT EMPTY", row(), false);
+        assertMatches("MTI IS NOT EMPTY", row("MTI", 0), true);
+        assertMatches("unknownField IS NOT NULL", row("cardNumber", "4111"), false);
+    }
+
+    @Test
+    void andBindsTighterThanOr() {
+        String condition = "cardNumber IS NOT EMPTY AND acquirerId = A OR MTI = 100";
+        assertMatches(condition, row("cardNumber", "1", "acquirerId", "A"), true);
+        assertMatches(condition, row("MTI", 100), true);
+        assertMatches(condition, row("cardNumber", "1", "acquirerId", "B"), false);
+
+        String grouped = "cardNumber IS NOT EMPTY AND (acquirerId = A OR MTI = 100)";
+        assertMatches(grouped, row("MTI", 100), false);
+        assertMatches(grouped, row("cardNumber", "1", "MTI", 100), true);
+
+        assertMatches("((cardNumber = 1)) and (MTI = 1 or MTI = 2 or MTI = 3)", row("cardNumber", "1", "MTI", 3), true);
+    }
+
+    @Test
+    void parsesQuotedLiterals() {
+        assertMatches("acquirerId = 'O''Brien'", row("acquirerId", "O'Brien"), true);
+        assertMatches("acquirerId = 'AND'", row("acquirerId", "AND"), true);
+        assertMatches("acquirerId IN ('a,b', ')')", row("acquirerId", ")"), true);
+        assertMatches("acquirerId = ''", row("acquirerId", ""), true);
+        assertMatches("acquirerId='x'", row("acquirerId", "x"), true);
+    }
+
+    @Test
+    void populatedFields() {
+        FilterCondition all = FilterCondition.populated(Arrays.asList("cardNumber", "acquirerId"), true);
+        FilterCondition any = FilterCondition.populated(Arrays.asList("cardNumber", "acquirerId"), false);
+        Map<String, Object> one = row("cardNumber", "1", "acquirerId", " ");
+
+        assertFalse(all.test(one));
+        assertTrue(any.test(one));
+        assertEquals(false, all.bind(SCHEMA).test(struct(one)));
+        assertEquals(true, any.bind(SCHEMA).test(struct(one)));
+    }
+
+    @Test
+    void rejectsInvalidConditions() {
+        for (String condition : new String[] {
+                "", "   ", "cardNumber", "cardNumber =", "cardNumber ~ 1", "cardNumber IN 1, 2",
+                "cardNumber IN (1, 2", "MTI BETWEEN 1", "MTI BETWEEN 1 OR 2", "cardNumber IS NULL",
+                "cardNumber IS NOT", "cardNumber IS NOT BLANK", "cardNumber = 'open", "(cardNumber = 1",
+                "cardNumber = 1)", "cardNumber = 1 MTI = 2", "cardNumber = 1 AND", "cardNumber = 1 OR OR MTI = 2"}) {
+            ConfigException e = assertThrows(ConfigException.class, () -> FilterCondition.parse(condition), condition);
+            assertTrue(e.getMessage().contains("filter.condition"), e.getMessage());
+        }
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    /**
+     * The condition gives expected on the Map value and on the same row as a Struct
+     */
+    private static void assertMatches(String condition, Map<String, Object> row, boolean expected) {
+        FilterCondition filter = FilterCondition.parse(condition);
+        assertEquals(expected, filter.test(row), condition + " on Map " + row);
+        assertEquals(expected, filter.bind(SCHEMA).test(struct(row)), condition + " on Struct " + row);
+    }
+
+    private static Map<String, Object> row(Object... fieldsAndValues) {
+        Map<String, Object> row = new HashMap<>();
+        for (int i = 0; i < fieldsAndValues.length; i += 2) {
+            row.put((String) fieldsAndValues[i], fieldsAndValues[i + 1]);
+        }
+        return row;
+    }
+
+    private static Struct struct(Map<String, Object> row) {
+        Struct struct = new Struct(SCHEMA);
+        row.forEach(struct::put);
+        return struct;
+    }
+}
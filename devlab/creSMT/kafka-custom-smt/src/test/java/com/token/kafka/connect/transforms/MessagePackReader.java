@@ -0,0 +1,137 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   MessagePackReader.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       MessagePack decoder for the tests, written from the format spec rather than from MessagePackWriter so
+*       the round trips check the writer against the format. Integers come back as Long, float 32 as Float,
+*       float 64 as Double, str as String, bin as byte[], map as LinkedHashMap, array as List.
+*
+*       Remembers the format byte of every value read, so tests can check the smallest encoding is used.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class MessagePackReader {
+
+    private final ByteBuffer in;
+    private int lastFormat;
+
+    MessagePackReader(byte[] packed) {
+        this.in = ByteBuffer.wrap(packed);
+    }
+
+    /**
+     * The single value packed holds, fails when bytes are left over
+     */
+    static Object unpack(byte[] packed) {
+        MessagePackReader reader = new MessagePackReader(packed);
+        Object value = reader.read();
+        if (reader.in.hasRemaining()) {
+            throw new IllegalStateException(reader.in.remaining() + " bytes after the value");
+        }
+        return value;
+    }
+
+    /**
+     * Format byte of the value read last (for a map or array, of the container)
+     */
+    int lastFormat() {
+        return lastFormat;
+    }
+
+    Object read() {
+        int format = in.get() & 0xff;
+        lastFormat = format;
+        if (format <= 0x7f) {
+            return (long) format;
+        }
+        if (format >= 0xe0) {
+            return (long) (byte) format;
+        }
+        if ((format & 0xf0) == 0x80) {
+            return map(format & 0x0f);
+        }
+        if ((format & 0xf0) == 0x90) {
+            return array(format & 0x0f);
+        }
+        if ((format & 0xe0) == 0xa0) {
+            return string(format & 0x1f);
+        }
+        switch (format) {
+            case 0xc0: return null;
+            case 0xc2: return Boolean.FALSE;
+            case 0xc3: return Boolean.TRUE;
+            case 0xc4: return bytes(in.get() & 0xff);
+            case 0xc5: return bytes(in.getShort() & 0xffff);
+            case 0xc6: return bytes(in.getInt());
+            case 0xca: return in.getFloat();
+            case 0xcb: return in.getDouble();
+            case 0xcc: return (long) (in.get() & 0xff);
+            case 0xcd: return (long) (in.getShort() & 0xffff);
+            case 0xce: return in.getInt() & 0xffffffffL;
+            case 0xcf: return in.getLong();
+            case 0xd0: return (long) in.get();
+            case 0xd1: return (long) in.getShort();
+            case 0xd2: return (long) in.getInt();
+            case 0xd3: return in.getLong();
+            case 0xd9: return string(in.get() & 0xff);
+            case 0xda: return string(in.getShort() & 0xffff);
+            case 0xdb: return string(in.getInt());
+            case 0xdc: return array(in.getShort() & 0xffff);
+            case 0xdd: return array(in.getInt());
+            case 0xde: return map(in.getShort() & 0xffff);
+            case 0xdf: return map(in.getInt());
+            default:
+                throw new IllegalStateException("Unexpected MessagePack format 0x" + Integer.toHexString(format));
+        }
+    }
+
+    private Map<Object, Object> map(int size) {
+        int format = lastFormat;
+        Map<Object, Object> map = new LinkedHashMap<>();
+        for (int i = 0; i < size; i++) {
+            Object key = read();
+            map.put(key, read());
+        }
+        lastFormat = format;
+        return map;
+    }
+
+    private List<Object> array(int size) {
+        int format = lastFormat;
+        List<Object> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(read());
+        }
+        lastFormat = format;
+        return list;
+    }
+
+    private String string(int length) {
+        return new String(bytes(length), StandardCharsets.UTF_8);
+    }
+
+    private byte[] bytes(int length) {
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,207 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   MessagePackWriterTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       MessagePackWriter round trips through MessagePackReader: every int, str, bin, map and array size
+*       boundary, floats, Connect logical types and nested values.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MessagePackWriterTest {
+
+    @Test
+    void integersUseTheSmallestEncoding() {
+        long[][] cases = {
+            {0, 0x00}, {127, 0x7f}, {128, 0xcc}, {255, 0xcc}, {256, 0xcd}, {65535, 0xcd}, {65536, 0xce},
+            {0xffffffffL, 0xce}, {0x100000000L, 0xcf}, {Long.MAX_VALUE, 0xcf},
+            {-1, 0xff}, {-32, 0xe0}, {-33, 0xd0}, {-128, 0xd0}, {-129, 0xd1}, {-32768, 0xd1}, {-32769, 0xd2},
+            {Integer.MIN_VALUE, 0xd2}, {Integer.MIN_VALUE - 1L, 0xd3}, {Long.MIN_VALUE, 0xd3}
+        };
+        for (long[] c : cases) {
+            MessagePackReader reader = new MessagePackReader(pack(c[0], null));
+            assertEquals(c[0], reader.read(), "value " + c[0]);
+            assertEquals((int) c[1], reader.lastFormat(), "format of " + c[0]);
+        }
+        assertEquals(7L, MessagePackReader.unpack(pack(7, null)));
+        assertEquals(-7L, MessagePackReader.unpack(pack((short) -7, null)));
+        assertEquals(100L, MessagePackReader.unpack(pack((byte) 100, null)));
+    }
+
+    @Test
+    void stringsAndBinaryOfEveryHeaderSize() {
+        int[][] strings = {{0, 0xa0}, {31, 0xbf}, {32, 0xd9}, {255, 0xd9}, {256, 0xda}, {65535, 0xda}, {65536, 0xdb}};
+        for (int[] c : strings) {
+            String value = repeat('s', c[0]);
+            MessagePackReader reader = new MessagePackReader(pack(value, null));
+            assertEquals(value, reader.read());
+            assertEquals(c[1], reader.lastFormat(), "str of " + c[0]);
+        }
+
+        String utf8 = "Café € 💳";
+        assertEquals(utf8, MessagePackReader.unpack(pack(utf8, null)));
+        String longUtf8 = repeat('é', 20);
+        MessagePackReader reader = new MessagePackReader(pack(longUtf8, null));
+        assertEquals(longUtf8, reader.read());
+        assertEquals(0xd9, reader.lastFormat(), "header counts UTF-8 bytes, 40");
+        assertEquals("x", MessagePackReader.unpack(pack(new StringBuilder("x"), null)));
+
+        int[][] binaries = {{0, 0xc4}, {255, 0xc4}, {256, 0xc5}, {65535, 0xc5}, {65536, 0xc6}};
+        for (int[] c : binaries) {
+            byte[] value = new byte[c[0]];
+            Arrays.fill(value, (byte) 0x9c);
+            reader = new MessagePackReader(pack(value, null));
+            assertArrayEquals(value, (byte[]) reader.read());
+            assertEquals(c[1], reader.lastFormat(), "bin of " + c[0]);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(new byte[] {9, 1, 2, 3});
+        buffer.get();
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) MessagePackReader.unpack(pack(buffer, null)));
+        assertEquals(1, buffer.position(), "ByteBuffer position untouched");
+    }
+
+    @Test
+    void floatsBooleansAndNull() {
+        assertEquals(1.5f, MessagePackReader.unpack(pack(1.5f, null)));
+        assertEquals(-0.1, MessagePackReader.unpack(pack(-0.1, null)));
+        assertEquals(Double.NaN, MessagePackReader.unpack(pack(Double.NaN, null)));
+        assertEquals(Boolean.TRUE, MessagePackReader.unpack(pack(true, null)));
+        assertEquals(Boolean.FALSE, MessagePackReader.unpack(pack(false, null)));
+        assertNull(MessagePackReader.unpack(pack(null, null)));
+    }
+
+    @Test
+    void decimalsAndLogicalTypes() {
+        assertEquals(710L, MessagePackReader.unpack(pack(new BigDecimal("710"), null)));
+        assertEquals(710L, MessagePackReader.unpack(pack(new BigDecimal("710.00"), null)));
+        assertEquals(7100L, MessagePackReader.unpack(pack(new BigDecimal("7.1E+3"), null)));
+        assertEquals("12.50", MessagePackReader.unpack(pack(new BigDecimal("12.50"), null)));
+        assertEquals("92233720368547758070", MessagePackReader.unpack(pack(new BigDecimal("92233720368547758070"), null)));
+        assertEquals(Long.MIN_VALUE, MessagePackReader.unpack(pack(BigInteger.valueOf(Long.MIN_VALUE), null)));
+
+        java.util.Date instant = new java.util.Date(20000L * 86_400_000L + 3_600_000L);
+        assertEquals(instant.getTime(), MessagePackReader.unpack(pack(instant, Timestamp.SCHEMA)));
+        assertEquals(instant.getTime(), MessagePackReader.unpack(pack(instant, null)));
+        assertEquals(20000L, MessagePackReader.unpack(pack(instant, Date.SCHEMA)));
+        assertEquals(3_600_000L, MessagePackReader.unpack(pack(instant, Time.SCHEMA)));
+        assertEquals(-1L, MessagePackReader.unpack(pack(new java.util.Date(-1L), Date.SCHEMA)), "floor, not truncation");
+    }
+
+    @Test
+    void nestedMapsStructsAndArrays() {
+        Schema inner = SchemaBuilder.struct().field("day", Date.SCHEMA).field("amount", Decimal.schema(2)).build();
+        Schema schema = SchemaBuilder.struct()
+            .field("seq", Schema.INT64_SCHEMA)
+            .field("inner", inner)
+            .field("days", SchemaBuilder.array(Date.SCHEMA).build())
+            .field("missing", Schema.OPTIONAL_STRING_SCHEMA)
+            .build();
+        java.util.Date day = new java.util.Date(3L * 86_400_000L);
+        Struct struct = new Struct(schema)
+            .put("seq", 4691850412L)
+            .put("inner", new Struct(inner).put("day", day).put("amount", new BigDecimal("1.25")))
+            .put("days", Arrays.asList(day, day));
+
+        Map<Object, Object> expectedInner = new LinkedHashMap<>();
+        expectedInner.put("day", 3L);
+        expectedInner.put("amount", "1.25");
+        Map<Object, Object> expected = new LinkedHashMap<>();
+        expected.put("seq", 4691850412L);
+        expected.put("inner", expectedInner);
+        expected.put("days", Arrays.asList(3L, 3L));
+        expected.put("missing", null);
+        assertEquals(expected, MessagePackReader.unpack(pack(struct, schema)));
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("list", Arrays.asList(1, "a", null, Collections.emptyList()));
+        map.put("map", Collections.singletonMap("k", Collections.emptyMap()));
+        Map<Object, Object> expectedMap = new LinkedHashMap<>();
+        expectedMap.put("list", Arrays.asList(1L, "a", null, Collections.emptyList()));
+        expectedMap.put("map", Collections.singletonMap("k", Collections.emptyMap()));
+        assertEquals(expectedMap, MessagePackReader.unpack(pack(map, null)));
+    }
+
+    @Test
+    void mapAndArrayHeaderSizes() {
+        int[][] cases = {{0, 0x80, 0x90}, {15, 0x8f, 0x9f}, {16, 0xde, 0xdc}, {65535, 0xde, 0xdc}, {65536, 0xdf, 0xdd}};
+        for (int[] c : cases) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            List<Object> list = new ArrayList<>();
+            for (int i = 0; i < c[0]; i++) {
+                map.put("k" + i, (long) i);
+                list.add((long) i);
+            }
+            MessagePackReader reader = new MessagePackReader(pack(map, null));
+            assertEquals(map, reader.read());
+            assertEquals(c[1], reader.lastFormat(), "map of " + c[0]);
+
+            reader = new MessagePackReader(pack(list, null));
+            assertEquals(list, reader.read());
+            assertEquals(c[2], reader.lastFormat(), "array of " + c[0]);
+        }
+    }
+
+    @Test
+    void preEncodedNamesAndReuse() {
+        byte[] name = MessagePackWriter.encodeName("cardNumber");
+        assertEquals("cardNumber", MessagePackReader.unpack(name));
+
+        MessagePackWriter writer = MessagePackWriter.local().writeMapHeader(1);
+        writer.writeRaw(name).writeValue("4111", null);
+        assertEquals(Collections.singletonMap("cardNumber", "4111"), MessagePackReader.unpack(writer.toByteArray()));
+
+        // The thread's writer is reset by local(), a large value does not leak into the next
+        MessagePackWriter.local().writeValue(repeat('x', 100_000), null);
+        assertEquals(1L, MessagePackReader.unpack(MessagePackWriter.local().writeValue(1, null).toByteArray()));
+
+        assertThrows(DataException.class, () -> MessagePackWriter.local().writeValue(new Object(), null));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private static byte[] pack(Object value, Schema schema) {
+        return MessagePackWriter.local().writeValue(value, schema).toByteArray();
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
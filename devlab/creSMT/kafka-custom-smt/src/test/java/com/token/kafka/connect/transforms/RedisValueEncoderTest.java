@@ -0,0 +1,312 @@
+/* //////////////////////////////////////////////////////////////////////////////////////////////////////
+*
+*       Project         :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       File            :   RedisValueEncoderTest.java
+*
+*       Description     :   Kafka Connect Source/Sink Connector SMT Function
+*
+*       Created     	:   Feb 2026
+*
+*       copyright       :   Copyright 2026, - G Leonard, georgelza@gmail.com
+*
+*       GIT Repo        :   https://github.com/georgelza/MySQL_via_KafkaConnect_into_Redis_with_some_SMT.git
+*
+*       RedisValueEncoder: the binary layout read back byte by byte as the header documents it, msgpack read
+*       back through MessagePackReader, and the hash field map.
+*
+*///////////////////////////////////////////////////////////////////////////////////////////////////////
+
+package com.token.kafka.connect.transforms;
+
+import org.apache.kafka.common.config.ConfigException;
+import org.apache.kafka.connect.data.Date;
+import org.apache.kafka.connect.data.Decimal;
+import org.apache.kafka.connect.data.Schema;
+import org.apache.kafka.connect.data.SchemaBuilder;
+import org.apache.kafka.connect.data.Struct;
+import org.apache.kafka.connect.data.Time;
+import org.apache.kafka.connect.data.Timestamp;
+import org.apache.kafka.connect.errors.DataException;
+import org.apache.kafka.connect.sink.SinkRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RedisValueEncoderTest {
+
+    private static final long DAY = 86_400_000L;
+
+    // 13 fields, so the null bitmap takes two bytes
+    private static final Schema SCHEMA = SchemaBuilder.struct().name("jnl_acq")
+        .field("flag",      Schema.OPTIONAL_BOOLEAN_SCHEMA)
+        .field("int8",      Schema.OPTIONAL_INT8_SCHEMA)
+        .field("MTI",       Schema.OPTIONAL_INT16_SCHEMA)
+        .field("int32",     Schema.OPTIONAL_INT32_SCHEMA)
+        .field("sequence",  Schema.OPTIONAL_INT64_SCHEMA)
+        .field("ratio",     Schema.OPTIONAL_FLOAT32_SCHEMA)
+        .field("amount",    Schema.OPTIONAL_FLOAT64_SCHEMA)
+        .field("name",      Schema.OPTIONAL_STRING_SCHEMA)
+        .field("raw",       Schema.OPTIONAL_BYTES_SCHEMA)
+        .field("fee",       Decimal.builder(2).optional().build())
+        .field("day",       Date.builder().optional().build())
+        .field("time",      Time.builder().optional().build())
+        .field("createdAt", Timestamp.builder().optional().build())
+        .build();
+
+    private final RedisValueEncoder<SinkRecord> encoder = new RedisValueEncoder<>();
+
+    @AfterEach
+    void tearDown() {
+        encoder.close();
+    }
+
+    @Test
+    void binaryLayoutFromTheStructSchema() {
+        configure("binary", "", "");
+        String name = repeat('n', 100) + repeat('é', 50);
+        byte[] raw = new byte[300];
+        Arrays.fill(raw, (byte) 0xab);
+        Struct struct = new Struct(SCHEMA)
+            .put("int8", (byte) -2)
+            .put("MTI", (short) 1100)
+            .put("int32", -70000)
+            .put("sequence", 4691850412L)
+            .put("ratio", 0.5f)
+            .put("amount", -12.25)
+            .put("name", name)
+            .put("raw", raw)
+            .put("fee", new BigDecimal("-1.5"))
+            .put("day", new java.util.Date(-DAY))
+            .put("time", new java.util.Date(3_723_004L))
+            .put("createdAt", new java.util.Date(1767225600123L));
+
+        ByteBuffer in = ByteBuffer.wrap(encode(struct));
+        assertEquals(RedisValueEncoder.BINARY_VERSION, in.get());
+        assertEquals(0x01, in.get(), "flag null, bit 0 of byte 0");
+        assertEquals(0x00, in.get());
+        assertEquals(-2, in.get());
+        assertEquals(1100, in.getShort());
+        assertEquals(-70000, in.getInt());
+        assertEquals(4691850412L, in.getLong());
+        assertEquals(0.5f, in.getFloat());
+        assertEquals(-12.25, in.getDouble());
+        assertEquals(name, string(in));
+        assertArrayEquals(raw, bytes(in));
+        assertEquals(-150L, in.getLong(), "unscaled at the schema scale");
+        assertEquals(-1, in.getInt(), "days");
+        assertEquals(3_723_004, in.getInt(), "ms of the day");
+        assertEquals(1767225600123L, in.getLong());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void binaryNullBitmapSpansBytes() {
+        configure("binary", "", "");
+        Struct struct = new Struct(SCHEMA).put("flag", true).put("int8", (byte) 1).put("createdAt", new java.util.Date(7L));
+
+        ByteBuffer in = ByteBuffer.wrap(encode(struct));
+        assertEquals(RedisValueEncoder.BINARY_VERSION, in.get());
+        assertEquals((byte) 0xfc, in.get(), "fields 2 to 7 null");
+        assertEquals(0x0f, in.get(), "fields 8 to 11 null, 12 set");
+        assertEquals(1, in.get());
+        assertEquals(1, in.get());
+        assertEquals(7L, in.getLong());
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    void binaryVarintLengths() {
+        configure("binary", "", "name:string");
+        int[][] cases = {{0, 1}, {127, 1}, {128, 2}, {16383, 2}, {16384, 3}};
+        for (int[] c : cases) {
+            ByteBuffer in = ByteBuffer.wrap(encode(Map.of("name", repeat('v', c[0]))));
+            in.position(2);
+            int start = in.position();
+            int length = varint(in);
+            assertEquals(c[0], length);
+            assertEquals(c[1], in.position() - start, "varint bytes for " + c[0]);
+            assertEquals(start + c[1] + c[0], in.limit());
+        }
+        ByteBuffer in = ByteBuffer.wrap(encode(Map.of("name", repeat('v', 300))));
+        assertArrayEquals(new byte[] {1, 0, (byte) 0xac, 0x02}, Arrays.copyOf(in.array(), 4), "300 as LEB128");
+    }
+
+    @Test
+    void binaryLayoutForMaps() {
+        configure("binary", "", "sequence:int64,cardNumber:string,MTI:int16,ok:boolean,createdAt:timestamp,amount:float64");
+        Map<String, Object> value = new HashMap<>();
+        value.put("sequence", 4691850412L);
+        value.put("cardNumber", "4111");
+        value.put("MTI", "1100");
+        value.put("ok", true);
+        value.put("amount", new BigDecimal("2.5"));
+        value.put("ignored", "x");
+
+        ByteBuffer in = ByteBuffer.wrap(encode(value));
+        assertEquals(RedisValueEncoder.BINARY_VERSION, in.get());
+        assertEquals(0x10, in.get(), "createdAt null");
+        assertEquals(4691850412L, in.getLong());
+        assertEquals("4111", string(in));
+        assertEquals(1100, in.getShort());
+        assertEquals(1, in.get());
+        assertEquals(2.5, in.getDouble());
+        assertFalse(in.hasRemaining());
+
+        configure("binary", "", "");
+        assertThrows(DataException.class, () -> encode(value), "schemaless needs binary.layout");
+        assertThrows(ConfigException.class, () -> configure("binary", "", "day:date"));
+        assertThrows(ConfigException.class, () -> configure("binary", "", "day:int128"));
+    }
+
+    @Test
+    void msgpackWithAliases() {
+        configure("msgpack", "sequence:s,cardNumber:c,createdAt:t", "");
+        Schema schema = SchemaBuilder.struct()
+            .field("sequence", Schema.INT64_SCHEMA)
+            .field("cardNumber", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("fee", Decimal.schema(2))
+            .field("day", Date.SCHEMA)
+            .field("createdAt", Timestamp.SCHEMA)
+            .build();
+        Struct struct = new Struct(schema)
+            .put("sequence", 4691850412L)
+            .put("fee", new BigDecimal("12.50"))
+            .put("day", new java.util.Date(20000L * DAY))
+            .put("createdAt", new java.util.Date(1767225600123L));
+
+        Map<Object, Object> expected = new LinkedHashMap<>();
+        expected.put("s", 4691850412L);
+        expected.put("c", null);
+        expected.put("fee", "12.50");
+        expected.put("day", 20000L);
+        expected.put("t", 1767225600123L);
+        assertEquals(expected, MessagePackReader.unpack(encode(struct)));
+        assertEquals(expected, MessagePackReader.unpack(encode(struct)), "cached plan");
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("cardNumber", "4111");
+        map.put("other", 1);
+        Map<Object, Object> expectedMap = new LinkedHashMap<>();
+        expectedMap.put("c", "4111");
+        expectedMap.put("other", 1L);
+        assertEquals(expectedMap, MessagePackReader.unpack(encode(map)));
+    }
+
+    @Test
+    void hashFieldMap() {
+        configure("hash", "cardNumber:c", "");
+        Schema schema = SchemaBuilder.struct()
+            .field("cardNumber", Schema.STRING_SCHEMA)
+            .field("missing", Schema.OPTIONAL_STRING_SCHEMA)
+            .field("fee", Decimal.schema(2))
+            .field("day", Date.SCHEMA)
+            .field("time", Time.SCHEMA)
+            .field("MTI", Schema.INT32_SCHEMA)
+            .field("raw", Schema.BYTES_SCHEMA)
+            .build();
+        Struct struct = new Struct(schema)
+            .put("cardNumber", "4111")
+            .put("fee", new BigDecimal("1E+2").setScale(2))
+            .put("day", new java.util.Date(3 * DAY))
+            .put("time", new java.util.Date(3 * DAY + 5))
+            .put("MTI", 1100)
+            .put("raw", new byte[] {1, 2});
+
+        Map<?, ?> hash = (Map<?, ?>) encoder.apply(record(struct)).value();
+        assertEquals(Arrays.asList("c", "missing", "fee", "day", "time", "MTI", "raw"), Arrays.asList(hash.keySet().toArray()));
+        assertEquals("4111", hash.get("c"));
+        assertEquals("", hash.get("missing"));
+        assertEquals("100.00", hash.get("fee"));
+        assertEquals("3", hash.get("day"));
+        assertEquals("5", hash.get("time"));
+        assertEquals("1100", hash.get("MTI"));
+        assertArrayEquals(new byte[] {1, 2}, (byte[]) hash.get("raw"));
+
+        Map<String, Object> nested = new LinkedHashMap<>();
+        nested.put("cardNumber", 4111L);
+        nested.put("list", Arrays.asList(1, "a"));
+        hash = (Map<?, ?>) encoder.apply(record(nested)).value();
+        assertEquals("4111", hash.get("c"));
+        assertEquals("[1,\"a\"]", hash.get("list"));
+
+        assertTrue(((Map<?, ?>) encoder.apply(record(new Struct(SchemaBuilder.struct().build()))).value()).isEmpty(),
+                   "an empty value stays empty, the sink skips it");
+    }
+
+    @Test
+    void serialisedValuesPassThrough() {
+        configure("msgpack", "", "");
+        for (Object value : new Object[] {"{\"a\":1}", new byte[] {1}, null}) {
+            SinkRecord record = record(value);
+            assertSame(record, encoder.apply(record));
+        }
+        SinkRecord encoded = encoder.apply(new SinkRecord("jnl_acq", 0, null, "k", SCHEMA, new Struct(SCHEMA), 0));
+        assertNull(encoded.valueSchema());
+        assertThrows(DataException.class, () -> encoder.apply(record(42)));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+
+    private void configure(String encoding, String aliases, String layout) {
+        Map<String, String> config = new HashMap<>();
+        config.put(RedisValueEncoder.ENCODING_CONFIG, encoding);
+        config.put(RedisValueEncoder.ALIASES_CONFIG, aliases);
+        config.put(RedisValueEncoder.LAYOUT_CONFIG, layout);
+        encoder.configure(config);
+    }
+
+    private byte[] encode(Object value) {
+        return (byte[]) encoder.apply(record(value)).value();
+    }
+
+    private static SinkRecord record(Object value) {
+        Schema schema = value instanceof Struct ? ((Struct) value).schema() : null;
+        return new SinkRecord("jnl_acq", 0, null, "k", schema, value, 0);
+    }
+
+    /**
+     * Unsigned LEB128: 7 bits per byte, low group first, high bit set on all but the last byte
+     */
+    private static int varint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.get() & 0xff;
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    private static byte[] bytes(ByteBuffer in) {
+        byte[] bytes = new byte[varint(in)];
+        in.get(bytes);
+        return bytes;
+    }
+
+    private static String string(ByteBuffer in) {
+        return new String(bytes(in), StandardCharsets.UTF_8);
+    }
+
+    private static String repeat(char c, int count) {
+        char[] chars = new char[count];
+        Arrays.fill(chars, c);
+        return new String(chars);
+    }
+}
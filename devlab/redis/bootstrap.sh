@@ -0,0 +1,102 @@
+#!/bin/bash
+
+# Builds a new AZ Redis from a MySQL export of JNL_ACQ instead of a Debezium snapshot through Kafka,
+# via RedisBootstrap from the SMT jar:
+#
+# 1. The connector configs, from the connector scripts with PRINT_CONFIG=true (same environment
+#    variables: KAFKA_KEY_FILTER, REDIS_KEY_PATTERN, REDIS_KEY_ENCODING, CONSTANT_KEY, FILTER_FIELDS ...)
+# 2. SHOW MASTER STATUS, then the export in one consistent snapshot transaction (mysql -B, tab separated).
+#    The binlog position is read just before the snapshot, streaming resumed from it replays a few
+#    changes the export already has, harmless: Redis writes are last-write-wins per key
+# 3. RedisBootstrap runs every row through the source and sink transform chains in parallel and writes
+#    the RESP file plus <file>.position
+# 4. redis-cli --pipe loads it (LOAD=n to only write the file)
+
+# --- Configuration ---
+MYSQL="${MYSQL:-mysql}"                     # e.g. "docker compose exec -T mysql mysql"
+MYSQL_HOST="${MYSQL_HOST:-127.0.0.1}"
+MYSQL_PORT="${MYSQL_PORT:-3306}"
+MYSQL_USER="${MYSQL_USER:-tokenuser}"
+MYSQL_PASSWORD="${MYSQL_PASSWORD:-tokenpw}"
+MYSQL_DATABASE="${MYSQL_DATABASE:-tokenise}"
+TABLE_NAME="${TABLE_NAME:-JNL_ACQ}"
+EXPORT_COLUMNS="${EXPORT_COLUMNS:-*}"
+ORDER_BY="${ORDER_BY:-acqJnlSeqNumber}"
+# MySQL 8.4 and later: "SHOW BINARY LOG STATUS"
+BINLOG_STATUS_SQL="${BINLOG_STATUS_SQL:-SHOW MASTER STATUS}"
+
+REDIS_HOST="${REDIS_HOST:-127.0.0.1}"
+REDIS_PORT="${REDIS_PORT:-6379}"
+LOAD="${LOAD:-y}"
+
+WORK_DIR="${WORK_DIR:-./bootstrap-$(date +%Y%m%d-%H%M%S)}"
+THREADS="${THREADS:-$(nproc)}"
+SMT_JAR="${SMT_JAR:-$(dirname "$0")/../creSMT/kafka-custom-smt/target/kafka-connect-token-smt-1.0.0.jar}"
+# The Kafka Connect libs the jar does not shade (connect-api, connect-transforms, kafka-clients): copied by
+# the SMT build, or /usr/share/java/kafka in the Connect image
+CONNECT_LIBS="${CONNECT_LIBS:-$(dirname "$0")/../creSMT/kafka-custom-smt/target/connect-libs}"
+CONNECT_DIR="$(dirname "$0")/../creConnect"
+
+MYSQL_ARGS="-h ${MYSQL_HOST} -P ${MYSQL_PORT} -u ${MYSQL_USER} -p${MYSQL_PASSWORD} --default-character-set=utf8mb4"
+
+set -o pipefail
+mkdir -p "$WORK_DIR" || exit 1
+
+echo "--- Bootstrap Started: $(date) ---"
+echo "Source:  ${MYSQL_HOST}:${MYSQL_PORT} ${MYSQL_DATABASE}.${TABLE_NAME}"
+echo "Target:  ${REDIS_HOST}:${REDIS_PORT}"
+echo "Work:    ${WORK_DIR}"
+
+if ! ls "${CONNECT_LIBS}"/connect-api-*.jar > /dev/null 2>&1; then
+    echo "No connect-api jar in ${CONNECT_LIBS}, build creSMT/kafka-custom-smt (mvn package) or set CONNECT_LIBS"
+    exit 1
+fi
+
+# 1. Connector configs
+PRINT_CONFIG=true bash "${CONNECT_DIR}/jnl_acq_redis_sink-SMT.sh" > "${WORK_DIR}/sink.json" || exit 1
+PRINT_CONFIG=true bash "${CONNECT_DIR}/jnl_acq_mysql_source-SMT.sh" > "${WORK_DIR}/source.json" || exit 1
+
+# Integer columns become numbers, as Debezium publishes them, the rest stay strings
+NUMERIC_COLUMNS=$($MYSQL $MYSQL_ARGS -N -B -e "SELECT GROUP_CONCAT(COLUMN_NAME) FROM information_schema.COLUMNS
+    WHERE TABLE_SCHEMA = '${MYSQL_DATABASE}' AND TABLE_NAME = '${TABLE_NAME}'
+    AND DATA_TYPE IN ('tinyint', 'smallint', 'mediumint', 'int', 'bigint')") || exit 1
+
+# 2. Binlog position, then the snapshot, one session: the first two lines are the status
+SNAPSHOT_MS=$(date +%s%3N)
+$MYSQL $MYSQL_ARGS -B -e "${BINLOG_STATUS_SQL};
+    START TRANSACTION WITH CONSISTENT SNAPSHOT;
+    SELECT ${EXPORT_COLUMNS} FROM ${MYSQL_DATABASE}.${TABLE_NAME} ORDER BY ${ORDER_BY};
+    COMMIT;" > "${WORK_DIR}/export.raw" || exit 1
+
+if ! head -1 "${WORK_DIR}/export.raw" | grep -q "^File"; then
+    echo "No binlog status, is the binlog enabled? (Debezium needs it)"
+    exit 1
+fi
+BINLOG_FILE=$(sed -n 2p "${WORK_DIR}/export.raw" | cut -f1)
+BINLOG_POS=$(sed -n 2p "${WORK_DIR}/export.raw" | cut -f2)
+GTID_SET=$(sed -n 2p "${WORK_DIR}/export.raw" | cut -f5)
+tail -n +3 "${WORK_DIR}/export.raw" > "${WORK_DIR}/export.tsv" && rm "${WORK_DIR}/export.raw"
+echo "Export:  $(($(wc -l < "${WORK_DIR}/export.tsv") - 1)) rows at ${BINLOG_FILE}:${BINLOG_POS}"
+
+# 3. RESP file
+java -cp "${SMT_JAR}:${CONNECT_LIBS}/*" com.token.kafka.connect.redis.RedisBootstrap \
+    "${WORK_DIR}/sink.json" "${WORK_DIR}/export.tsv" "${WORK_DIR}/bootstrap.resp" \
+    --source "${WORK_DIR}/source.json" \
+    --numeric "${NUMERIC_COLUMNS}" \
+    --threads "${THREADS}" \
+    --position "${BINLOG_FILE}:${BINLOG_POS}" \
+    --gtid "${GTID_SET}" \
+    --snapshot-ms "${SNAPSHOT_MS}" || exit 1
+
+# 4. Load
+if [[ "$LOAD" == "y" || "$LOAD" == "Y" ]]; then
+    REDIS_AUTH=""
+    if [ ! -z "$REDIS_PASSWORD" ]; then
+        REDIS_AUTH="-a ${REDIS_PASSWORD} --no-auth-warning"
+    fi
+    redis-cli -h "${REDIS_HOST}" -p "${REDIS_PORT}" ${REDIS_AUTH} --pipe < "${WORK_DIR}/bootstrap.resp" || exit 1
+fi
+
+echo "----------------------------"
+echo "Position: ${WORK_DIR}/bootstrap.resp.position"
+echo "Start the sink connector reading from before $(date -d @$((SNAPSHOT_MS / 1000))) (or the source from ${BINLOG_FILE}:${BINLOG_POS})"
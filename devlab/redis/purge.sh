@@ -1,81 +1,42 @@
 #!/bin/bash
 
-# --- Configuration ---
-REDIS_HOST="${REDIS_HOST:-127.0.0.1}"
-REDIS_PORT="${REDIS_PORT:-6379}"
-DB_INDEX="${DB_INDEX:-0}" 
-KEY_PATTERN="${KEY_PATTERN:-card:*}" 
-HOURS_OLD="${HOURS_OLD:-24}"
-AUTO_APPROVE="${AUTO_APPROVE:-n}" 
-
-# Record Start Time
-START_TIME=$(date +%s)
-START_STR=$(date)
-
-# Calculate threshold for BSD/macOS Date
-THRESHOLD_DATE=$(date -v-"${HOURS_OLD}"H +%s)
-
-echo "--- Execution Started: $START_STR ---"
-echo "Target:   $REDIS_HOST:$REDIS_PORT (DB $DB_INDEX)"
-echo "Pattern: '$KEY_PATTERN' | Threshold: $HOURS_OLD hours"
-
-# 1. Scan and Identify
-DELETE_LIST=()
-# We use -n to ensure we are in the correct DB index
-KEYS=$(redis-cli -h "$REDIS_HOST" -p "$REDIS_PORT" -n "$DB_INDEX" keys "$KEY_PATTERN")
+# Ages out Redis records older than HOURS_OLD hours, via RedisPurge from the SMT jar.
+#
+# - EXPIRY_INDEX set: walks the sorted set RedisSinkConnector keeps with redis.expiry.index
+#                     (ZRANGEBYSCORE + pipelined UNLINK), cost O(expired keys)
+# - KEY_PATTERN set:  SCAN + pipelined GET of createdAt for keys written without an index, also
+#                     backfills EXPIRY_INDEX when both are set, hashes are read by their createdAt field
+#
+# Check and delete run in one Lua script per batch, a key the sink rewrote in between is kept.
+#
+# Each removed key takes its conditional write version key (<key>${VERSION_SUFFIX}) along, empty for none.
+#
+# Neither KEYS nor per key redis-cli/jq processes are used, Redis is never blocked.
 
-for KEY in $KEYS; do
-    VALUE=$(redis-cli -h "$REDIS_HOST" -p "$REDIS_PORT" -n "$DB_INDEX" GET "$KEY")
-    CREATED_AT=$(echo "$VALUE" | jq -r '.createdAt // empty')
-    
-    if [ -n "$CREATED_AT" ]; then
-        # BSD Date conversion (stripping milliseconds)
-        CREATED_TIME=$(date -j -f "%Y-%m-%dT%H:%M:%S" "${CREATED_AT%.*}" +%s 2>/dev/null)
-        
-        if [ $? -eq 0 ] && [ "$CREATED_TIME" -lt "$THRESHOLD_DATE" ]; then
-            DELETE_LIST+=("$KEY")
-        fi
-    fi
-done
-
-TOTAL_TO_DELETE=${#DELETE_LIST[@]}
-
-if [ "$TOTAL_TO_DELETE" -eq 0 ]; then
-    echo "No keys found matching the criteria."
-    exit 0
-fi
-
-# 2. Permission Request
-echo "----------------------------"
-echo "Found $TOTAL_TO_DELETE keys to remove."
+# --- Configuration ---
+export REDIS_HOST="${REDIS_HOST:-127.0.0.1}"
+export REDIS_PORT="${REDIS_PORT:-6379}"
+export DB_INDEX="${DB_INDEX:-0}"
+export KEY_PATTERN="${KEY_PATTERN-card:*}"
+export EXPIRY_INDEX="${EXPIRY_INDEX:-}"
+export HOURS_OLD="${HOURS_OLD:-24}"
+export VERSION_SUFFIX="${VERSION_SUFFIX-:ver}"
+AUTO_APPROVE="${AUTO_APPROVE:-n}"
+SMT_JAR="${SMT_JAR:-$(dirname "$0")/../creSMT/kafka-custom-smt/target/kafka-connect-token-smt-1.0.0.jar}"
+
+PURGE="java -cp ${SMT_JAR} com.token.kafka.connect.redis.RedisPurge"
 
 if [[ "$AUTO_APPROVE" != "y" && "$AUTO_APPROVE" != "Y" ]]; then
+    # Count first, then ask
+    $PURGE --dry-run "$@" || exit $?
     read -p "Proceed with deletion? (y/N): " CONFIRM
-    # Default to 'n' if user just hits enter
     CONFIRM="${CONFIRM:-n}"
+    if [[ "$CONFIRM" != "y" && "$CONFIRM" != "Y" ]]; then
+        echo "Aborted by user."
+        exit 0
+    fi
 else
-    CONFIRM="y"
     echo "Auto-approve enabled via variable."
 fi
 
-if [[ "$CONFIRM" != "y" && "$CONFIRM" != "Y" ]]; then
-    echo "Aborted by user."
-    exit 0
-fi
-
-# 3. Perform Deletion (Optimized with xargs)
-echo "Deleting... please wait."
-if [ "$TOTAL_TO_DELETE" -gt 0 ]; then
-    # Passing keys to xargs allows deleting in batches rather than one-by-one
-    printf "%s\n" "${DELETE_LIST[@]}" | xargs -n 100 redis-cli -h "$REDIS_HOST" -p "$REDIS_PORT" -n "$DB_INDEX" DEL > /dev/null
-fi
-
-# 4. Record End Time and Duration
-END_TIME=$(date +%s)
-END_STR=$(date)
-DURATION=$((END_TIME - START_TIME))
-
-echo "----------------------------"
-echo "Execution Ended: $END_STR"
-echo "Total Keys Deleted: $TOTAL_TO_DELETE"
-echo "Total Run Time: ${DURATION} seconds"
\ No newline at end of file
+$PURGE "$@"